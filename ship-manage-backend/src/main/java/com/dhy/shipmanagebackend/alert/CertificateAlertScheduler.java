@@ -0,0 +1,482 @@
+package com.dhy.shipmanagebackend.alert;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.dhy.shipmanagebackend.entity.Ship;
+import com.dhy.shipmanagebackend.entity.ShipCertificate;
+import com.dhy.shipmanagebackend.entity.User;
+import com.dhy.shipmanagebackend.mapper.ShipCertificateMapper;
+import com.dhy.shipmanagebackend.mapper.ShipMapper;
+import com.dhy.shipmanagebackend.mapper.UserMapper;
+import com.dhy.shipmanagebackend.service.MessageService;
+import com.dhy.shipmanagebackend.utils.TransactionUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 证书到期提醒调度器
+ * 启动时加载一次未来的到期节点，放入按触发时间排序的优先队列，单个定时任务只在队首到点时唤醒，不轮询数据库。
+ * 每个证书同一时刻只有一个待触发节点：进入提醒期（与状态任务一致，到期前 expiringDays - 1 天零点）
+ * 触发后再排入到期节点（到期次日零点）。证书增改删时通过 Redis 广播，各节点重新加载该证书。
+ *
+ * 多节点下每个节点都持有完整队列，触发时以 Redis SET NX 认领，每条提醒只由一个节点发出；
+ * 认领的同时把提醒写入 Redis 中的待发送列表，重启或发送失败都不会丢失，任一节点的合并发送都会处理。
+ * 同一船舶的提醒先合并一段时间，每天最多发送一条消息，当天已发过的留到次日。
+ */
+@Component
+public class CertificateAlertScheduler implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CertificateAlertScheduler.class);
+
+    /**
+     * 证书变更广播频道，消息体为证书ID
+     */
+    public static final String SYNC_CHANNEL = "certificate-alert:sync";
+
+    private static final String ALERT_CLAIM_PREFIX = "cert:alert:";
+    private static final String SHIP_DAY_PREFIX = "cert:alert:ship:";
+    private static final String PENDING_KEY = "cert:alert:pending";
+    private static final String SENT_SUFFIX = ":sent:";
+
+    enum Kind {
+        EXPIRING, // 进入提醒期
+        EXPIRED   // 已过期
+    }
+
+    /**
+     * 待触发节点；队列中被替换的旧节点不会删除，出队时与 current 比对后丢弃
+     */
+    record Deadline(long certificateId, long shipId, String certificateName, LocalDate expiryDate,
+                    Kind kind, long fireAt) {
+    }
+
+    @Autowired
+    private ShipCertificateMapper certificateMapper;
+
+    @Autowired
+    private ShipMapper shipMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisScript<Long> certAlertClaimScript;
+
+    @Value("${certificate.expiring-days:30}")
+    private int expiringDays;
+
+    /**
+     * 停机期间错过的节点，在多少天内仍补发
+     */
+    @Value("${certificate.alert.grace-days:7}")
+    private int graceDays;
+
+    /**
+     * 同一船舶的提醒合并等待时间
+     */
+    @Value("${certificate.alert.coalesce-seconds:60}")
+    private long coalesceSeconds;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final PriorityQueue<Deadline> queue = new PriorityQueue<>(Comparator.comparingLong(Deadline::fireAt));
+    private final Map<Long, Deadline> current = new HashMap<>();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "certificate-alert");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> armed;
+    private long armedAt = -1;
+    private ScheduledFuture<?> flushTask;
+
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder claimed = new LongAdder();
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * 启动时加载到期日期在补发期限内及以后的证书（只取提醒需要的列，走 idx_expiry_date）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDate from = LocalDate.now().minusDays(graceDays + 1L);
+        List<ShipCertificate> certificates = certificateMapper.selectAlertCandidates(from);
+        synchronized (this) {
+            certificates.forEach(certificate -> plan(certificate, false));
+            arm();
+        }
+        logger.info("证书到期提醒已加载 {} 个待触发节点", current.size());
+        // 上次停机前未发出的提醒
+        try {
+            if (stringRedisTemplate.opsForHash().size(PENDING_KEY) > 0) {
+                scheduleFlush(TimeUnit.SECONDS.toMillis(coalesceSeconds));
+            }
+        } catch (Exception e) {
+            logger.warn("读取待发送的证书提醒失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 证书新增或修改后调用（事务提交后生效），本节点立即重排并通知其他节点
+     */
+    public void certificateChanged(Long certificateId) {
+        TransactionUtil.afterCommit(() -> {
+            reload(certificateId);
+            broadcast(certificateId);
+        });
+    }
+
+    /**
+     * 证书删除后调用
+     */
+    public void certificatesRemoved(Collection<Long> certificateIds) {
+        TransactionUtil.afterCommit(() -> {
+            synchronized (this) {
+                certificateIds.forEach(current::remove);
+                arm();
+            }
+            certificateIds.forEach(this::broadcast);
+        });
+    }
+
+    private void broadcast(Long certificateId) {
+        try {
+            stringRedisTemplate.convertAndSend(SYNC_CHANNEL, String.valueOf(certificateId));
+        } catch (Exception e) {
+            logger.warn("证书变更广播失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            reload(Long.valueOf(body));
+        } catch (NumberFormatException e) {
+            logger.warn("忽略无效的证书变更消息: {}", body);
+        }
+    }
+
+    private void reload(Long certificateId) {
+        ShipCertificate certificate = certificateMapper.selectById(certificateId);
+        synchronized (this) {
+            Deadline previous = current.remove(certificateId);
+            if (certificate != null) {
+                // 新增或到期日期有变化时，已在提醒期内的证书立即提醒
+                boolean changed = previous == null || !previous.expiryDate().equals(certificate.getExpiryDate());
+                plan(certificate, changed);
+            }
+            arm();
+        }
+    }
+
+    /**
+     * 计算证书的下一个节点并入队；错过不超过 graceDays 的节点立即触发（认领键保证不重复发送）
+     * @param changed 证书刚新增或改了到期日期：已进入提醒期超过 graceDays 的也立即触发进入提醒期的提醒
+     */
+    private void plan(ShipCertificate certificate, boolean changed) {
+        LocalDate expiryDate = certificate.getExpiryDate();
+        if (expiryDate == null || certificate.getShipId() == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate enterDate = expiryDate.minusDays(expiringDays - 1L);
+        LocalDate expiredDate = expiryDate.plusDays(1);
+        if (!enterDate.isBefore(today.minusDays(graceDays)) && expiredDate.isAfter(today)) {
+            enqueue(certificate, Kind.EXPIRING, enterDate);
+        } else if (changed && expiredDate.isAfter(today)) {
+            enqueue(certificate, Kind.EXPIRING, today);
+        } else if (!expiredDate.isBefore(today.minusDays(graceDays))) {
+            enqueue(certificate, Kind.EXPIRED, expiredDate);
+        }
+    }
+
+    private void enqueue(ShipCertificate certificate, Kind kind, LocalDate date) {
+        Deadline deadline = new Deadline(certificate.getId(), certificate.getShipId(), certificate.getCertificateName(),
+                certificate.getExpiryDate(), kind, date.atStartOfDay(zone).toInstant().toEpochMilli());
+        current.put(deadline.certificateId(), deadline);
+        queue.add(deadline);
+    }
+
+    /**
+     * 让定时任务在队首节点到点时唤醒（调用方持有锁）
+     */
+    private void arm() {
+        // 证书反复修改会在队列中留下旧节点，积累过多时整体清理一次
+        if (queue.size() > 2 * current.size() + 1024) {
+            queue.removeIf(deadline -> current.get(deadline.certificateId()) != deadline);
+        }
+        Deadline head;
+        while ((head = queue.peek()) != null && current.get(head.certificateId()) != head) {
+            queue.poll();
+        }
+        if (head == null) {
+            if (armed != null) {
+                armed.cancel(false);
+                armed = null;
+                armedAt = -1;
+            }
+            return;
+        }
+        if (armed != null && armedAt == head.fireAt()) {
+            return;
+        }
+        if (armed != null) {
+            armed.cancel(false);
+        }
+        long delay = Math.max(0, head.fireAt() - System.currentTimeMillis());
+        armed = executor.schedule(this::tick, delay, TimeUnit.MILLISECONDS);
+        armedAt = head.fireAt();
+    }
+
+    private void tick() {
+        List<Deadline> due = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            armed = null;
+            armedAt = -1;
+            Deadline head;
+            while ((head = queue.peek()) != null && head.fireAt() <= now) {
+                queue.poll();
+                if (current.get(head.certificateId()) == head) {
+                    current.remove(head.certificateId());
+                    due.add(head);
+                }
+            }
+        }
+        List<Deadline> failed = new ArrayList<>();
+        for (Deadline deadline : due) {
+            try {
+                fire(deadline);
+            } catch (Exception e) {
+                failures.increment();
+                failed.add(deadline);
+                logger.error("证书到期提醒处理失败(证书 {}): {}", deadline.certificateId(), e.getMessage(), e);
+            }
+        }
+        synchronized (this) {
+            // 认领失败（如 Redis 不可用）的节点稍后重试；期间证书被修改或删除的以新状态为准
+            long retryAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(coalesceSeconds);
+            for (Deadline deadline : failed) {
+                if (!current.containsKey(deadline.certificateId())) {
+                    Deadline retry = new Deadline(deadline.certificateId(), deadline.shipId(),
+                            deadline.certificateName(), deadline.expiryDate(), deadline.kind(), retryAt);
+                    current.put(retry.certificateId(), retry);
+                    queue.add(retry);
+                }
+            }
+            // 进入提醒期后排入到期节点
+            for (Deadline deadline : due) {
+                if (deadline.kind() == Kind.EXPIRING && !failed.contains(deadline)
+                        && !current.containsKey(deadline.certificateId())) {
+                    ShipCertificate certificate = new ShipCertificate();
+                    certificate.setId(deadline.certificateId());
+                    certificate.setShipId(deadline.shipId());
+                    certificate.setCertificateName(deadline.certificateName());
+                    certificate.setExpiryDate(deadline.expiryDate());
+                    enqueue(certificate, Kind.EXPIRED, deadline.expiryDate().plusDays(1));
+                }
+            }
+            arm();
+        }
+    }
+
+    /**
+     * 节点到点：认领并写入待发送列表
+     */
+    private void fire(Deadline deadline) {
+        fired.increment();
+        String key = ALERT_CLAIM_PREFIX + deadline.certificateId() + ":" + deadline.kind() + ":" + deadline.expiryDate();
+        String field = deadline.shipId() + ":" + deadline.certificateId() + ":" + deadline.kind() + ":" + deadline.expiryDate();
+        Long ok = stringRedisTemplate.execute(certAlertClaimScript, Arrays.asList(key, PENDING_KEY),
+                String.valueOf(Duration.ofDays(graceDays + 2L).toSeconds()), field,
+                deadline.certificateName() != null ? deadline.certificateName() : "");
+        if (ok == null || ok != 1) {
+            return;
+        }
+        claimed.increment();
+        scheduleFlush(TimeUnit.SECONDS.toMillis(coalesceSeconds));
+    }
+
+    /**
+     * 安排合并发送；已安排的更早则保持不变
+     */
+    private synchronized void scheduleFlush(long delayMillis) {
+        if (flushTask != null) {
+            if (flushTask.getDelay(TimeUnit.MILLISECONDS) <= delayMillis) {
+                return;
+            }
+            flushTask.cancel(false);
+        }
+        flushTask = executor.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 按船舶合并发送待发送列表；当天已给该船舶发过提醒的，留到次日零点后再发
+     * 单艘船舶发送失败时释放当天的发送标记，提醒保留在列表中稍后重试；
+     * 已送达的管理员按消息内容记在 {dayKey}:sent:{hash} 集合中，重试时跳过
+     */
+    private void flush() {
+        synchronized (this) {
+            flushTask = null;
+        }
+        LocalDate today = LocalDate.now();
+        boolean deferredAny = false;
+        boolean failed = false;
+        try {
+            // 字段格式 {shipId}:{certificateId}:{kind}:{expiryDate}，值为证书名称
+            Map<Long, Map<String, Deadline>> batch = new LinkedHashMap<>();
+            for (Map.Entry<Object, Object> entry : stringRedisTemplate.opsForHash().entries(PENDING_KEY).entrySet()) {
+                String field = String.valueOf(entry.getKey());
+                String[] parts = field.split(":", 4);
+                try {
+                    Deadline deadline = new Deadline(Long.parseLong(parts[1]), Long.parseLong(parts[0]),
+                            String.valueOf(entry.getValue()), LocalDate.parse(parts[3]), Kind.valueOf(parts[2]), 0);
+                    // 按字段排序，重试时同一批提醒拼出的内容不变
+                    batch.computeIfAbsent(deadline.shipId(), k -> new TreeMap<>()).put(field, deadline);
+                } catch (RuntimeException e) {
+                    logger.warn("丢弃无效的待发送证书提醒: {}", field);
+                    stringRedisTemplate.opsForHash().delete(PENDING_KEY, field);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            Map<Long, String> shipNames = shipMapper.selectBatchIds(batch.keySet()).stream()
+                    .collect(Collectors.toMap(Ship::getId, Ship::getName, (a, b) -> a));
+            List<Long> admins = null;
+            for (Map.Entry<Long, Map<String, Deadline>> entry : batch.entrySet()) {
+                Long shipId = entry.getKey();
+                String dayKey = SHIP_DAY_PREFIX + shipId + ":" + today;
+                boolean dayClaimed = false;
+                try {
+                    dayClaimed = Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                            .setIfAbsent(dayKey, "1", Duration.ofDays(2)));
+                    if (!dayClaimed) {
+                        deferred.increment();
+                        deferredAny = true;
+                        continue;
+                    }
+                    if (admins == null) {
+                        admins = adminIds();
+                    }
+                    String shipName = shipNames.getOrDefault(shipId, "#" + shipId);
+                    String content = entry.getValue().values().stream()
+                            .map(d -> d.kind() == Kind.EXPIRED
+                                    ? "· " + d.certificateName() + " 已于 " + d.expiryDate() + " 到期"
+                                    : "· " + d.certificateName() + " 将于 " + d.expiryDate() + " 到期，请及时办理续期")
+                            .collect(Collectors.joining("\n"));
+                    String title = "船舶「" + shipName + "」证书到期提醒";
+                    // 重试期间合并进新提醒时内容不同，按新内容重新发给所有管理员
+                    String sentKey = dayKey + SENT_SUFFIX + Integer.toHexString(content.hashCode());
+                    for (Long adminId : admins) {
+                        if (Boolean.TRUE.equals(stringRedisTemplate.opsForSet().isMember(sentKey, adminId.toString()))) {
+                            continue;
+                        }
+                        messageService.sendSystemMessage(adminId, title, content, "CERTIFICATE", shipId, "SHIP");
+                        stringRedisTemplate.opsForSet().add(sentKey, adminId.toString());
+                        stringRedisTemplate.expire(sentKey, Duration.ofDays(2));
+                    }
+                    messages.increment();
+                    // 发送期间可能有同一船舶的新提醒写入，只移除已发送的字段
+                    stringRedisTemplate.opsForHash().delete(PENDING_KEY, entry.getValue().keySet().toArray());
+                } catch (Exception e) {
+                    failures.increment();
+                    failed = true;
+                    logger.error("证书到期提醒发送失败(船舶 {}): {}", shipId, e.getMessage(), e);
+                    if (dayClaimed) {
+                        releaseDay(dayKey);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            failures.increment();
+            failed = true;
+            logger.error("证书到期提醒合并发送失败: {}", e.getMessage(), e);
+        } finally {
+            // 失败的稍后重试；当天已发过的船舶在次日零点后再发
+            if (failed) {
+                scheduleFlush(TimeUnit.SECONDS.toMillis(coalesceSeconds));
+            } else if (deferredAny) {
+                scheduleFlush(today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli()
+                        - System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(coalesceSeconds));
+            }
+        }
+    }
+
+    private void releaseDay(String dayKey) {
+        try {
+            stringRedisTemplate.delete(dayKey);
+        } catch (Exception e) {
+            logger.warn("释放船舶当天提醒标记失败: {}", e.getMessage());
+        }
+    }
+
+    private List<Long> adminIds() {
+        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(User::getId).eq(User::getRole, "ADMIN");
+        return userMapper.selectList(wrapper).stream().map(User::getId).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提醒统计
+     */
+    public synchronized Map<String, Object> stats() {
+        Deadline next = current.values().stream().min(Comparator.comparingLong(Deadline::fireAt)).orElse(null);
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("scheduled", current.size());
+        stats.put("queueSize", queue.size());
+        stats.put("nextFireAt", next != null ? next.fireAt() : null);
+        stats.put("fired", fired.sum());
+        stats.put("claimed", claimed.sum());
+        stats.put("messages", messages.sum());
+        stats.put("deferred", deferred.sum());
+        stats.put("failures", failures.sum());
+        return stats;
+    }
+}
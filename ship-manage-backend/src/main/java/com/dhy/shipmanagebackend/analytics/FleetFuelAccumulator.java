@@ -0,0 +1,103 @@
+package com.dhy.shipmanagebackend.analytics;
+
+import com.dhy.shipmanagebackend.dto.FuelAnalyticsRow;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 船队燃油分析累加器
+ * 每个维度值对应一个 long[3]：{数量×100, 费用(分), 记录数}，逐行只做整数加法。
+ * 占用内存只与船舶/港口/供应商/燃油类型的种类数有关，与记录数无关；
+ * 港口、供应商为自由文本，种类超过上限后归入「其他」。非线程安全，每个分区各用一个，最后合并。
+ */
+public class FleetFuelAccumulator {
+
+    public static final String OTHER = "其他";
+    public static final String UNKNOWN = "未填写";
+
+    /**
+     * long[3] 中各指标的下标
+     */
+    public static final int QUANTITY = 0;
+    public static final int COST = 1;
+    public static final int COUNT = 2;
+
+    private final int maxKeys;
+
+    private final Map<Long, long[]> ships = new HashMap<>();
+    private final Map<String, long[]> ports = new HashMap<>();
+    private final Map<String, long[]> suppliers = new HashMap<>();
+    private final Map<String, long[]> fuelTypes = new HashMap<>();
+    private final long[] total = new long[3];
+
+    public FleetFuelAccumulator(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public void add(FuelAnalyticsRow row) {
+        long quantity = row.getQuantityScaled();
+        long cost = row.getCostCents();
+        add(total, quantity, cost, 1);
+        add(ships.computeIfAbsent(row.getShipId(), k -> new long[3]), quantity, cost, 1);
+        add(slot(ports, row.getPort()), quantity, cost, 1);
+        add(slot(suppliers, row.getSupplier()), quantity, cost, 1);
+        add(slot(fuelTypes, row.getFuelType()), quantity, cost, 1);
+    }
+
+    /**
+     * 合并另一个分区的结果（合并后 other 不再使用）
+     */
+    public FleetFuelAccumulator merge(FleetFuelAccumulator other) {
+        add(total, other.total[QUANTITY], other.total[COST], other.total[COUNT]);
+        other.ships.forEach((key, value) -> add(ships.computeIfAbsent(key, k -> new long[3]), value));
+        mergeInto(ports, other.ports);
+        mergeInto(suppliers, other.suppliers);
+        mergeInto(fuelTypes, other.fuelTypes);
+        return this;
+    }
+
+    private void mergeInto(Map<String, long[]> target, Map<String, long[]> source) {
+        source.forEach((key, value) -> add(slot(target, key), value));
+    }
+
+    private long[] slot(Map<String, long[]> map, String key) {
+        String name = key == null || key.isBlank() ? UNKNOWN : key;
+        long[] slot = map.get(name);
+        if (slot == null) {
+            name = map.size() < maxKeys ? name : OTHER;
+            slot = map.computeIfAbsent(name, k -> new long[3]);
+        }
+        return slot;
+    }
+
+    private static void add(long[] slot, long[] value) {
+        add(slot, value[QUANTITY], value[COST], value[COUNT]);
+    }
+
+    private static void add(long[] slot, long quantity, long cost, long count) {
+        slot[QUANTITY] += quantity;
+        slot[COST] += cost;
+        slot[COUNT] += count;
+    }
+
+    public long[] getTotal() {
+        return total;
+    }
+
+    public Map<Long, long[]> getShips() {
+        return ships;
+    }
+
+    public Map<String, long[]> getPorts() {
+        return ports;
+    }
+
+    public Map<String, long[]> getSuppliers() {
+        return suppliers;
+    }
+
+    public Map<String, long[]> getFuelTypes() {
+        return fuelTypes;
+    }
+}
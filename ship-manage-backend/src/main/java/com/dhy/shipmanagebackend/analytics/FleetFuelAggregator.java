@@ -0,0 +1,68 @@
+package com.dhy.shipmanagebackend.analytics;
+
+import com.dhy.shipmanagebackend.dto.FuelAnalyticsRow;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * 船队燃油分析的并行聚合
+ * 按船舶ID列表递归二分，每个叶子分区（不超过 partitionSize 艘船）独立扫描数据并累加，
+ * 再沿 fork-join 树两两合并。数据来源由 PartitionSource 提供，便于脱离数据库做基准测试。
+ */
+public class FleetFuelAggregator {
+
+    /**
+     * 分区数据来源：把指定船舶的记录逐条交给 sink
+     */
+    @FunctionalInterface
+    public interface PartitionSource {
+        void scan(List<Long> shipIds, Consumer<FuelAnalyticsRow> sink);
+    }
+
+    private final ForkJoinPool pool;
+    private final int partitionSize;
+    private final int maxKeys;
+
+    public FleetFuelAggregator(ForkJoinPool pool, int partitionSize, int maxKeys) {
+        this.pool = pool;
+        this.partitionSize = Math.max(1, partitionSize);
+        this.maxKeys = maxKeys;
+    }
+
+    public FleetFuelAccumulator aggregate(List<Long> shipIds, PartitionSource source) {
+        if (shipIds.isEmpty()) {
+            return new FleetFuelAccumulator(maxKeys);
+        }
+        return pool.invoke(new PartitionTask(shipIds, source));
+    }
+
+    private class PartitionTask extends RecursiveTask<FleetFuelAccumulator> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Long> shipIds;
+        private final PartitionSource source;
+
+        PartitionTask(List<Long> shipIds, PartitionSource source) {
+            this.shipIds = shipIds;
+            this.source = source;
+        }
+
+        @Override
+        protected FleetFuelAccumulator compute() {
+            if (shipIds.size() <= partitionSize) {
+                FleetFuelAccumulator accumulator = new FleetFuelAccumulator(maxKeys);
+                source.scan(shipIds, accumulator::add);
+                return accumulator;
+            }
+            int middle = shipIds.size() / 2;
+            PartitionTask left = new PartitionTask(shipIds.subList(0, middle), source);
+            PartitionTask right = new PartitionTask(shipIds.subList(middle, shipIds.size()), source);
+            left.fork();
+            FleetFuelAccumulator result = right.compute();
+            return result.merge(left.join());
+        }
+    }
+}
@@ -0,0 +1,574 @@
+package com.dhy.shipmanagebackend.aspect;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 操作日志请求参数序列化器
+ * 边生成边计数，达到长度上限立即停止；文件/流类参数只记录摘要；敏感字段打码。
+ * 每个方法的参数处理方式只解析一次并缓存。
+ */
+@Component
+public class ArgumentSerializer {
+
+    private static final String MASK = "******";
+    private static final String ELLIPSIS = "...";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${operation-log.params-max-length:2000}")
+    private int maxLength;
+
+    private Set<String> maskFields;
+
+    private final Map<Method, ArgKind[]> plans = new ConcurrentHashMap<>();
+
+    /**
+     * 参数处理方式
+     */
+    enum ArgKind {
+        SKIP,     // 不记录（request/response/校验结果等框架对象）
+        SUMMARY,  // 只记录摘要（文件、流、字节数组）
+        MASK,     // 整个参数打码（如 password 参数）
+        JSON      // 正常序列化
+    }
+
+    @Value("${operation-log.mask-fields:password,oldPassword,newPassword,rePassword,confirmPassword,code,token,secret}")
+    public void setMaskFields(String fields) {
+        this.maskFields = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(s -> s.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * 将方法参数序列化为 JSON 数组，超出长度上限时截断并以 ... 结尾
+     */
+    public String serialize(Method method, String[] paramNames, Object[] args) {
+        ArgKind[] plan = plans.computeIfAbsent(method, m -> buildPlan(m, paramNames));
+        LimitedWriter writer = new LimitedWriter(maxLength);
+        try (JsonGenerator generator = new MaskingGenerator(objectMapper.getFactory().createGenerator(writer), writer)) {
+            generator.writeStartArray();
+            for (int i = 0; i < args.length; i++) {
+                ArgKind kind = i < plan.length ? plan[i] : ArgKind.JSON;
+                Object arg = args[i];
+                if (kind == ArgKind.JSON && arg != null) {
+                    // 声明类型为 Object 等宽泛类型时按实际类型再判断一次
+                    kind = kindOf(arg.getClass(), null);
+                }
+                switch (kind) {
+                    case SKIP:
+                        break;
+                    case SUMMARY:
+                        generator.writeString(summarize(arg));
+                        break;
+                    case MASK:
+                        generator.writeString(MASK);
+                        break;
+                    default:
+                        objectMapper.writeValue(generator, arg);
+                        break;
+                }
+            }
+            generator.writeEndArray();
+        } catch (LimitReachedException e) {
+            return writer.toString() + ELLIPSIS;
+        } catch (IOException e) {
+            // 个别序列化器会把中断异常再包装一层
+            if (writer.remaining() <= 0) {
+                return writer.toString() + ELLIPSIS;
+            }
+            return "参数序列化失败";
+        }
+        return writer.toString();
+    }
+
+    private ArgKind[] buildPlan(Method method, String[] paramNames) {
+        Class<?>[] types = method.getParameterTypes();
+        ArgKind[] plan = new ArgKind[types.length];
+        for (int i = 0; i < types.length; i++) {
+            String name = paramNames != null && i < paramNames.length ? paramNames[i] : null;
+            plan[i] = kindOf(types[i], name);
+        }
+        return plan;
+    }
+
+    private ArgKind kindOf(Class<?> type, String paramName) {
+        if (ServletRequest.class.isAssignableFrom(type)
+                || ServletResponse.class.isAssignableFrom(type)
+                || Errors.class.isAssignableFrom(type)) {
+            return ArgKind.SKIP;
+        }
+        if (MultipartFile.class.isAssignableFrom(type)
+                || MultipartFile[].class.isAssignableFrom(type)
+                || InputStreamSource.class.isAssignableFrom(type)
+                || InputStream.class.isAssignableFrom(type)
+                || OutputStream.class.isAssignableFrom(type)
+                || Reader.class.isAssignableFrom(type)
+                || Writer.class.isAssignableFrom(type)
+                || byte[].class == type) {
+            return ArgKind.SUMMARY;
+        }
+        if (paramName != null && isSensitive(paramName)) {
+            return ArgKind.MASK;
+        }
+        return ArgKind.JSON;
+    }
+
+    private boolean isSensitive(String name) {
+        return maskFields.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+    private String summarize(Object arg) {
+        if (arg == null) {
+            return null;
+        }
+        if (arg instanceof MultipartFile file) {
+            return "[file " + file.getOriginalFilename() + ", " + file.getSize() + " bytes]";
+        }
+        if (arg instanceof MultipartFile[] files) {
+            return "[" + files.length + " files, "
+                    + Arrays.stream(files).mapToLong(MultipartFile::getSize).sum() + " bytes]";
+        }
+        if (arg instanceof byte[] bytes) {
+            return "[binary " + bytes.length + " bytes]";
+        }
+        return "[" + arg.getClass().getSimpleName() + "]";
+    }
+
+    /**
+     * 达到长度上限时抛出，用于中断 JSON 生成
+     */
+    private static class LimitReachedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        LimitReachedException() {
+            super(null, null);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /**
+     * 有长度上限的 Writer，写满即抛出 LimitReachedException
+     */
+    private static class LimitedWriter extends Writer {
+        private final StringBuilder buffer;
+        private final int limit;
+
+        LimitedWriter(int limit) {
+            this.limit = limit;
+            this.buffer = new StringBuilder(Math.min(limit, 256));
+        }
+
+        int remaining() {
+            return limit - buffer.length();
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            int room = remaining();
+            if (len > room) {
+                buffer.append(cbuf, off, room);
+                throw new LimitReachedException();
+            }
+            buffer.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            int room = remaining();
+            if (len > room) {
+                buffer.append(str, off, off + room);
+                throw new LimitReachedException();
+            }
+            buffer.append(str, off, off + len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+    }
+
+    /**
+     * 生成器包装：敏感字段值打码；超长字符串按剩余额度截断；
+     * 已生成内容（含生成器内部缓冲）超过上限时立即停止
+     * 敏感字段后的任何值（含 null、布尔、各类数字、原始值）都会消费打码标记；
+     * 值为对象或数组时，其中的所有标量一律打码。
+     */
+    private class MaskingGenerator extends JsonGeneratorDelegate {
+        private final LimitedWriter writer;
+        private boolean maskNext;
+        // 处于敏感字段的对象/数组内部时的嵌套层数
+        private int maskedDepth;
+
+        MaskingGenerator(JsonGenerator delegate, LimitedWriter writer) {
+            super(delegate, false);
+            this.writer = writer;
+        }
+
+        private void checkLimit() throws IOException {
+            if (delegate.getOutputBuffered() >= writer.remaining()) {
+                delegate.flush();
+            }
+        }
+
+        /**
+         * 写标量值前调用：需要打码时写出掩码并返回 true，调用方不再写原值
+         */
+        private boolean masked() throws IOException {
+            boolean mask = maskNext || maskedDepth > 0;
+            maskNext = false;
+            checkLimit();
+            if (mask) {
+                super.writeString(MASK);
+            }
+            return mask;
+        }
+
+        /**
+         * 开始对象/数组前调用
+         */
+        private void enterContainer() throws IOException {
+            if (maskedDepth > 0) {
+                maskedDepth++;
+            } else if (maskNext) {
+                maskedDepth = 1;
+            }
+            maskNext = false;
+            checkLimit();
+        }
+
+        @Override
+        public void writeFieldName(String name) throws IOException {
+            maskNext = isSensitive(name);
+            checkLimit();
+            super.writeFieldName(name);
+        }
+
+        @Override
+        public void writeFieldName(SerializableString name) throws IOException {
+            maskNext = isSensitive(name.getValue());
+            checkLimit();
+            super.writeFieldName(name);
+        }
+
+        @Override
+        public void writeString(String text) throws IOException {
+            if (masked()) {
+                return;
+            }
+            int room = writer.remaining() - delegate.getOutputBuffered();
+            if (text != null && text.length() > room) {
+                super.writeString(text.substring(0, Math.max(0, room)));
+                delegate.flush();
+                throw new LimitReachedException();
+            }
+            super.writeString(text);
+        }
+
+        @Override
+        public void writeString(char[] text, int offset, int len) throws IOException {
+            writeString(new String(text, offset, len));
+        }
+
+        @Override
+        public void writeString(SerializableString text) throws IOException {
+            writeString(text.getValue());
+        }
+
+        @Override
+        public void writeString(Reader reader, int len) throws IOException {
+            if (!masked()) {
+                super.writeString(reader, len);
+            }
+        }
+
+        @Override
+        public void writeRawUTF8String(byte[] text, int offset, int length) throws IOException {
+            if (!masked()) {
+                super.writeRawUTF8String(text, offset, length);
+            }
+        }
+
+        @Override
+        public void writeUTF8String(byte[] text, int offset, int length) throws IOException {
+            if (!masked()) {
+                super.writeUTF8String(text, offset, length);
+            }
+        }
+
+        @Override
+        public void writeNull() throws IOException {
+            if (!masked()) {
+                super.writeNull();
+            }
+        }
+
+        @Override
+        public void writeBoolean(boolean state) throws IOException {
+            if (!masked()) {
+                super.writeBoolean(state);
+            }
+        }
+
+        @Override
+        public void writeNumber(short v) throws IOException {
+            if (!masked()) {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(int v) throws IOException {
+            if (!masked()) {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(long v) throws IOException {
+            if (!masked()) {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(BigInteger v) throws IOException {
+            if (!masked()) {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(double v) throws IOException {
+            if (!masked()) {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(float v) throws IOException {
+            if (!masked()) {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(BigDecimal v) throws IOException {
+            if (!masked()) {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(String encodedValue) throws IOException {
+            if (!masked()) {
+                super.writeNumber(encodedValue);
+            }
+        }
+
+        @Override
+        public void writeNumber(char[] encodedValueBuffer, int offset, int len) throws IOException {
+            if (!masked()) {
+                super.writeNumber(encodedValueBuffer, offset, len);
+            }
+        }
+
+        @Override
+        public void writeBinary(Base64Variant b64variant, byte[] data, int offset, int len) throws IOException {
+            if (!masked()) {
+                super.writeBinary(b64variant, data, offset, len);
+            }
+        }
+
+        @Override
+        public int writeBinary(Base64Variant b64variant, InputStream data, int dataLength) throws IOException {
+            if (masked()) {
+                return 0;
+            }
+            return super.writeBinary(b64variant, data, dataLength);
+        }
+
+        @Override
+        public void writeRawValue(String text) throws IOException {
+            if (!masked()) {
+                super.writeRawValue(text);
+            }
+        }
+
+        @Override
+        public void writeRawValue(String text, int offset, int len) throws IOException {
+            if (!masked()) {
+                super.writeRawValue(text, offset, len);
+            }
+        }
+
+        @Override
+        public void writeRawValue(char[] text, int offset, int len) throws IOException {
+            if (!masked()) {
+                super.writeRawValue(text, offset, len);
+            }
+        }
+
+        @Override
+        public void writeRawValue(SerializableString text) throws IOException {
+            if (!masked()) {
+                super.writeRawValue(text);
+            }
+        }
+
+        /**
+         * 父类会直接写到被包装的生成器上，绕过打码；这里改为经由本生成器序列化
+         */
+        @Override
+        public void writeObject(Object pojo) throws IOException {
+            if (pojo == null) {
+                writeNull();
+            } else {
+                objectMapper.writeValue(this, pojo);
+            }
+        }
+
+        @Override
+        public void writeTree(TreeNode tree) throws IOException {
+            if (tree == null) {
+                writeNull();
+            } else {
+                objectMapper.writeTree(this, tree);
+            }
+        }
+
+        // 基本类型数组父类会整体写到被包装的生成器上，这里逐个元素写出
+        @Override
+        public void writeArray(int[] array, int offset, int length) throws IOException {
+            writeStartArray(array, length);
+            for (int i = offset; i < offset + length; i++) {
+                writeNumber(array[i]);
+            }
+            writeEndArray();
+        }
+
+        @Override
+        public void writeArray(long[] array, int offset, int length) throws IOException {
+            writeStartArray(array, length);
+            for (int i = offset; i < offset + length; i++) {
+                writeNumber(array[i]);
+            }
+            writeEndArray();
+        }
+
+        @Override
+        public void writeArray(double[] array, int offset, int length) throws IOException {
+            writeStartArray(array, length);
+            for (int i = offset; i < offset + length; i++) {
+                writeNumber(array[i]);
+            }
+            writeEndArray();
+        }
+
+        @Override
+        public void writeArray(String[] array, int offset, int length) throws IOException {
+            writeStartArray(array, length);
+            for (int i = offset; i < offset + length; i++) {
+                writeString(array[i]);
+            }
+            writeEndArray();
+        }
+
+        @Override
+        public void writeStartObject() throws IOException {
+            enterContainer();
+            super.writeStartObject();
+        }
+
+        @Override
+        public void writeStartObject(Object forValue) throws IOException {
+            enterContainer();
+            super.writeStartObject(forValue);
+        }
+
+        @Override
+        public void writeStartObject(Object forValue, int size) throws IOException {
+            enterContainer();
+            super.writeStartObject(forValue, size);
+        }
+
+        @Override
+        public void writeStartArray() throws IOException {
+            enterContainer();
+            super.writeStartArray();
+        }
+
+        @Override
+        public void writeStartArray(Object forValue) throws IOException {
+            enterContainer();
+            super.writeStartArray(forValue);
+        }
+
+        @Override
+        public void writeStartArray(Object forValue, int size) throws IOException {
+            enterContainer();
+            super.writeStartArray(forValue, size);
+        }
+
+        @Override
+        public void writeEndObject() throws IOException {
+            if (maskedDepth > 0) {
+                maskedDepth--;
+            }
+            checkLimit();
+            super.writeEndObject();
+        }
+
+        @Override
+        public void writeEndArray() throws IOException {
+            if (maskedDepth > 0) {
+                maskedDepth--;
+            }
+            checkLimit();
+            super.writeEndArray();
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package com.dhy.shipmanagebackend.aspect;
 
 import com.dhy.shipmanagebackend.annotation.OperLog;
+import com.dhy.shipmanagebackend.entity.LoginUser;
 import com.dhy.shipmanagebackend.entity.OperationLog;
 import com.dhy.shipmanagebackend.service.OperationLogService;
+import com.dhy.shipmanagebackend.utils.IpUtil;
 import com.dhy.shipmanagebackend.utils.ThreadLocalUtil;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -17,7 +18,6 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.lang.reflect.Method;
-import java.util.Map;
 
 /**
  * 操作日志切面
@@ -31,7 +31,7 @@ public class OperationLogAspect {
     private OperationLogService operationLogService;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ArgumentSerializer argumentSerializer;
 
     /**
      * 切点：所有带有@OperLog注解的方法
@@ -63,10 +63,10 @@ public class OperationLogAspect {
         // 获取当前用户信息
         String username = "匿名用户";
         try {
-            Map<String, Object> userInfo = ThreadLocalUtil.get();
-            if (userInfo != null) {
-                log.setUserId(((Number) userInfo.get("id")).longValue());
-                username = (String) userInfo.get("username");
+            LoginUser loginUser = ThreadLocalUtil.get();
+            if (loginUser != null) {
+                log.setUserId(loginUser.getId());
+                username = loginUser.getUsername();
                 log.setUsername(username);
             }
         } catch (Exception e) {
@@ -93,18 +93,14 @@ public class OperationLogAspect {
             log.setUserAgent(userAgent);
 
             // 设置IP地址
-            log.setIpAddress(getClientIp(request));
+            log.setIpAddress(IpUtil.getClientIp(request));
 
             // 获取请求参数
             try {
                 Object[] args = joinPoint.getArgs();
                 if (args != null && args.length > 0) {
-                    String params = objectMapper.writeValueAsString(args);
-                    // 限制参数长度，避免存储过大
-                    if (params.length() > 2000) {
-                        params = params.substring(0, 2000) + "...";
-                    }
-                    log.setRequestParams(params);
+                    // 边序列化边限制长度，避免大参数完整生成后再截断
+                    log.setRequestParams(argumentSerializer.serialize(method, signature.getParameterNames(), args));
                 }
             } catch (Exception e) {
                 log.setRequestParams("参数序列化失败");
@@ -134,31 +130,4 @@ public class OperationLogAspect {
 
         return result;
     }
-
-    /**
-     * 获取客户端真实IP
-     */
-    private String getClientIp(HttpServletRequest request) {
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_CLIENT_IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_X_FORWARDED_FOR");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-        // 多个代理时，取第一个IP
-        if (ip != null && ip.contains(",")) {
-            ip = ip.split(",")[0].trim();
-        }
-        return ip;
-    }
 }
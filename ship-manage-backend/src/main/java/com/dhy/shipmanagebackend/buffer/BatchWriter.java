@@ -0,0 +1,445 @@
+package com.dhy.shipmanagebackend.buffer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 有界缓冲 + 单写线程的批量写入器
+ * 业务线程只负责入队，写线程按「攒满 batchSize 条」或「距首条入队超过 flushInterval」两者先到者批量落库。
+ * 缓冲区写满时按 OverflowPolicy 处理；close() 时会把剩余数据全部刷完。
+ *
+ * @param <T> 数据类型
+ */
+public class BatchWriter<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchWriter.class);
+
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final OverflowPolicy policy;
+    private final long blockTimeoutMillis;
+    private final Consumer<List<T>> flusher;
+    private final Thread writer;
+
+    // 溢写配置（仅 SPILL 策略使用）
+    private Path spillFile;
+    private ObjectMapper objectMapper;
+    private Class<T> type;
+    private final ReentrantLock spillLock = new ReentrantLock();
+    // 溢写文件是否可能有待回放的数据；回放前把溢写文件改名为 .replaying，由写线程逐批流式读取
+    private volatile boolean spillPending;
+    private Path replayFile;
+    // 已回放的行数，每批处理完写入 .replaying.offset，重启或读取失败后从这里继续
+    private Path offsetFile;
+    private BufferedReader replayReader;
+    private long replayedLines;
+    private long replayed;
+
+    private volatile boolean running = true;
+    // 正在执行的提交调用数，关闭时等它们结束后再做最后一次刷盘
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    /**
+     * @param name                写线程名称
+     * @param capacity            缓冲区容量
+     * @param batchSize           单批最大条数
+     * @param flushIntervalMillis 最长攒批时间
+     * @param policy              写满策略
+     * @param blockTimeoutMillis  BLOCK 策略下单次提交（含批量提交）的最长等待时间
+     * @param flusher             批量落库逻辑（在写线程中执行）
+     */
+    public BatchWriter(String name, int capacity, int batchSize, long flushIntervalMillis,
+                       OverflowPolicy policy, long blockTimeoutMillis, Consumer<List<T>> flusher) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.policy = policy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        this.flusher = flusher;
+        this.writer = new Thread(this::runLoop, name);
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * 配置溢写文件，SPILL 策略必须调用
+     */
+    public BatchWriter<T> spillTo(Path spillFile, ObjectMapper objectMapper, Class<T> type) {
+        this.spillFile = spillFile;
+        this.replayFile = spillFile.resolveSibling(spillFile.getFileName() + ".replaying");
+        this.offsetFile = spillFile.resolveSibling(spillFile.getFileName() + ".replaying.offset");
+        this.objectMapper = objectMapper;
+        this.type = type;
+        return this;
+    }
+
+    public BatchWriter<T> start() {
+        if (policy == OverflowPolicy.SPILL && spillFile == null) {
+            throw new IllegalStateException(name + ": SPILL 策略需要先配置溢写文件");
+        }
+        // 上次运行遗留的溢写文件在启动后回放
+        spillPending = spillFile != null;
+        writer.start();
+        return this;
+    }
+
+    /**
+     * 提交一条数据
+     * @return 是否进入缓冲区或溢写文件（false 表示被丢弃）
+     */
+    public boolean submit(T item) {
+        return submitAll(List.of(item)) == 1;
+    }
+
+    /**
+     * 批量提交，BLOCK 策略下整批共用一个等待期限，超时后剩余数据直接丢弃，不再逐条等待
+     * 关闭后提交的数据全部计为丢弃
+     * @return 进入缓冲区或溢写文件的条数，其余被丢弃
+     */
+    public int submitAll(List<T> items) {
+        submitted.add(items.size());
+        inflight.incrementAndGet();
+        try {
+            if (!running) {
+                dropped.add(items.size());
+                return 0;
+            }
+            return offerAll(items);
+        } finally {
+            inflight.decrementAndGet();
+        }
+    }
+
+    private int offerAll(List<T> items) {
+        int accepted = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            if (queue.offer(item)) {
+                accepted++;
+                continue;
+            }
+            if (policy == OverflowPolicy.SPILL) {
+                // 缓冲区已满，剩余部分一次性溢写
+                List<T> rest = items.subList(i, items.size());
+                if (spill(rest)) {
+                    return accepted + rest.size();
+                }
+                break;
+            }
+            if (policy == OverflowPolicy.BLOCK) {
+                long remaining = deadline - System.nanoTime();
+                try {
+                    if (remaining > 0 && queue.offer(item, remaining, TimeUnit.NANOSECONDS)) {
+                        accepted++;
+                        continue;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                break;
+            }
+            // DROP：丢弃这一条，后续的仍可能进入缓冲区
+        }
+        // BLOCK 超时或溢写失败时，剩余部分全部计为丢弃
+        dropped.add(items.size() - accepted);
+        return accepted;
+    }
+
+    private void runLoop() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    // 空闲时连续回放当前溢写文件，有新数据入队就让出
+                    while (queue.isEmpty() && replayBatch()) {
+                        // 继续下一批
+                    }
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                // 持续有负载时每次正常刷盘后穿插回放一批，溢写文件不会一直积压
+                replayBatch();
+            } catch (InterruptedException e) {
+                // 关闭流程不依赖中断，忽略后继续排空
+                logger.debug("{} 写线程被中断", name);
+            } catch (Exception e) {
+                logger.error("{} 写线程异常: {}", name, e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+        // 关闭后等待与 close() 同时进行的提交结束，把它们放进缓冲区的数据一并刷完
+        while (inflight.get() > 0 || !queue.isEmpty()) {
+            queue.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            } else {
+                flush(batch);
+                batch.clear();
+            }
+        }
+        // 关闭前回放完当前文件，再回放关闭前溢写的文件；这一轮失败重新溢写的留到下次启动
+        for (int pass = 0; pass < 2; pass++) {
+            while (replayBatch()) {
+                // 继续下一批
+            }
+        }
+    }
+
+    private void flush(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            flusher.accept(batch);
+            written.add(batch.size());
+        } catch (Exception e) {
+            flushFailures.increment();
+            logger.error("{} 批量写入失败（{} 条）: {}", name, batch.size(), e.getMessage());
+            if (policy != OverflowPolicy.SPILL || !spill(batch)) {
+                dropped.add(batch.size());
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushes.increment();
+            totalFlushNanos.add(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private boolean spill(List<T> items) {
+        if (spillFile == null) {
+            return false;
+        }
+        spillLock.lock();
+        try {
+            if (spillFile.getParent() != null) {
+                Files.createDirectories(spillFile.getParent());
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (T item : items) {
+                    out.write(objectMapper.writeValueAsString(item));
+                    out.newLine();
+                }
+            }
+            spilled.add(items.size());
+            spillPending = true;
+            return true;
+        } catch (IOException e) {
+            logger.error("{} 溢写文件失败: {}", name, e.getMessage());
+            return false;
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * 从溢写文件回放一批（仅在写线程中调用）
+     * @return 当前文件是否还有剩余；读完或没有待回放的文件时返回 false
+     * （回放失败重新溢写的数据进入新文件，留到下一轮，数据库不可用时不会空转）
+     */
+    private boolean replayBatch() {
+        if (replayReader == null && !openReplay()) {
+            return false;
+        }
+        List<T> batch = new ArrayList<>(batchSize);
+        boolean finished = false;
+        try {
+            while (batch.size() < batchSize) {
+                String line = replayReader.readLine();
+                if (line == null) {
+                    finished = true;
+                    break;
+                }
+                replayedLines++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, type));
+                } catch (IOException e) {
+                    dropped.increment();
+                }
+            }
+        } catch (IOException e) {
+            // 读取失败时保留文件，下次重新打开后跳过已处理的行继续回放
+            logger.error("{} 读取溢写文件失败: {}", name, e.getMessage());
+            closeReplay(false);
+            spillPending = true;
+            return false;
+        }
+        // 回放失败的批次会按 SPILL 策略写入新的溢写文件，不影响正在读取的 .replaying 文件
+        flush(batch);
+        replayed += batch.size();
+        if (!finished) {
+            saveOffset();
+        } else {
+            closeReplay(true);
+            logger.info("{} 已回放溢写文件 {} 条", name, replayed);
+            replayed = 0;
+        }
+        return !finished;
+    }
+
+    /**
+     * 打开待回放的文件：优先续上次未回放完的 .replaying 文件（跳过已回放的行），否则把溢写文件改名后打开
+     */
+    private boolean openReplay() {
+        if (!spillPending) {
+            return false;
+        }
+        try {
+            if (!Files.exists(replayFile)) {
+                spillLock.lock();
+                try {
+                    spillPending = false;
+                    if (!Files.exists(spillFile)) {
+                        return false;
+                    }
+                    // 新文件从头回放；改名后新的溢写追加到新文件，回放期间无需持锁
+                    Files.deleteIfExists(offsetFile);
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    spillLock.unlock();
+                }
+            }
+            replayReader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8);
+            replayedLines = loadOffset();
+            for (long i = 0; i < replayedLines; i++) {
+                if (replayReader.readLine() == null) {
+                    break;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            logger.error("{} 打开溢写文件失败: {}", name, e.getMessage());
+            spillPending = true;
+            return false;
+        }
+    }
+
+    private long loadOffset() {
+        try {
+            return Files.exists(offsetFile) ? Long.parseLong(Files.readString(offsetFile).trim()) : 0;
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("{} 读取回放位置失败，从头回放: {}", name, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 先写临时文件再改名，崩溃时不会留下写了一半的位置
+     */
+    private void saveOffset() {
+        Path temp = offsetFile.resolveSibling(offsetFile.getFileName() + ".tmp");
+        try {
+            Files.writeString(temp, String.valueOf(replayedLines), StandardCharsets.UTF_8);
+            Files.move(temp, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("{} 保存回放位置失败: {}", name, e.getMessage());
+        }
+    }
+
+    private void closeReplay(boolean delete) {
+        try {
+            replayReader.close();
+            if (delete) {
+                // 崩溃时残留的位置文件会在下次改名新文件前删除
+                Files.deleteIfExists(replayFile);
+                Files.deleteIfExists(offsetFile);
+                replayedLines = 0;
+            }
+        } catch (IOException e) {
+            logger.error("{} 关闭溢写文件失败: {}", name, e.getMessage());
+        } finally {
+            replayReader = null;
+        }
+    }
+
+    /**
+     * 停止接收并刷完剩余数据
+     */
+    public void close(long timeoutMillis) {
+        running = false;
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            logger.warn("{} 关闭超时，缓冲区剩余 {} 条", name, queue.size());
+        }
+    }
+
+    /**
+     * 运行统计
+     */
+    public Map<String, Object> stats() {
+        long flushCount = flushes.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("depth", queue.size());
+        stats.put("capacity", queue.size() + queue.remainingCapacity());
+        stats.put("policy", policy.name());
+        stats.put("submitted", submitted.sum());
+        stats.put("written", written.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("spilled", spilled.sum());
+        stats.put("flushes", flushCount);
+        stats.put("flushFailures", flushFailures.sum());
+        stats.put("avgFlushMillis", flushCount == 0 ? 0.0 : totalFlushNanos.sum() / 1_000_000.0 / flushCount);
+        stats.put("maxFlushMillis", maxFlushNanos.get() / 1_000_000.0);
+        return stats;
+    }
+}
@@ -0,0 +1,19 @@
+package com.dhy.shipmanagebackend.buffer;
+
+/**
+ * 缓冲区写满时的处理策略
+ */
+public enum OverflowPolicy {
+    /**
+     * 直接丢弃新数据（计入 dropped）
+     */
+    DROP,
+    /**
+     * 阻塞调用方等待空位，超过 blockTimeout 仍无空位则丢弃
+     */
+    BLOCK,
+    /**
+     * 溢写到本地文件，写线程空闲时回放入库
+     */
+    SPILL
+}
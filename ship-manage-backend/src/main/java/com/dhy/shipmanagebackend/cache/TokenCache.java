@@ -0,0 +1,116 @@
+package com.dhy.shipmanagebackend.cache;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.dhy.shipmanagebackend.entity.LoginUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token 本地近端缓存（一级缓存）
+ * 位于 Redis（二级）之前，缓存 token → 解析后的登录用户，命中时省去一次 Redis GET 和 HMAC 校验。
+ * 退出登录 / 吊销时通过 Redis 发布订阅广播失效消息，所有节点同步剔除。
+ */
+@Component
+public class TokenCache implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenCache.class);
+
+    /**
+     * token 失效广播频道，消息体为 token 本身
+     */
+    public static final String INVALIDATE_CHANNEL = "token:invalidate";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final LRUCache<String, LoginUser> cache;
+
+    /**
+     * 本地缓存的最长存活时间，兜底防止错过失效广播后长期放行
+     */
+    private final long maxTtlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public TokenCache(@Value("${token-cache.max-size:10000}") int maxSize,
+                      @Value("${token-cache.max-ttl-seconds:300}") long maxTtlSeconds) {
+        this.cache = CacheUtil.newLRUCache(maxSize);
+        this.maxTtlMillis = maxTtlSeconds * 1000;
+    }
+
+    /**
+     * 读取本地缓存的登录用户，未命中返回 null
+     */
+    public LoginUser get(String token) {
+        LoginUser user = cache.get(token, false);
+        if (user != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return user;
+    }
+
+    /**
+     * 写入本地缓存，存活时间取 JWT 剩余有效期与 maxTtl 的较小值
+     */
+    public void put(String token, LoginUser user) {
+        long ttl = maxTtlMillis;
+        if (user.getExpiresAt() != null) {
+            ttl = Math.min(ttl, user.getExpiresAt().getTime() - System.currentTimeMillis());
+        }
+        if (ttl > 0) {
+            cache.put(token, user, ttl);
+        }
+    }
+
+    /**
+     * 吊销 token：先剔除本节点，再广播给其他节点
+     */
+    public void invalidate(String token) {
+        evict(token);
+        stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, token);
+    }
+
+    private void evict(String token) {
+        cache.remove(token);
+        invalidations.increment();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String token = new String(message.getBody(), StandardCharsets.UTF_8);
+        evict(token);
+        logger.debug("收到 token 失效广播，已剔除本地缓存");
+    }
+
+    /**
+     * 缓存统计：hits 即节省的 Redis 往返次数
+     */
+    public Map<String, Object> stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", cache.size());
+        stats.put("capacity", cache.capacity());
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+}
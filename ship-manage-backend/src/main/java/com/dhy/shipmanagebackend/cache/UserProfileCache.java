@@ -0,0 +1,148 @@
+package com.dhy.shipmanagebackend.cache;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.dhy.shipmanagebackend.entity.User;
+import com.dhy.shipmanagebackend.entity.UserVO;
+import com.dhy.shipmanagebackend.mapper.UserMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 用户资料本地缓存（userId → UserVO，不含密码）
+ * 供消息发送者信息填充、个人信息和管理员查看用户详情共用；未命中的 ID 合并成一次批量查询。
+ * 资料变更时通过 Redis 发布订阅广播失效消息，所有节点同步剔除。
+ * 返回的对象为缓存内共享实例，调用方不要修改。
+ */
+@Component
+public class UserProfileCache implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserProfileCache.class);
+
+    /**
+     * 用户资料失效广播频道，消息体为用户ID
+     */
+    public static final String INVALIDATE_CHANNEL = "user-profile:invalidate";
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final LRUCache<Long, UserVO> cache;
+
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public UserProfileCache(@Value("${user-profile-cache.max-size:5000}") int maxSize,
+                            @Value("${user-profile-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = CacheUtil.newLRUCache(maxSize);
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * 获取单个用户资料，不存在返回 null
+     */
+    public UserVO get(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return getAll(List.of(userId)).get(userId);
+    }
+
+    /**
+     * 批量获取用户资料，缓存未命中的部分一次查库
+     * @return userId → UserVO，不存在的用户不在结果中
+     */
+    public Map<Long, UserVO> getAll(Collection<Long> userIds) {
+        Map<Long, UserVO> result = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : userIds) {
+            if (id == null || result.containsKey(id)) {
+                continue;
+            }
+            UserVO profile = cache.get(id, false);
+            if (profile != null) {
+                hits.increment();
+                result.put(id, profile);
+            } else {
+                misses.increment();
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            loads.increment();
+            List<User> users = userMapper.selectBatchIds(new ArrayList<>(missing));
+            for (User user : users) {
+                UserVO profile = new UserVO();
+                BeanUtils.copyProperties(user, profile);
+                cache.put(user.getId(), profile, ttlMillis);
+                result.put(user.getId(), profile);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 用户资料变更：先剔除本节点，再广播给其他节点
+     */
+    public void invalidate(Long userId) {
+        evict(userId);
+        stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, String.valueOf(userId));
+    }
+
+    private void evict(Long userId) {
+        cache.remove(userId);
+        invalidations.increment();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            evict(Long.valueOf(body));
+        } catch (NumberFormatException e) {
+            logger.warn("忽略无效的用户资料失效消息: {}", body);
+        }
+    }
+
+    /**
+     * 缓存统计：loads 为实际查库次数（每次最多一条 SQL）
+     */
+    public Map<String, Object> stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", cache.size());
+        stats.put("capacity", cache.capacity());
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("loads", loads.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+}
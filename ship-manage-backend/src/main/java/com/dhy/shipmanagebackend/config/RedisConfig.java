@@ -0,0 +1,145 @@
+package com.dhy.shipmanagebackend.config;
+
+import com.dhy.shipmanagebackend.alert.CertificateAlertScheduler;
+import com.dhy.shipmanagebackend.cache.TokenCache;
+import com.dhy.shipmanagebackend.cache.UserProfileCache;
+import com.dhy.shipmanagebackend.push.MessagePushHub;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@Configuration
+public class RedisConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
+
+    /**
+     * Redis 发布订阅监听容器
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       TokenCache tokenCache,
+                                                                       UserProfileCache userProfileCache,
+                                                                       MessagePushHub messagePushHub,
+                                                                       CertificateAlertScheduler certificateAlertScheduler) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        // token 失效广播
+        container.addMessageListener(tokenCache, new ChannelTopic(TokenCache.INVALIDATE_CHANNEL));
+        // 用户资料失效广播
+        container.addMessageListener(userProfileCache, new ChannelTopic(UserProfileCache.INVALIDATE_CHANNEL));
+        // 消息推送事件
+        container.addMessageListener(messagePushHub, new ChannelTopic(MessagePushHub.PUSH_CHANNEL));
+        // 证书变更广播（到期提醒重排）
+        container.addMessageListener(certificateAlertScheduler, new ChannelTopic(CertificateAlertScheduler.SYNC_CHANNEL));
+        return container;
+    }
+
+    // ==================== Lua 脚本 ====================
+
+    /**
+     * 签发邮箱验证码（含限流）
+     */
+    @Bean
+    public RedisScript<Long> issueVerifyCodeScript() {
+        return script("lua/issue_verify_code.lua");
+    }
+
+    /**
+     * 校验并消费邮箱验证码
+     */
+    @Bean
+    public RedisScript<Long> consumeVerifyCodeScript() {
+        return script("lua/consume_verify_code.lua");
+    }
+
+    /**
+     * 读取未读消息数
+     */
+    @Bean
+    public RedisScript<Long> unreadGetScript() {
+        return script("lua/unread_get.lua");
+    }
+
+    /**
+     * 增减未读消息数（计数存在时）
+     */
+    @Bean
+    public RedisScript<Long> unreadIncrScript() {
+        return script("lua/unread_incr.lua");
+    }
+
+    /**
+     * 推进广播总数（只增不减）
+     */
+    @Bean
+    public RedisScript<Long> unreadBroadcastAdvanceScript() {
+        return script("lua/unread_broadcast_advance.lua");
+    }
+
+    /**
+     * 校对任务批量写回未读计数（查库期间计数未变的）
+     */
+    @Bean
+    public RedisScript<Long> unreadReconcileScript() {
+        return script("lua/unread_reconcile.lua");
+    }
+
+    /**
+     * 认领证书到期提醒并放入待发送列表
+     */
+    @Bean
+    public RedisScript<Long> certAlertClaimScript() {
+        return script("lua/cert_alert_claim.lua");
+    }
+
+    /**
+     * 释放分布式锁（校验持有者）
+     */
+    @Bean
+    public RedisScript<Long> releaseLockScript() {
+        return script("lua/release_lock.lua");
+    }
+
+    /**
+     * 启动时 SCRIPT LOAD 预加载全部脚本，运行期直接 EVALSHA 命中
+     */
+    @Bean
+    public ApplicationRunner redisScriptPreloader(StringRedisTemplate stringRedisTemplate, List<RedisScript<?>> scripts) {
+        return args -> {
+            try {
+                stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+                    for (RedisScript<?> script : scripts) {
+                        connection.scriptingCommands()
+                                .scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+                    }
+                    return null;
+                });
+                logger.info("已预加载 {} 个 Redis Lua 脚本", scripts.size());
+            } catch (Exception e) {
+                // 预加载失败不影响启动，执行时会自动回退到 EVAL
+                logger.warn("Redis Lua 脚本预加载失败: {}", e.getMessage());
+            }
+        };
+    }
+
+    private static RedisScript<Long> script(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(path));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
@@ -2,10 +2,14 @@ package com.dhy.shipmanagebackend.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.dhy.shipmanagebackend.annotation.OperLog;
+import com.dhy.shipmanagebackend.cache.UserProfileCache;
+import com.dhy.shipmanagebackend.entity.LoginUser;
 import com.dhy.shipmanagebackend.entity.Result;
 import com.dhy.shipmanagebackend.entity.User;
 import com.dhy.shipmanagebackend.entity.UserVO;
+import com.dhy.shipmanagebackend.service.SessionService;
 import com.dhy.shipmanagebackend.service.UserService;
+import com.dhy.shipmanagebackend.utils.ThreadLocalUtil;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +27,12 @@ public class AdminUserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
     /**
      * 分页查询用户列表
      */
@@ -54,13 +64,10 @@ public class AdminUserController {
     public Result<UserVO> getById(@PathVariable Long id) {
         checkAdmin();
         
-        User user = userService.getUserById(id);
-        if (user == null) {
+        UserVO vo = userProfileCache.get(id);
+        if (vo == null) {
             return Result.error("用户不存在");
         }
-        
-        UserVO vo = new UserVO();
-        BeanUtils.copyProperties(user, vo);
         return Result.success(vo);
     }
 
@@ -132,6 +139,26 @@ public class AdminUserController {
         return Result.success("成功删除 " + deletedCount + " 个用户");
     }
 
+    /**
+     * 查询用户当前有效的登录会话
+     */
+    @GetMapping("/{id}/sessions")
+    public Result<List<Map<String, Object>>> listSessions(@PathVariable Long id) {
+        checkAdmin();
+        return Result.success(sessionService.listSessions(id));
+    }
+
+    /**
+     * 强制下线：吊销用户的全部登录会话
+     */
+    @DeleteMapping("/{id}/sessions")
+    @OperLog(module = "用户管理", operation = "强制下线")
+    public Result revokeSessions(@PathVariable Long id) {
+        checkAdmin();
+        int revoked = sessionService.revokeAll(id);
+        return Result.success("已吊销 " + revoked + " 个会话");
+    }
+
     /**
      * 获取用户统计信息
      */
@@ -147,9 +174,8 @@ public class AdminUserController {
      * 检查当前用户是否为管理员
      */
     private void checkAdmin() {
-        Map<String, Object> userInfo = com.dhy.shipmanagebackend.utils.ThreadLocalUtil.get();
-        String role = (String) userInfo.get("role");
-        if (!"ADMIN".equals(role)) {
+        LoginUser loginUser = ThreadLocalUtil.get();
+        if (!loginUser.isAdmin()) {
             throw new RuntimeException("无权限访问");
         }
     }
@@ -158,7 +184,7 @@ public class AdminUserController {
      * 获取当前登录用户ID
      */
     private Long getCurrentUserId() {
-        Map<String, Object> userInfo = com.dhy.shipmanagebackend.utils.ThreadLocalUtil.get();
-        return ((Number) userInfo.get("id")).longValue();
+        LoginUser loginUser = ThreadLocalUtil.get();
+        return loginUser.getId();
     }
 }
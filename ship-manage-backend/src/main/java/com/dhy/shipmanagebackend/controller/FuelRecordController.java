@@ -3,14 +3,25 @@ package com.dhy.shipmanagebackend.controller;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.dhy.shipmanagebackend.annotation.OperLog;
 import com.dhy.shipmanagebackend.dto.BatchDeleteRequest;
+import com.dhy.shipmanagebackend.dto.FuelSeriesGranularity;
 import com.dhy.shipmanagebackend.entity.FuelRecord;
+import com.dhy.shipmanagebackend.entity.LoginUser;
 import com.dhy.shipmanagebackend.entity.Result;
+import com.dhy.shipmanagebackend.service.FuelAnalyticsService;
+import com.dhy.shipmanagebackend.service.FuelImportService;
 import com.dhy.shipmanagebackend.service.FuelRecordService;
+import com.dhy.shipmanagebackend.utils.ThreadLocalUtil;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +35,12 @@ public class FuelRecordController {
     @Autowired
     private FuelRecordService fuelRecordService;
 
+    @Autowired
+    private FuelAnalyticsService fuelAnalyticsService;
+
+    @Autowired
+    private FuelImportService fuelImportService;
+
     /**
      * 添加燃油记录
      */
@@ -67,6 +84,17 @@ public class FuelRecordController {
         return Result.success("成功删除 " + deletedCount + " 条燃油记录");
     }
 
+    /**
+     * 批量导入燃油记录（CSV/XLSX）
+     * 整个导入只记一条操作日志；进度通过推送事件 import 发送，结果中返回逐行错误
+     */
+    @PostMapping("/import")
+    @OperLog(module = "燃油管理", operation = "批量导入燃油记录")
+    public Result<Map<String, Object>> importRecords(@RequestParam("file") MultipartFile file) {
+        LoginUser loginUser = ThreadLocalUtil.get();
+        return Result.success(fuelImportService.importRecords(file, loginUser.getId()));
+    }
+
     /**
      * 根据ID查询
      */
@@ -112,6 +140,44 @@ public class FuelRecordController {
         return Result.success(fuelRecordService.monthlyStatsByShipId(shipId));
     }
 
+    /**
+     * 燃油时间序列
+     * 按船舶、时间桶、燃油类型汇总，结果以紧凑数组流式返回：
+     * data.columns 为列名，data.rows 每行为 [shipId, bucket, fuelType, quantity, cost, recordCount]
+     * @param shipIds 船舶ID列表，不传表示全部船舶
+     * @param granularity 时间粒度 day/week/month/quarter
+     */
+    @GetMapping("/stats/series")
+    public ResponseEntity<StreamingResponseBody> series(
+            @RequestParam(required = false) List<Long> shipIds,
+            @RequestParam(required = false) String fuelType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "month") String granularity) {
+        FuelSeriesGranularity unit = FuelSeriesGranularity.of(granularity);
+        // 开始写出后无法再返回错误结果，先校验
+        fuelRecordService.checkSeriesQuery(shipIds, startDate, endDate, unit);
+        StreamingResponseBody body = out -> fuelRecordService.writeSeries(shipIds, fuelType, startDate, endDate, unit, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * 全船队燃油分析（管理员功能）
+     * 总量、消耗最多的船舶、按港口/供应商费用分布、燃油类型构成
+     * @param top 返回消耗最多的船舶数
+     */
+    @GetMapping("/analytics/fleet")
+    public Result<Map<String, Object>> fleetAnalytics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "10") Integer top) {
+        LoginUser loginUser = ThreadLocalUtil.get();
+        if (!loginUser.isAdmin()) {
+            return Result.error("无权限访问");
+        }
+        return Result.success(fuelAnalyticsService.analyzeFleet(startDate, endDate, top));
+    }
+
     /**
      * 获取燃油消耗统计概览
      */
@@ -119,4 +185,18 @@ public class FuelRecordController {
     public Result<Map<String, Object>> getStatisticsOverview() {
         return Result.success(fuelRecordService.getStatisticsOverview());
     }
+
+    /**
+     * 重建燃油统计汇总(管理员功能)
+     * @param shipId 只重建该船舶，不传表示全部
+     */
+    @PostMapping("/stats/rebuild")
+    @OperLog(module = "燃油管理", operation = "重建燃油统计")
+    public Result<Map<String, Object>> rebuildStatistics(@RequestParam(required = false) Long shipId) {
+        LoginUser loginUser = ThreadLocalUtil.get();
+        if (!loginUser.isAdmin()) {
+            return Result.error("无权限访问");
+        }
+        return Result.success(fuelRecordService.rebuildStatistics(shipId));
+    }
 }
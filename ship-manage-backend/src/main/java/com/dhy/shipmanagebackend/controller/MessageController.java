@@ -1,12 +1,19 @@
 package com.dhy.shipmanagebackend.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.dhy.shipmanagebackend.dto.CursorPage;
+import com.dhy.shipmanagebackend.dto.MessageBatchRequest;
+import com.dhy.shipmanagebackend.entity.LoginUser;
 import com.dhy.shipmanagebackend.entity.Message;
 import com.dhy.shipmanagebackend.entity.Result;
+import com.dhy.shipmanagebackend.push.MessagePushHub;
 import com.dhy.shipmanagebackend.service.MessageService;
+import com.dhy.shipmanagebackend.service.SessionService;
 import com.dhy.shipmanagebackend.utils.ThreadLocalUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Map;
 
@@ -20,6 +27,12 @@ public class MessageController {
     @Autowired
     private MessageService messageService;
 
+    @Autowired
+    private MessagePushHub messagePushHub;
+
+    @Autowired
+    private SessionService sessionService;
+
     /**
      * 获取当前用户的消息列表
      */
@@ -33,6 +46,20 @@ public class MessageController {
         return Result.success(messageService.getUserMessages(userId, pageNum, pageSize, type, status));
     }
 
+    /**
+     * 获取当前用户的消息列表（游标分页）
+     * 首次不传 cursor，之后传上一页返回的 nextCursor
+     */
+    @GetMapping("/cursor")
+    public Result<CursorPage<Message>> getUserMessagesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status) {
+        Long userId = getCurrentUserId();
+        return Result.success(messageService.getUserMessagesByCursor(userId, cursor, size, type, status));
+    }
+
     /**
      * 获取未读消息数量
      */
@@ -42,36 +69,84 @@ public class MessageController {
         return Result.success(messageService.getUnreadCount(userId));
     }
 
+    /**
+     * 获取推送连接票据
+     * 浏览器 EventSource 无法设置请求头，先用请求头中的令牌换取一次性票据，再通过 ticket 参数建立连接
+     */
+    @PostMapping("/stream/ticket")
+    public Result<String> streamTicket(@RequestHeader("Authorization") String token) {
+        return Result.success(sessionService.issueStreamTicket(token));
+    }
+
+    /**
+     * 消息推送连接（SSE）
+     * 连接建立后先推送当前未读数，之后推送新消息与未读数变化；浏览器 EventSource 通过一次性 ticket 参数鉴权
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        Long userId = getCurrentUserId();
+        return messagePushHub.connect(userId, "unread", Map.of("count", messageService.getUnreadCount(userId)));
+    }
+
     /**
      * 标记消息为已读
      */
     @PutMapping("/read/{messageId}")
-    public Result markAsRead(@PathVariable Long messageId) {
+    public Result markAsRead(@PathVariable Long messageId,
+                             @RequestParam(defaultValue = "false") boolean broadcast) {
         Long userId = getCurrentUserId();
-        messageService.markAsRead(messageId, userId);
+        messageService.markAsRead(messageId, userId, broadcast);
         return Result.success();
     }
 
     /**
-     * 标记所有消息为已读
+     * 批量标记消息为已读
+     */
+    @PutMapping("/read/batch")
+    public Result<Map<String, Object>> markAsReadBatch(@RequestBody MessageBatchRequest request) {
+        Long userId = getCurrentUserId();
+        return Result.success(messageService.markAsRead(userId, request.getIds(), request.getBroadcastIds()));
+    }
+
+    /**
+     * 标记所有消息为已读（分批提交，返回各批耗时）
      */
     @PutMapping("/read-all")
-    public Result markAllAsRead() {
+    public Result<Map<String, Object>> markAllAsRead() {
         Long userId = getCurrentUserId();
-        messageService.markAllAsRead(userId);
-        return Result.success();
+        return Result.success(messageService.markAllAsRead(userId));
     }
 
     /**
      * 删除消息
      */
     @DeleteMapping("/{messageId}")
-    public Result delete(@PathVariable Long messageId) {
+    public Result delete(@PathVariable Long messageId,
+                         @RequestParam(defaultValue = "false") boolean broadcast) {
         Long userId = getCurrentUserId();
-        messageService.delete(messageId, userId);
+        messageService.delete(messageId, userId, broadcast);
         return Result.success();
     }
 
+    /**
+     * 批量删除消息
+     */
+    @DeleteMapping("/batch")
+    public Result<Map<String, Object>> deleteBatch(@RequestBody MessageBatchRequest request) {
+        Long userId = getCurrentUserId();
+        return Result.success(messageService.deleteBatch(userId, request.getIds(), request.getBroadcastIds()));
+    }
+
+    /**
+     * 清空消息（分批提交，返回各批耗时）
+     * @param status 只清空已读(READ)/未读(UNREAD)消息，不传表示全部
+     */
+    @DeleteMapping("/all")
+    public Result<Map<String, Object>> deleteAll(@RequestParam(required = false) String status) {
+        Long userId = getCurrentUserId();
+        return Result.success(messageService.deleteAll(userId, status));
+    }
+
     /**
      * 发送站内信(管理员功能)
      */
@@ -84,11 +159,10 @@ public class MessageController {
         Long senderId = getCurrentUserId();
 
         // 检查用户角色
-        Map<String, Object> userInfo = ThreadLocalUtil.get();
-        String role = (String) userInfo.get("role");
+        LoginUser loginUser = ThreadLocalUtil.get();
 
         // 只有管理员可以发送非 PERSONAL 类型的消息
-        if (!"ADMIN".equals(role) && !"PERSONAL".equals(type)) {
+        if (!loginUser.isAdmin() && !"PERSONAL".equals(type)) {
             return Result.error("无权限发送此类消息");
         }
 
@@ -96,11 +170,28 @@ public class MessageController {
         return Result.success();
     }
 
+    /**
+     * 发送广播消息给所有用户(管理员功能)
+     */
+    @PostMapping("/broadcast")
+    public Result broadcast(
+            @RequestParam String title,
+            @RequestParam String content,
+            @RequestParam(required = false, defaultValue = "SYSTEM") String type) {
+        LoginUser loginUser = ThreadLocalUtil.get();
+        if (!loginUser.isAdmin()) {
+            return Result.error("无权限发送此类消息");
+        }
+
+        messageService.broadcastSystemMessage(title, content, type);
+        return Result.success();
+    }
+
     /**
      * 获取当前登录用户ID
      */
     private Long getCurrentUserId() {
-        Map<String, Object> userInfo = ThreadLocalUtil.get();
-        return ((Number) userInfo.get("id")).longValue();
+        LoginUser loginUser = ThreadLocalUtil.get();
+        return loginUser.getId();
     }
 }
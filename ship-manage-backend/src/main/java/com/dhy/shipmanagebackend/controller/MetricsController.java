@@ -0,0 +1,134 @@
+package com.dhy.shipmanagebackend.controller;
+
+import com.dhy.shipmanagebackend.alert.CertificateAlertScheduler;
+import com.dhy.shipmanagebackend.cache.TokenCache;
+import com.dhy.shipmanagebackend.cache.UserProfileCache;
+import com.dhy.shipmanagebackend.entity.LoginUser;
+import com.dhy.shipmanagebackend.entity.Result;
+import com.dhy.shipmanagebackend.push.MessagePushHub;
+import com.dhy.shipmanagebackend.service.OperationLogService;
+import com.dhy.shipmanagebackend.service.PositionService;
+import com.dhy.shipmanagebackend.service.ShipCertificateService;
+import com.dhy.shipmanagebackend.utils.BcryptUtil;
+import com.dhy.shipmanagebackend.utils.ThreadLocalUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 运行指标控制器
+ * 仅管理员可访问
+ */
+@RestController
+@RequestMapping("/admin/metrics")
+public class MetricsController {
+
+    @Autowired
+    private TokenCache tokenCache;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private BcryptUtil bcryptUtil;
+
+    @Autowired
+    private OperationLogService operationLogService;
+
+    @Autowired
+    private MessagePushHub messagePushHub;
+
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private ShipCertificateService certificateService;
+
+    @Autowired
+    private CertificateAlertScheduler certificateAlertScheduler;
+
+    /**
+     * Token 本地缓存命中统计
+     */
+    @GetMapping("/token-cache")
+    public Result<Map<String, Object>> tokenCache() {
+        checkAdmin();
+        return Result.success(tokenCache.stats());
+    }
+
+    /**
+     * 用户资料缓存命中统计
+     */
+    @GetMapping("/user-profile-cache")
+    public Result<Map<String, Object>> userProfileCache() {
+        checkAdmin();
+        return Result.success(userProfileCache.stats());
+    }
+
+    /**
+     * 密码哈希准入闸门统计（排队深度、拒绝数、哈希耗时）
+     */
+    @GetMapping("/password-hash")
+    public Result<Map<String, Object>> passwordHash() {
+        checkAdmin();
+        return Result.success(bcryptUtil.stats());
+    }
+
+    /**
+     * 操作日志写入缓冲区统计（缓冲深度、刷盘耗时、丢弃数）
+     */
+    @GetMapping("/operation-log")
+    public Result<Map<String, Object>> operationLog() {
+        checkAdmin();
+        return Result.success(operationLogService.bufferStats());
+    }
+
+    /**
+     * 船舶位置写入缓冲区统计（缓冲深度、刷盘耗时、丢弃数）
+     */
+    @GetMapping("/positions")
+    public Result<Map<String, Object>> positions() {
+        checkAdmin();
+        return Result.success(positionService.bufferStats());
+    }
+
+    /**
+     * 消息推送连接统计（在线连接数、投递数、慢客户端断开数）
+     */
+    @GetMapping("/push")
+    public Result<Map<String, Object>> push() {
+        checkAdmin();
+        return Result.success(messagePushHub.stats());
+    }
+
+    /**
+     * 证书状态任务统计（每次变化行数、耗时）
+     */
+    @GetMapping("/certificate-status")
+    public Result<Map<String, Object>> certificateStatus() {
+        checkAdmin();
+        return Result.success(certificateService.statusStats());
+    }
+
+    /**
+     * 证书到期提醒统计（待触发节点数、已发送消息数、顺延数）
+     */
+    @GetMapping("/certificate-alerts")
+    public Result<Map<String, Object>> certificateAlerts() {
+        checkAdmin();
+        return Result.success(certificateAlertScheduler.stats());
+    }
+
+    /**
+     * 检查当前用户是否为管理员
+     */
+    private void checkAdmin() {
+        LoginUser loginUser = ThreadLocalUtil.get();
+        if (!loginUser.isAdmin()) {
+            throw new RuntimeException("无权限访问");
+        }
+    }
+}
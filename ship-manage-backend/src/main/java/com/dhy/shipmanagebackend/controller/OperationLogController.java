@@ -1,13 +1,16 @@
 package com.dhy.shipmanagebackend.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.dhy.shipmanagebackend.entity.LoginUser;
 import com.dhy.shipmanagebackend.entity.OperationLog;
 import com.dhy.shipmanagebackend.entity.Result;
 import com.dhy.shipmanagebackend.service.OperationLogService;
 import com.dhy.shipmanagebackend.utils.ThreadLocalUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 /**
@@ -30,33 +33,33 @@ public class OperationLogController {
             @RequestParam(defaultValue = "20") Integer pageSize,
             @RequestParam(required = false) String username,
             @RequestParam(required = false) String module,
-            @RequestParam(required = false) String operation) {
+            @RequestParam(required = false) String operation,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime) {
         
         // 检查是否为管理员
         checkAdmin();
         
-        return Result.success(operationLogService.page(pageNum, pageSize, username, module, operation));
+        return Result.success(operationLogService.page(pageNum, pageSize, username, module, operation, startTime, endTime));
     }
 
     /**
      * 清理指定天数前的日志
      */
     @DeleteMapping("/clean/{days}")
-    public Result cleanOldLogs(@PathVariable int days) {
+    public Result<Map<String, Object>> cleanOldLogs(@PathVariable int days) {
         // 检查是否为管理员
         checkAdmin();
         
-        operationLogService.cleanOldLogs(days);
-        return Result.success();
+        return Result.success(operationLogService.cleanOldLogs(days));
     }
     
     /**
      * 检查当前用户是否为管理员
      */
     private void checkAdmin() {
-        Map<String, Object> userInfo = ThreadLocalUtil.get();
-        String role = (String) userInfo.get("role");
-        if (!"ADMIN".equals(role)) {
+        LoginUser loginUser = ThreadLocalUtil.get();
+        if (!loginUser.isAdmin()) {
             throw new RuntimeException("无权限访问");
         }
     }
@@ -0,0 +1,35 @@
+package com.dhy.shipmanagebackend.controller;
+
+import com.dhy.shipmanagebackend.dto.PositionFix;
+import com.dhy.shipmanagebackend.entity.Result;
+import com.dhy.shipmanagebackend.service.PositionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 船舶位置上报控制器（AIS/GPS 网关批量上报）
+ */
+@RestController
+@RequestMapping("/positions")
+public class PositionController {
+
+    @Autowired
+    private PositionService positionService;
+
+    /**
+     * 批量上报定位点
+     * 请求体为数组：[{shipId, recordedAt, latitude, longitude, speed, course}, ...]
+     * 返回 {received, accepted, rejected, dropped}，字段越界或船舶不存在的点计入 rejected，
+     * dropped 大于 0 表示服务端繁忙，可稍后重传这部分
+     */
+    @PostMapping
+    public Result<Map<String, Object>> ingest(@RequestBody List<PositionFix> fixes) {
+        return Result.success(positionService.ingest(fixes));
+    }
+}
@@ -3,14 +3,19 @@ package com.dhy.shipmanagebackend.controller;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.dhy.shipmanagebackend.annotation.OperLog;
 import com.dhy.shipmanagebackend.dto.BatchDeleteRequest;
+import com.dhy.shipmanagebackend.dto.CursorPage;
+import com.dhy.shipmanagebackend.dto.ShipComplianceRow;
+import com.dhy.shipmanagebackend.entity.LoginUser;
 import com.dhy.shipmanagebackend.entity.Result;
 import com.dhy.shipmanagebackend.entity.ShipCertificate;
 import com.dhy.shipmanagebackend.service.ShipCertificateService;
+import com.dhy.shipmanagebackend.utils.ThreadLocalUtil;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 船舶证书控制器
@@ -94,7 +99,7 @@ public class ShipCertificateController {
     }
 
     /**
-     * 查询即将到期的证书
+     * 查询即将到期的证书（一次返回全部，证书多时请用 /expiring/cursor）
      */
     @GetMapping("/expiring")
     public Result<List<ShipCertificate>> findExpiringCertificates() {
@@ -102,10 +107,64 @@ public class ShipCertificateController {
     }
 
     /**
-     * 查询已过期的证书
+     * 查询已过期的证书（一次返回全部，证书多时请用 /expired/cursor）
      */
     @GetMapping("/expired")
     public Result<List<ShipCertificate>> findExpiredCertificates() {
         return Result.success(certificateService.findExpiredCertificates());
     }
+
+    /**
+     * 即将到期的证书（游标分页，到期日期早的在前，每页最多 100 条）
+     * 首次不传 cursor，之后传上一页返回的 nextCursor
+     */
+    @GetMapping("/expiring/cursor")
+    public Result<CursorPage<ShipCertificate>> findExpiringByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
+        return Result.success(certificateService.getExpiringByCursor(cursor, size));
+    }
+
+    /**
+     * 已过期的证书（游标分页，过期最久的在前，每页最多 100 条）
+     */
+    @GetMapping("/expired/cursor")
+    public Result<CursorPage<ShipCertificate>> findExpiredByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
+        return Result.success(certificateService.getExpiredByCursor(cursor, size));
+    }
+
+    /**
+     * 船队证书合规概览（总数及按船舶类型汇总）
+     */
+    @GetMapping("/compliance")
+    public Result<Map<String, Object>> complianceSummary() {
+        return Result.success(certificateService.getComplianceSummary());
+    }
+
+    /**
+     * 按船舶的证书合规情况（游标分页，最早到期的船舶在前）
+     * @param status EXPIRED / EXPIRING 只看有该状态证书的船舶
+     */
+    @GetMapping("/compliance/ships")
+    public Result<CursorPage<ShipComplianceRow>> shipCompliance(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(required = false) String status) {
+        return Result.success(certificateService.getShipCompliance(cursor, size, status));
+    }
+
+    /**
+     * 立即更新证书状态(管理员功能，平时由每日定时任务执行)
+     */
+    @PostMapping("/status/refresh")
+    @OperLog(module = "证书管理", operation = "更新证书状态")
+    public Result<Map<String, Object>> refreshStatus() {
+        LoginUser loginUser = ThreadLocalUtil.get();
+        if (!loginUser.isAdmin()) {
+            return Result.error("无权限访问");
+        }
+        return Result.success(certificateService.updateCertificateStatus());
+    }
 }
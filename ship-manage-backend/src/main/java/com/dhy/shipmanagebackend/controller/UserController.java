@@ -4,9 +4,12 @@ import cn.hutool.captcha.CaptchaUtil;
 import cn.hutool.captcha.LineCaptcha;
 import cn.hutool.core.lang.UUID;
 import com.dhy.shipmanagebackend.annotation.OperLog;
+import com.dhy.shipmanagebackend.cache.UserProfileCache;
+import com.dhy.shipmanagebackend.entity.LoginUser;
 import com.dhy.shipmanagebackend.entity.Result;
 import com.dhy.shipmanagebackend.entity.User;
 import com.dhy.shipmanagebackend.entity.UserVO;
+import com.dhy.shipmanagebackend.service.SessionService;
 import com.dhy.shipmanagebackend.service.UserService;
 import com.dhy.shipmanagebackend.utils.*;
 import jakarta.validation.constraints.NotBlank;
@@ -14,17 +17,11 @@ import jakarta.validation.constraints.Pattern;
 import org.hibernate.validator.constraints.URL;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.constraints.Email;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
-
 @Validated
 @RestController
 @RequestMapping("/user")
@@ -32,11 +29,13 @@ public class UserController {
     @Autowired
     private UserService userService;
     @Autowired
-    private StringRedisTemplate stringRedisTemplate;
-    @Autowired
     private TurnstileUtil turnstileUtil;
     @Autowired
     private com.dhy.shipmanagebackend.mapper.UserMapper userMapper;
+    @Autowired
+    private SessionService sessionService;
+    @Autowired
+    private UserProfileCache userProfileCache;
 
     @PostMapping("/send-code")
     public Result sendCode(@RequestParam @Email String email) {
@@ -77,14 +76,9 @@ public class UserController {
 
         // 3. 校验密码
         if (BcryptUtil.match(password, loginUser.getPasswordHash())) {
-            Map<String, Object> claims = new HashMap<>();
-            claims.put("id", loginUser.getId());
-            claims.put("username", loginUser.getUsername());
-            claims.put("role", loginUser.getRole());
-
-            String token = JwtUtil.genToken(claims);
-            ValueOperations<String, String> ops = stringRedisTemplate.opsForValue();
-            ops.set(token, token, 12, TimeUnit.HOURS);
+            LoginUser principal = new LoginUser(loginUser.getId(), loginUser.getUsername(), loginUser.getRole());
+            String token = JwtUtil.genToken(principal);
+            sessionService.createSession(principal, token);
             return Result.success(token);
         }
 
@@ -100,6 +94,16 @@ public class UserController {
         return Result.success(token);
     }
 
+    /**
+     * 退出登录：删除 Redis 中的会话，并广播让各节点剔除本地缓存
+     */
+    @PostMapping("/logout")
+    public Result logout(@RequestHeader("Authorization") String token) {
+        LoginUser current = ThreadLocalUtil.get();
+        sessionService.revoke(current.getId(), token);
+        return Result.success();
+    }
+
     /**
      * 邮箱验证码重置密码（无需登录）
      * 
@@ -120,17 +124,14 @@ public class UserController {
 
     @GetMapping("/info")
     public Result<UserVO> userInfo() {
-        // 1. 从 ThreadLocal 获取当前登录用户的数据
-        // 因为你的工具类是泛型的，这里强转成 Map 即可
-        Map<String, Object> map = ThreadLocalUtil.get();
-
-        // 拿到用户名
-        String username = (String) map.get("username");
+        // 1. 从 ThreadLocal 获取当前登录用户
+        LoginUser current = ThreadLocalUtil.get();
 
-        // 2. 查询数据库
-        User user = userService.findByUsername(username);
-        UserVO uservo = new UserVO();
-        BeanUtils.copyProperties(user, uservo);
+        // 2. 从用户资料缓存获取（未命中时查库）
+        UserVO uservo = userProfileCache.get(current.getId());
+        if (uservo == null) {
+            return Result.error("用户不存在");
+        }
         return Result.success(uservo);
     }
 
@@ -143,11 +144,11 @@ public class UserController {
 
     @PatchMapping("/password")
     @OperLog(module = "用户管理", operation = "修改密码")
-    public Result updatePassword(@RequestParam @Pattern(regexp = "^\\S{5,16}$") String oldPassword,
+    public Result<String> updatePassword(@RequestParam @Pattern(regexp = "^\\S{5,16}$") String oldPassword,
             @RequestParam @Pattern(regexp = "^\\S{5,16}$") String newPassword) {
         // 1. 获取当前登录用户
-        Map<String, Object> map = ThreadLocalUtil.get();
-        String username = (String) map.get("username");
+        LoginUser current = ThreadLocalUtil.get();
+        String username = current.getUsername();
 
         // 2. 根据用户名查询用户
         User loginUser = userService.findByUsername(username);
@@ -162,15 +163,20 @@ public class UserController {
         }
         loginUser.setPasswordHash(BcryptUtil.encode(newPassword));
         userService.update(loginUser);
-        return Result.success();
+
+        // 3. 旧密码签发的会话全部失效，为当前请求签发新会话
+        sessionService.revokeAll(loginUser.getId());
+        String token = JwtUtil.genToken(current);
+        sessionService.createSession(current, token);
+        return Result.success(token);
 
     }
 
     @PatchMapping("/avatar")
     public Result updateAvatar(@RequestParam @URL(message = "图片地址格式不正确") String avatarUrl) {
         // 1. 获取当前登录用户
-        Map<String, Object> map = ThreadLocalUtil.get();
-        String username = (String) map.get("username");
+        LoginUser current = ThreadLocalUtil.get();
+        String username = current.getUsername();
 
         // 2. 调用 Service 更新
         userService.updateAvatar(avatarUrl, username);
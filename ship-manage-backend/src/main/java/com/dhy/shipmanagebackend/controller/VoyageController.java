@@ -5,11 +5,14 @@ import com.dhy.shipmanagebackend.annotation.OperLog;
 import com.dhy.shipmanagebackend.dto.BatchDeleteRequest;
 import com.dhy.shipmanagebackend.entity.Result;
 import com.dhy.shipmanagebackend.entity.Voyage;
+import com.dhy.shipmanagebackend.service.PositionService;
 import com.dhy.shipmanagebackend.service.VoyageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/voyages")
 public class VoyageController {
@@ -17,6 +20,9 @@ public class VoyageController {
     @Autowired
     private VoyageService voyageService;
 
+    @Autowired
+    private PositionService positionService;
+
     // 1. 开航 (新增航次)
     @PostMapping
     @OperLog(module = "航次管理", operation = "新增航次")
@@ -49,6 +55,15 @@ public class VoyageController {
         return Result.success(voyageService.findById(id));
     }
 
+    // 航次轨迹 (抽稀后的定位点)
+    // GET /voyages/track?id=1&tolerance=50&maxPoints=200
+    @GetMapping("/track")
+    public Result<Map<String, Object>> track(@RequestParam Long id,
+            @RequestParam(required = false) Double tolerance,
+            @RequestParam(required = false) Integer maxPoints) {
+        return Result.success(positionService.getVoyageTrack(id, tolerance, maxPoints));
+    }
+
     // 5. 删除航次
     @DeleteMapping("/{id}")
     @OperLog(module = "航次管理", operation = "删除")
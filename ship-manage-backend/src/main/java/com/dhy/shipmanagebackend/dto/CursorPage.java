@@ -0,0 +1,21 @@
+package com.dhy.shipmanagebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * 不统计总数，nextCursor 原样传回即可获取下一页，hasMore 为 false 时已到末页
+ * @param <T> 数据泛型
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> records;   // 当前页数据
+    private String nextCursor; // 下一页游标，末页为 null
+    private boolean hasMore;   // 是否还有下一页
+}
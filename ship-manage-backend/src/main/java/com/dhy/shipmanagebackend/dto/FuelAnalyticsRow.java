@@ -0,0 +1,17 @@
+package com.dhy.shipmanagebackend.dto;
+
+import lombok.Data;
+
+/**
+ * 船队燃油分析读取的单条燃油记录（只含分析需要的列）
+ * 数量和费用在 SQL 中乘 100 转为整数，避免逐行创建 BigDecimal
+ */
+@Data
+public class FuelAnalyticsRow {
+    private long shipId;          // 船舶ID
+    private String fuelType;      // 燃油类型
+    private String port;          // 加油港口
+    private String supplier;      // 供应商
+    private long quantityScaled;  // 消耗量 × 100（吨，保留两位小数）
+    private long costCents;       // 总费用 × 100（分）
+}
@@ -0,0 +1,41 @@
+package com.dhy.shipmanagebackend.dto;
+
+import java.util.Locale;
+
+/**
+ * 燃油时间序列的时间粒度
+ * 每种粒度对应把 record_date 归到桶起始日期的 SQL 表达式（固定常量，可安全拼入 SQL）
+ */
+public enum FuelSeriesGranularity {
+    DAY("record_date", 1),
+    WEEK("DATE_SUB(record_date, INTERVAL WEEKDAY(record_date) DAY)", 7),        // 周一
+    MONTH("DATE_SUB(record_date, INTERVAL DAYOFMONTH(record_date) - 1 DAY)", 28), // 当月1日
+    QUARTER("MAKEDATE(YEAR(record_date), 1) + INTERVAL QUARTER(record_date) - 1 QUARTER", 90); // 季度首日
+
+    private final String bucketSql;
+    private final int minDays;
+
+    FuelSeriesGranularity(String bucketSql, int minDays) {
+        this.bucketSql = bucketSql;
+        this.minDays = minDays;
+    }
+
+    public String getBucketSql() {
+        return bucketSql;
+    }
+
+    /**
+     * 估算日期范围内的桶数（按最短桶长向上取整）
+     */
+    public long estimateBuckets(long days) {
+        return (days + minDays - 1) / minDays;
+    }
+
+    public static FuelSeriesGranularity of(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("不支持的时间粒度: " + value);
+        }
+    }
+}
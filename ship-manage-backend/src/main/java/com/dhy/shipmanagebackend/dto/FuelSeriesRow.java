@@ -0,0 +1,19 @@
+package com.dhy.shipmanagebackend.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 燃油时间序列的一个数据点（一艘船、一个时间桶、一种燃油）
+ */
+@Data
+public class FuelSeriesRow {
+    private Long shipId;          // 船舶ID
+    private LocalDate bucket;     // 时间桶起始日期
+    private String fuelType;      // 燃油类型，未填写为空字符串
+    private BigDecimal quantity;  // 消耗量合计(吨)
+    private BigDecimal cost;      // 费用合计
+    private Integer recordCount;  // 记录数
+}
@@ -0,0 +1,15 @@
+package com.dhy.shipmanagebackend.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 消息批量操作请求 DTO
+ * 个人消息与广播消息ID相互独立，分开传递
+ */
+@Data
+public class MessageBatchRequest {
+    private List<Long> ids;          // 个人消息ID
+    private List<Long> broadcastIds; // 广播消息ID
+}
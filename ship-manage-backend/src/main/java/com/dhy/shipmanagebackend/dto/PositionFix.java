@@ -0,0 +1,18 @@
+package com.dhy.shipmanagebackend.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 船舶定位点（AIS/GPS 上报）
+ */
+@Data
+public class PositionFix {
+    private Long shipId;               // 船舶ID
+    private LocalDateTime recordedAt;  // 定位时间
+    private Double latitude;           // 纬度，-90 ~ 90
+    private Double longitude;          // 经度，-180 ~ 180
+    private Double speed;              // 航速(节)，可为空
+    private Double course;             // 航向(度)，0 ~ 360，可为空
+}
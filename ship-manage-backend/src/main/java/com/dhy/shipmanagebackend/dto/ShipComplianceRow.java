@@ -0,0 +1,29 @@
+package com.dhy.shipmanagebackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 船舶证书合规汇总（按船舶或按船舶类型）
+ */
+@Data
+public class ShipComplianceRow {
+    private Long shipId;          // 船舶ID（按类型汇总时为空）
+    private String shipName;      // 船舶名称
+    private Long categoryId;      // 船舶类型ID
+    private String categoryName;  // 船舶类型名称
+    private Integer shipCount;    // 船舶数（按类型汇总时有效）
+    private Integer validCount;   // 有效证书数
+    private Integer expiringCount; // 即将到期证书数
+    private Integer expiredCount; // 已过期证书数
+    private LocalDate earliestExpiry; // 最早到期日期，没有到期日期时为空
+    private Long daysToExpiry;    // 距最早到期的天数，已过期为负数
+
+    /**
+     * 表中存储的原始最早到期日期（含 9999-12-31 占位），用于生成游标
+     */
+    @JsonIgnore
+    private LocalDate sortExpiry;
+}
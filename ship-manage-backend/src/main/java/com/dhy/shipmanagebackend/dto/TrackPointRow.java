@@ -0,0 +1,15 @@
+package com.dhy.shipmanagebackend.dto;
+
+import lombok.Data;
+
+/**
+ * 轨迹查询的一行原始定位点（保持库中的整数编码）
+ */
+@Data
+public class TrackPointRow {
+    private Integer offsetSeconds; // 距查询起始时间的秒数
+    private Integer latE6;         // 纬度 × 10^6
+    private Integer lonE6;         // 经度 × 10^6
+    private Integer speedX10;      // 航速(节) × 10
+    private Integer courseX10;     // 航向(度) × 10
+}
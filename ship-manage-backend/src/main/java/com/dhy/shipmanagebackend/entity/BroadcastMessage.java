@@ -0,0 +1,27 @@
+package com.dhy.shipmanagebackend.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 广播消息实体类
+ * 面向全体用户的消息只存一份，读取时与个人消息合并
+ */
+@Data
+@TableName("broadcast_messages")
+public class BroadcastMessage {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private Long senderId; // 发送者ID (0表示系统消息)
+    private String title; // 消息标题
+    private String content; // 消息内容
+    private String type; // 消息类型，同 Message.type
+    private Long relatedId; // 关联业务ID
+    private String relatedType; // 关联业务类型
+
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,22 @@
+package com.dhy.shipmanagebackend.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 燃油月度统计汇总实体类
+ * 主键为 (shipId, statMonth, fuelType)，由燃油记录增删改时增量维护
+ */
+@Data
+@TableName("fuel_monthly_stats")
+public class FuelMonthlyStat {
+    private Long shipId;              // 船舶ID
+    private LocalDate statMonth;      // 统计月份（当月1日）
+    private String fuelType;          // 燃油类型，未填写为空字符串
+    private BigDecimal totalQuantity; // 消耗量合计(吨)
+    private BigDecimal totalCost;     // 费用合计
+    private Integer recordCount;      // 记录数
+}
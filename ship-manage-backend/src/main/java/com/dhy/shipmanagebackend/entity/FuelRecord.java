@@ -1,7 +1,10 @@
 package com.dhy.shipmanagebackend.entity;
 
 import com.baomidou.mybatisplus.annotation.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -33,13 +36,26 @@ public class FuelRecord {
      * MGO - 船用汽油
      * LNG - 液化天然气
      */
+    @Size(max = 20, message = "燃油类型不能超过20个字符")
     private String fuelType;
 
+    @DecimalMin(value = "0", message = "消耗量不能为负数")
+    @DecimalMax(value = "99999999.99", message = "消耗量超出范围")
     private BigDecimal quantity;   // 消耗量(吨)
+
+    @DecimalMin(value = "0", message = "单价不能为负数")
+    @DecimalMax(value = "99999999.99", message = "单价超出范围")
     private BigDecimal unitPrice;  // 单价(元/吨)
+
     private BigDecimal totalCost;  // 总费用
+
+    @Size(max = 100, message = "供应商不能超过100个字符")
     private String supplier;       // 供应商
+
+    @Size(max = 100, message = "加油港口不能超过100个字符")
     private String port;           // 加油港口
+
+    @Size(max = 500, message = "备注不能超过500个字符")
     private String remarks;        // 备注
 
     @TableField(fill = FieldFill.INSERT)
@@ -0,0 +1,30 @@
+package com.dhy.shipmanagebackend.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 当前登录用户（JWT 解析结果）
+ * 由 LoginInterceptor 存入 ThreadLocal，Controller 通过 ThreadLocalUtil.get() 获取
+ */
+@Data
+@NoArgsConstructor
+public class LoginUser {
+    private Long id;
+    private String username;
+    private String role;     // USER 或 ADMIN
+
+    private Date expiresAt;  // Token 过期时间
+
+    public LoginUser(Long id, String username, String role) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+    }
+
+    public boolean isAdmin() {
+        return "ADMIN".equals(role);
+    }
+}
@@ -45,6 +45,9 @@ public class Message {
 
     private LocalDateTime readAt; // 阅读时间
 
+    @TableField(exist = false)
+    private Boolean broadcast; // 是否为广播消息（来自 broadcast_messages，ID 与个人消息独立）
+
     @TableField(exist = false)
     private String senderName; // 发送者名称
 
@@ -34,6 +34,13 @@ public class Ship {
 
     private String coverImg; // 对应数据库 cover_img
 
+    /**
+     * 乐观锁版本号，开航/结束航次等状态变化也会递增
+     * 编辑时带上查询到的版本号，期间被修改过则更新失败
+     */
+    @Version
+    private Integer version;
+
     // 建议配置自动填充 (需要配置 MyMetaObjectHandler，如果没有配置，需手动 set)
     @TableField(fill = FieldFill.INSERT)
     private LocalDateTime createdAt;
@@ -36,7 +36,12 @@ public class ShipCertificate {
      * EXPIRED - 已过期
      */
     private String status;
-    
+
+    /**
+     * 状态下次变化日期（由服务端根据到期日期计算，已过期或无到期日期时为空）
+     */
+    private LocalDate nextTransitionDate;
+
     private String attachmentUrl;   // 证书附件URL
     private String remarks;         // 备注
 
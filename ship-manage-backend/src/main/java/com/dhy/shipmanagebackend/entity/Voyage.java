@@ -31,6 +31,9 @@ public class Voyage {
     private LocalDateTime startTime; // 开航时间
     private LocalDateTime endTime;   // 结束/抵达时间
 
+    @Version
+    private Integer version; // 乐观锁版本号
+
     @TableField(fill = FieldFill.INSERT)
     private LocalDateTime createdAt;
 
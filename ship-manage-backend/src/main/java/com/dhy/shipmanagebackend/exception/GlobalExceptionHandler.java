@@ -4,6 +4,9 @@ import com.dhy.shipmanagebackend.entity.Result;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -36,6 +39,18 @@ public class GlobalExceptionHandler {
         return Result.error(message);
     }
 
+    /**
+     * 处理服务繁忙异常 (ServiceBusyException)
+     * 返回 429 并带上 Retry-After，提示前端稍后重试
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Result> handleServiceBusyException(ServiceBusyException e) {
+        logger.warn("服务繁忙: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Result.error(e.getMessage()));
+    }
+
     /**
      * 处理业务异常 (RuntimeException)
      * 比如：UserServiceImpl 中抛出的 "验证码错误"、"用户名已存在"
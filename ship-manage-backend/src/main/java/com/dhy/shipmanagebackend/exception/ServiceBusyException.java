@@ -0,0 +1,21 @@
+package com.dhy.shipmanagebackend.exception;
+
+/**
+ * 服务繁忙异常
+ * 受限资源（如密码哈希）饱和时快速失败，由 GlobalExceptionHandler 转为 429 + Retry-After
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int retryAfterSeconds;
+
+    public ServiceBusyException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
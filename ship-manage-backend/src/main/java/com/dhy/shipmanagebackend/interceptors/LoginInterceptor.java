@@ -1,5 +1,8 @@
 package com.dhy.shipmanagebackend.interceptors;
 
+import com.dhy.shipmanagebackend.cache.TokenCache;
+import com.dhy.shipmanagebackend.entity.LoginUser;
+import com.dhy.shipmanagebackend.service.SessionService;
 import com.dhy.shipmanagebackend.utils.JwtUtil;
 import com.dhy.shipmanagebackend.utils.ThreadLocalUtil;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,34 +11,59 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
-
-import java.util.Map;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 
 @Component
-public class LoginInterceptor implements HandlerInterceptor {
+public class LoginInterceptor implements AsyncHandlerInterceptor {
+
+    /**
+     * 浏览器 EventSource 无法设置请求头，推送连接允许通过 ticket 参数携带一次性票据（见 /message/stream/ticket）
+     * 不接受 URL 中直接携带会话令牌，避免令牌落入代理和访问日志
+     */
+    private static final String PUSH_STREAM_PATH = "/message/stream";
 
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private TokenCache tokenCache;
+    @Autowired
+    private SessionService sessionService;
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         // 1. 获取请求头中的令牌 (token)
         String token = request.getHeader("Authorization");
+        if (!StringUtils.hasLength(token) && request.getRequestURI().endsWith(PUSH_STREAM_PATH)) {
+            String ticket = request.getParameter("ticket");
+            if (StringUtils.hasLength(ticket)) {
+                // 兑换出的令牌仍按下面的流程校验，会话已吊销时票据同样无效
+                token = sessionService.redeemStreamTicket(ticket);
+            }
+        }
 
         // 2. 校验令牌
         try {
-            //从redis中获取相同的token
-            ValueOperations<String, String> ops = stringRedisTemplate.opsForValue();
-            String redisToken = ops.get(token);
-            if (redisToken == null || !redisToken.equals(token)) {
+            if (!StringUtils.hasLength(token)) {
                 throw new RuntimeException("用户未登录");
             }
-            // 解析 token 获取业务数据（claims）
-            Map<String, Object> claims = JwtUtil.parseToken(token);
+            // 先查本地缓存，命中则跳过 Redis 和 JWT 校验
+            LoginUser loginUser = tokenCache.get(token);
+            if (loginUser == null) {
+                //从redis中获取相同的token
+                ValueOperations<String, String> ops = stringRedisTemplate.opsForValue();
+                String redisToken = ops.get(token);
+                if (redisToken == null || !redisToken.equals(token)) {
+                    throw new RuntimeException("用户未登录");
+                }
+                // 解析 token 获取当前登录用户，并回填本地缓存
+                loginUser = JwtUtil.parseToken(token);
+                tokenCache.put(token, loginUser);
+            }
 
-            // 3. 把业务数据存到 ThreadLocal 中
+            // 3. 把当前登录用户存到 ThreadLocal 中
             // 这样后续的 Controller 就能直接用 ThreadLocalUtil.get() 拿到当前登录用户是谁了
-            ThreadLocalUtil.set(claims);
+            ThreadLocalUtil.set(loginUser);
 
             // 4. 放行
             return true;
@@ -53,4 +81,10 @@ public class LoginInterceptor implements HandlerInterceptor {
         // ⚠️ 非常重要：请求结束，清空 ThreadLocal 数据，防止内存泄漏
         ThreadLocalUtil.remove();
     }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        // 异步请求（SSE 推送）不会走 afterCompletion，这里同样清空，避免请求线程复用时串号
+        ThreadLocalUtil.remove();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.dhy.shipmanagebackend.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.dhy.shipmanagebackend.entity.BroadcastMessage;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 广播消息Mapper接口
+ */
+@Mapper
+public interface BroadcastMessageMapper extends BaseMapper<BroadcastMessage> {
+
+    /**
+     * 统计用户未读广播数量（unread）和广播总数（total）
+     * 只计注册之后发出、ID 大于已读游标、且没有已读/删除记录的广播；
+     * 两个数在同一条语句中读取，并发发布的广播要么都计入、要么都不计入
+     */
+    @Select("SELECT (SELECT COUNT(*) FROM broadcast_messages) AS total, " +
+            "(SELECT COUNT(*) FROM broadcast_messages b " +
+            "JOIN users u ON u.id = #{userId} " +
+            "LEFT JOIN broadcast_read_cursors c ON c.user_id = #{userId} " +
+            "LEFT JOIN broadcast_message_states s ON s.user_id = #{userId} AND s.broadcast_id = b.id " +
+            "WHERE b.created_at >= u.created_at AND b.id > IFNULL(c.read_up_to, 0) AND s.broadcast_id IS NULL) AS unread")
+    Map<String, Object> countUnreadWithTotal(@Param("userId") Long userId);
+
+    /**
+     * 广播总数
+     */
+    @Select("SELECT COUNT(*) FROM broadcast_messages")
+    long countAll();
+
+    /**
+     * 当前最大广播ID
+     */
+    @Select("SELECT MAX(id) FROM broadcast_messages")
+    Long selectMaxId();
+
+    /**
+     * 标记单条广播为已读
+     */
+    @Insert("INSERT INTO broadcast_message_states (user_id, broadcast_id, read_at, deleted) " +
+            "VALUES (#{userId}, #{broadcastId}, NOW(), 0) " +
+            "ON DUPLICATE KEY UPDATE read_at = IFNULL(read_at, NOW())")
+    int markRead(@Param("userId") Long userId, @Param("broadcastId") Long broadcastId);
+
+    /**
+     * 删除单条广播（仅对该用户隐藏）
+     */
+    @Insert("INSERT INTO broadcast_message_states (user_id, broadcast_id, deleted) " +
+            "VALUES (#{userId}, #{broadcastId}, 1) " +
+            "ON DUPLICATE KEY UPDATE deleted = 1")
+    int markDeleted(@Param("userId") Long userId, @Param("broadcastId") Long broadcastId);
+
+    /**
+     * 批量标记广播为已读
+     */
+    @Insert("<script>" +
+            "INSERT INTO broadcast_message_states (user_id, broadcast_id, read_at, deleted) VALUES " +
+            "<foreach collection='ids' item='id' separator=','>(#{userId}, #{id}, NOW(), 0)</foreach> " +
+            "ON DUPLICATE KEY UPDATE read_at = IFNULL(read_at, NOW())" +
+            "</script>")
+    int markReadBatch(@Param("userId") Long userId, @Param("ids") List<Long> broadcastIds);
+
+    /**
+     * 批量删除广播（仅对该用户隐藏）
+     */
+    @Insert("<script>" +
+            "INSERT INTO broadcast_message_states (user_id, broadcast_id, deleted) VALUES " +
+            "<foreach collection='ids' item='id' separator=','>(#{userId}, #{id}, 1)</foreach> " +
+            "ON DUPLICATE KEY UPDATE deleted = 1" +
+            "</script>")
+    int markDeletedBatch(@Param("userId") Long userId, @Param("ids") List<Long> broadcastIds);
+
+    /**
+     * 用户收件箱中可见的广播ID（注册后发出、未删除）
+     * @param status 按已读状态筛选，为空表示不限
+     */
+    @Select("<script>" +
+            "SELECT b.id FROM broadcast_messages b " +
+            "JOIN users u ON u.id = #{userId} " +
+            "LEFT JOIN broadcast_read_cursors c ON c.user_id = #{userId} " +
+            "LEFT JOIN broadcast_message_states s ON s.user_id = #{userId} AND s.broadcast_id = b.id " +
+            "WHERE b.created_at &gt;= u.created_at AND (s.deleted IS NULL OR s.deleted = 0) " +
+            "<if test='status != null'>" +
+            "AND (CASE WHEN s.read_at IS NOT NULL OR b.id &lt;= IFNULL(c.read_up_to, 0) THEN 'READ' ELSE 'UNREAD' END) = #{status}" +
+            "</if>" +
+            "</script>")
+    List<Long> selectVisibleIds(@Param("userId") Long userId, @Param("status") String status);
+
+    /**
+     * 给定广播ID中该用户可以看到的（存在且在注册之后发出），与收件箱查询的可见条件一致
+     */
+    @Select("<script>" +
+            "SELECT b.id FROM broadcast_messages b " +
+            "JOIN users u ON u.id = #{userId} " +
+            "WHERE b.created_at &gt;= u.created_at AND b.id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<Long> selectVisibleAmong(@Param("userId") Long userId, @Param("ids") List<Long> broadcastIds);
+
+    /**
+     * 推进用户的广播已读游标
+     */
+    @Insert("INSERT INTO broadcast_read_cursors (user_id, read_up_to) VALUES (#{userId}, #{readUpTo}) " +
+            "ON DUPLICATE KEY UPDATE read_up_to = GREATEST(read_up_to, VALUES(read_up_to))")
+    int advanceReadCursor(@Param("userId") Long userId, @Param("readUpTo") Long readUpTo);
+}
@@ -0,0 +1,86 @@
+package com.dhy.shipmanagebackend.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.dhy.shipmanagebackend.entity.FuelMonthlyStat;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 燃油月度统计汇总Mapper接口
+ */
+@Mapper
+public interface FuelMonthlyStatMapper extends BaseMapper<FuelMonthlyStat> {
+
+    /**
+     * 累加增量（不存在则插入）
+     */
+    @Insert("INSERT INTO fuel_monthly_stats (ship_id, stat_month, fuel_type, total_quantity, total_cost, record_count) " +
+            "VALUES (#{shipId}, #{statMonth}, #{fuelType}, #{totalQuantity}, #{totalCost}, #{recordCount}) " +
+            "ON DUPLICATE KEY UPDATE total_quantity = total_quantity + VALUES(total_quantity), " +
+            "total_cost = total_cost + VALUES(total_cost), record_count = record_count + VALUES(record_count)")
+    int applyDelta(FuelMonthlyStat delta);
+
+    /**
+     * 删除已没有记录的汇总行
+     */
+    @Delete("DELETE FROM fuel_monthly_stats WHERE ship_id = #{shipId} AND stat_month = #{statMonth} " +
+            "AND fuel_type = #{fuelType} AND record_count <= 0")
+    int deleteIfEmpty(@Param("shipId") Long shipId, @Param("statMonth") LocalDate statMonth,
+                      @Param("fuelType") String fuelType);
+
+    /**
+     * 全部船舶的消耗量、费用、记录数合计
+     */
+    @Select("SELECT COALESCE(SUM(total_quantity), 0) AS total_quantity, COALESCE(SUM(total_cost), 0) AS total_cost, " +
+            "COALESCE(SUM(record_count), 0) AS record_count FROM fuel_monthly_stats")
+    Map<String, Object> sumAll();
+
+    /**
+     * 统计船舶燃油总消耗
+     */
+    @Select("SELECT COALESCE(SUM(total_quantity), 0) FROM fuel_monthly_stats WHERE ship_id = #{shipId}")
+    BigDecimal sumQuantityByShipId(Long shipId);
+
+    /**
+     * 统计船舶燃油总费用
+     */
+    @Select("SELECT COALESCE(SUM(total_cost), 0) FROM fuel_monthly_stats WHERE ship_id = #{shipId}")
+    BigDecimal sumCostByShipId(Long shipId);
+
+    /**
+     * 按月统计燃油消耗（最近12个月）
+     */
+    @Select("SELECT DATE_FORMAT(stat_month, '%Y-%m') AS month, SUM(total_quantity) AS total_quantity, SUM(total_cost) AS total_cost " +
+            "FROM fuel_monthly_stats WHERE ship_id = #{shipId} GROUP BY stat_month ORDER BY stat_month DESC LIMIT 12")
+    List<Map<String, Object>> monthlyStatsByShipId(Long shipId);
+
+    /**
+     * 清空汇总（重建前）
+     * @param shipId 为空表示全部船舶
+     */
+    @Delete("<script>" +
+            "DELETE FROM fuel_monthly_stats <if test='shipId != null'>WHERE ship_id = #{shipId}</if>" +
+            "</script>")
+    int deleteByShip(@Param("shipId") Long shipId);
+
+    /**
+     * 从燃油记录重新汇总
+     * @param shipId 为空表示全部船舶
+     */
+    @Insert("<script>" +
+            "INSERT INTO fuel_monthly_stats (ship_id, stat_month, fuel_type, total_quantity, total_cost, record_count) " +
+            "SELECT ship_id, DATE_FORMAT(record_date, '%Y-%m-01'), IFNULL(fuel_type, ''), " +
+            "IFNULL(SUM(quantity), 0), IFNULL(SUM(total_cost), 0), COUNT(*) " +
+            "FROM fuel_records <if test='shipId != null'>WHERE ship_id = #{shipId} </if>" +
+            "GROUP BY ship_id, DATE_FORMAT(record_date, '%Y-%m-01'), IFNULL(fuel_type, '')" +
+            "</script>")
+    int rebuildByShip(@Param("shipId") Long shipId);
+}
@@ -1,36 +1,97 @@
 package com.dhy.shipmanagebackend.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.dhy.shipmanagebackend.dto.FuelAnalyticsRow;
+import com.dhy.shipmanagebackend.dto.FuelSeriesRow;
 import com.dhy.shipmanagebackend.entity.FuelRecord;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 燃油记录Mapper接口
  */
 @Mapper
 public interface FuelRecordMapper extends BaseMapper<FuelRecord> {
-    
+
     /**
-     * 统计船舶燃油总消耗
+     * 多行 INSERT 批量写入（批量导入使用）
      */
-    @Select("SELECT COALESCE(SUM(quantity), 0) FROM fuel_records WHERE ship_id = #{shipId}")
-    BigDecimal sumQuantityByShipId(Long shipId);
-    
+    @Insert("<script>" +
+            "INSERT INTO fuel_records (ship_id, voyage_id, record_date, fuel_type, quantity, unit_price, total_cost, supplier, port, remarks) VALUES " +
+            "<foreach collection='list' item='r' separator=','>" +
+            "(#{r.shipId}, #{r.voyageId}, #{r.recordDate}, #{r.fuelType}, #{r.quantity}, #{r.unitPrice}, #{r.totalCost}, #{r.supplier}, #{r.port}, #{r.remarks})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("list") List<FuelRecord> records);
+
+    /**
+     * 按ID查询并加行锁，用于更新/删除前取得原值以维护统计汇总
+     */
+    @Select("<script>" +
+            "SELECT * FROM fuel_records WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "FOR UPDATE" +
+            "</script>")
+    List<FuelRecord> selectByIdsForUpdate(@Param("ids") Collection<Long> ids);
+
     /**
-     * 统计船舶燃油总费用
+     * 燃油时间序列：按船舶、时间桶、燃油类型汇总
+     * 过滤条件均为 ship_id / record_date 上的直接比较，走 (ship_id, record_date) 索引范围扫描；
+     * 结果逐行交给 handler（MySQL 流式读取），不在内存中整体构建列表
+     * @param shipIds 为空表示全部船舶
+     * @param bucketSql 时间桶表达式，只能取 FuelSeriesGranularity 中的常量
+     * @param endDate 结束日期（不含）
      */
-    @Select("SELECT COALESCE(SUM(total_cost), 0) FROM fuel_records WHERE ship_id = #{shipId}")
-    BigDecimal sumCostByShipId(Long shipId);
-    
+    @Select("<script>" +
+            "SELECT ship_id, ${bucketSql} AS bucket, IFNULL(fuel_type, '') AS fuel_type, " +
+            "IFNULL(SUM(quantity), 0) AS quantity, IFNULL(SUM(total_cost), 0) AS cost, COUNT(*) AS record_count " +
+            "FROM fuel_records WHERE record_date &gt;= #{startDate} AND record_date &lt; #{endDate} " +
+            "<if test='shipIds != null and shipIds.size() > 0'>" +
+            "AND ship_id IN <foreach collection='shipIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "</if>" +
+            "<if test='fuelType != null and fuelType != \"\"'>AND fuel_type = #{fuelType} </if>" +
+            "GROUP BY ship_id, bucket, IFNULL(fuel_type, '') ORDER BY ship_id, bucket, IFNULL(fuel_type, '')" +
+            "</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(FuelSeriesRow.class)
+    void selectSeries(@Param("shipIds") List<Long> shipIds, @Param("fuelType") String fuelType,
+                      @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+                      @Param("bucketSql") String bucketSql, ResultHandler<FuelSeriesRow> handler);
+
+    /**
+     * 有燃油记录的船舶ID（用于船队分析按船分区）
+     */
+    @Select("<script>" +
+            "SELECT DISTINCT ship_id FROM fuel_records " +
+            "WHERE record_date &gt;= #{startDate} AND record_date &lt; #{endDate} ORDER BY ship_id" +
+            "</script>")
+    List<Long> selectShipIdsInRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
     /**
-     * 按月统计燃油消耗
+     * 船队燃油分析：逐行扫描指定船舶的记录（MySQL 流式读取，游标需在 SqlSession 关闭前读完）
+     * 数量、费用均为两位小数，乘 100 后以整数返回，调用方用 long 累加
+     * @param endDate 结束日期（不含）
      */
-    @Select("SELECT DATE_FORMAT(record_date, '%Y-%m') as month, SUM(quantity) as total_quantity, SUM(total_cost) as total_cost " +
-            "FROM fuel_records WHERE ship_id = #{shipId} GROUP BY DATE_FORMAT(record_date, '%Y-%m') ORDER BY month DESC LIMIT 12")
-    List<Map<String, Object>> monthlyStatsByShipId(Long shipId);
+    @Select("<script>" +
+            "SELECT ship_id, fuel_type, port, supplier, " +
+            "CAST(IFNULL(quantity, 0) * 100 AS SIGNED) AS quantity_scaled, " +
+            "CAST(IFNULL(total_cost, 0) * 100 AS SIGNED) AS cost_cents " +
+            "FROM fuel_records WHERE ship_id IN " +
+            "<foreach collection='shipIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND record_date &gt;= #{startDate} AND record_date &lt; #{endDate}" +
+            "</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<FuelAnalyticsRow> scanForAnalytics(@Param("shipIds") List<Long> shipIds,
+                                              @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
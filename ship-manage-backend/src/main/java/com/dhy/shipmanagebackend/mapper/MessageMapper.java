@@ -1,9 +1,17 @@
 package com.dhy.shipmanagebackend.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.dhy.shipmanagebackend.entity.Message;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 消息通知Mapper接口
@@ -16,4 +24,135 @@ public interface MessageMapper extends BaseMapper<Message> {
      */
     @Select("SELECT COUNT(*) FROM messages WHERE receiver_id = #{userId} AND status = 'UNREAD'")
     int countUnreadByUserId(Long userId);
+
+    /**
+     * 分页查询用户收件箱：个人消息 + 注册后发出且未删除的广播消息
+     * 广播的已读状态由单条已读记录或已读游标推导
+     */
+    @Select("<script>" +
+            "SELECT * FROM (" +
+            "SELECT m.id, m.sender_id, m.receiver_id, m.title, m.content, m.type, m.status, " +
+            "m.related_id, m.related_type, m.created_at, m.read_at, 0 AS broadcast " +
+            "FROM messages m WHERE m.receiver_id = #{userId} " +
+            "UNION ALL " +
+            "SELECT b.id, b.sender_id, #{userId} AS receiver_id, b.title, b.content, b.type, " +
+            "CASE WHEN s.read_at IS NOT NULL OR b.id &lt;= IFNULL(c.read_up_to, 0) THEN 'READ' ELSE 'UNREAD' END AS status, " +
+            "b.related_id, b.related_type, b.created_at, s.read_at, 1 AS broadcast " +
+            "FROM broadcast_messages b " +
+            "JOIN users u ON u.id = #{userId} " +
+            "LEFT JOIN broadcast_read_cursors c ON c.user_id = #{userId} " +
+            "LEFT JOIN broadcast_message_states s ON s.user_id = #{userId} AND s.broadcast_id = b.id " +
+            "WHERE b.created_at &gt;= u.created_at AND (s.deleted IS NULL OR s.deleted = 0)" +
+            ") t " +
+            "<where>" +
+            "<if test='type != null and type != \"\"'>AND t.type = #{type}</if>" +
+            "<if test='status != null and status != \"\"'>AND t.status = #{status}</if>" +
+            "</where>" +
+            "ORDER BY t.created_at DESC, t.id DESC" +
+            "</script>")
+    IPage<Message> selectInbox(IPage<Message> page, @Param("userId") Long userId,
+                               @Param("type") String type, @Param("status") String status);
+
+    /**
+     * 游标分页查询用户收件箱，排序与 selectInbox 一致：created_at DESC, id DESC, broadcast DESC
+     * 两个分支各自按索引倒序取 limit 条再合并，不扫描游标之前的数据；
+     * 个人消息分支走 (receiver_id, status, created_at, id) / (receiver_id, created_at, id) 索引
+     * @param cursorTime 上一页最后一条的 created_at，为空表示第一页
+     * @param cursorId 上一页最后一条的 id
+     * @param cursorBroadcast 上一页最后一条是否为广播（1/0）
+     */
+    @Select("<script>" +
+            "SELECT * FROM (" +
+            "(SELECT m.id, m.sender_id, m.receiver_id, m.title, m.content, m.type, m.status, " +
+            "m.related_id, m.related_type, m.created_at, m.read_at, 0 AS broadcast " +
+            "FROM messages m WHERE m.receiver_id = #{userId} " +
+            "<if test='type != null and type != \"\"'>AND m.type = #{type} </if>" +
+            "<if test='status != null and status != \"\"'>AND m.status = #{status} </if>" +
+            "<if test='cursorTime != null'>" +
+            "AND (m.created_at &lt; #{cursorTime} OR (m.created_at = #{cursorTime} AND " +
+            "(m.id &lt; #{cursorId} OR (m.id = #{cursorId} AND #{cursorBroadcast} = 1)))) " +
+            "</if>" +
+            "ORDER BY m.created_at DESC, m.id DESC LIMIT #{limit}) " +
+            "UNION ALL " +
+            "(SELECT b.id, b.sender_id, #{userId} AS receiver_id, b.title, b.content, b.type, " +
+            "CASE WHEN s.read_at IS NOT NULL OR b.id &lt;= IFNULL(c.read_up_to, 0) THEN 'READ' ELSE 'UNREAD' END AS status, " +
+            "b.related_id, b.related_type, b.created_at, s.read_at, 1 AS broadcast " +
+            "FROM broadcast_messages b " +
+            "JOIN users u ON u.id = #{userId} " +
+            "LEFT JOIN broadcast_read_cursors c ON c.user_id = #{userId} " +
+            "LEFT JOIN broadcast_message_states s ON s.user_id = #{userId} AND s.broadcast_id = b.id " +
+            "WHERE b.created_at &gt;= u.created_at AND (s.deleted IS NULL OR s.deleted = 0) " +
+            "<if test='type != null and type != \"\"'>AND b.type = #{type} </if>" +
+            "<if test='status != null and status != \"\"'>" +
+            "AND (CASE WHEN s.read_at IS NOT NULL OR b.id &lt;= IFNULL(c.read_up_to, 0) THEN 'READ' ELSE 'UNREAD' END) = #{status} " +
+            "</if>" +
+            "<if test='cursorTime != null'>" +
+            "AND (b.created_at &lt; #{cursorTime} OR (b.created_at = #{cursorTime} AND b.id &lt; #{cursorId})) " +
+            "</if>" +
+            "ORDER BY b.created_at DESC, b.id DESC LIMIT #{limit})" +
+            ") t " +
+            "ORDER BY t.created_at DESC, t.id DESC, t.broadcast DESC LIMIT #{limit}" +
+            "</script>")
+    List<Message> selectInboxAfter(@Param("userId") Long userId,
+                                   @Param("type") String type, @Param("status") String status,
+                                   @Param("cursorTime") LocalDateTime cursorTime,
+                                   @Param("cursorId") Long cursorId,
+                                   @Param("cursorBroadcast") Integer cursorBroadcast,
+                                   @Param("limit") int limit);
+
+    /**
+     * 当前最大消息ID，批量操作以此为上界，不影响操作开始后新到的消息
+     */
+    @Select("SELECT MAX(id) FROM messages")
+    Long selectMaxId();
+
+    /**
+     * 按索引顺序取用户最早的一批消息ID，供分批更新/删除使用
+     * 处理过的行不再满足条件，下一批自然从后面开始，无需偏移；
+     * 沿 (receiver_id, status, created_at, id) / (receiver_id, created_at, id) 索引顺序读取，取满即停
+     * @param status 为空表示不限状态
+     * @param maxId 只处理不大于该ID的消息
+     */
+    @Select("<script>" +
+            "SELECT id FROM messages WHERE receiver_id = #{userId} " +
+            "<if test='status != null'>AND status = #{status} </if>" +
+            "AND id &lt;= #{maxId} " +
+            "ORDER BY created_at, id LIMIT #{limit}" +
+            "</script>")
+    List<Long> selectIdChunk(@Param("userId") Long userId, @Param("status") String status,
+                             @Param("maxId") Long maxId, @Param("limit") int limit);
+
+    /**
+     * 按ID批量标记已读，只更新仍为未读的行
+     * @return 实际变为已读的条数
+     */
+    @Update("<script>" +
+            "UPDATE messages SET status = 'READ', read_at = NOW() " +
+            "WHERE receiver_id = #{userId} AND status = 'UNREAD' AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int markReadByIds(@Param("userId") Long userId, @Param("ids") List<Long> ids);
+
+    /**
+     * 按ID批量删除用户的消息
+     * @param status 只删除该状态的消息，为空表示不限
+     */
+    @Delete("<script>" +
+            "DELETE FROM messages WHERE receiver_id = #{userId} " +
+            "<if test='status != null'>AND status = #{status} </if>" +
+            "AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int deleteByIds(@Param("userId") Long userId, @Param("ids") List<Long> ids, @Param("status") String status);
+
+    /**
+     * 多行 INSERT 批量写入（广播物化模式使用）
+     */
+    @Insert("<script>" +
+            "INSERT INTO messages (sender_id, receiver_id, title, content, type, status, related_id, related_type) VALUES " +
+            "<foreach collection='list' item='m' separator=','>" +
+            "(#{m.senderId}, #{m.receiverId}, #{m.title}, #{m.content}, #{m.type}, #{m.status}, #{m.relatedId}, #{m.relatedType})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("list") List<Message> messages);
 }
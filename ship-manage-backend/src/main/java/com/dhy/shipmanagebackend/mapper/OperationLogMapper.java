@@ -2,11 +2,75 @@ package com.dhy.shipmanagebackend.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.dhy.shipmanagebackend.entity.OperationLog;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 操作日志Mapper接口
  */
 @Mapper
 public interface OperationLogMapper extends BaseMapper<OperationLog> {
+
+    /**
+     * 多行 INSERT 批量写入
+     */
+    @Insert("<script>" +
+            "INSERT INTO operation_logs (user_id, username, module, operation, operation_desc, method, request_url, " +
+            "request_params, response_result, ip_address, user_agent, execution_time, error_msg, created_at) VALUES " +
+            "<foreach collection='list' item='log' separator=','>" +
+            "(#{log.userId}, #{log.username}, #{log.module}, #{log.operation}, #{log.operationDesc}, #{log.method}, " +
+            "#{log.requestUrl}, #{log.requestParams}, #{log.responseResult}, #{log.ipAddress}, #{log.userAgent}, " +
+            "#{log.executionTime}, #{log.errorMsg}, #{log.createdAt})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("list") List<OperationLog> logs);
+
+    /**
+     * 查询分区信息（未分区时返回空列表）
+     * name: 分区名，bound: 分区上界（VALUES LESS THAN 的值）
+     */
+    @Select("SELECT PARTITION_NAME AS name, PARTITION_DESCRIPTION AS bound FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'operation_logs' AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION")
+    List<Map<String, Object>> listPartitions();
+
+    /**
+     * 将 p_future 拆分出新的月份分区
+     * @param definitions 分区定义，由程序按月份生成
+     */
+    @Update("ALTER TABLE operation_logs REORGANIZE PARTITION p_future INTO (${definitions})")
+    void reorganizeFuturePartition(@Param("definitions") String definitions);
+
+    /**
+     * 删除整个分区
+     * @param names 逗号分隔的分区名，由程序生成
+     */
+    @Update("ALTER TABLE operation_logs DROP PARTITION ${names}")
+    void dropPartitions(@Param("names") String names);
+
+    /**
+     * 早于指定时间的最小日志ID
+     */
+    @Select("SELECT MIN(id) FROM operation_logs WHERE created_at < #{before}")
+    Long selectMinIdBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * 早于指定时间的最大日志ID（批量/溢写回放的日志ID与 created_at 不同序，不能取最新一条的ID）
+     */
+    @Select("SELECT MAX(id) FROM operation_logs WHERE created_at < #{before}")
+    Long selectMaxIdBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * 按ID区间删除早于指定时间的日志，每次只删一小段，避免大事务
+     */
+    @Delete("DELETE FROM operation_logs WHERE id >= #{fromId} AND id < #{toId} AND created_at < #{before}")
+    int deleteRangeBefore(@Param("fromId") long fromId, @Param("toId") long toId, @Param("before") LocalDateTime before);
 }
@@ -3,8 +3,12 @@ package com.dhy.shipmanagebackend.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.dhy.shipmanagebackend.entity.ShipCertificate;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -24,4 +28,77 @@ public interface ShipCertificateMapper extends BaseMapper<ShipCertificate> {
      */
     @Select("SELECT * FROM ship_certificates WHERE expiry_date < CURDATE()")
     List<ShipCertificate> findExpiredCertificates();
+
+    /**
+     * 按到期日期游标分页查询 [fromDate, toDate) 内的证书，排序键 (expiry_date, id)，走 idx_expiry_date 范围扫描
+     * @param cursorDate 上一页最后一条的到期日期，为空表示第一页
+     * @param cursorId 上一页最后一条的 id
+     */
+    @Select("<script>" +
+            "SELECT * FROM ship_certificates WHERE expiry_date &lt; #{toDate} " +
+            "<if test='fromDate != null'>AND expiry_date &gt;= #{fromDate} </if>" +
+            "<if test='cursorDate != null'>" +
+            "AND (expiry_date &gt; #{cursorDate} OR (expiry_date = #{cursorDate} AND id &gt; #{cursorId})) " +
+            "</if>" +
+            "ORDER BY expiry_date, id LIMIT #{limit}" +
+            "</script>")
+    List<ShipCertificate> selectByExpiryAfter(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
+                                              @Param("cursorDate") LocalDate cursorDate, @Param("cursorId") Long cursorId,
+                                              @Param("limit") int limit);
+
+    /**
+     * 当天将发生状态变化的证书所属船舶（状态任务执行前调用，用于只刷新这些船舶的合规汇总）
+     */
+    @Select("SELECT DISTINCT ship_id FROM ship_certificates WHERE next_transition_date <= #{today}")
+    List<Long> selectShipIdsDue(@Param("today") LocalDate today);
+
+    /**
+     * 指定证书所属船舶
+     */
+    @Select("<script>" +
+            "SELECT DISTINCT ship_id FROM ship_certificates WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<Long> selectShipIdsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 到期提醒调度器启动加载：只取提醒需要的列，按到期日期范围走 idx_expiry_date
+     */
+    @Select("SELECT id, ship_id, certificate_name, expiry_date FROM ship_certificates WHERE expiry_date >= #{fromDate}")
+    List<ShipCertificate> selectAlertCandidates(@Param("fromDate") LocalDate fromDate);
+
+    /**
+     * 到期的 EXPIRING/VALID 证书置为 EXPIRED（按 next_transition_date 索引范围扫描，每次最多 limit 行）
+     */
+    @Update("UPDATE ship_certificates SET status = 'EXPIRED', next_transition_date = NULL " +
+            "WHERE next_transition_date <= #{today} AND expiry_date < #{today} " +
+            "ORDER BY next_transition_date LIMIT #{limit}")
+    int markExpired(@Param("today") LocalDate today, @Param("limit") int limit);
+
+    /**
+     * 进入提醒期的 VALID 证书置为 EXPIRING，下次变化日期为到期次日
+     * @param expiringBefore 到期日早于该日期即为即将到期
+     */
+    @Update("UPDATE ship_certificates SET status = 'EXPIRING', next_transition_date = DATE_ADD(expiry_date, INTERVAL 1 DAY) " +
+            "WHERE next_transition_date <= #{today} AND expiry_date >= #{today} AND expiry_date < #{expiringBefore} " +
+            "ORDER BY next_transition_date LIMIT #{limit}")
+    int markExpiring(@Param("today") LocalDate today, @Param("expiringBefore") LocalDate expiringBefore,
+                     @Param("limit") int limit);
+
+    /**
+     * 修正其余已到变化日期的证书（如直接改库导致下次变化日期与到期日期不一致）：恢复为 VALID 并重算下次变化日期
+     * @param leadDays 到期前多少天变为 EXPIRING
+     */
+    @Update("UPDATE ship_certificates SET status = 'VALID', " +
+            "next_transition_date = DATE_SUB(expiry_date, INTERVAL #{leadDays} DAY) " +
+            "WHERE next_transition_date <= #{today} AND (expiry_date IS NULL OR expiry_date >= #{expiringBefore}) " +
+            "ORDER BY next_transition_date LIMIT #{limit}")
+    int resetTransition(@Param("today") LocalDate today, @Param("expiringBefore") LocalDate expiringBefore,
+                        @Param("leadDays") int leadDays, @Param("limit") int limit);
+
+    /**
+     * 清空下次变化日期（updateById 会跳过空字段）
+     */
+    @Update("UPDATE ship_certificates SET next_transition_date = NULL WHERE id = #{id}")
+    int clearNextTransition(@Param("id") Long id);
 }
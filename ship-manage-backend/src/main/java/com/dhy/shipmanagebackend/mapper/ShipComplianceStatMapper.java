@@ -0,0 +1,87 @@
+package com.dhy.shipmanagebackend.mapper;
+
+import com.dhy.shipmanagebackend.dto.ShipComplianceRow;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 船舶证书合规汇总Mapper接口
+ */
+@Mapper
+public interface ShipComplianceStatMapper {
+
+    /**
+     * 从证书表重算指定船舶的汇总行（按 ship_id 索引聚合）
+     */
+    @Insert("<script>" +
+            "INSERT INTO ship_compliance_stats (ship_id, valid_count, expiring_count, expired_count, earliest_expiry) " +
+            "SELECT ship_id, SUM(IFNULL(status, 'VALID') = 'VALID'), SUM(status = 'EXPIRING'), SUM(status = 'EXPIRED'), " +
+            "IFNULL(MIN(expiry_date), '9999-12-31') " +
+            "FROM ship_certificates WHERE ship_id IN " +
+            "<foreach collection='shipIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "GROUP BY ship_id " +
+            "ON DUPLICATE KEY UPDATE valid_count = VALUES(valid_count), expiring_count = VALUES(expiring_count), " +
+            "expired_count = VALUES(expired_count), earliest_expiry = VALUES(earliest_expiry)" +
+            "</script>")
+    int refreshShips(@Param("shipIds") Collection<Long> shipIds);
+
+    /**
+     * 删除已没有证书的船舶的汇总行
+     */
+    @Delete("<script>" +
+            "DELETE FROM ship_compliance_stats WHERE ship_id IN " +
+            "<foreach collection='shipIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND NOT EXISTS (SELECT 1 FROM ship_certificates c WHERE c.ship_id = ship_compliance_stats.ship_id)" +
+            "</script>")
+    int deleteEmptyShips(@Param("shipIds") Collection<Long> shipIds);
+
+    /**
+     * 全部汇总
+     */
+    @Select("SELECT COUNT(*) AS ship_count, COALESCE(SUM(valid_count), 0) AS valid_count, " +
+            "COALESCE(SUM(expiring_count), 0) AS expiring_count, COALESCE(SUM(expired_count), 0) AS expired_count, " +
+            "MIN(earliest_expiry) AS earliest_expiry FROM ship_compliance_stats")
+    Map<String, Object> sumAll();
+
+    /**
+     * 按船舶类型汇总
+     */
+    @Select("SELECT s.category_id, c.name AS category_name, COUNT(*) AS ship_count, " +
+            "SUM(st.valid_count) AS valid_count, SUM(st.expiring_count) AS expiring_count, " +
+            "SUM(st.expired_count) AS expired_count, MIN(st.earliest_expiry) AS sort_expiry " +
+            "FROM ship_compliance_stats st JOIN ships s ON s.id = st.ship_id " +
+            "LEFT JOIN ship_categories c ON c.id = s.category_id " +
+            "GROUP BY s.category_id, c.name ORDER BY sort_expiry, s.category_id")
+    List<ShipComplianceRow> sumByCategory();
+
+    /**
+     * 按最早到期日期升序（最紧急的在前）分页，(earliest_expiry, ship_id) 为排序键做索引范围扫描
+     * @param status EXPIRED / EXPIRING 只看有该状态证书的船舶，为空表示全部
+     */
+    @Select("<script>" +
+            "SELECT st.ship_id, s.name AS ship_name, s.category_id, c.name AS category_name, " +
+            "st.valid_count, st.expiring_count, st.expired_count, st.earliest_expiry AS sort_expiry " +
+            "FROM ship_compliance_stats st LEFT JOIN ships s ON s.id = st.ship_id " +
+            "LEFT JOIN ship_categories c ON c.id = s.category_id " +
+            "<where>" +
+            "<if test='cursorExpiry != null'>" +
+            "(st.earliest_expiry &gt; #{cursorExpiry} OR (st.earliest_expiry = #{cursorExpiry} AND st.ship_id &gt; #{cursorShipId})) " +
+            "</if>" +
+            "<if test='status == \"EXPIRED\"'>AND st.expired_count &gt; 0 </if>" +
+            "<if test='status == \"EXPIRING\"'>AND st.expiring_count &gt; 0 </if>" +
+            "</where>" +
+            "ORDER BY st.earliest_expiry, st.ship_id LIMIT #{limit}" +
+            "</script>")
+    List<ShipComplianceRow> selectShipsAfter(@Param("status") String status,
+                                             @Param("cursorExpiry") LocalDate cursorExpiry,
+                                             @Param("cursorShipId") Long cursorShipId,
+                                             @Param("limit") int limit);
+}
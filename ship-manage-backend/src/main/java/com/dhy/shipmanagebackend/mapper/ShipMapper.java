@@ -3,7 +3,24 @@ package com.dhy.shipmanagebackend.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.dhy.shipmanagebackend.entity.Ship;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
 
 @Mapper
 public interface ShipMapper extends BaseMapper<Ship> {
-}
\ No newline at end of file
+
+    /**
+     * 条件更新船舶状态：只有当前状态在 fromStatuses 中才更新，同时递增版本号
+     * 判断与写入在同一条语句中完成，并发时只有一个请求能更新到行
+     * @return 1 成功；0 表示船舶不存在或当前状态不允许
+     */
+    @Update("<script>" +
+            "UPDATE ships SET status = #{toStatus}, version = version + 1, updated_at = NOW() " +
+            "WHERE id = #{id} AND status IN " +
+            "<foreach collection='fromStatuses' item='s' open='(' separator=',' close=')'>#{s}</foreach>" +
+            "</script>")
+    int transitionStatus(@Param("id") Long id, @Param("fromStatuses") Collection<String> fromStatuses,
+                         @Param("toStatus") String toStatus);
+}
@@ -0,0 +1,76 @@
+package com.dhy.shipmanagebackend.mapper;
+
+import com.dhy.shipmanagebackend.dto.PositionFix;
+import com.dhy.shipmanagebackend.dto.TrackPointRow;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 船舶位置轨迹Mapper接口
+ */
+@Mapper
+public interface ShipPositionMapper {
+
+    /**
+     * 多行 INSERT 批量写入，同一船同一秒的重复点忽略
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO ship_positions (ship_id, recorded_at, lat_e6, lon_e6, speed_x10, course_x10) VALUES " +
+            "<foreach collection='list' item='f' separator=','>" +
+            "(#{f.shipId}, #{f.recordedAt}, ROUND(#{f.latitude} * 1000000), ROUND(#{f.longitude} * 1000000), " +
+            "ROUND(#{f.speed} * 10), ROUND(#{f.course} * 10))" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("list") List<PositionFix> fixes);
+
+    /**
+     * 时间范围内的定位点数
+     */
+    @Select("SELECT COUNT(*) FROM ship_positions WHERE ship_id = #{shipId} AND recorded_at >= #{from} AND recorded_at < #{to}")
+    long countTrack(@Param("shipId") Long shipId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * 按时间顺序读取轨迹：主键范围扫描 + 分区裁剪，结果逐行交给 handler（MySQL 流式读取）
+     */
+    @Select("SELECT TIMESTAMPDIFF(SECOND, #{from}, recorded_at) AS offset_seconds, lat_e6, lon_e6, speed_x10, course_x10 " +
+            "FROM ship_positions WHERE ship_id = #{shipId} AND recorded_at >= #{from} AND recorded_at < #{to} " +
+            "ORDER BY recorded_at")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(TrackPointRow.class)
+    void selectTrack(@Param("shipId") Long shipId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                     ResultHandler<TrackPointRow> handler);
+
+    /**
+     * 查询分区信息（未分区时返回空列表）
+     * name: 分区名，bound: 分区上界（VALUES LESS THAN 的值）
+     */
+    @Select("SELECT PARTITION_NAME AS name, PARTITION_DESCRIPTION AS bound FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'ship_positions' AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION")
+    List<Map<String, Object>> listPartitions();
+
+    /**
+     * 将 p_future 拆分出新的日期分区
+     * @param definitions 分区定义，由程序按日期生成
+     */
+    @Update("ALTER TABLE ship_positions REORGANIZE PARTITION p_future INTO (${definitions})")
+    void reorganizeFuturePartition(@Param("definitions") String definitions);
+
+    /**
+     * 删除整个分区
+     * @param names 逗号分隔的分区名，由程序生成
+     */
+    @Update("ALTER TABLE ship_positions DROP PARTITION ${names}")
+    void dropPartitions(@Param("names") String names);
+}
@@ -3,7 +3,37 @@ package com.dhy.shipmanagebackend.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.dhy.shipmanagebackend.entity.Voyage;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
 
 @Mapper
 public interface VoyageMapper extends BaseMapper<Voyage> {
-}
\ No newline at end of file
+
+    /**
+     * 结束航次：一条多表 UPDATE 同时完成航次和船舶两步
+     * 航次未完成时标记为已完成；原先为执行中且船舶为航行中时，船舶恢复为在役。
+     * 两行都在同一语句内加锁，并发结束同一航次只有一个能更新到行
+     * @return 受影响行数，0 表示航次不存在或已结束
+     */
+    @Update("UPDATE voyages v LEFT JOIN ships s ON s.id = v.ship_id AND v.status = '执行中' AND s.status = '航行中' " +
+            "SET v.status = '已完成', v.end_time = NOW(), v.updated_at = NOW(), v.version = v.version + 1, " +
+            "s.status = '在役', s.version = s.version + 1, s.updated_at = NOW() " +
+            "WHERE v.id = #{id} AND v.status <> '已完成'")
+    int finish(@Param("id") Long id);
+
+    /**
+     * 批量恢复船舶状态：指定航次中执行中的航次，其船舶由航行中恢复为在役
+     * 一条多表 UPDATE 完成，同一艘船对应多个航次时也只更新一次
+     * @return 恢复的船舶数
+     */
+    @Update("<script>" +
+            "UPDATE ships s JOIN voyages v ON v.ship_id = s.id " +
+            "SET s.status = '在役', s.version = s.version + 1, s.updated_at = NOW() " +
+            "WHERE v.id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            " AND v.status = '执行中' AND s.status = '航行中'" +
+            "</script>")
+    int releaseShipsOfRunning(@Param("ids") Collection<Long> ids);
+}
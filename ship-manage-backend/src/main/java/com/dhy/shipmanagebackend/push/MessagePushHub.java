@@ -0,0 +1,234 @@
+package com.dhy.shipmanagebackend.push;
+
+import com.dhy.shipmanagebackend.exception.ServiceBusyException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 消息推送中心（SSE）
+ * 维护本节点的长连接；业务方通过 publish 发布事件，经 Redis 发布订阅广播到所有节点，
+ * 各节点再投递给本地连接。SSE 连接空闲时不占用请求线程，单节点可承载数千个空闲连接。
+ *
+ * 事件：
+ * message  新消息 {id, title, type, broadcast}
+ * unread   未读数变化 {delta} 或 {count}
+ */
+@Component
+public class MessagePushHub implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessagePushHub.class);
+
+    /**
+     * 推送事件广播频道，消息体为 {userId, event, data}，userId 为空表示发给所有在线用户
+     */
+    public static final String PUSH_CHANNEL = "message:push";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 写出任务使用应用任务线程池；开启虚拟线程时为虚拟线程
+     */
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor executor;
+
+    @Value("${push.max-connections:10000}")
+    private int maxConnections;
+
+    @Value("${push.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${push.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${push.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${push.reconnect-ms:5000}")
+    private long reconnectMillis;
+
+    @Value("${push.retry-after-seconds:30}")
+    private int retryAfterSeconds;
+
+    private final Map<Long, Set<PushConnection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder slowConsumers = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * 建立推送连接，并立即发送初始事件（如当前未读数）
+     */
+    public SseEmitter connect(Long userId, String initialEvent, Object initialData) {
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            rejected.increment();
+            throw new ServiceBusyException("推送连接数已达上限，请稍后再试", retryAfterSeconds);
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        PushConnection connection = new PushConnection(userId, emitter, queueCapacity, executor);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+
+        Set<PushConnection> userConnections = connections.compute(userId, (k, set) -> {
+            Set<PushConnection> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(connection);
+            return target;
+        });
+        // 同一用户连接过多（多开标签页）时断开最早的连接
+        while (userConnections.size() > maxConnectionsPerUser) {
+            userConnections.stream()
+                    .min(Comparator.comparingLong(PushConnection::getConnectedAt))
+                    .ifPresent(this::closeAndRemove);
+        }
+
+        connection.enqueue(SseEmitter.event()
+                .name(initialEvent)
+                .reconnectTime(reconnectMillis)
+                .data(toJson(initialData)));
+        return emitter;
+    }
+
+    /**
+     * 发布事件到所有节点
+     * @param userId 接收用户，null 表示所有在线用户
+     */
+    public void publish(Long userId, String event, Object data) {
+        ObjectNode payload = objectMapper.createObjectNode();
+        if (userId != null) {
+            payload.put("userId", userId);
+        }
+        payload.put("event", event);
+        payload.set("data", objectMapper.valueToTree(data));
+        try {
+            stringRedisTemplate.convertAndSend(PUSH_CHANNEL, objectMapper.writeValueAsString(payload));
+            published.increment();
+        } catch (Exception e) {
+            // 推送失败不影响业务，客户端重连时会重新同步
+            logger.warn("推送事件发布失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            JsonNode payload = objectMapper.readTree(new String(message.getBody(), StandardCharsets.UTF_8));
+            String event = payload.path("event").asText();
+            String data = objectMapper.writeValueAsString(payload.path("data"));
+            if (payload.hasNonNull("userId")) {
+                deliver(connections.get(payload.get("userId").asLong()), event, data);
+            } else {
+                connections.values().forEach(userConnections -> deliver(userConnections, event, data));
+            }
+        } catch (Exception e) {
+            logger.warn("推送事件处理失败: {}", e.getMessage());
+        }
+    }
+
+    private void deliver(Collection<PushConnection> targets, String event, String data) {
+        if (targets == null) {
+            return;
+        }
+        for (PushConnection connection : targets) {
+            if (connection.enqueue(SseEmitter.event().name(event).data(data))) {
+                delivered.increment();
+            } else {
+                slowConsumers.increment();
+                remove(connection);
+            }
+        }
+    }
+
+    /**
+     * 心跳：定时发送注释行，保持代理/负载均衡不断开空闲连接，同时尽早发现已断开的客户端
+     */
+    @Scheduled(fixedRateString = "${push.heartbeat-ms:25000}")
+    public void heartbeat() {
+        connections.values().forEach(userConnections -> {
+            for (PushConnection connection : userConnections) {
+                if (!connection.enqueue(SseEmitter.event().comment("ping"))) {
+                    remove(connection);
+                }
+            }
+        });
+    }
+
+    private void closeAndRemove(PushConnection connection) {
+        connection.close();
+        remove(connection);
+    }
+
+    private void remove(PushConnection connection) {
+        connections.computeIfPresent(connection.getUserId(), (k, set) -> {
+            if (set.remove(connection)) {
+                connectionCount.decrementAndGet();
+            }
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * 停机时主动关闭所有连接，客户端会自动重连到其他节点
+     */
+    @PreDestroy
+    public void shutdown() {
+        connections.values().forEach(userConnections -> List.copyOf(userConnections).forEach(this::closeAndRemove));
+    }
+
+    private String toJson(Object data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            return "{}";
+        }
+    }
+
+    /**
+     * 推送统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("connections", connectionCount.get());
+        stats.put("users", connections.size());
+        stats.put("maxConnections", maxConnections);
+        stats.put("published", published.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("slowConsumers", slowConsumers.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,107 @@
+package com.dhy.shipmanagebackend.push;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 单个 SSE 连接
+ * 事件先进入有界队列，再由共享线程池中的单个任务顺序写出；发布方永远不会被慢客户端阻塞。
+ * 队列写满说明客户端跟不上，直接断开，由浏览器 EventSource 自动重连并重新同步。
+ */
+public class PushConnection {
+
+    private final Long userId;
+    private final SseEmitter emitter;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+    private final Executor executor;
+    private final long connectedAt = System.currentTimeMillis();
+
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    PushConnection(Long userId, SseEmitter emitter, int queueCapacity, Executor executor) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = executor;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    public long getConnectedAt() {
+        return connectedAt;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * 事件入队
+     * @return false 表示连接已关闭或因积压过多被断开
+     */
+    boolean enqueue(SseEmitter.SseEventBuilder event) {
+        if (closed.get()) {
+            return false;
+        }
+        if (!queue.offer(event)) {
+            close();
+            return false;
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                draining.set(false);
+                close();
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!closed.get() && (event = queue.poll()) != null) {
+                emitter.send(event);
+            }
+        } catch (Exception e) {
+            // 客户端已断开或写出失败
+            close();
+        } finally {
+            draining.set(false);
+        }
+        // 释放标记后如有新事件进入，再调度一次
+        if (!closed.get() && !queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * 关闭连接（幂等）
+     */
+    void close() {
+        if (closed.compareAndSet(false, true)) {
+            queue.clear();
+            try {
+                emitter.complete();
+            } catch (Exception ignored) {
+                // 连接可能已被容器关闭
+            }
+        }
+    }
+}
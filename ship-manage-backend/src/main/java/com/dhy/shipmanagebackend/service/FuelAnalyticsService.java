@@ -0,0 +1,18 @@
+package com.dhy.shipmanagebackend.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 船队燃油分析服务接口
+ */
+public interface FuelAnalyticsService {
+
+    /**
+     * 全船队燃油分析：总量、消耗最多的船舶、按港口/供应商费用、燃油类型构成
+     * @param startDate 开始日期
+     * @param endDate 结束日期（含）
+     * @param top 返回消耗最多的船舶数
+     */
+    Map<String, Object> analyzeFleet(LocalDate startDate, LocalDate endDate, int top);
+}
@@ -0,0 +1,19 @@
+package com.dhy.shipmanagebackend.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Map;
+
+/**
+ * 燃油记录批量导入服务接口
+ */
+public interface FuelImportService {
+
+    /**
+     * 导入 CSV/XLSX 燃油记录
+     * 逐行读取校验，按块批量写入，每块单独提交；导入过程中通过推送发送进度
+     * @param userId 导入用户，用于推送进度
+     * @return 导入结果：总行数、成功数、失败数及逐行错误
+     */
+    Map<String, Object> importRecords(MultipartFile file, Long userId);
+}
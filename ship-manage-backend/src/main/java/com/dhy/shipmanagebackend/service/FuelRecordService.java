@@ -1,9 +1,13 @@
 package com.dhy.shipmanagebackend.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.dhy.shipmanagebackend.dto.FuelSeriesGranularity;
 import com.dhy.shipmanagebackend.entity.FuelRecord;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -17,6 +21,13 @@ public interface FuelRecordService {
      */
     void add(FuelRecord record);
     
+    /**
+     * 批量添加燃油记录（单个事务，一条多行 INSERT）
+     * 总费用在此统一计算，数值按列精度舍入后再写入和累加统计
+     * @return 写入条数
+     */
+    int addBatch(List<FuelRecord> records);
+
     /**
      * 更新燃油记录
      */
@@ -57,8 +68,28 @@ public interface FuelRecordService {
      */
     List<Map<String, Object>> monthlyStatsByShipId(Long shipId);
     
+    /**
+     * 校验燃油时间序列查询条件（船舶数、日期范围、桶数上限），不合法时抛出异常
+     */
+    void checkSeriesQuery(List<Long> shipIds, LocalDate startDate, LocalDate endDate, FuelSeriesGranularity granularity);
+
+    /**
+     * 燃油时间序列：按船舶、时间桶、燃油类型汇总，边查边以紧凑数组写出
+     * 输出 {code, message, data: {granularity, columns, rows: [[shipId, bucket, fuelType, quantity, cost, recordCount], ...]}}
+     * @param shipIds 为空表示全部船舶
+     * @param endDate 结束日期（含）
+     */
+    void writeSeries(List<Long> shipIds, String fuelType, LocalDate startDate, LocalDate endDate,
+                     FuelSeriesGranularity granularity, OutputStream out) throws IOException;
+
     /**
      * 获取燃油消耗统计概览
      */
     Map<String, Object> getStatisticsOverview();
+
+    /**
+     * 从燃油记录重建统计汇总（回填或修复偏差）
+     * @param shipId 只重建该船舶，为空表示全部
+     */
+    Map<String, Object> rebuildStatistics(Long shipId);
 }
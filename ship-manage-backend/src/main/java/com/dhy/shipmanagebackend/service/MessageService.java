@@ -1,9 +1,11 @@
 package com.dhy.shipmanagebackend.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.dhy.shipmanagebackend.dto.CursorPage;
 import com.dhy.shipmanagebackend.entity.Message;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 消息通知服务接口
@@ -22,7 +24,8 @@ public interface MessageService {
     void sendPersonalMessage(Long senderId, Long receiverId, String title, String content, String type);
 
     /**
-     * 批量发送系统消息给所有用户
+     * 发送系统消息给所有用户
+     * 默认只写一条广播记录，读取时与个人消息合并
      */
     void broadcastSystemMessage(String title, String content, String type);
 
@@ -31,6 +34,13 @@ public interface MessageService {
      */
     IPage<Message> getUserMessages(Long userId, Integer pageNum, Integer pageSize, String type, String status);
 
+    /**
+     * 获取用户消息列表(游标分页)
+     * 不统计总数，翻页耗时与页码无关，适合消息量大的用户
+     * @param cursor 上一页返回的 nextCursor，第一页传空
+     */
+    CursorPage<Message> getUserMessagesByCursor(Long userId, String cursor, Integer size, String type, String status);
+
     /**
      * 获取用户未读消息数量
      */
@@ -38,16 +48,41 @@ public interface MessageService {
 
     /**
      * 标记消息为已读
+     * @param broadcast 是否为广播消息
+     */
+    void markAsRead(Long messageId, Long userId, boolean broadcast);
+
+    /**
+     * 批量标记消息为已读
+     * @param ids 个人消息ID
+     * @param broadcastIds 广播消息ID
+     * @return affected 实际标记为已读的条数
      */
-    void markAsRead(Long messageId, Long userId);
+    Map<String, Object> markAsRead(Long userId, List<Long> ids, List<Long> broadcastIds);
 
     /**
-     * 批量标记为已读
+     * 全部标记为已读
+     * 按批提交，每批只锁定少量行；操作开始后新到的消息不受影响
+     * @return affected 标记条数，chunks 批次数，chunkMillis 每批耗时，elapsedMillis 总耗时
      */
-    void markAllAsRead(Long userId);
+    Map<String, Object> markAllAsRead(Long userId);
 
     /**
      * 删除消息
+     * @param broadcast 是否为广播消息（广播仅对当前用户隐藏）
+     */
+    void delete(Long messageId, Long userId, boolean broadcast);
+
+    /**
+     * 批量删除消息
+     * @return affected 实际删除的条数
+     */
+    Map<String, Object> deleteBatch(Long userId, List<Long> ids, List<Long> broadcastIds);
+
+    /**
+     * 清空消息，按批提交
+     * @param status 只删除该状态（READ/UNREAD）的消息，为空表示全部
+     * @return 同 markAllAsRead
      */
-    void delete(Long messageId, Long userId);
+    Map<String, Object> deleteAll(Long userId, String status);
 }
@@ -3,15 +3,23 @@ package com.dhy.shipmanagebackend.service;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.dhy.shipmanagebackend.entity.OperationLog;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 /**
  * 操作日志服务接口
  */
 public interface OperationLogService {
     
     /**
-     * 保存操作日志
+     * 保存操作日志（写入缓冲区，批量落库）
      */
     void save(OperationLog log);
+
+    /**
+     * 写入缓冲区运行统计
+     */
+    Map<String, Object> bufferStats();
     
     /**
      * 分页查询操作日志
@@ -20,11 +28,16 @@ public interface OperationLogService {
      * @param username 用户名(可选)
      * @param module 模块(可选)
      * @param operation 操作类型(可选)
+     * @param startTime 起始时间(可选，含)
+     * @param endTime 结束时间(可选，不含)
      */
-    IPage<OperationLog> page(Integer pageNum, Integer pageSize, String username, String module, String operation);
+    IPage<OperationLog> page(Integer pageNum, Integer pageSize, String username, String module, String operation,
+                             LocalDateTime startTime, LocalDateTime endTime);
     
     /**
      * 清理指定天数前的日志
+     * 已分区时整分区删除，剩余部分按 ID 区间分批删除
+     * @return droppedPartitions 删除的分区，deletedRows 分批删除的行数
      */
-    void cleanOldLogs(int days);
+    Map<String, Object> cleanOldLogs(int days);
 }
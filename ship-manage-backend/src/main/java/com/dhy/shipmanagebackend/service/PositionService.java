@@ -0,0 +1,30 @@
+package com.dhy.shipmanagebackend.service;
+
+import com.dhy.shipmanagebackend.dto.PositionFix;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 船舶位置轨迹服务接口
+ */
+public interface PositionService {
+
+    /**
+     * 批量上报定位点（写入缓冲区，批量落库）
+     * @return received 收到点数，accepted 进入缓冲区点数，rejected 校验不通过点数，dropped 缓冲区满被丢弃点数
+     */
+    Map<String, Object> ingest(List<PositionFix> fixes);
+
+    /**
+     * 航次轨迹：开航到结束（未结束则到当前时间）之间的定位点，经 Douglas–Peucker 抽稀
+     * @param toleranceMeters 抽稀容差(米)，为空使用默认值
+     * @param maxPoints 最多返回点数，为空使用默认值
+     */
+    Map<String, Object> getVoyageTrack(Long voyageId, Double toleranceMeters, Integer maxPoints);
+
+    /**
+     * 写入缓冲区运行统计
+     */
+    Map<String, Object> bufferStats();
+}
@@ -0,0 +1,46 @@
+package com.dhy.shipmanagebackend.service;
+
+import com.dhy.shipmanagebackend.entity.LoginUser;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 登录会话服务接口
+ * 在 Redis 中维护 用户 → token 集合 的索引，支持 O(1) 定位并吊销某个用户的全部会话
+ */
+public interface SessionService {
+
+    /**
+     * 登录成功后登记会话（token、用户会话集合、会话元数据）
+     */
+    void createSession(LoginUser user, String token);
+
+    /**
+     * 吊销单个会话（退出登录）
+     */
+    void revoke(Long userId, String token);
+
+    /**
+     * 吊销用户的全部会话（修改角色、重置密码、删除用户时调用）
+     * @return 吊销的会话数
+     */
+    int revokeAll(Long userId);
+
+    /**
+     * 查询用户当前有效的会话
+     */
+    List<Map<String, Object>> listSessions(Long userId);
+
+    /**
+     * 为推送连接签发一次性票据，短期有效，避免会话令牌出现在 URL 和访问日志中
+     * @return 票据
+     */
+    String issueStreamTicket(String token);
+
+    /**
+     * 兑换推送连接票据（兑换后立即失效）
+     * @return 签发票据时的会话令牌；票据不存在、已过期或已使用时返回 null
+     */
+    String redeemStreamTicket(String ticket);
+}
@@ -1,9 +1,12 @@
 package com.dhy.shipmanagebackend.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.dhy.shipmanagebackend.dto.CursorPage;
+import com.dhy.shipmanagebackend.dto.ShipComplianceRow;
 import com.dhy.shipmanagebackend.entity.ShipCertificate;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 船舶证书服务接口
@@ -57,6 +60,33 @@ public interface ShipCertificateService {
     
     /**
      * 更新证书状态(定时任务调用)
+     * 只处理下次变化日期已到的证书，返回本次各类变化的行数和耗时
      */
-    void updateCertificateStatus();
+    Map<String, Object> updateCertificateStatus();
+
+    /**
+     * 证书状态任务统计（累计运行次数、变化行数、最近一次结果）
+     */
+    Map<String, Object> statusStats();
+
+    /**
+     * 船队证书合规概览：各状态证书总数、最早到期日期及按船舶类型汇总（读取合规汇总表）
+     */
+    Map<String, Object> getComplianceSummary();
+
+    /**
+     * 按船舶的合规汇总，最紧急（最早到期）的在前，游标分页
+     * @param status EXPIRED / EXPIRING 只看有该状态证书的船舶，为空表示全部
+     */
+    CursorPage<ShipComplianceRow> getShipCompliance(String cursor, Integer size, String status);
+
+    /**
+     * 即将到期的证书，按到期日期升序游标分页
+     */
+    CursorPage<ShipCertificate> getExpiringByCursor(String cursor, Integer size);
+
+    /**
+     * 已过期的证书，按到期日期升序（过期最久的在前）游标分页
+     */
+    CursorPage<ShipCertificate> getExpiredByCursor(String cursor, Integer size);
 }
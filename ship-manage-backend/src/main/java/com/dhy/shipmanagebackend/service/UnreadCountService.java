@@ -0,0 +1,37 @@
+package com.dhy.shipmanagebackend.service;
+
+import java.util.Collection;
+
+/**
+ * 未读消息计数服务接口
+ * 在 Redis 中为每个用户维护未读数，消息收发/已读/删除时增量更新，计数缺失时从数据库重建
+ */
+public interface UnreadCountService {
+
+    /**
+     * 获取用户未读消息数（个人消息 + 广播消息）
+     */
+    int get(Long userId);
+
+    /**
+     * 个人未读数增减（在当前事务提交后执行）
+     * @param delta 增量，可为负数
+     */
+    void add(Long userId, int delta);
+
+    /**
+     * 新增一条广播，所有用户的未读数随之加一
+     */
+    void onBroadcast();
+
+    /**
+     * 丢弃计数，下次读取时从数据库重建
+     */
+    void evict(Collection<Long> userIds);
+
+    /**
+     * 分批校对已有计数与数据库是否一致，修复偏差
+     * @return 修复的计数个数
+     */
+    int reconcile();
+}
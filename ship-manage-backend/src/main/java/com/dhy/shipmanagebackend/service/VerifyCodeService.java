@@ -0,0 +1,19 @@
+package com.dhy.shipmanagebackend.service;
+
+/**
+ * 邮箱验证码服务接口
+ * 签发、校验均由 Redis Lua 脚本完成，每一步只需一次往返
+ */
+public interface VerifyCodeService {
+
+    /**
+     * 签发验证码（含 60 秒防刷与邮箱 / IP 滑动窗口限流）
+     * @return 生成的验证码
+     */
+    String issue(String email, String ip);
+
+    /**
+     * 校验并消费验证码，校验失败抛出异常
+     */
+    void consume(String email, String code);
+}
@@ -0,0 +1,205 @@
+package com.dhy.shipmanagebackend.service.impl;
+
+import com.dhy.shipmanagebackend.analytics.FleetFuelAccumulator;
+import com.dhy.shipmanagebackend.analytics.FleetFuelAggregator;
+import com.dhy.shipmanagebackend.dto.FuelAnalyticsRow;
+import com.dhy.shipmanagebackend.entity.Ship;
+import com.dhy.shipmanagebackend.mapper.FuelRecordMapper;
+import com.dhy.shipmanagebackend.mapper.ShipMapper;
+import com.dhy.shipmanagebackend.service.FuelAnalyticsService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 船队燃油分析服务实现类
+ * 按船舶分区，在专用 fork-join 线程池中并行扫描 fuel_records：每个分区用独立 SqlSession
+ * 以流式游标逐行读取，累加到整数累加器后再合并。内存占用只与船舶/港口/供应商种类数有关，
+ * 与记录数无关；并行度应小于数据库连接池大小，避免占满连接影响在线请求。
+ */
+@Service
+public class FuelAnalyticsServiceImpl implements FuelAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FuelAnalyticsServiceImpl.class);
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private FuelRecordMapper fuelRecordMapper;
+
+    @Autowired
+    private ShipMapper shipMapper;
+
+    /**
+     * 并行扫描的分区数（同时占用的数据库连接数）
+     */
+    @Value("${fuel.analytics.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * 每个分区最多包含的船舶数
+     */
+    @Value("${fuel.analytics.ships-per-partition:8}")
+    private int shipsPerPartition;
+
+    /**
+     * 港口、供应商等维度最多保留的种类数，超出部分归入「其他」
+     */
+    @Value("${fuel.analytics.max-keys:500}")
+    private int maxKeys;
+
+    /**
+     * 单次分析最大日期跨度（天）
+     */
+    @Value("${fuel.analytics.max-days:3660}")
+    private long maxDays;
+
+    /**
+     * 返回消耗最多的船舶数上限
+     */
+    private static final int MAX_TOP = 100;
+
+    private ForkJoinPool pool;
+    private FleetFuelAggregator aggregator;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger seq = new AtomicInteger();
+        pool = new ForkJoinPool(parallelism, p -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("fuel-analytics-" + seq.incrementAndGet());
+            return thread;
+        }, null, false);
+        aggregator = new FleetFuelAggregator(pool, shipsPerPartition, maxKeys);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    public Map<String, Object> analyzeFleet(LocalDate startDate, LocalDate endDate, int top) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new RuntimeException("日期范围不正确");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= maxDays) {
+            throw new RuntimeException("分析的日期跨度不能超过 " + maxDays + " 天");
+        }
+        int limit = Math.max(1, Math.min(top, MAX_TOP));
+        LocalDate endExclusive = endDate.plusDays(1);
+
+        long start = System.currentTimeMillis();
+        List<Long> shipIds = fuelRecordMapper.selectShipIdsInRange(startDate, endExclusive);
+        FleetFuelAccumulator result = aggregator.aggregate(shipIds,
+                (partition, sink) -> scan(partition, startDate, endExclusive, sink));
+        long elapsed = System.currentTimeMillis() - start;
+
+        long[] total = result.getTotal();
+        logger.info("船队燃油分析完成: 船舶 {} 艘, 记录 {} 条, 耗时 {} ms",
+                shipIds.size(), total[FleetFuelAccumulator.COUNT], elapsed);
+
+        Map<String, Object> totals = new HashMap<>();
+        totals.put("quantity", toDecimal(total[FleetFuelAccumulator.QUANTITY]));
+        totals.put("cost", toDecimal(total[FleetFuelAccumulator.COST]));
+        totals.put("recordCount", total[FleetFuelAccumulator.COUNT]);
+        totals.put("shipCount", result.getShips().size());
+
+        Map<String, Object> analysis = new HashMap<>();
+        analysis.put("startDate", startDate);
+        analysis.put("endDate", endDate);
+        analysis.put("totals", totals);
+        analysis.put("topConsumers", topConsumers(result.getShips(), limit));
+        analysis.put("costByPort", breakdown(result.getPorts(), FleetFuelAccumulator.COST, total));
+        analysis.put("costBySupplier", breakdown(result.getSuppliers(), FleetFuelAccumulator.COST, total));
+        analysis.put("fuelTypeMix", breakdown(result.getFuelTypes(), FleetFuelAccumulator.QUANTITY, total));
+        analysis.put("partitions", (shipIds.size() + shipsPerPartition - 1) / shipsPerPartition);
+        analysis.put("elapsedMillis", elapsed);
+        return analysis;
+    }
+
+    /**
+     * 扫描一个分区：独立会话，读完即关闭，占用一个连接
+     */
+    private void scan(List<Long> shipIds, LocalDate startDate, LocalDate endDate, Consumer<FuelAnalyticsRow> sink) {
+        try (SqlSession session = sqlSessionFactory.openSession();
+             Cursor<FuelAnalyticsRow> cursor = session.getMapper(FuelRecordMapper.class)
+                     .scanForAnalytics(new ArrayList<>(shipIds), startDate, endDate)) {
+            cursor.forEach(sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Map<String, Object>> topConsumers(Map<Long, long[]> ships, int limit) {
+        List<Map.Entry<Long, long[]>> top = ships.entrySet().stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<Long, long[]> e) -> e.getValue()[FleetFuelAccumulator.QUANTITY]).reversed())
+                .limit(limit)
+                .toList();
+        Map<Long, String> names = new HashMap<>();
+        if (!top.isEmpty()) {
+            for (Ship ship : shipMapper.selectBatchIds(top.stream().map(Map.Entry::getKey).toList())) {
+                names.put(ship.getId(), ship.getName());
+            }
+        }
+        List<Map<String, Object>> list = new ArrayList<>(top.size());
+        for (Map.Entry<Long, long[]> entry : top) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("shipId", entry.getKey());
+            item.put("shipName", names.get(entry.getKey()));
+            item.put("quantity", toDecimal(entry.getValue()[FleetFuelAccumulator.QUANTITY]));
+            item.put("cost", toDecimal(entry.getValue()[FleetFuelAccumulator.COST]));
+            item.put("recordCount", entry.getValue()[FleetFuelAccumulator.COUNT]);
+            list.add(item);
+        }
+        return list;
+    }
+
+    /**
+     * 维度明细，按 index 指定的指标（QUANTITY 数量 / COST 费用）降序，share 为占总量中该指标的比例
+     */
+    private List<Map<String, Object>> breakdown(Map<String, long[]> values, int index, long[] totals) {
+        long total = totals[index];
+        List<Map<String, Object>> list = new ArrayList<>(values.size());
+        values.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[index]).reversed())
+                .forEach(entry -> {
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("name", entry.getKey());
+                    item.put("quantity", toDecimal(entry.getValue()[FleetFuelAccumulator.QUANTITY]));
+                    item.put("cost", toDecimal(entry.getValue()[FleetFuelAccumulator.COST]));
+                    item.put("recordCount", entry.getValue()[FleetFuelAccumulator.COUNT]);
+                    item.put("share", total == 0 ? 0.0 : (double) entry.getValue()[index] / total);
+                    list.add(item);
+                });
+        return list;
+    }
+
+    private static BigDecimal toDecimal(long scaled) {
+        return BigDecimal.valueOf(scaled, 2);
+    }
+}
@@ -0,0 +1,468 @@
+package com.dhy.shipmanagebackend.service.impl;
+
+import cn.hutool.core.text.csv.CsvReadConfig;
+import cn.hutool.core.text.csv.CsvUtil;
+import cn.hutool.poi.excel.ExcelUtil;
+import com.dhy.shipmanagebackend.entity.FuelRecord;
+import com.dhy.shipmanagebackend.entity.Ship;
+import com.dhy.shipmanagebackend.mapper.ShipMapper;
+import com.dhy.shipmanagebackend.push.MessagePushHub;
+import com.dhy.shipmanagebackend.service.FuelImportService;
+import com.dhy.shipmanagebackend.service.FuelRecordService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 燃油记录批量导入服务实现类
+ * CSV 逐行解析，XLSX 以 SAX 方式逐行解析，都不把整个文件读入内存。
+ * 合法的行攒满 chunkSize 条后一次多行 INSERT 写入并提交（统计汇总在同一事务中维护），
+ * 已提交的块不会因后续行出错而回滚；非法行只记录行号和原因，不影响其他行。
+ */
+@Service
+public class FuelImportServiceImpl implements FuelImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FuelImportServiceImpl.class);
+
+    /**
+     * 推送事件名，数据为 {importId, processed, imported, failed, done}
+     */
+    public static final String PROGRESS_EVENT = "import";
+
+    /**
+     * 表头别名 → 字段。表头忽略大小写、空格和括号内的单位，可直接导入页面导出的文件
+     */
+    private static final Map<String, String> HEADER_ALIASES = new HashMap<>();
+
+    private static final String[] REQUIRED_FIELDS = {"shipId", "recordDate"};
+
+    /**
+     * STRICT 解析：2024-02-30 这类不存在的日期报错，而不是被修正为月末
+     */
+    private static final DateTimeFormatter[] DATE_FORMATS = {
+            DateTimeFormatter.ofPattern("uuuu-M-d").withResolverStyle(ResolverStyle.STRICT),
+            DateTimeFormatter.ofPattern("uuuu/M/d").withResolverStyle(ResolverStyle.STRICT),
+            DateTimeFormatter.ofPattern("uuuuMMdd").withResolverStyle(ResolverStyle.STRICT)
+    };
+
+    /**
+     * 总费用列为 decimal(12, 2)
+     */
+    private static final BigDecimal MAX_TOTAL_COST = new BigDecimal("9999999999.99");
+
+    static {
+        alias("shipId", "shipid", "ship_id", "船舶id");
+        alias("voyageId", "voyageid", "voyage_id", "航次id");
+        alias("recordDate", "recorddate", "record_date", "记录日期", "日期");
+        alias("fuelType", "fueltype", "fuel_type", "燃油类型");
+        alias("quantity", "quantity", "消耗量");
+        alias("unitPrice", "unitprice", "unit_price", "单价");
+        alias("supplier", "supplier", "供应商");
+        alias("port", "port", "港口", "加油港口");
+        alias("remarks", "remarks", "备注");
+    }
+
+    private static void alias(String field, String... names) {
+        for (String name : names) {
+            HEADER_ALIASES.put(name, field);
+        }
+    }
+
+    @Autowired
+    private FuelRecordService fuelRecordService;
+
+    @Autowired
+    private ShipMapper shipMapper;
+
+    @Autowired
+    private MessagePushHub messagePushHub;
+
+    @Autowired
+    private Validator validator;
+
+    /**
+     * 每块写入的行数（一条多行 INSERT、一个事务）
+     */
+    @Value("${fuel.import.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * 结果中最多返回的错误行数，超出只计数
+     */
+    @Value("${fuel.import.max-errors:200}")
+    private int maxErrors;
+
+    @Override
+    public Map<String, Object> importRecords(MultipartFile file, Long userId) {
+        if (file == null || file.isEmpty()) {
+            throw new RuntimeException("导入文件不能为空");
+        }
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "";
+        String extension = StringUtils.getFilenameExtension(fileName);
+        extension = extension != null ? extension.toLowerCase(Locale.ROOT) : "";
+        if (!"csv".equals(extension) && !"xlsx".equals(extension)) {
+            throw new RuntimeException("仅支持 CSV 或 XLSX 文件");
+        }
+
+        ImportSession session = new ImportSession(UUID.randomUUID().toString().replace("-", ""), userId);
+        long start = System.currentTimeMillis();
+        try {
+            if ("csv".equals(extension)) {
+                readCsv(file, session);
+            } else {
+                readXlsx(file, session);
+            }
+            session.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("读取导入文件失败: " + e.getMessage());
+        } catch (RuntimeException e) {
+            // 解析器会把回调中抛出的异常再包装一层，取出原始原因
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof ImportAbortedException) {
+                    throw new RuntimeException(cause.getMessage());
+                }
+            }
+            throw e;
+        } finally {
+            session.publishProgress(true);
+        }
+        if (!session.headerRead) {
+            throw new RuntimeException("导入文件没有表头");
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("importId", session.importId);
+        result.put("fileName", fileName);
+        result.put("total", session.processed);
+        result.put("imported", session.imported);
+        result.put("failed", session.failed);
+        result.put("chunks", session.chunks);
+        result.put("errors", session.errors);
+        result.put("errorsTruncated", session.failed > session.errors.size());
+        result.put("elapsedMillis", System.currentTimeMillis() - start);
+        logger.info("燃油记录导入完成: 文件 {}, 共 {} 行, 成功 {}, 失败 {}, 耗时 {} ms",
+                fileName, session.processed, session.imported, session.failed, result.get("elapsedMillis"));
+        return result;
+    }
+
+    /**
+     * CSV 按 UTF-8 读取，逐行回调
+     */
+    private void readCsv(MultipartFile file, ImportSession session) throws IOException {
+        CsvReadConfig config = CsvReadConfig.defaultConfig();
+        config.setSkipEmptyRows(true);
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            CsvUtil.getReader(config).read(reader,
+                    row -> session.onRow(row.getOriginalLineNumber() + 1, row.getRawList()));
+        }
+    }
+
+    /**
+     * XLSX 以 SAX 方式读取第一个工作表。
+     * POI 从流打开时会把整个压缩包读入内存，先落到临时文件再按文件随机读取
+     */
+    private void readXlsx(MultipartFile file, ImportSession session) throws IOException {
+        File temp = Files.createTempFile("fuel-import-", ".xlsx").toFile();
+        try {
+            file.transferTo(temp);
+            ExcelUtil.readBySax(temp, 0, (sheetIndex, rowIndex, rowCells) -> session.onRow(rowIndex + 1, rowCells));
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * 文件整体不可导入（如缺少必需列），中止读取
+     */
+    private static class ImportAbortedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ImportAbortedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 一次导入的状态：表头映射、待写入块、计数和错误
+     */
+    private class ImportSession {
+        private final String importId;
+        private final Long userId;
+
+        private boolean headerRead;
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        private final List<FuelRecord> chunk = new ArrayList<>();
+        private final List<Long> chunkRows = new ArrayList<>();
+        private final Set<Long> knownShips = new HashSet<>();
+
+        private long processed;
+        private long imported;
+        private long failed;
+        private int chunks;
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+
+        ImportSession(String importId, Long userId) {
+            this.importId = importId;
+            this.userId = userId;
+        }
+
+        void onRow(long rowNumber, List<?> cells) {
+            if (isBlank(cells)) {
+                return;
+            }
+            if (!headerRead) {
+                readHeader(cells);
+                return;
+            }
+            processed++;
+            FuelRecord record;
+            try {
+                record = toRecord(cells);
+            } catch (IllegalArgumentException e) {
+                error(rowNumber, e.getMessage());
+                return;
+            }
+            Set<ConstraintViolation<FuelRecord>> violations = validator.validate(record);
+            if (!violations.isEmpty()) {
+                error(rowNumber, violations.stream().map(ConstraintViolation::getMessage)
+                        .sorted().collect(Collectors.joining("; ")));
+                return;
+            }
+            chunk.add(record);
+            chunkRows.add(rowNumber);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private void readHeader(List<?> cells) {
+            for (int i = 0; i < cells.size(); i++) {
+                String field = HEADER_ALIASES.get(normalizeHeader(cells.get(i)));
+                if (field != null) {
+                    columns.putIfAbsent(field, i);
+                }
+            }
+            List<String> missing = new ArrayList<>();
+            for (String field : REQUIRED_FIELDS) {
+                if (!columns.containsKey(field)) {
+                    missing.add(field);
+                }
+            }
+            if (!missing.isEmpty()) {
+                throw new ImportAbortedException("导入文件缺少必需列: " + String.join(", ", missing));
+            }
+            headerRead = true;
+        }
+
+        private FuelRecord toRecord(List<?> cells) {
+            FuelRecord record = new FuelRecord();
+            record.setShipId(toLong(cell(cells, "shipId"), "船舶ID"));
+            record.setVoyageId(toLong(cell(cells, "voyageId"), "航次ID"));
+            record.setRecordDate(toDate(cell(cells, "recordDate")));
+            String fuelType = toText(cell(cells, "fuelType"));
+            // 与数据库列默认值一致
+            record.setFuelType(fuelType != null ? fuelType.toUpperCase(Locale.ROOT) : "HFO");
+            record.setQuantity(toDecimal(cell(cells, "quantity"), "消耗量"));
+            record.setUnitPrice(toDecimal(cell(cells, "unitPrice"), "单价"));
+            record.setSupplier(toText(cell(cells, "supplier")));
+            record.setPort(toText(cell(cells, "port")));
+            record.setRemarks(toText(cell(cells, "remarks")));
+            if (record.getQuantity() != null && record.getUnitPrice() != null
+                    && record.getQuantity().multiply(record.getUnitPrice()).compareTo(MAX_TOTAL_COST) > 0) {
+                throw new IllegalArgumentException("总费用超出范围");
+            }
+            return record;
+        }
+
+        private Object cell(List<?> cells, String field) {
+            Integer index = columns.get(field);
+            return index != null && index < cells.size() ? cells.get(index) : null;
+        }
+
+        /**
+         * 写入当前块：先一次查询过滤掉不存在的船舶，再批量写入并提交
+         */
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Set<Long> unknown = new HashSet<>();
+            for (FuelRecord record : chunk) {
+                if (!knownShips.contains(record.getShipId())) {
+                    unknown.add(record.getShipId());
+                }
+            }
+            if (!unknown.isEmpty()) {
+                shipMapper.selectBatchIds(unknown).stream().map(Ship::getId).forEach(knownShips::add);
+            }
+
+            List<FuelRecord> valid = new ArrayList<>(chunk.size());
+            List<Long> validRows = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                FuelRecord record = chunk.get(i);
+                if (knownShips.contains(record.getShipId())) {
+                    valid.add(record);
+                    validRows.add(chunkRows.get(i));
+                } else {
+                    error(chunkRows.get(i), "船舶不存在: " + record.getShipId());
+                }
+            }
+            chunk.clear();
+            chunkRows.clear();
+
+            if (!valid.isEmpty()) {
+                try {
+                    imported += fuelRecordService.addBatch(valid);
+                    chunks++;
+                } catch (RuntimeException e) {
+                    logger.warn("燃油记录导入写入失败(第 {}-{} 行): {}",
+                            validRows.get(0), validRows.get(validRows.size() - 1), e.getMessage());
+                    for (Long row : validRows) {
+                        error(row, "写入失败");
+                    }
+                }
+            }
+            publishProgress(false);
+        }
+
+        private void error(long rowNumber, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("row", rowNumber);
+                item.put("message", message);
+                errors.add(item);
+            }
+        }
+
+        void publishProgress(boolean done) {
+            if (userId == null) {
+                return;
+            }
+            Map<String, Object> progress = new HashMap<>();
+            progress.put("importId", importId);
+            progress.put("processed", processed);
+            progress.put("imported", imported);
+            progress.put("failed", failed);
+            progress.put("done", done);
+            messagePushHub.publish(userId, PROGRESS_EVENT, progress);
+        }
+    }
+
+    private static boolean isBlank(List<?> cells) {
+        if (cells == null) {
+            return true;
+        }
+        for (Object cell : cells) {
+            if (toText(cell) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalizeHeader(Object cell) {
+        String text = toText(cell);
+        if (text == null) {
+            return "";
+        }
+        text = text.replace("\uFEFF", "").replaceAll("[(（].*$", "").replaceAll("\\s+", "");
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static String toText(Object cell) {
+        if (cell == null) {
+            return null;
+        }
+        String text = cell instanceof BigDecimal decimal ? decimal.toPlainString() : cell.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static Long toLong(Object cell, String name) {
+        BigDecimal value = toDecimal(cell, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(name + "格式不正确: " + toText(cell));
+        }
+    }
+
+    private static BigDecimal toDecimal(Object cell, String name) {
+        if (cell instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (cell instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        String text = toText(cell);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text.replace(",", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + "格式不正确: " + text);
+        }
+    }
+
+    private static LocalDate toDate(Object cell) {
+        if (cell instanceof LocalDate date) {
+            return date;
+        }
+        if (cell instanceof LocalDateTime dateTime) {
+            return dateTime.toLocalDate();
+        }
+        if (cell instanceof Date date) {
+            return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+        String text = toText(cell);
+        if (text == null) {
+            return null;
+        }
+        // 带时间部分时只取日期
+        String datePart = text.split("[ T]")[0];
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(datePart, format);
+            } catch (DateTimeParseException ignored) {
+                // 尝试下一种格式
+            }
+        }
+        throw new IllegalArgumentException("记录日期格式不正确: " + text);
+    }
+}
@@ -3,27 +3,70 @@ package com.dhy.shipmanagebackend.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dhy.shipmanagebackend.dto.FuelSeriesGranularity;
+import com.dhy.shipmanagebackend.dto.FuelSeriesRow;
+import com.dhy.shipmanagebackend.entity.FuelMonthlyStat;
 import com.dhy.shipmanagebackend.entity.FuelRecord;
+import com.dhy.shipmanagebackend.mapper.FuelMonthlyStatMapper;
 import com.dhy.shipmanagebackend.mapper.FuelRecordMapper;
 import com.dhy.shipmanagebackend.service.FuelRecordService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * 燃油记录服务实现类
+ * 统计数据读取 fuel_monthly_stats 汇总表，记录增删改时在同一事务内增量维护
  */
 @Service
+@Transactional(rollbackFor = Exception.class)
 public class FuelRecordServiceImpl implements FuelRecordService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FuelRecordServiceImpl.class);
+
     @Autowired
     private FuelRecordMapper fuelRecordMapper;
 
+    @Autowired
+    private FuelMonthlyStatMapper fuelMonthlyStatMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 时间序列单次查询最多的船舶数
+     */
+    @Value("${fuel.series.max-ships:200}")
+    private int seriesMaxShips;
+
+    /**
+     * 时间序列每艘船最多的时间桶数（如按天查询时限制日期跨度）
+     */
+    @Value("${fuel.series.max-buckets:1000}")
+    private int seriesMaxBuckets;
+
+    private static final String[] SERIES_COLUMNS = {"shipId", "bucket", "fuelType", "quantity", "cost", "recordCount"};
+
     @Override
     public void add(FuelRecord record) {
         // 自动计算总费用
@@ -31,6 +74,30 @@ public class FuelRecordServiceImpl implements FuelRecordService {
             record.setTotalCost(record.getQuantity().multiply(record.getUnitPrice()));
         }
         fuelRecordMapper.insert(record);
+        // 按库中实际保存的值（已按列精度舍入）累加
+        applyStats(Collections.emptyList(), Collections.singletonList(fuelRecordMapper.selectById(record.getId())));
+    }
+
+    @Override
+    public int addBatch(List<FuelRecord> records) {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        for (FuelRecord record : records) {
+            // 与 decimal(…, 2) 列的舍入一致，统计汇总可直接使用内存中的值
+            record.setQuantity(scale(record.getQuantity()));
+            record.setUnitPrice(scale(record.getUnitPrice()));
+            if (record.getQuantity() != null && record.getUnitPrice() != null) {
+                record.setTotalCost(scale(record.getQuantity().multiply(record.getUnitPrice())));
+            }
+        }
+        int inserted = fuelRecordMapper.insertBatch(records);
+        applyStats(Collections.emptyList(), records);
+        return inserted;
+    }
+
+    private static BigDecimal scale(BigDecimal value) {
+        return value != null ? value.setScale(2, RoundingMode.HALF_UP) : null;
     }
 
     @Override
@@ -39,12 +106,23 @@ public class FuelRecordServiceImpl implements FuelRecordService {
         if (record.getQuantity() != null && record.getUnitPrice() != null) {
             record.setTotalCost(record.getQuantity().multiply(record.getUnitPrice()));
         }
+        // 锁定原记录，更新后重新读取（updateById 会跳过空字段），按差值调整汇总
+        List<FuelRecord> before = fuelRecordMapper.selectByIdsForUpdate(Collections.singletonList(record.getId()));
+        if (before.isEmpty()) {
+            return;
+        }
         fuelRecordMapper.updateById(record);
+        applyStats(before, Collections.singletonList(fuelRecordMapper.selectById(record.getId())));
     }
 
     @Override
     public void delete(Long id) {
+        List<FuelRecord> before = fuelRecordMapper.selectByIdsForUpdate(Collections.singletonList(id));
+        if (before.isEmpty()) {
+            return;
+        }
         fuelRecordMapper.deleteById(id);
+        applyStats(before, Collections.emptyList());
     }
 
     @Override
@@ -72,44 +150,91 @@ public class FuelRecordServiceImpl implements FuelRecordService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BigDecimal sumQuantityByShipId(Long shipId) {
-        return fuelRecordMapper.sumQuantityByShipId(shipId);
+        return fuelMonthlyStatMapper.sumQuantityByShipId(shipId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BigDecimal sumCostByShipId(Long shipId) {
-        return fuelRecordMapper.sumCostByShipId(shipId);
+        return fuelMonthlyStatMapper.sumCostByShipId(shipId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> monthlyStatsByShipId(Long shipId) {
-        return fuelRecordMapper.monthlyStatsByShipId(shipId);
+        return fuelMonthlyStatMapper.monthlyStatsByShipId(shipId);
     }
 
     @Override
-    public Map<String, Object> getStatisticsOverview() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        // 总消耗量
-        LambdaQueryWrapper<FuelRecord> wrapper = new LambdaQueryWrapper<>();
-        List<FuelRecord> allRecords = fuelRecordMapper.selectList(wrapper);
-        
-        BigDecimal totalQuantity = BigDecimal.ZERO;
-        BigDecimal totalCost = BigDecimal.ZERO;
-        
-        for (FuelRecord record : allRecords) {
-            if (record.getQuantity() != null) {
-                totalQuantity = totalQuantity.add(record.getQuantity());
+    public void checkSeriesQuery(List<Long> shipIds, LocalDate startDate, LocalDate endDate, FuelSeriesGranularity granularity) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new RuntimeException("请选择正确的日期范围");
+        }
+        if (shipIds != null && shipIds.size() > seriesMaxShips) {
+            throw new RuntimeException("单次最多查询 " + seriesMaxShips + " 艘船舶");
+        }
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (granularity.estimateBuckets(days) > seriesMaxBuckets) {
+            throw new RuntimeException("日期范围过大，请缩小范围或使用更粗的时间粒度");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeSeries(List<Long> shipIds, String fuelType, LocalDate startDate, LocalDate endDate,
+                            FuelSeriesGranularity granularity, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("code", 0);
+            generator.writeStringField("message", "success");
+            generator.writeObjectFieldStart("data");
+            generator.writeStringField("granularity", granularity.name().toLowerCase());
+            generator.writeArrayFieldStart("columns");
+            for (String column : SERIES_COLUMNS) {
+                generator.writeString(column);
             }
-            if (record.getTotalCost() != null) {
-                totalCost = totalCost.add(record.getTotalCost());
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("rows");
+            try {
+                fuelRecordMapper.selectSeries(shipIds, fuelType, startDate, endDate.plusDays(1),
+                        granularity.getBucketSql(), context -> writeSeriesRow(generator, context.getResultObject()));
+            } catch (UncheckedIOException e) {
+                // 客户端中途断开
+                throw e.getCause();
             }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndObject();
         }
-        
-        stats.put("totalQuantity", totalQuantity);
-        stats.put("totalCost", totalCost);
-        stats.put("recordCount", allRecords.size());
-        
+    }
+
+    private void writeSeriesRow(JsonGenerator generator, FuelSeriesRow row) {
+        try {
+            generator.writeStartArray();
+            generator.writeNumber(row.getShipId());
+            generator.writeString(row.getBucket().toString());
+            generator.writeString(row.getFuelType());
+            generator.writeNumber(row.getQuantity());
+            generator.writeNumber(row.getCost());
+            generator.writeNumber(row.getRecordCount());
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStatisticsOverview() {
+        Map<String, Object> totals = fuelMonthlyStatMapper.sumAll();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalQuantity", totals.get("total_quantity"));
+        stats.put("totalCost", totals.get("total_cost"));
+        stats.put("recordCount", ((Number) totals.get("record_count")).intValue());
         return stats;
     }
 
@@ -118,6 +243,77 @@ public class FuelRecordServiceImpl implements FuelRecordService {
         if (ids == null || ids.isEmpty()) {
             return 0;
         }
-        return fuelRecordMapper.deleteBatchIds(ids);
+        List<FuelRecord> before = fuelRecordMapper.selectByIdsForUpdate(ids);
+        if (before.isEmpty()) {
+            return 0;
+        }
+        int deleted = fuelRecordMapper.deleteBatchIds(ids);
+        applyStats(before, Collections.emptyList());
+        return deleted;
+    }
+
+    @Override
+    public Map<String, Object> rebuildStatistics(Long shipId) {
+        long begin = System.currentTimeMillis();
+        int removed = fuelMonthlyStatMapper.deleteByShip(shipId);
+        int rows = fuelMonthlyStatMapper.rebuildByShip(shipId);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("removedRows", removed);
+        result.put("rebuiltRows", rows);
+        result.put("elapsedMillis", System.currentTimeMillis() - begin);
+        logger.info("重建燃油统计汇总(shipId={})：{}", shipId, result);
+        return result;
+    }
+
+    /**
+     * 增量维护统计汇总：removed 中的记录从汇总中扣除，added 中的记录累加
+     * 同一汇总行的增量先在内存合并，再按主键顺序写入，保证并发事务加锁顺序一致
+     */
+    private void applyStats(Collection<FuelRecord> removed, Collection<FuelRecord> added) {
+        Map<String, FuelMonthlyStat> deltas = new TreeMap<>();
+        removed.forEach(record -> accumulate(deltas, record, -1));
+        added.forEach(record -> accumulate(deltas, record, 1));
+
+        for (FuelMonthlyStat delta : deltas.values()) {
+            if (delta.getRecordCount() == 0
+                    && delta.getTotalQuantity().signum() == 0
+                    && delta.getTotalCost().signum() == 0) {
+                continue;
+            }
+            fuelMonthlyStatMapper.applyDelta(delta);
+            if (delta.getRecordCount() < 0) {
+                fuelMonthlyStatMapper.deleteIfEmpty(delta.getShipId(), delta.getStatMonth(), delta.getFuelType());
+            }
+        }
+    }
+
+    private void accumulate(Map<String, FuelMonthlyStat> deltas, FuelRecord record, int sign) {
+        if (record == null || record.getShipId() == null || record.getRecordDate() == null) {
+            return;
+        }
+        LocalDate month = record.getRecordDate().withDayOfMonth(1);
+        String fuelType = record.getFuelType() != null ? record.getFuelType() : "";
+        String key = String.format("%019d|%s|%s", record.getShipId(), month, fuelType);
+
+        FuelMonthlyStat delta = deltas.computeIfAbsent(key, k -> {
+            FuelMonthlyStat stat = new FuelMonthlyStat();
+            stat.setShipId(record.getShipId());
+            stat.setStatMonth(month);
+            stat.setFuelType(fuelType);
+            stat.setTotalQuantity(BigDecimal.ZERO);
+            stat.setTotalCost(BigDecimal.ZERO);
+            stat.setRecordCount(0);
+            return stat;
+        });
+        BigDecimal quantity = record.getQuantity() != null ? record.getQuantity() : BigDecimal.ZERO;
+        BigDecimal cost = record.getTotalCost() != null ? record.getTotalCost() : BigDecimal.ZERO;
+        if (sign < 0) {
+            quantity = quantity.negate();
+            cost = cost.negate();
+        }
+        delta.setTotalQuantity(delta.getTotalQuantity().add(quantity));
+        delta.setTotalCost(delta.getTotalCost().add(cost));
+        delta.setRecordCount(delta.getRecordCount() + sign);
     }
 }
@@ -4,18 +4,36 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dhy.shipmanagebackend.cache.UserProfileCache;
+import com.dhy.shipmanagebackend.dto.CursorPage;
+import com.dhy.shipmanagebackend.entity.BroadcastMessage;
 import com.dhy.shipmanagebackend.entity.Message;
 import com.dhy.shipmanagebackend.entity.User;
+import com.dhy.shipmanagebackend.entity.UserVO;
+import com.dhy.shipmanagebackend.mapper.BroadcastMessageMapper;
 import com.dhy.shipmanagebackend.mapper.MessageMapper;
 import com.dhy.shipmanagebackend.mapper.UserMapper;
+import com.dhy.shipmanagebackend.push.MessagePushHub;
 import com.dhy.shipmanagebackend.service.MessageService;
+import com.dhy.shipmanagebackend.service.UnreadCountService;
+import com.dhy.shipmanagebackend.utils.CursorUtil;
+import com.dhy.shipmanagebackend.utils.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 消息通知服务实现类
@@ -24,12 +42,52 @@ import java.util.List;
 @Transactional(rollbackFor = Exception.class)
 public class MessageServiceImpl implements MessageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MessageServiceImpl.class);
+
     @Autowired
     private MessageMapper messageMapper;
 
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private BroadcastMessageMapper broadcastMessageMapper;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private UnreadCountService unreadCountService;
+
+    @Autowired
+    private MessagePushHub messagePushHub;
+
+    /**
+     * true 时广播按用户逐条物化到 messages 表（分批多行 INSERT），默认只存一份广播
+     */
+    @Value("${message.broadcast.materialize:false}")
+    private boolean materializeBroadcast;
+
+    @Value("${message.broadcast.chunk-size:1000}")
+    private int broadcastChunkSize;
+
+    /**
+     * 全部已读/清空时每批处理的条数，每批单独提交
+     */
+    @Value("${message.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Value("${message.bulk.pause-ms:10}")
+    private long bulkPauseMillis;
+
+    /**
+     * 按ID批量操作时单次请求最多的ID个数
+     */
+    @Value("${message.bulk.max-ids:1000}")
+    private int bulkMaxIds;
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     @Override
     public void sendSystemMessage(Long receiverId, String title, String content, String type, Long relatedId,
             String relatedType) {
@@ -43,6 +101,8 @@ public class MessageServiceImpl implements MessageService {
         message.setRelatedId(relatedId);
         message.setRelatedType(relatedType);
         messageMapper.insert(message);
+        unreadCountService.add(receiverId, 1);
+        pushNewMessage(receiverId, message.getId(), title, message.getType(), false);
     }
 
     @Override
@@ -55,37 +115,113 @@ public class MessageServiceImpl implements MessageService {
         message.setType(type != null ? type : "PERSONAL");
         message.setStatus("UNREAD");
         messageMapper.insert(message);
+        unreadCountService.add(receiverId, 1);
+        pushNewMessage(receiverId, message.getId(), title, message.getType(), false);
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void broadcastSystemMessage(String title, String content, String type) {
-        // 获取所有用户
-        List<User> users = userMapper.selectList(null);
-        for (User user : users) {
-            sendSystemMessage(user.getId(), title, content, type, null, null);
+        if (!materializeBroadcast) {
+            // 广播只存一份，用户读取时与个人消息合并
+            BroadcastMessage broadcast = new BroadcastMessage();
+            broadcast.setSenderId(0L);
+            broadcast.setTitle(title);
+            broadcast.setContent(content);
+            broadcast.setType(type);
+            broadcastMessageMapper.insert(broadcast);
+            unreadCountService.onBroadcast();
+            pushNewMessage(null, broadcast.getId(), title, type, true);
+            return;
+        }
+
+        // 物化模式：按用户ID游标分批读取，每批一条多行 INSERT，不开启长事务
+        long lastId = 0;
+        while (true) {
+            List<User> users = userMapper.selectList(new LambdaQueryWrapper<User>()
+                    .select(User::getId)
+                    .gt(User::getId, lastId)
+                    .orderByAsc(User::getId)
+                    .last("LIMIT " + broadcastChunkSize));
+            if (users.isEmpty()) {
+                break;
+            }
+            List<Message> batch = new ArrayList<>(users.size());
+            for (User user : users) {
+                Message message = new Message();
+                message.setSenderId(0L);
+                message.setReceiverId(user.getId());
+                message.setTitle(title);
+                message.setContent(content);
+                message.setType(type);
+                message.setStatus("UNREAD");
+                batch.add(message);
+            }
+            messageMapper.insertBatch(batch);
+            unreadCountService.evict(users.stream().map(User::getId).toList());
+            lastId = users.get(users.size() - 1).getId();
         }
+        // 逐条物化后没有统一的消息ID，只通知在线用户刷新
+        pushNewMessage(null, null, title, type, false);
     }
 
     @Override
     public IPage<Message> getUserMessages(Long userId, Integer pageNum, Integer pageSize, String type, String status) {
         Page<Message> page = new Page<>(pageNum, pageSize);
-        LambdaQueryWrapper<Message> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(Message::getReceiverId, userId);
+        // 个人消息与广播消息合并分页
+        IPage<Message> messagePage = messageMapper.selectInbox(page, userId, type, status);
 
-        if (StringUtils.hasLength(type)) {
-            wrapper.eq(Message::getType, type);
-        }
-        if (StringUtils.hasLength(status)) {
-            wrapper.eq(Message::getStatus, status);
+        fillSenders(messagePage.getRecords());
+        return messagePage;
+    }
+
+    @Override
+    public CursorPage<Message> getUserMessagesByCursor(Long userId, String cursor, Integer size, String type, String status) {
+        int limit = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        LocalDateTime cursorTime = null;
+        Long cursorId = null;
+        Integer cursorBroadcast = null;
+        String[] parts = CursorUtil.decode(cursor, 3);
+        if (parts != null) {
+            try {
+                cursorTime = LocalDateTime.parse(parts[0]);
+                cursorId = Long.valueOf(parts[1]);
+                cursorBroadcast = Integer.valueOf(parts[2]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("无效的分页游标");
+            }
         }
 
-        wrapper.orderByDesc(Message::getCreatedAt).orderByDesc(Message::getId);
-        IPage<Message> messagePage = messageMapper.selectPage(page, wrapper);
+        // 多取一条判断是否还有下一页
+        List<Message> records = messageMapper.selectInboxAfter(userId, type, status,
+                cursorTime, cursorId, cursorBroadcast, limit + 1);
+        boolean hasMore = records.size() > limit;
+        if (hasMore) {
+            records = new ArrayList<>(records.subList(0, limit));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            Message last = records.get(records.size() - 1);
+            nextCursor = CursorUtil.encode(last.getCreatedAt(), last.getId(),
+                    Boolean.TRUE.equals(last.getBroadcast()) ? 1 : 0);
+        }
+        fillSenders(records);
+        return new CursorPage<>(records, nextCursor, hasMore);
+    }
 
-        // 填充发送者信息
-        messagePage.getRecords().forEach(msg -> {
+    /**
+     * 填充发送者信息：本页发送者去重后一次批量获取
+     */
+    private void fillSenders(List<Message> records) {
+        List<Long> senderIds = records.stream()
+                .map(Message::getSenderId)
+                .filter(id -> id != null && id != 0)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, UserVO> senders = userProfileCache.getAll(senderIds);
+        records.forEach(msg -> {
             if (msg.getSenderId() != null && msg.getSenderId() != 0) {
-                User sender = userMapper.selectById(msg.getSenderId());
+                UserVO sender = senders.get(msg.getSenderId());
                 if (sender != null) {
                     msg.setSenderName(sender.getNickname() != null ? sender.getNickname() : sender.getUsername());
                     msg.setSenderAvatar(sender.getAvatarUrl());
@@ -96,40 +232,227 @@ public class MessageServiceImpl implements MessageService {
                 msg.setSenderName("系统通知");
             }
         });
-
-        return messagePage;
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public int getUnreadCount(Long userId) {
-        return messageMapper.countUnreadByUserId(userId);
+        return unreadCountService.get(userId);
     }
 
     @Override
-    public void markAsRead(Long messageId, Long userId) {
+    public void markAsRead(Long messageId, Long userId, boolean broadcast) {
+        if (broadcast) {
+            if (!visibleBroadcastIds(userId, Collections.singletonList(messageId)).isEmpty()) {
+                broadcastMessageMapper.markRead(userId, messageId);
+                // 广播此前是否计入未读不好判断，直接丢弃计数等待重建
+                unreadCountService.evict(Collections.singletonList(userId));
+                pushUnreadCount(userId);
+            }
+            return;
+        }
         LambdaUpdateWrapper<Message> wrapper = new LambdaUpdateWrapper<>();
         wrapper.eq(Message::getId, messageId)
                 .eq(Message::getReceiverId, userId)
+                .eq(Message::getStatus, "UNREAD")
                 .set(Message::getStatus, "READ")
                 .set(Message::getReadAt, LocalDateTime.now());
-        messageMapper.update(null, wrapper);
+        if (messageMapper.update(null, wrapper) > 0) {
+            unreadCountService.add(userId, -1);
+            pushUnreadCount(userId);
+        }
     }
 
     @Override
-    public void markAllAsRead(Long userId) {
-        LambdaUpdateWrapper<Message> wrapper = new LambdaUpdateWrapper<>();
-        wrapper.eq(Message::getReceiverId, userId)
-                .eq(Message::getStatus, "UNREAD")
-                .set(Message::getStatus, "READ")
-                .set(Message::getReadAt, LocalDateTime.now());
-        messageMapper.update(null, wrapper);
+    public Map<String, Object> markAsRead(Long userId, List<Long> ids, List<Long> broadcastIds) {
+        checkBatchSize(ids, broadcastIds);
+        int affected = 0;
+        if (ids != null && !ids.isEmpty()) {
+            int read = messageMapper.markReadByIds(userId, ids);
+            unreadCountService.add(userId, -read);
+            affected += read;
+        }
+        List<Long> visible = visibleBroadcastIds(userId, broadcastIds);
+        if (!visible.isEmpty()) {
+            broadcastMessageMapper.markReadBatch(userId, visible);
+            unreadCountService.evict(Collections.singletonList(userId));
+            affected += visible.size();
+        }
+        pushUnreadCount(userId);
+        Map<String, Object> result = new HashMap<>();
+        result.put("affected", affected);
+        return result;
     }
 
     @Override
-    public void delete(Long messageId, Long userId) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> markAllAsRead(Long userId) {
+        Map<String, Object> result = runInChunks(userId, "UNREAD", ids -> {
+            int read = messageMapper.markReadByIds(userId, ids);
+            unreadCountService.add(userId, -read);
+            return read;
+        });
+
+        // 广播只推进已读游标，不逐条写状态
+        Long maxBroadcastId = broadcastMessageMapper.selectMaxId();
+        if (maxBroadcastId != null) {
+            broadcastMessageMapper.advanceReadCursor(userId, maxBroadcastId);
+        }
+        // 期间可能有新消息到达，不直接清零，由数据库重建
+        unreadCountService.evict(Collections.singletonList(userId));
+        pushUnreadCount(userId);
+        logger.info("用户 {} 全部已读：{}", userId, result);
+        return result;
+    }
+
+    @Override
+    public void delete(Long messageId, Long userId, boolean broadcast) {
+        if (broadcast) {
+            if (!visibleBroadcastIds(userId, Collections.singletonList(messageId)).isEmpty()) {
+                broadcastMessageMapper.markDeleted(userId, messageId);
+                unreadCountService.evict(Collections.singletonList(userId));
+                pushUnreadCount(userId);
+            }
+            return;
+        }
         LambdaQueryWrapper<Message> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(Message::getId, messageId)
                 .eq(Message::getReceiverId, userId);
-        messageMapper.delete(wrapper);
+        Message message = messageMapper.selectOne(wrapper);
+        if (message != null && messageMapper.deleteById(message.getId()) > 0 && "UNREAD".equals(message.getStatus())) {
+            unreadCountService.add(userId, -1);
+            pushUnreadCount(userId);
+        }
+    }
+
+    @Override
+    public Map<String, Object> deleteBatch(Long userId, List<Long> ids, List<Long> broadcastIds) {
+        checkBatchSize(ids, broadcastIds);
+        int affected = 0;
+        if (ids != null && !ids.isEmpty()) {
+            // 先删未读的，得到需要扣减的未读数
+            int unread = messageMapper.deleteByIds(userId, ids, "UNREAD");
+            unreadCountService.add(userId, -unread);
+            affected += unread + messageMapper.deleteByIds(userId, ids, null);
+        }
+        List<Long> visible = visibleBroadcastIds(userId, broadcastIds);
+        if (!visible.isEmpty()) {
+            broadcastMessageMapper.markDeletedBatch(userId, visible);
+            unreadCountService.evict(Collections.singletonList(userId));
+            affected += visible.size();
+        }
+        pushUnreadCount(userId);
+        Map<String, Object> result = new HashMap<>();
+        result.put("affected", affected);
+        return result;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> deleteAll(Long userId, String status) {
+        if (status != null && !"READ".equals(status) && !"UNREAD".equals(status)) {
+            throw new RuntimeException("无效的消息状态");
+        }
+        Map<String, Object> result = runInChunks(userId, status,
+                ids -> messageMapper.deleteByIds(userId, ids, status));
+
+        // 广播只对当前用户隐藏，同样分批写入
+        List<Long> broadcastIds = broadcastMessageMapper.selectVisibleIds(userId, status);
+        for (int from = 0; from < broadcastIds.size(); from += bulkChunkSize) {
+            broadcastMessageMapper.markDeletedBatch(userId,
+                    broadcastIds.subList(from, Math.min(from + bulkChunkSize, broadcastIds.size())));
+        }
+        result.put("affected", (int) result.get("affected") + broadcastIds.size());
+
+        if (!"READ".equals(status)) {
+            unreadCountService.evict(Collections.singletonList(userId));
+            pushUnreadCount(userId);
+        }
+        logger.info("用户 {} 清空消息(status={})：{}", userId, status, result);
+        return result;
+    }
+
+    /**
+     * 分批处理用户的消息：每批取最早的一批ID交给 action，action 执行后这些行不再满足条件。
+     * 不在事务中调用，每条语句单独提交，只短暂锁定本批行，不会长时间阻塞新消息写入。
+     * 以开始时的最大消息ID为上界，操作期间新到的消息不受影响。
+     * @param status 按状态筛选，为空表示不限
+     * @param action 处理一批ID，返回实际影响的行数
+     */
+    private Map<String, Object> runInChunks(Long userId, String status, Function<List<Long>, Integer> action) {
+        long begin = System.currentTimeMillis();
+        int affected = 0;
+        List<Long> chunkMillis = new ArrayList<>();
+        Long maxId = messageMapper.selectMaxId();
+        while (maxId != null) {
+            long chunkBegin = System.currentTimeMillis();
+            List<Long> ids = messageMapper.selectIdChunk(userId, status, maxId, bulkChunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            int changed = action.apply(ids);
+            affected += changed;
+            chunkMillis.add(System.currentTimeMillis() - chunkBegin);
+            // 不足一批说明已处理完；一行都没变（被并发处理）时也停止，避免空转
+            if (ids.size() < bulkChunkSize || changed == 0) {
+                break;
+            }
+            if (bulkPauseMillis > 0) {
+                try {
+                    Thread.sleep(bulkPauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("affected", affected);
+        result.put("chunks", chunkMillis.size());
+        result.put("chunkMillis", chunkMillis);
+        result.put("elapsedMillis", System.currentTimeMillis() - begin);
+        return result;
+    }
+
+    private void checkBatchSize(List<Long> ids, List<Long> broadcastIds) {
+        int size = (ids != null ? ids.size() : 0) + (broadcastIds != null ? broadcastIds.size() : 0);
+        if (size > bulkMaxIds) {
+            throw new RuntimeException("单次最多操作 " + bulkMaxIds + " 条消息");
+        }
+    }
+
+    /**
+     * 过滤掉不存在或注册前发出的广播ID，避免写入该用户看不到的状态记录
+     */
+    private List<Long> visibleBroadcastIds(Long userId, List<Long> broadcastIds) {
+        if (broadcastIds == null || broadcastIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return broadcastMessageMapper.selectVisibleAmong(userId, broadcastIds);
+    }
+
+    /**
+     * 事务提交后推送新消息通知，并让接收方未读数 +1
+     * @param receiverId 接收用户，null 表示所有在线用户
+     */
+    private void pushNewMessage(Long receiverId, Long messageId, String title, String type, boolean broadcast) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", messageId);
+        data.put("title", title);
+        data.put("type", type);
+        data.put("broadcast", broadcast);
+        TransactionUtil.afterCommit(() -> {
+            messagePushHub.publish(receiverId, "message", data);
+            messagePushHub.publish(receiverId, "unread", Map.of("delta", 1));
+        });
+    }
+
+    /**
+     * 事务提交后推送最新未读数（在未读计数更新之后执行）
+     */
+    private void pushUnreadCount(Long userId) {
+        TransactionUtil.afterCommit(() ->
+                messagePushHub.publish(userId, "unread", Map.of("count", unreadCountService.get(userId))));
     }
 }
@@ -3,15 +3,37 @@ package com.dhy.shipmanagebackend.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dhy.shipmanagebackend.buffer.BatchWriter;
+import com.dhy.shipmanagebackend.buffer.OverflowPolicy;
 import com.dhy.shipmanagebackend.entity.OperationLog;
 import com.dhy.shipmanagebackend.mapper.OperationLogMapper;
 import com.dhy.shipmanagebackend.service.OperationLogService;
+import com.dhy.shipmanagebackend.utils.RedisLockUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
 
 /**
  * 操作日志服务实现类
@@ -19,18 +41,95 @@ import java.time.LocalDateTime;
 @Service
 public class OperationLogServiceImpl implements OperationLogService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OperationLogServiceImpl.class);
+
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final Pattern MONTH_PARTITION = Pattern.compile("p\\d{6}");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String PARTITION_LOCK_KEY = "lock:operation-log:partition";
+
     @Autowired
     private OperationLogMapper operationLogMapper;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RedisLockUtil redisLockUtil;
+
+    @Value("${operation-log.buffer.capacity:10000}")
+    private int capacity;
+
+    @Value("${operation-log.buffer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${operation-log.buffer.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    @Value("${operation-log.buffer.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${operation-log.buffer.block-timeout-ms:100}")
+    private long blockTimeoutMillis;
+
+    @Value("${operation-log.buffer.spill-file:logs/operation-log-spill.jsonl}")
+    private String spillFile;
+
+    @Value("${operation-log.buffer.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMillis;
+
+    @Value("${operation-log.partition.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${operation-log.retention-days:0}")
+    private int retentionDays;
+
+    @Value("${operation-log.purge.chunk-size:5000}")
+    private int purgeChunkSize;
+
+    @Value("${operation-log.purge.pause-ms:100}")
+    private long purgePauseMillis;
+
+    @Value("${operation-log.partition.lock-ttl-ms:1800000}")
+    private long lockTtlMillis;
+
+    private BatchWriter<OperationLog> writer;
+
+    private final AtomicBoolean purging = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void init() {
+        writer = new BatchWriter<>("operation-log-writer", capacity, batchSize, flushIntervalMillis,
+                overflowPolicy, blockTimeoutMillis, operationLogMapper::insertBatch);
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            writer.spillTo(Paths.get(spillFile), objectMapper, OperationLog.class);
+        }
+        writer.start();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 停机前刷完缓冲区
+        writer.close(shutdownTimeoutMillis);
+    }
+
     @Override
-    @Async
     public void save(OperationLog log) {
-        // 异步保存日志，不影响主业务性能
-        operationLogMapper.insert(log);
+        // 只入缓冲区，由写线程批量落库，不影响主业务性能
+        if (log.getCreatedAt() == null) {
+            log.setCreatedAt(LocalDateTime.now());
+        }
+        writer.submit(log);
     }
 
     @Override
-    public IPage<OperationLog> page(Integer pageNum, Integer pageSize, String username, String module, String operation) {
+    public Map<String, Object> bufferStats() {
+        return writer.stats();
+    }
+
+    @Override
+    public IPage<OperationLog> page(Integer pageNum, Integer pageSize, String username, String module, String operation,
+                                    LocalDateTime startTime, LocalDateTime endTime) {
         Page<OperationLog> page = new Page<>(pageNum, pageSize);
         LambdaQueryWrapper<OperationLog> wrapper = new LambdaQueryWrapper<>();
         
@@ -43,15 +142,184 @@ public class OperationLogServiceImpl implements OperationLogService {
         if (StringUtils.hasLength(operation)) {
             wrapper.eq(OperationLog::getOperation, operation);
         }
+        // 按分区键 created_at 限定范围，MySQL 只扫描命中的月份分区
+        if (startTime != null) {
+            wrapper.ge(OperationLog::getCreatedAt, startTime);
+        }
+        if (endTime != null) {
+            wrapper.lt(OperationLog::getCreatedAt, endTime);
+        }
         
         wrapper.orderByDesc(OperationLog::getCreatedAt);
         return operationLogMapper.selectPage(page, wrapper);
     }
 
     @Override
-    public void cleanOldLogs(int days) {
-        LambdaQueryWrapper<OperationLog> wrapper = new LambdaQueryWrapper<>();
-        wrapper.lt(OperationLog::getCreatedAt, LocalDateTime.now().minusDays(days));
-        operationLogMapper.delete(wrapper);
+    public Map<String, Object> cleanOldLogs(int days) {
+        String token = redisLockUtil.tryLock(PARTITION_LOCK_KEY, Duration.ofMillis(lockTtlMillis));
+        if (token == null) {
+            throw new RuntimeException("其他节点正在维护操作日志分区，请稍后再试");
+        }
+        try {
+            return purge(days);
+        } finally {
+            redisLockUtil.unlock(PARTITION_LOCK_KEY, token);
+        }
+    }
+
+    private Map<String, Object> purge(int days) {
+        if (!purging.compareAndSet(false, true)) {
+            throw new RuntimeException("日志清理正在进行中，请稍后再试");
+        }
+        try {
+            LocalDateTime before = LocalDateTime.now().minusDays(days);
+            List<String> dropped = dropPartitionsBefore(before);
+            // 整分区删除后剩余的边界数据（以及未分区的表）按 ID 区间分批删除
+            long deleted = deleteInChunks(before);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("droppedPartitions", dropped);
+            result.put("deletedRows", deleted);
+            logger.info("清理 {} 之前的操作日志：删除分区 {}，分批删除 {} 行", before, dropped, deleted);
+            return result;
+        } finally {
+            purging.set(false);
+        }
+    }
+
+    /**
+     * 每天维护分区：提前创建未来月份的分区，并按保留天数清理历史日志
+     * 分区 DDL 由持有 Redis 锁的一个节点执行，其余节点跳过
+     */
+    @Scheduled(cron = "${operation-log.partition.cron:0 10 3 * * ?}")
+    public void maintainPartitions() {
+        String token;
+        try {
+            token = redisLockUtil.tryLock(PARTITION_LOCK_KEY, Duration.ofMillis(lockTtlMillis));
+        } catch (Exception e) {
+            logger.error("获取操作日志分区维护锁失败: {}", e.getMessage());
+            return;
+        }
+        if (token == null) {
+            logger.info("其他节点正在维护操作日志分区，本节点跳过");
+            return;
+        }
+        try {
+            createFuturePartitions();
+            if (retentionDays > 0) {
+                purge(retentionDays);
+            }
+        } catch (Exception e) {
+            logger.error("操作日志分区维护失败: {}", e.getMessage(), e);
+        } finally {
+            redisLockUtil.unlock(PARTITION_LOCK_KEY, token);
+        }
+    }
+
+    /**
+     * 启动时补跑一次：部署晚于迁移脚本预建的分区时，避免新日志落入 p_future
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintainPartitions();
+    }
+
+    /**
+     * 从 p_future 中拆分出直到 monthsAhead 个月之后的月份分区（表未分区时跳过）
+     */
+    private void createFuturePartitions() {
+        List<Map<String, Object>> partitions = operationLogMapper.listPartitions();
+        if (partitions.isEmpty()) {
+            return;
+        }
+
+        YearMonth latest = null;
+        boolean hasFuture = false;
+        for (Map<String, Object> partition : partitions) {
+            String name = String.valueOf(partition.get("name"));
+            if (FUTURE_PARTITION.equals(name)) {
+                hasFuture = true;
+            } else if (MONTH_PARTITION.matcher(name).matches()) {
+                YearMonth month = YearMonth.parse(name.substring(1), MONTH_FORMAT);
+                if (latest == null || month.isAfter(latest)) {
+                    latest = month;
+                }
+            }
+        }
+        if (!hasFuture) {
+            logger.warn("operation_logs 缺少 {} 分区，无法自动创建新分区", FUTURE_PARTITION);
+            return;
+        }
+
+        YearMonth target = YearMonth.now().plusMonths(monthsAhead);
+        YearMonth next = latest == null ? YearMonth.now() : latest.plusMonths(1);
+        List<String> definitions = new ArrayList<>();
+        for (YearMonth month = next; !month.isAfter(target); month = month.plusMonths(1)) {
+            definitions.add("PARTITION p" + month.format(MONTH_FORMAT)
+                    + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+        definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        operationLogMapper.reorganizeFuturePartition(String.join(", ", definitions));
+        logger.info("operation_logs 新建分区 {} ~ {}", next, target);
+    }
+
+    /**
+     * 删除上界不晚于 before 的整个分区，返回被删除的分区名
+     */
+    private List<String> dropPartitionsBefore(LocalDateTime before) {
+        List<String> droppable = new ArrayList<>();
+        for (Map<String, Object> partition : operationLogMapper.listPartitions()) {
+            String name = String.valueOf(partition.get("name"));
+            LocalDate bound = parseBound(partition.get("bound"));
+            if (bound != null && !bound.atStartOfDay().isAfter(before)) {
+                droppable.add(name);
+            }
+        }
+        if (!droppable.isEmpty()) {
+            operationLogMapper.dropPartitions(String.join(", ", droppable));
+        }
+        return droppable;
+    }
+
+    /**
+     * 解析分区上界，形如 '2026-11-01' 或 '2026-11-01 00:00:00'；MAXVALUE 返回 null
+     */
+    private LocalDate parseBound(Object bound) {
+        if (bound == null) {
+            return null;
+        }
+        String value = String.valueOf(bound).replace("'", "").trim();
+        if (value.length() < 10 || "MAXVALUE".equalsIgnoreCase(value)) {
+            return null;
+        }
+        return LocalDate.parse(value.substring(0, 10));
+    }
+
+    /**
+     * 按 ID 区间分批删除早于 before 的日志，每批之间暂停以减轻主从延迟
+     */
+    private long deleteInChunks(LocalDateTime before) {
+        Long minId = operationLogMapper.selectMinIdBefore(before);
+        Long maxId = operationLogMapper.selectMaxIdBefore(before);
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        long deleted = 0;
+        for (long from = minId; from <= maxId; from += purgeChunkSize) {
+            deleted += operationLogMapper.deleteRangeBefore(from, from + purgeChunkSize, before);
+            if (purgePauseMillis > 0) {
+                try {
+                    Thread.sleep(purgePauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return deleted;
     }
 }
@@ -0,0 +1,443 @@
+package com.dhy.shipmanagebackend.service.impl;
+
+import com.dhy.shipmanagebackend.buffer.BatchWriter;
+import com.dhy.shipmanagebackend.buffer.OverflowPolicy;
+import com.dhy.shipmanagebackend.dto.PositionFix;
+import com.dhy.shipmanagebackend.dto.TrackPointRow;
+import com.dhy.shipmanagebackend.entity.Ship;
+import com.dhy.shipmanagebackend.entity.Voyage;
+import com.dhy.shipmanagebackend.mapper.ShipMapper;
+import com.dhy.shipmanagebackend.mapper.ShipPositionMapper;
+import com.dhy.shipmanagebackend.mapper.VoyageMapper;
+import com.dhy.shipmanagebackend.service.PositionService;
+import com.dhy.shipmanagebackend.track.TrackSimplifier;
+import com.dhy.shipmanagebackend.utils.RedisLockUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 船舶位置轨迹服务实现类
+ * 上报的定位点只做范围校验后进入有界缓冲，由写线程以多行 INSERT 批量落库；
+ * 轨迹查询流式读取原始点到基本类型数组，再用 Douglas–Peucker 抽稀到点数上限以内。
+ */
+@Service
+public class PositionServiceImpl implements PositionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PositionServiceImpl.class);
+
+    private static final String PARTITION_LOCK_KEY = "lock:position:partition";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final Pattern DAY_PARTITION = Pattern.compile("p\\d{8}");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final List<String> TRACK_COLUMNS = List.of("t", "lat", "lon", "speed", "course");
+
+    /**
+     * 轨迹接口每次最多返回的点数
+     */
+    private static final int MAX_TRACK_POINTS = 5000;
+
+    @Autowired
+    private ShipPositionMapper positionMapper;
+
+    @Autowired
+    private VoyageMapper voyageMapper;
+
+    @Autowired
+    private ShipMapper shipMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RedisLockUtil redisLockUtil;
+
+    @Value("${position.max-batch:5000}")
+    private int maxBatch;
+
+    @Value("${position.max-future-seconds:300}")
+    private long maxFutureSeconds;
+
+    @Value("${position.buffer.capacity:100000}")
+    private int capacity;
+
+    @Value("${position.buffer.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${position.buffer.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    @Value("${position.buffer.overflow-policy:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${position.buffer.block-timeout-ms:50}")
+    private long blockTimeoutMillis;
+
+    @Value("${position.buffer.spill-file:logs/position-spill.jsonl}")
+    private String spillFile;
+
+    @Value("${position.buffer.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMillis;
+
+    @Value("${position.partition.days-ahead:7}")
+    private int daysAhead;
+
+    @Value("${position.partition.lock-ttl-ms:1800000}")
+    private long lockTtlMillis;
+
+    @Value("${position.ship-cache-ttl-ms:60000}")
+    private long shipCacheTtlMillis;
+
+    @Value("${position.retention-days:0}")
+    private int retentionDays;
+
+    @Value("${position.track.tolerance-meters:50}")
+    private double defaultToleranceMeters;
+
+    @Value("${position.track.max-points:200}")
+    private int defaultMaxPoints;
+
+    @Value("${position.track.max-raw-points:2000000}")
+    private int maxRawPoints;
+
+    private BatchWriter<PositionFix> writer;
+
+    /**
+     * 已确认存在的船舶 ID，定期整体清空，船舶删除后最多延迟 shipCacheTtlMillis 开始拒收
+     */
+    private final Set<Long> knownShipIds = ConcurrentHashMap.newKeySet();
+    private volatile long knownShipIdsExpireAt;
+
+    @PostConstruct
+    public void init() {
+        writer = new BatchWriter<>("position-writer", capacity, batchSize, flushIntervalMillis,
+                overflowPolicy, blockTimeoutMillis, positionMapper::insertBatch);
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            writer.spillTo(Paths.get(spillFile), objectMapper, PositionFix.class);
+        }
+        writer.start();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 停机前刷完缓冲区
+        writer.close(shutdownTimeoutMillis);
+    }
+
+    @Override
+    public Map<String, Object> ingest(List<PositionFix> fixes) {
+        if (fixes == null || fixes.isEmpty()) {
+            throw new RuntimeException("定位点不能为空");
+        }
+        if (fixes.size() > maxBatch) {
+            throw new RuntimeException("单次最多上报 " + maxBatch + " 个定位点");
+        }
+
+        LocalDateTime latest = LocalDateTime.now().plusSeconds(maxFutureSeconds);
+        Set<Long> existing = existingShipIds(fixes);
+        int rejected = 0;
+        List<PositionFix> valid = new ArrayList<>(fixes.size());
+        for (PositionFix fix : fixes) {
+            if (!isValid(fix, latest) || !existing.contains(fix.getShipId())) {
+                rejected++;
+                continue;
+            }
+            // 库中按秒存储，同一秒的重复点由 INSERT IGNORE 去重
+            fix.setRecordedAt(fix.getRecordedAt().truncatedTo(ChronoUnit.SECONDS));
+            // AIS 中 102.3 节、360 度表示不可用
+            if (fix.getSpeed() != null && (fix.getSpeed() < 0 || fix.getSpeed() > 102.2)) {
+                fix.setSpeed(null);
+            }
+            if (fix.getCourse() != null && (fix.getCourse() < 0 || fix.getCourse() >= 360)) {
+                fix.setCourse(null);
+            }
+            valid.add(fix);
+        }
+        // 整批共用一个等待期限，缓冲区持续写满时不会逐点阻塞
+        int accepted = writer.submitAll(valid);
+        int dropped = valid.size() - accepted;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("received", fixes.size());
+        result.put("accepted", accepted);
+        result.put("rejected", rejected);
+        result.put("dropped", dropped);
+        return result;
+    }
+
+    /**
+     * 本批涉及的船舶中实际存在的 ID，缓存未命中的 ID 合并为一次查询
+     */
+    private Set<Long> existingShipIds(List<PositionFix> fixes) {
+        long now = System.currentTimeMillis();
+        if (now >= knownShipIdsExpireAt) {
+            knownShipIds.clear();
+            knownShipIdsExpireAt = now + shipCacheTtlMillis;
+        }
+        Set<Long> existing = new HashSet<>();
+        Set<Long> unknown = new HashSet<>();
+        for (PositionFix fix : fixes) {
+            if (fix == null || fix.getShipId() == null) {
+                continue;
+            }
+            if (knownShipIds.contains(fix.getShipId())) {
+                existing.add(fix.getShipId());
+            } else {
+                unknown.add(fix.getShipId());
+            }
+        }
+        if (!unknown.isEmpty()) {
+            for (Ship ship : shipMapper.selectBatchIds(unknown)) {
+                existing.add(ship.getId());
+                knownShipIds.add(ship.getId());
+            }
+        }
+        return existing;
+    }
+
+    private boolean isValid(PositionFix fix, LocalDateTime latest) {
+        return fix != null
+                && fix.getShipId() != null
+                && fix.getRecordedAt() != null
+                && !fix.getRecordedAt().isAfter(latest)
+                && fix.getLatitude() != null && fix.getLatitude() >= -90 && fix.getLatitude() <= 90
+                && fix.getLongitude() != null && fix.getLongitude() >= -180 && fix.getLongitude() <= 180;
+    }
+
+    @Override
+    public Map<String, Object> getVoyageTrack(Long voyageId, Double toleranceMeters, Integer maxPoints) {
+        Voyage voyage = voyageMapper.selectById(voyageId);
+        if (voyage == null) {
+            throw new RuntimeException("航次不存在");
+        }
+        if (voyage.getStartTime() == null) {
+            throw new RuntimeException("航次没有开航时间");
+        }
+        LocalDateTime from = voyage.getStartTime().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime to = voyage.getEndTime() != null ? voyage.getEndTime() : LocalDateTime.now();
+        double tolerance = toleranceMeters != null && toleranceMeters > 0 ? toleranceMeters : defaultToleranceMeters;
+        int limit = Math.max(2, Math.min(maxPoints != null ? maxPoints : defaultMaxPoints, MAX_TRACK_POINTS));
+
+        // 原始点过多时先等间隔取样，限制内存占用
+        long total = positionMapper.countTrack(voyage.getShipId(), from, to);
+        int stride = (int) Math.max(1, (total + maxRawPoints - 1) / maxRawPoints);
+        TrackBuffer track = new TrackBuffer((int) Math.min(total / stride + 2, maxRawPoints + 2L), stride);
+        positionMapper.selectTrack(voyage.getShipId(), from, to, context -> track.add(context.getResultObject()));
+        track.finish();
+
+        double[] lat = new double[track.size];
+        double[] lon = new double[track.size];
+        for (int i = 0; i < track.size; i++) {
+            lat[i] = track.latE6[i] / 1e6;
+            lon[i] = track.lonE6[i] / 1e6;
+        }
+        TrackSimplifier.Result simplified = TrackSimplifier.simplifyToLimit(lat, lon, track.size, tolerance, limit);
+
+        List<Object[]> rows = new ArrayList<>(simplified.kept());
+        for (int i = 0; i < track.size; i++) {
+            if (simplified.keep()[i]) {
+                rows.add(new Object[]{
+                        track.offsets[i], lat[i], lon[i],
+                        track.speeds[i] < 0 ? null : track.speeds[i] / 10.0,
+                        track.courses[i] < 0 ? null : track.courses[i] / 10.0});
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("voyageId", voyage.getId());
+        result.put("shipId", voyage.getShipId());
+        result.put("startTime", from);
+        result.put("endTime", to);
+        result.put("rawPoints", total);
+        result.put("points", rows.size());
+        result.put("toleranceMeters", simplified.tolerance());
+        // t 为距 startTime 的秒数
+        result.put("columns", TRACK_COLUMNS);
+        result.put("rows", rows);
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> bufferStats() {
+        return writer.stats();
+    }
+
+    /**
+     * 每天维护分区：提前创建未来日期的分区，并按保留天数删除历史分区
+     * 分区 DDL 由持有 Redis 锁的一个节点执行，其余节点跳过
+     */
+    @Scheduled(cron = "${position.partition.cron:0 20 3 * * ?}")
+    public void maintainPartitions() {
+        String token;
+        try {
+            token = redisLockUtil.tryLock(PARTITION_LOCK_KEY, Duration.ofMillis(lockTtlMillis));
+        } catch (Exception e) {
+            logger.error("获取船舶位置分区维护锁失败: {}", e.getMessage());
+            return;
+        }
+        if (token == null) {
+            logger.info("其他节点正在维护船舶位置分区，本节点跳过");
+            return;
+        }
+        try {
+            createFuturePartitions();
+            if (retentionDays > 0) {
+                dropPartitionsBefore(LocalDate.now().minusDays(retentionDays));
+            }
+        } catch (Exception e) {
+            logger.error("船舶位置分区维护失败: {}", e.getMessage(), e);
+        } finally {
+            redisLockUtil.unlock(PARTITION_LOCK_KEY, token);
+        }
+    }
+
+    /**
+     * 启动时补跑一次：部署晚于迁移脚本预建的日期分区时，避免新定位点落入 p_future
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintainPartitions();
+    }
+
+    /**
+     * 从 p_future 中拆分出直到 daysAhead 天之后的日期分区（表未分区时跳过）
+     */
+    private void createFuturePartitions() {
+        List<Map<String, Object>> partitions = positionMapper.listPartitions();
+        if (partitions.isEmpty()) {
+            return;
+        }
+
+        LocalDate latest = null;
+        boolean hasFuture = false;
+        for (Map<String, Object> partition : partitions) {
+            String name = String.valueOf(partition.get("name"));
+            if (FUTURE_PARTITION.equals(name)) {
+                hasFuture = true;
+            } else if (DAY_PARTITION.matcher(name).matches()) {
+                LocalDate day = LocalDate.parse(name.substring(1), DAY_FORMAT);
+                if (latest == null || day.isAfter(latest)) {
+                    latest = day;
+                }
+            }
+        }
+        if (!hasFuture) {
+            logger.warn("ship_positions 缺少 {} 分区，无法自动创建新分区", FUTURE_PARTITION);
+            return;
+        }
+
+        LocalDate target = LocalDate.now().plusDays(daysAhead);
+        LocalDate next = latest == null ? LocalDate.now() : latest.plusDays(1);
+        List<String> definitions = new ArrayList<>();
+        for (LocalDate day = next; !day.isAfter(target); day = day.plusDays(1)) {
+            definitions.add("PARTITION p" + day.format(DAY_FORMAT) + " VALUES LESS THAN ('" + day.plusDays(1) + "')");
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+        definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        positionMapper.reorganizeFuturePartition(String.join(", ", definitions));
+        logger.info("ship_positions 新建分区 {} ~ {}", next, target);
+    }
+
+    /**
+     * 删除上界不晚于 before 的整个分区
+     */
+    private void dropPartitionsBefore(LocalDate before) {
+        List<String> droppable = new ArrayList<>();
+        for (Map<String, Object> partition : positionMapper.listPartitions()) {
+            String value = String.valueOf(partition.get("bound")).replace("'", "").trim();
+            if (value.length() >= 10 && !"MAXVALUE".equalsIgnoreCase(value)
+                    && !LocalDate.parse(value.substring(0, 10)).isAfter(before)) {
+                droppable.add(String.valueOf(partition.get("name")));
+            }
+        }
+        if (!droppable.isEmpty()) {
+            positionMapper.dropPartitions(String.join(", ", droppable));
+            logger.info("ship_positions 删除 {} 之前的分区 {}", before, droppable);
+        }
+    }
+
+    /**
+     * 轨迹原始点，按列存放在基本类型数组中（每点 16 字节），stride 大于 1 时等间隔取样并保留最后一点
+     */
+    private static class TrackBuffer {
+        private final int stride;
+        private int[] offsets;
+        private int[] latE6;
+        private int[] lonE6;
+        private short[] speeds;
+        private short[] courses;
+        private int size;
+        private long seen;
+        private TrackPointRow last;
+
+        TrackBuffer(int initialCapacity, int stride) {
+            int capacity = Math.max(initialCapacity, 16);
+            this.stride = stride;
+            this.offsets = new int[capacity];
+            this.latE6 = new int[capacity];
+            this.lonE6 = new int[capacity];
+            this.speeds = new short[capacity];
+            this.courses = new short[capacity];
+        }
+
+        void add(TrackPointRow row) {
+            if (seen++ % stride == 0) {
+                append(row);
+                last = null;
+            } else {
+                last = row;
+            }
+        }
+
+        void finish() {
+            if (last != null) {
+                append(last);
+                last = null;
+            }
+        }
+
+        private void append(TrackPointRow row) {
+            if (size == offsets.length) {
+                int capacity = size * 2;
+                offsets = Arrays.copyOf(offsets, capacity);
+                latE6 = Arrays.copyOf(latE6, capacity);
+                lonE6 = Arrays.copyOf(lonE6, capacity);
+                speeds = Arrays.copyOf(speeds, capacity);
+                courses = Arrays.copyOf(courses, capacity);
+            }
+            offsets[size] = row.getOffsetSeconds();
+            latE6[size] = row.getLatE6();
+            lonE6[size] = row.getLonE6();
+            speeds[size] = row.getSpeedX10() != null ? row.getSpeedX10().shortValue() : -1;
+            courses[size] = row.getCourseX10() != null ? row.getCourseX10().shortValue() : -1;
+            size++;
+        }
+    }
+}
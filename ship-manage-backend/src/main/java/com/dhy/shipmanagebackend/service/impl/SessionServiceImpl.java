@@ -0,0 +1,229 @@
+package com.dhy.shipmanagebackend.service.impl;
+
+import com.dhy.shipmanagebackend.cache.TokenCache;
+import com.dhy.shipmanagebackend.entity.LoginUser;
+import com.dhy.shipmanagebackend.service.SessionService;
+import com.dhy.shipmanagebackend.utils.IpUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录会话服务实现类
+ *
+ * Redis 结构：
+ * {token}                 → token          （LoginInterceptor 校验用，保持原有格式）
+ * session:user:{userId}   → SET<token>     （用户会话索引）
+ * session:meta:{token}    → HASH           （userId / issuedAt / ip / userAgent）
+ * session:ticket:{ticket} → token          （推送连接一次性票据）
+ */
+@Service
+public class SessionServiceImpl implements SessionService {
+
+    private static final String USER_SESSIONS_PREFIX = "session:user:";
+    private static final String SESSION_META_PREFIX = "session:meta:";
+    private static final String STREAM_TICKET_PREFIX = "session:ticket:";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private TokenCache tokenCache;
+
+    @Value("${jwt.expiration:12}")
+    private int expirationHours;
+
+    @Value("${push.ticket-ttl-seconds:30}")
+    private int ticketTtlSeconds;
+
+    @Override
+    public void createSession(LoginUser user, String token) {
+        String userKey = USER_SESSIONS_PREFIX + user.getId();
+        String metaKey = SESSION_META_PREFIX + token;
+
+        Map<String, String> meta = new HashMap<>();
+        meta.put("userId", String.valueOf(user.getId()));
+        meta.put("issuedAt", String.valueOf(System.currentTimeMillis()));
+        HttpServletRequest request = currentRequest();
+        if (request != null) {
+            meta.put("ip", String.valueOf(IpUtil.getClientIp(request)));
+            String userAgent = request.getHeader("User-Agent");
+            if (userAgent != null && userAgent.length() > 500) {
+                userAgent = userAgent.substring(0, 500);
+            }
+            meta.put("userAgent", String.valueOf(userAgent));
+        }
+
+        // 一次管道往返写完 token、会话索引和元数据
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForValue().set(token, token, expirationHours, TimeUnit.HOURS);
+                ops.opsForSet().add(userKey, token);
+                ops.opsForHash().putAll(metaKey, meta);
+                ops.expire(metaKey, expirationHours, TimeUnit.HOURS);
+                return null;
+            }
+        });
+        trimSessions(userKey);
+    }
+
+    /**
+     * 清理会话索引中已过期的 token，并把索引的过期时间设为其中 token 的最长剩余有效期
+     * 不能每次登录都顺延索引：持续登录的用户索引永不过期，过期 token 会一直留在集合里
+     */
+    private void trimSessions(String userKey) {
+        Set<String> tokens = stringRedisTemplate.opsForSet().members(userKey);
+        if (tokens == null || tokens.isEmpty()) {
+            return;
+        }
+        List<String> tokenList = new ArrayList<>(tokens);
+        List<Object> ttls = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (String token : tokenList) {
+                    ops.getExpire(token, TimeUnit.MILLISECONDS);
+                }
+                return null;
+            }
+        });
+
+        List<String> expired = new ArrayList<>();
+        long longest = 0;
+        for (int i = 0; i < tokenList.size(); i++) {
+            Object ttl = ttls.get(i);
+            long millis = ttl instanceof Number ? ((Number) ttl).longValue() : -2;
+            if (millis == -2) {
+                expired.add(tokenList.get(i));
+            } else {
+                // -1 表示 token 没有过期时间，按完整有效期保留索引
+                longest = Math.max(longest, millis > 0 ? millis : TimeUnit.HOURS.toMillis(expirationHours));
+            }
+        }
+        if (!expired.isEmpty()) {
+            stringRedisTemplate.opsForSet().remove(userKey, expired.toArray());
+        }
+        if (longest > 0) {
+            stringRedisTemplate.expire(userKey, longest, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void revoke(Long userId, String token) {
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.delete(Arrays.asList(token, SESSION_META_PREFIX + token));
+                ops.opsForSet().remove(USER_SESSIONS_PREFIX + userId, token);
+                return null;
+            }
+        });
+        tokenCache.invalidate(token);
+    }
+
+    @Override
+    public int revokeAll(Long userId) {
+        String userKey = USER_SESSIONS_PREFIX + userId;
+        Set<String> tokens = stringRedisTemplate.opsForSet().members(userKey);
+        if (tokens == null || tokens.isEmpty()) {
+            return 0;
+        }
+        // 一次管道往返删除 token 与元数据并广播失效，各节点随后剔除本地 token 缓存；
+        // 只移出读到的 token，期间新登录的会话保留在索引中
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (String token : tokens) {
+                    ops.delete(Arrays.asList(token, SESSION_META_PREFIX + token));
+                    ops.convertAndSend(TokenCache.INVALIDATE_CHANNEL, token);
+                }
+                ops.opsForSet().remove(userKey, tokens.toArray());
+                return null;
+            }
+        });
+        return tokens.size();
+    }
+
+    @Override
+    public List<Map<String, Object>> listSessions(Long userId) {
+        String userKey = USER_SESSIONS_PREFIX + userId;
+        Set<String> tokens = stringRedisTemplate.opsForSet().members(userKey);
+        if (tokens == null || tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> tokenList = new ArrayList<>(tokens);
+        List<Object> metas = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (String token : tokenList) {
+                    ops.opsForHash().entries(SESSION_META_PREFIX + token);
+                }
+                return null;
+            }
+        });
+
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; i < tokenList.size(); i++) {
+            String token = tokenList.get(i);
+            Map<?, ?> meta = (Map<?, ?>) metas.get(i);
+            if (meta == null || meta.isEmpty()) {
+                // 元数据已过期，顺手清理索引
+                expired.add(token);
+                continue;
+            }
+            Map<String, Object> session = new HashMap<>();
+            // 不返回完整 token，仅保留末尾用于辨识
+            session.put("tokenSuffix", token.substring(Math.max(0, token.length() - 8)));
+            session.put("issuedAt", Long.valueOf(String.valueOf(meta.get("issuedAt"))));
+            session.put("ip", meta.get("ip"));
+            session.put("userAgent", meta.get("userAgent"));
+            sessions.add(session);
+        }
+        if (!expired.isEmpty()) {
+            stringRedisTemplate.opsForSet().remove(userKey, expired.toArray());
+        }
+
+        sessions.sort((a, b) -> Long.compare((Long) b.get("issuedAt"), (Long) a.get("issuedAt")));
+        return sessions;
+    }
+
+    @Override
+    public String issueStreamTicket(String token) {
+        String ticket = UUID.randomUUID().toString().replace("-", "");
+        stringRedisTemplate.opsForValue().set(STREAM_TICKET_PREFIX + ticket, token, ticketTtlSeconds, TimeUnit.SECONDS);
+        return ticket;
+    }
+
+    @Override
+    public String redeemStreamTicket(String ticket) {
+        // GETDEL 原子取出并删除，同一票据只能建立一次连接
+        return stringRedisTemplate.opsForValue().getAndDelete(STREAM_TICKET_PREFIX + ticket);
+    }
+
+    private HttpServletRequest currentRequest() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        return attributes != null ? attributes.getRequest() : null;
+    }
+}
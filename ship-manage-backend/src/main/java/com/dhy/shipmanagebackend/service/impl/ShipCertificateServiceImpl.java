@@ -3,42 +3,133 @@ package com.dhy.shipmanagebackend.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dhy.shipmanagebackend.alert.CertificateAlertScheduler;
+import com.dhy.shipmanagebackend.dto.CursorPage;
+import com.dhy.shipmanagebackend.dto.ShipComplianceRow;
 import com.dhy.shipmanagebackend.entity.ShipCertificate;
 import com.dhy.shipmanagebackend.mapper.ShipCertificateMapper;
+import com.dhy.shipmanagebackend.mapper.ShipComplianceStatMapper;
 import com.dhy.shipmanagebackend.service.ShipCertificateService;
+import com.dhy.shipmanagebackend.utils.CursorUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
 
 /**
  * 船舶证书服务实现类
+ * 证书状态只随日期变化，每行保存下次变化日期（next_transition_date）。
+ * 每日任务按该列做集合式 UPDATE，只触及当天需要变化的行；增改证书时同步计算。
+ * 合规汇总（ship_compliance_stats）在证书增删改和状态任务后按船舶重算。
  */
 @Service
 public class ShipCertificateServiceImpl implements ShipCertificateService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ShipCertificateServiceImpl.class);
+
     @Autowired
     private ShipCertificateMapper certificateMapper;
 
+    @Autowired
+    private ShipComplianceStatMapper complianceStatMapper;
+
+    @Autowired
+    private CertificateAlertScheduler certificateAlertScheduler;
+
+    /**
+     * 到期前多少天内视为即将到期
+     */
+    @Value("${certificate.expiring-days:30}")
+    private int expiringDays;
+
+    /**
+     * 状态任务每条 UPDATE 最多处理的行数，避免长时间持有大量行锁
+     */
+    @Value("${certificate.status.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * 游标分页默认/最大每页条数
+     */
+    private static final int DEFAULT_CURSOR_PAGE_SIZE = 20;
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    /**
+     * 合规汇总每次重算的船舶数
+     */
+    private static final int REFRESH_CHUNK_SIZE = 500;
+
+    /**
+     * 合规汇总表中「没有到期日期」的占位值
+     */
+    private static final LocalDate NO_EXPIRY = LocalDate.of(9999, 12, 31);
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicReference<Map<String, Object>> lastRun = new AtomicReference<>();
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder changedRows = new LongAdder();
+
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void add(ShipCertificate certificate) {
         // 自动设置证书状态
         updateStatus(certificate);
         certificateMapper.insert(certificate);
+        refreshCompliance(List.of(certificate.getShipId()));
+        certificateAlertScheduler.certificateChanged(certificate.getId());
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void update(ShipCertificate certificate) {
+        ShipCertificate existing = certificate.getId() != null ? certificateMapper.selectById(certificate.getId()) : null;
+        if (certificate.getExpiryDate() == null && existing != null) {
+            // updateById 不会清空到期日期，状态按库中的到期日期计算
+            certificate.setExpiryDate(existing.getExpiryDate());
+        }
         // 自动更新证书状态
         updateStatus(certificate);
         certificateMapper.updateById(certificate);
+        if (certificate.getNextTransitionDate() == null) {
+            certificateMapper.clearNextTransition(certificate.getId());
+        }
+        // 证书可能换了所属船舶，新旧船舶都要刷新
+        List<Long> shipIds = new ArrayList<>();
+        shipIds.add(certificate.getShipId());
+        if (existing != null) {
+            shipIds.add(existing.getShipId());
+        }
+        refreshCompliance(shipIds);
+        certificateAlertScheduler.certificateChanged(certificate.getId());
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void delete(Long id) {
+        List<Long> shipIds = certificateMapper.selectShipIdsByIds(List.of(id));
         certificateMapper.deleteById(id);
+        refreshCompliance(shipIds);
+        certificateAlertScheduler.certificatesRemoved(List.of(id));
     }
 
     @Override
@@ -80,23 +171,88 @@ public class ShipCertificateServiceImpl implements ShipCertificateService {
         return certificateMapper.findExpiredCertificates();
     }
 
+    /**
+     * 每天凌晨执行；启动时补跑一次，覆盖停机期间错过的日期。
+     * 多节点同时执行也只会有一个节点更新到行，其余节点影响 0 行
+     */
     @Override
-    public void updateCertificateStatus() {
-        // 更新所有证书状态
-        List<ShipCertificate> allCertificates = certificateMapper.selectList(null);
-        for (ShipCertificate cert : allCertificates) {
-            String oldStatus = cert.getStatus();
-            updateStatus(cert);
-            if (!cert.getStatus().equals(oldStatus)) {
-                certificateMapper.updateById(cert);
-            }
+    @Scheduled(cron = "${certificate.status.cron:0 5 0 * * ?}")
+    public Map<String, Object> updateCertificateStatus() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("证书状态更新正在执行，请稍后再试");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            LocalDate today = LocalDate.now();
+            LocalDate expiringBefore = today.plusDays(expiringDays);
+            // 只有这些船舶的证书状态会变化，任务结束后只刷新它们的合规汇总
+            List<Long> dueShips = certificateMapper.selectShipIdsDue(today);
+
+            // 先处理过期：停机多日后 VALID 证书可能直接到期
+            int expired = runInChunks(() -> certificateMapper.markExpired(today, chunkSize));
+            int expiring = runInChunks(() -> certificateMapper.markExpiring(today, expiringBefore, chunkSize));
+            int corrected = runInChunks(() -> certificateMapper.resetTransition(today, expiringBefore, expiringDays - 1, chunkSize));
+
+            refreshCompliance(dueShips);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("date", today);
+            result.put("expired", expired);
+            result.put("expiring", expiring);
+            result.put("corrected", corrected);
+            result.put("ships", dueShips.size());
+            result.put("changed", expired + expiring + corrected);
+            result.put("elapsedMillis", System.currentTimeMillis() - start);
+
+            runs.increment();
+            changedRows.add(expired + expiring + corrected);
+            lastRun.set(result);
+            logger.info("证书状态更新完成: {}", result);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void updateOnStartup() {
+        try {
+            updateCertificateStatus();
+        } catch (Exception e) {
+            logger.error("启动时更新证书状态失败: {}", e.getMessage(), e);
         }
     }
-    
+
     /**
-     * 根据到期日期更新证书状态
+     * 重复执行单条有 LIMIT 的 UPDATE，直到不足一块
+     */
+    private int runInChunks(IntSupplier update) {
+        int total = 0;
+        int affected;
+        do {
+            affected = update.getAsInt();
+            total += affected;
+        } while (affected >= chunkSize);
+        return total;
+    }
+
+    @Override
+    public Map<String, Object> statusStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("runs", runs.sum());
+        stats.put("changedRows", changedRows.sum());
+        stats.put("running", running.get());
+        stats.put("lastRun", lastRun.get());
+        return stats;
+    }
+
+    /**
+     * 根据到期日期计算证书状态和下次变化日期，与状态任务中的 SQL 保持一致：
+     * 到期日早于今天为 EXPIRED；早于今天 + expiringDays 为 EXPIRING，到期次日变为 EXPIRED；
+     * 否则为 VALID，到期前 expiringDays - 1 天变为 EXPIRING
      */
     private void updateStatus(ShipCertificate certificate) {
+        certificate.setNextTransitionDate(null);
         if (certificate.getExpiryDate() == null) {
             certificate.setStatus("VALID");
             return;
@@ -107,18 +263,160 @@ public class ShipCertificateServiceImpl implements ShipCertificateService {
         
         if (expiryDate.isBefore(today)) {
             certificate.setStatus("EXPIRED");
-        } else if (expiryDate.isBefore(today.plusDays(30))) {
+        } else if (expiryDate.isBefore(today.plusDays(expiringDays))) {
             certificate.setStatus("EXPIRING");
+            certificate.setNextTransitionDate(expiryDate.plusDays(1));
         } else {
             certificate.setStatus("VALID");
+            certificate.setNextTransitionDate(expiryDate.minusDays(expiringDays - 1));
         }
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public int deleteBatch(List<Long> ids) {
         if (ids == null || ids.isEmpty()) {
             return 0;
         }
-        return certificateMapper.deleteBatchIds(ids);
+        List<Long> shipIds = certificateMapper.selectShipIdsByIds(ids);
+        int deleted = certificateMapper.deleteBatchIds(ids);
+        refreshCompliance(shipIds);
+        certificateAlertScheduler.certificatesRemoved(ids);
+        return deleted;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getComplianceSummary() {
+        LocalDate today = LocalDate.now();
+        Map<String, Object> totals = new HashMap<>(complianceStatMapper.sumAll());
+        Object earliest = totals.remove("earliest_expiry");
+        LocalDate earliestExpiry = earliest != null ? toLocalDate(earliest) : null;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("date", today);
+        summary.put("shipCount", totals.get("ship_count"));
+        summary.put("validCount", totals.get("valid_count"));
+        summary.put("expiringCount", totals.get("expiring_count"));
+        summary.put("expiredCount", totals.get("expired_count"));
+        fillExpiry(summary, earliestExpiry, today);
+
+        List<ShipComplianceRow> categories = complianceStatMapper.sumByCategory();
+        categories.forEach(row -> fillExpiry(row, today));
+        summary.put("categories", categories);
+        return summary;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ShipComplianceRow> getShipCompliance(String cursor, Integer size, String status) {
+        int limit = pageLimit(size);
+        LocalDate cursorExpiry = null;
+        Long cursorShipId = null;
+        String[] parts = CursorUtil.decode(cursor, 2);
+        if (parts != null) {
+            try {
+                cursorExpiry = LocalDate.parse(parts[0]);
+                cursorShipId = Long.valueOf(parts[1]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("无效的分页游标");
+            }
+        }
+        String filter = "EXPIRED".equals(status) || "EXPIRING".equals(status) ? status : null;
+
+        List<ShipComplianceRow> records = complianceStatMapper.selectShipsAfter(filter, cursorExpiry, cursorShipId, limit + 1);
+        boolean hasMore = records.size() > limit;
+        if (hasMore) {
+            records = new ArrayList<>(records.subList(0, limit));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            ShipComplianceRow last = records.get(records.size() - 1);
+            nextCursor = CursorUtil.encode(last.getSortExpiry(), last.getShipId());
+        }
+        LocalDate today = LocalDate.now();
+        records.forEach(row -> fillExpiry(row, today));
+        return new CursorPage<>(records, nextCursor, hasMore);
+    }
+
+    @Override
+    public CursorPage<ShipCertificate> getExpiringByCursor(String cursor, Integer size) {
+        LocalDate today = LocalDate.now();
+        return pageByExpiry(today, today.plusDays(expiringDays), cursor, size);
+    }
+
+    @Override
+    public CursorPage<ShipCertificate> getExpiredByCursor(String cursor, Integer size) {
+        return pageByExpiry(null, LocalDate.now(), cursor, size);
+    }
+
+    /**
+     * 按 (expiry_date, id) 游标分页，最早到期的在前
+     */
+    private CursorPage<ShipCertificate> pageByExpiry(LocalDate fromDate, LocalDate toDate, String cursor, Integer size) {
+        int limit = pageLimit(size);
+        LocalDate cursorDate = null;
+        Long cursorId = null;
+        String[] parts = CursorUtil.decode(cursor, 2);
+        if (parts != null) {
+            try {
+                cursorDate = LocalDate.parse(parts[0]);
+                cursorId = Long.valueOf(parts[1]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("无效的分页游标");
+            }
+        }
+
+        // 多取一条判断是否还有下一页
+        List<ShipCertificate> records = certificateMapper.selectByExpiryAfter(fromDate, toDate, cursorDate, cursorId, limit + 1);
+        boolean hasMore = records.size() > limit;
+        if (hasMore) {
+            records = new ArrayList<>(records.subList(0, limit));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            ShipCertificate last = records.get(records.size() - 1);
+            nextCursor = CursorUtil.encode(last.getExpiryDate(), last.getId());
+        }
+        return new CursorPage<>(records, nextCursor, hasMore);
+    }
+
+    private static int pageLimit(Integer size) {
+        return Math.max(1, Math.min(size != null ? size : DEFAULT_CURSOR_PAGE_SIZE, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    /**
+     * 重算指定船舶的合规汇总
+     */
+    private void refreshCompliance(Collection<Long> shipIds) {
+        List<Long> ids = shipIds.stream().filter(Objects::nonNull).distinct().toList();
+        for (int from = 0; from < ids.size(); from += REFRESH_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + REFRESH_CHUNK_SIZE, ids.size()));
+            complianceStatMapper.refreshShips(chunk);
+            complianceStatMapper.deleteEmptyShips(chunk);
+        }
+    }
+
+    private void fillExpiry(ShipComplianceRow row, LocalDate today) {
+        LocalDate expiry = row.getSortExpiry();
+        if (expiry != null && !expiry.equals(NO_EXPIRY)) {
+            row.setEarliestExpiry(expiry);
+            row.setDaysToExpiry(ChronoUnit.DAYS.between(today, expiry));
+        }
+    }
+
+    private void fillExpiry(Map<String, Object> summary, LocalDate expiry, LocalDate today) {
+        boolean present = expiry != null && !expiry.equals(NO_EXPIRY);
+        summary.put("earliestExpiry", present ? expiry : null);
+        summary.put("daysToExpiry", present ? ChronoUnit.DAYS.between(today, expiry) : null);
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return LocalDate.parse(value.toString());
     }
 }
@@ -61,7 +61,10 @@ public class ShipServiceImpl implements ShipService {
     public void update(Ship ship) {
         // 更新时间
         ship.setUpdatedAt(java.time.LocalDateTime.now());
-        shipMapper.updateById(ship);
+        if (shipMapper.updateById(ship) == 0 && ship.getVersion() != null) {
+            // 版本号不一致：编辑期间船舶已被修改（如已开航）
+            throw new RuntimeException("船舶信息已被修改，请刷新后重试");
+        }
     }
 
     @Override
@@ -0,0 +1,242 @@
+package com.dhy.shipmanagebackend.service.impl;
+
+import com.dhy.shipmanagebackend.mapper.BroadcastMessageMapper;
+import com.dhy.shipmanagebackend.mapper.MessageMapper;
+import com.dhy.shipmanagebackend.service.UnreadCountService;
+import com.dhy.shipmanagebackend.utils.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 未读消息计数服务实现类
+ *
+ * Redis 结构：
+ * msg:unread:{userId}   → HASH  count（建立计数时的未读数）/ bcount（同时读到的广播总数）/ ver（增减次数）
+ * msg:broadcast:count   → 广播总数，广播提交后推进到数据库中的值
+ * 未读数 = count + (当前广播总数 - bcount)，广播无需逐用户更新
+ * count 与 bcount 由同一条语句读出，广播提交与推进总数之间重建计数也不会重复或漏计
+ */
+@Service
+public class UnreadCountServiceImpl implements UnreadCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCountServiceImpl.class);
+
+    private static final String UNREAD_PREFIX = "msg:unread:";
+    private static final String BROADCAST_COUNT_KEY = "msg:broadcast:count";
+
+    /**
+     * 校对时每次 SCAN 的 COUNT，也是每次调用写回脚本的最多计数个数
+     */
+    private static final int SCAN_BATCH = 200;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private MessageMapper messageMapper;
+
+    @Autowired
+    private BroadcastMessageMapper broadcastMessageMapper;
+
+    @Autowired
+    private RedisScript<Long> unreadGetScript;
+
+    @Autowired
+    private RedisScript<Long> unreadIncrScript;
+
+    @Autowired
+    private RedisScript<Long> unreadReconcileScript;
+
+    @Autowired
+    private RedisScript<Long> unreadBroadcastAdvanceScript;
+
+    @Value("${message.unread.ttl-hours:24}")
+    private int ttlHours;
+
+    @Value("${message.unread.reconcile-batch:500}")
+    private int reconcileBatch;
+
+    /**
+     * 未扫完的校对游标，下次校对从这里继续；扫完一轮后关闭，下次重新开始
+     */
+    private Cursor<String> reconcileCursor;
+
+    @Override
+    public int get(Long userId) {
+        Long unread = stringRedisTemplate.execute(unreadGetScript,
+                Arrays.asList(UNREAD_PREFIX + userId, BROADCAST_COUNT_KEY));
+        if (unread != null && unread >= 0) {
+            return unread.intValue();
+        }
+        return rebuild(userId);
+    }
+
+    @Override
+    public void add(Long userId, int delta) {
+        TransactionUtil.afterCommit(() -> stringRedisTemplate.execute(unreadIncrScript,
+                Collections.singletonList(UNREAD_PREFIX + userId), String.valueOf(delta)));
+    }
+
+    @Override
+    public void onBroadcast() {
+        TransactionUtil.afterCommit(() -> advanceBroadcastCount(broadcastMessageMapper.countAll()));
+    }
+
+    @Override
+    public void evict(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = userIds.stream().map(id -> UNREAD_PREFIX + id).collect(Collectors.toList());
+        TransactionUtil.afterCommit(() -> stringRedisTemplate.delete(keys));
+    }
+
+    /**
+     * 定时校对计数与数据库是否一致
+     * 在 Java 中用 SCAN 分批遍历计数，游标保留到下次校对继续，多轮之后覆盖全部计数；
+     * 每批查库后一次调用脚本写回，写回用比较并设置，查库期间计数被增减过的本轮跳过，避免覆盖新的增量
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${message.unread.reconcile-interval-ms:600000}")
+    public synchronized int reconcile() {
+        int checked = 0;
+        int repaired = 0;
+        try {
+            while (checked < reconcileBatch) {
+                int limit = Math.min(SCAN_BATCH, reconcileBatch - checked);
+                List<String> keys = nextKeys(limit);
+                checked += keys.size();
+                repaired += reconcileKeys(keys);
+                // 不足一批表示本轮已扫完，剩余额度留到下次
+                if (keys.size() < limit) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("未读计数校对失败: {}", e.getMessage(), e);
+            closeReconcileCursor();
+        }
+        if (repaired > 0) {
+            logger.info("未读计数校对：检查 {} 个，修复 {} 个", checked, repaired);
+        }
+        return repaired;
+    }
+
+    /**
+     * 从校对游标中取出最多 limit 个计数键；本轮扫完时关闭游标
+     */
+    private List<String> nextKeys(int limit) {
+        if (reconcileCursor == null) {
+            reconcileCursor = stringRedisTemplate.scan(ScanOptions.scanOptions()
+                    .match(UNREAD_PREFIX + "*").count(SCAN_BATCH).build());
+        }
+        List<String> keys = new ArrayList<>(limit);
+        while (keys.size() < limit && reconcileCursor.hasNext()) {
+            keys.add(reconcileCursor.next());
+        }
+        if (keys.size() < limit) {
+            closeReconcileCursor();
+        }
+        return keys;
+    }
+
+    private void closeReconcileCursor() {
+        if (reconcileCursor != null) {
+            try {
+                reconcileCursor.close();
+            } catch (Exception e) {
+                logger.warn("关闭未读计数校对游标失败: {}", e.getMessage());
+            }
+            reconcileCursor = null;
+        }
+    }
+
+    /**
+     * 校对一批计数：逐个先取 ver 再查库，与缓存不一致的一次调用脚本写回
+     * @return 写回了数据库中的值的个数
+     */
+    private int reconcileKeys(List<String> keys) {
+        List<String> stale = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(TimeUnit.HOURS.toSeconds(ttlHours)));
+        for (String key : keys) {
+            Long userId;
+            try {
+                userId = Long.valueOf(key.substring(UNREAD_PREFIX.length()));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            Object ver = stringRedisTemplate.opsForHash().get(key, "ver");
+            Long cached = stringRedisTemplate.execute(unreadGetScript, Arrays.asList(key, BROADCAST_COUNT_KEY));
+            DbCount actual = countFromDb(userId);
+            if (cached != null && cached == actual.unread()) {
+                continue;
+            }
+            stale.add(key);
+            args.add(ver != null ? ver.toString() : "0");
+            args.add(String.valueOf(actual.unread()));
+            args.add(String.valueOf(actual.broadcastTotal()));
+        }
+        if (stale.isEmpty()) {
+            return 0;
+        }
+        Long written = stringRedisTemplate.execute(unreadReconcileScript, stale, args.toArray());
+        return written != null ? written.intValue() : 0;
+    }
+
+    /**
+     * 从数据库重建计数；未读广播数与广播总数同时读取，之后新增的广播会被计入差值
+     */
+    private int rebuild(Long userId) {
+        DbCount actual = countFromDb(userId);
+        writeCounter(userId, actual.unread(), actual.broadcastTotal());
+        return actual.unread();
+    }
+
+    private DbCount countFromDb(Long userId) {
+        Map<String, Object> broadcast = broadcastMessageMapper.countUnreadWithTotal(userId);
+        long total = ((Number) broadcast.get("total")).longValue();
+        // 读到的广播可能尚未推进到 Redis（或总数键已丢失），先推进，保证差值不为负
+        advanceBroadcastCount(total);
+        int unread = messageMapper.countUnreadByUserId(userId) + ((Number) broadcast.get("unread")).intValue();
+        return new DbCount(unread, total);
+    }
+
+    private void advanceBroadcastCount(long total) {
+        stringRedisTemplate.execute(unreadBroadcastAdvanceScript,
+                Collections.singletonList(BROADCAST_COUNT_KEY), String.valueOf(total));
+    }
+
+    private void writeCounter(Long userId, int count, long broadcastTotal) {
+        String key = UNREAD_PREFIX + userId;
+        Map<String, String> values = new HashMap<>();
+        values.put("count", String.valueOf(count));
+        values.put("bcount", String.valueOf(broadcastTotal));
+        stringRedisTemplate.opsForHash().putAll(key, values);
+        stringRedisTemplate.expire(key, ttlHours, TimeUnit.HOURS);
+    }
+
+    /**
+     * 数据库中的未读数及同时读到的广播总数
+     */
+    private record DbCount(int unread, long broadcastTotal) {
+    }
+}
@@ -2,18 +2,21 @@ package com.dhy.shipmanagebackend.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.dhy.shipmanagebackend.cache.UserProfileCache;
+import com.dhy.shipmanagebackend.entity.LoginUser;
 import com.dhy.shipmanagebackend.entity.User;
 import com.dhy.shipmanagebackend.mapper.UserMapper;
 import com.dhy.shipmanagebackend.service.MailService;
+import com.dhy.shipmanagebackend.service.SessionService;
 import com.dhy.shipmanagebackend.service.UserService;
+import com.dhy.shipmanagebackend.service.VerifyCodeService;
 import com.dhy.shipmanagebackend.utils.BcryptUtil;
+import com.dhy.shipmanagebackend.utils.IpUtil;
 import com.dhy.shipmanagebackend.utils.JwtUtil;
-import com.dhy.shipmanagebackend.utils.RandomUtil;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
@@ -23,7 +26,6 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -39,10 +41,16 @@ public class UserServiceImpl implements UserService {
     private JavaMailSender mailSender;
 
     @Autowired
-    private StringRedisTemplate stringRedisTemplate;
+    private MailService mailService;
 
     @Autowired
-    private MailService mailService;
+    private SessionService sessionService;
+
+    @Autowired
+    private VerifyCodeService verifyCodeService;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
 
     @Value("${resend.from-email}")
     private String fromEmail;
@@ -61,27 +69,13 @@ public class UserServiceImpl implements UserService {
     @Override
     public void sendCode(String email) {
 
-        // 1️⃣ 防刷：60 秒内只能发一次
-        String lockKey = "send:lock:" + email;
-        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(lockKey))) {
-            throw new RuntimeException("操作过于频繁，请稍后再试");
-        }
-
-        // 2️⃣ 生成验证码
-        String code = RandomUtil.getSixBitRandom();
-
-        // 3️⃣ 存 Redis（5 分钟）
-        stringRedisTemplate.opsForValue()
-                .set("register:code:" + email, code, 5, TimeUnit.MINUTES);
+        // 1️⃣ 防刷检查 + 邮箱/IP 限流 + 生成验证码并存 Redis（5 分钟），一个 Lua 脚本原子完成
+        String code = verifyCodeService.issue(email, IpUtil.getCurrentClientIp());
 
-        // 4️⃣ 防刷锁（60 秒）
-        stringRedisTemplate.opsForValue()
-                .set(lockKey, "1", 60, TimeUnit.SECONDS);
-
-        // 5️⃣ 构建 HTML
+        // 2️⃣ 构建 HTML
         String html = buildMailHtml(code);
 
-        // 6️⃣ 异步发送（不阻塞接口）
+        // 3️⃣ 异步发送（不阻塞接口）
         mailService.send(email, html);
 
         logger.info("验证码已生成并发送任务已提交：" + email);
@@ -122,15 +116,8 @@ public class UserServiceImpl implements UserService {
     public void register(String username, String password,
             String email, String code) {
 
-        String redisCode = stringRedisTemplate.opsForValue()
-                .get("register:code:" + email);
-
-        if (redisCode == null || !redisCode.equals(code)) {
-            throw new RuntimeException("验证码错误或已失效");
-        }
-
-        // 删除验证码，防重放
-        stringRedisTemplate.delete("register:code:" + email);
+        // 校验并删除验证码，防重放
+        verifyCodeService.consume(email, code);
 
         User user = new User();
         user.setUsername(username);
@@ -146,29 +133,18 @@ public class UserServiceImpl implements UserService {
     @Override
     public String loginByEmail(String email, String code) {
 
-        String redisCode = stringRedisTemplate.opsForValue()
-                .get("register:code:" + email);
-
-        if (redisCode == null || !redisCode.equals(code)) {
-            throw new RuntimeException("验证码错误或已失效");
-        }
+        // 校验并删除验证码，防重放
+        verifyCodeService.consume(email, code);
 
         User user = userMapper.findByEmail(email);
         if (user == null) {
             throw new RuntimeException("该邮箱尚未注册");
         }
 
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("id", user.getId());
-        claims.put("username", user.getUsername());
-        claims.put("role", user.getRole());
+        LoginUser principal = new LoginUser(user.getId(), user.getUsername(), user.getRole());
+        String token = JwtUtil.genToken(principal);
 
-        String token = JwtUtil.genToken(claims);
-
-        stringRedisTemplate.opsForValue()
-                .set(token, token, 12, TimeUnit.HOURS);
-
-        stringRedisTemplate.delete("register:code:" + email);
+        sessionService.createSession(principal, token);
 
         return token;
     }
@@ -179,6 +155,7 @@ public class UserServiceImpl implements UserService {
     public void update(User user) {
         user.setUpdatedAt(LocalDateTime.now());
         userMapper.updateById(user);
+        userProfileCache.invalidate(user.getId());
     }
 
     @Override
@@ -189,23 +166,18 @@ public class UserServiceImpl implements UserService {
                         .eq(User::getUsername, username)
                         .set(User::getAvatarUrl, avatarUrl)
                         .set(User::getUpdatedAt, LocalDateTime.now()));
+        User user = findByUsername(username);
+        if (user != null) {
+            userProfileCache.invalidate(user.getId());
+        }
     }
 
     // ==================== 邮箱验证码重置密码 ====================
 
     @Override
     public void resetPassword(String email, String code, String newPassword) {
-        // 1. 验证验证码是否有效
-        String redisCode = stringRedisTemplate.opsForValue()
-                .get("register:code:" + email);
-
-        if (redisCode == null) {
-            throw new RuntimeException("验证码已过期，请重新获取");
-        }
-
-        if (!redisCode.equals(code)) {
-            throw new RuntimeException("验证码错误");
-        }
+        // 1. 校验并删除验证码（一次性，防重放）
+        verifyCodeService.consume(email, code);
 
         // 2. 查找用户
         User user = userMapper.findByEmail(email);
@@ -220,9 +192,10 @@ public class UserServiceImpl implements UserService {
                         .eq(User::getEmail, email)
                         .set(User::getPasswordHash, BcryptUtil.encode(newPassword))
                         .set(User::getUpdatedAt, LocalDateTime.now()));
+        userProfileCache.invalidate(user.getId());
 
-        // 4. 删除已使用的验证码（防重放）
-        stringRedisTemplate.delete("register:code:" + email);
+        // 4. 旧密码签发的会话全部失效
+        sessionService.revokeAll(user.getId());
 
         logger.info("用户密码重置成功：" + email);
     }
@@ -331,6 +304,9 @@ public class UserServiceImpl implements UserService {
         }
         user.setRole(role);
         userMapper.updateById(user);
+        userProfileCache.invalidate(userId);
+        // token 中携带角色，需重新登录才能生效
+        sessionService.revokeAll(userId);
     }
 
     @Override
@@ -340,12 +316,17 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("用户不存在");
         }
         user.setPasswordHash(BcryptUtil.encode(newPassword));
+        user.setUpdatedAt(LocalDateTime.now());
         userMapper.updateById(user);
+        userProfileCache.invalidate(userId);
+        sessionService.revokeAll(userId);
     }
 
     @Override
     public void deleteUser(Long id) {
         userMapper.deleteById(id);
+        sessionService.revokeAll(id);
+        userProfileCache.invalidate(id);
     }
 
     @Override
@@ -361,7 +342,10 @@ public class UserServiceImpl implements UserService {
         if (idsToDelete.isEmpty()) {
             return 0;
         }
-        return userMapper.deleteBatchIds(idsToDelete);
+        int deleted = userMapper.deleteBatchIds(idsToDelete);
+        idsToDelete.forEach(sessionService::revokeAll);
+        idsToDelete.forEach(userProfileCache::invalidate);
+        return deleted;
     }
 
     @Override
@@ -0,0 +1,103 @@
+package com.dhy.shipmanagebackend.service.impl;
+
+import com.dhy.shipmanagebackend.service.VerifyCodeService;
+import com.dhy.shipmanagebackend.utils.RandomUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * 邮箱验证码服务实现类
+ */
+@Service
+public class VerifyCodeServiceImpl implements VerifyCodeService {
+
+    private static final String CODE_PREFIX = "register:code:";
+    private static final String LOCK_PREFIX = "send:lock:";
+    private static final String EMAIL_WINDOW_PREFIX = "send:window:email:";
+    private static final String IP_WINDOW_PREFIX = "send:window:ip:";
+    private static final String FAIL_PREFIX = "verify:fail:";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisScript<Long> issueVerifyCodeScript;
+
+    @Autowired
+    private RedisScript<Long> consumeVerifyCodeScript;
+
+    @Value("${verify-code.ttl-seconds:300}")
+    private int ttlSeconds;
+
+    @Value("${verify-code.resend-interval-seconds:60}")
+    private int resendIntervalSeconds;
+
+    @Value("${verify-code.window-seconds:3600}")
+    private int windowSeconds;
+
+    @Value("${verify-code.email-limit:10}")
+    private int emailLimit;
+
+    @Value("${verify-code.ip-limit:30}")
+    private int ipLimit;
+
+    @Value("${verify-code.max-attempts:5}")
+    private int maxAttempts;
+
+    @Override
+    public String issue(String email, String ip) {
+        String code = RandomUtil.getSixBitRandom();
+
+        Long result = stringRedisTemplate.execute(
+                issueVerifyCodeScript,
+                Arrays.asList(
+                        CODE_PREFIX + email,
+                        LOCK_PREFIX + email,
+                        EMAIL_WINDOW_PREFIX + email,
+                        IP_WINDOW_PREFIX + (ip != null ? ip : "unknown"),
+                        FAIL_PREFIX + email),
+                code,
+                String.valueOf(ttlSeconds),
+                String.valueOf(resendIntervalSeconds),
+                String.valueOf(windowSeconds * 1000L),
+                String.valueOf(emailLimit),
+                String.valueOf(ipLimit),
+                UUID.randomUUID().toString());
+
+        if (result == null || result == -1) {
+            throw new RuntimeException("操作过于频繁，请稍后再试");
+        }
+        if (result == -2) {
+            throw new RuntimeException("该邮箱获取验证码次数过多，请稍后再试");
+        }
+        if (result == -3) {
+            throw new RuntimeException("当前网络获取验证码次数过多，请稍后再试");
+        }
+        return code;
+    }
+
+    @Override
+    public void consume(String email, String code) {
+        Long result = stringRedisTemplate.execute(
+                consumeVerifyCodeScript,
+                Arrays.asList(CODE_PREFIX + email, FAIL_PREFIX + email),
+                String.valueOf(code),
+                String.valueOf(maxAttempts));
+
+        if (result == null || result == -1) {
+            throw new RuntimeException("验证码已过期，请重新获取");
+        }
+        if (result == -2) {
+            throw new RuntimeException("验证码错误次数过多，请重新获取");
+        }
+        if (result == 0) {
+            throw new RuntimeException("验证码错误");
+        }
+    }
+}
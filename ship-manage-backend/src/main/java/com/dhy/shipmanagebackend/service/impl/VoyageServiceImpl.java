@@ -8,12 +8,14 @@ import com.dhy.shipmanagebackend.mapper.ShipMapper;
 import com.dhy.shipmanagebackend.mapper.VoyageMapper;
 import com.dhy.shipmanagebackend.service.VoyageService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class VoyageServiceImpl implements VoyageService {
@@ -24,32 +26,35 @@ public class VoyageServiceImpl implements VoyageService {
     @Autowired
     private ShipMapper shipMapper; // 需要操作船舶表
 
+    /**
+     * 可以开航的船舶状态
+     */
+    private static final List<String> DEPARTABLE_STATUSES = List.of("在役", "停运");
+
+    @Value("${voyage.delete.chunk-size:1000}")
+    private int deleteChunkSize;
+
     @Override
     @Transactional(rollbackFor = Exception.class) // 开启事务
     public void add(Voyage voyage) {
-        // 1. 检查船舶是否存在
-        Ship ship = shipMapper.selectById(voyage.getShipId());
-        if (ship == null) {
-            throw new RuntimeException("船舶不存在");
-        }
-
-        // 2. 判断用户想要创建什么状态的航次
+        // 判断用户想要创建什么状态的航次
         // 如果前端没传 status，默认视为 "执行中" (保持和文档一致的开航逻辑)
         // 或者用户明确传了 "执行中"
         if (!StringUtils.hasLength(voyage.getStatus()) || "执行中".equals(voyage.getStatus())) {
 
             // === 走开航逻辑 ===
 
-            // A. 只有"在役"或"停运"的船才能开航
-            if (!"在役".equals(ship.getStatus()) && !"停运".equals(ship.getStatus())) {
+            // 只有"在役"或"停运"的船才能开航；检查和改状态在一条 UPDATE 里完成，
+            // 同一艘船并发开航只有一个能更新到行
+            if (shipMapper.transitionStatus(voyage.getShipId(), DEPARTABLE_STATUSES, "航行中") == 0) {
+                // 失败时再查一次，给出具体原因
+                Ship ship = shipMapper.selectById(voyage.getShipId());
+                if (ship == null) {
+                    throw new RuntimeException("船舶不存在");
+                }
                 throw new RuntimeException("该船舶当前状态不可开航：" + ship.getStatus());
             }
-
             voyage.setStatus("执行中");
-            // 更新船舶状态
-            ship.setStatus("航行中");
-            ship.setUpdatedAt(LocalDateTime.now());
-            shipMapper.updateById(ship);
 
         } else if ("计划中".equals(voyage.getStatus())) {
 
@@ -57,13 +62,16 @@ public class VoyageServiceImpl implements VoyageService {
 
             // 计划中的航次，通常不需要校验船舶当前是否空闲（因为是未来的事）
             // 也不需要修改船舶状态，船还在港口里趴着呢
+            if (shipMapper.selectById(voyage.getShipId()) == null) {
+                throw new RuntimeException("船舶不存在");
+            }
             voyage.setStatus("计划中");
 
         } else {
             throw new RuntimeException("不支持的航次状态，只能是 '计划中' 或 '执行中'");
         }
 
-        // 3. 通用字段处理
+        // 通用字段处理
         if (voyage.getStartTime() == null) {
             voyage.setStartTime(LocalDateTime.now());
         }
@@ -72,35 +80,21 @@ public class VoyageServiceImpl implements VoyageService {
             voyage.setUpdatedAt(LocalDateTime.now());
         }
 
-        // 4. 保存航次
+        // 保存航次
         voyageMapper.insert(voyage);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class) // 开启事务
     public void finish(Long id) {
-        // 1. 获取航次
-        Voyage voyage = voyageMapper.selectById(id);
-        if (voyage == null) {
-            throw new RuntimeException("航次不存在");
-        }
-        if ("已完成".equals(voyage.getStatus())) {
+        // 航次标记为已完成，并释放船舶状态 (航行中 变回 在役)，一条语句完成
+        if (voyageMapper.finish(id) == 0) {
+            Voyage voyage = voyageMapper.selectById(id);
+            if (voyage == null) {
+                throw new RuntimeException("航次不存在");
+            }
             throw new RuntimeException("该航次已经结束，请勿重复操作");
         }
-
-        // 2. 更新航次状态
-        voyage.setStatus("已完成");
-        voyage.setEndTime(LocalDateTime.now());
-        voyage.setUpdatedAt(LocalDateTime.now());
-        voyageMapper.updateById(voyage);
-
-        // 3. 释放船舶状态 (变回 "在役")
-        Ship ship = shipMapper.selectById(voyage.getShipId());
-        if (ship != null) {
-            ship.setStatus("在役");
-            ship.setUpdatedAt(LocalDateTime.now());
-            shipMapper.updateById(ship);
-        }
     }
 
     @Override
@@ -133,12 +127,7 @@ public class VoyageServiceImpl implements VoyageService {
 
         // 2. 如果航次是"执行中"状态，需要恢复船舶状态
         if ("执行中".equals(voyage.getStatus())) {
-            Ship ship = shipMapper.selectById(voyage.getShipId());
-            if (ship != null && "航行中".equals(ship.getStatus())) {
-                ship.setStatus("在役");
-                ship.setUpdatedAt(LocalDateTime.now());
-                shipMapper.updateById(ship);
-            }
+            shipMapper.transitionStatus(voyage.getShipId(), List.of("航行中"), "在役");
         }
 
         // 3. 删除航次记录
@@ -146,10 +135,20 @@ public class VoyageServiceImpl implements VoyageService {
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public int deleteBatch(List<Long> ids) {
         if (ids == null || ids.isEmpty()) {
             return 0;
         }
-        return voyageMapper.deleteBatchIds(ids);
+        // 与单个删除一致：删除执行中的航次要恢复船舶状态
+        // 按块处理，每块两条语句（恢复船舶、删除航次），不逐条查询
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += deleteChunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + deleteChunkSize, distinctIds.size()));
+            voyageMapper.releaseShipsOfRunning(chunk);
+            deleted += voyageMapper.deleteBatchIds(chunk);
+        }
+        return deleted;
     }
 }
\ No newline at end of file
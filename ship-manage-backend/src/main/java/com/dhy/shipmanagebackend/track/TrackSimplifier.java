@@ -0,0 +1,143 @@
+package com.dhy.shipmanagebackend.track;
+
+import java.util.Arrays;
+
+/**
+ * 轨迹抽稀（Douglas–Peucker）
+ * 保留首尾点，递归保留偏离首尾连线超过容差的最远点；用显式栈代替递归，长轨迹不会栈溢出。
+ * 距离按线段起点处的等距圆柱投影近似为平面距离，单段远小于地球半径时误差可以忽略。
+ */
+public final class TrackSimplifier {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+    private static final double METERS_PER_DEGREE = Math.PI / 180 * EARTH_RADIUS_METERS;
+
+    private TrackSimplifier() {
+    }
+
+    /**
+     * 在不超过 maxPoints 个点的前提下按容差抽稀：点数超限时自动放大容差
+     * 只做一次完整分割，记录每个点的有效距离（自身偏离距离与所有上层分割点距离的较小值）；
+     * 容差为 tol 时的抽稀结果恰好是有效距离大于 tol 的点，因此可以直接选出满足点数上限的最小容差。
+     * @return 结果，tolerance 为实际使用的容差
+     */
+    public static Result simplifyToLimit(double[] lat, double[] lon, int n, double toleranceMeters, int maxPoints) {
+        double[] significance = significance(lat, lon, n);
+        double tolerance = Math.max(toleranceMeters, 0);
+        int slots = Math.max(0, maxPoints - 2);
+        double[] interior = new double[Math.max(0, n - 2)];
+        int candidates = 0;
+        for (int i = 1; i < n - 1; i++) {
+            if (significance[i] > tolerance) {
+                interior[candidates++] = significance[i];
+            }
+        }
+        if (candidates > slots) {
+            // 取第 slots+1 大的有效距离作为容差，严格大于它的点不超过 slots 个
+            Arrays.sort(interior, 0, candidates);
+            tolerance = interior[candidates - 1 - slots];
+        }
+
+        boolean[] keep = new boolean[n];
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (significance[i] > tolerance) {
+                keep[i] = true;
+                kept++;
+            }
+        }
+        return new Result(keep, kept, tolerance);
+    }
+
+    /**
+     * 容差为 0 的完整分割，返回每个点的有效距离，首尾点为正无穷
+     */
+    static double[] significance(double[] lat, double[] lon, int n) {
+        double[] significance = new double[n];
+        if (n == 0) {
+            return significance;
+        }
+        significance[0] = Double.POSITIVE_INFINITY;
+        significance[n - 1] = Double.POSITIVE_INFINITY;
+
+        // 栈中存放待处理区间 [from, to] 及其上层分割点的有效距离
+        int[] stack = new int[64];
+        double[] limits = new double[32];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        limits[0] = Double.POSITIVE_INFINITY;
+        while (top > 0) {
+            double limit = limits[top / 2 - 1];
+            int to = stack[--top];
+            int from = stack[--top];
+            if (to - from < 2) {
+                continue;
+            }
+            int farthest = -1;
+            double maxDistance = 0;
+            for (int i = from + 1; i < to; i++) {
+                double distance = distanceToSegment(lat[i], lon[i], lat[from], lon[from], lat[to], lon[to]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+            if (farthest < 0) {
+                continue;
+            }
+            double effective = Math.min(maxDistance, limit);
+            significance[farthest] = effective;
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                limits = Arrays.copyOf(limits, limits.length * 2);
+            }
+            stack[top++] = from;
+            stack[top++] = farthest;
+            limits[top / 2 - 1] = effective;
+            stack[top++] = farthest;
+            stack[top++] = to;
+            limits[top / 2 - 1] = effective;
+        }
+        return significance;
+    }
+
+    /**
+     * 点 p 到线段 ab 的距离(米)
+     */
+    static double distanceToSegment(double pLat, double pLon, double aLat, double aLon, double bLat, double bLon) {
+        double cos = Math.cos(Math.toRadians(aLat));
+        double px = normalizeLon(pLon - aLon) * cos * METERS_PER_DEGREE;
+        double py = (pLat - aLat) * METERS_PER_DEGREE;
+        double bx = normalizeLon(bLon - aLon) * cos * METERS_PER_DEGREE;
+        double by = (bLat - aLat) * METERS_PER_DEGREE;
+
+        double lengthSquared = bx * bx + by * by;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * bx + py * by) / lengthSquared));
+        double dx = px - t * bx;
+        double dy = py - t * by;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * 经度差归一到 [-180, 180)，跨越日界线的航段按短的一侧计算
+     */
+    private static double normalizeLon(double delta) {
+        if (delta >= 180) {
+            return delta - 360;
+        }
+        if (delta < -180) {
+            return delta + 360;
+        }
+        return delta;
+    }
+
+    /**
+     * 抽稀结果
+     * @param keep 标记为保留的点
+     * @param kept 保留点数
+     * @param tolerance 实际使用的容差(米)
+     */
+    public record Result(boolean[] keep, int kept, double tolerance) {
+    }
+}
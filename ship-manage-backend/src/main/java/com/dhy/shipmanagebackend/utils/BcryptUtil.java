@@ -1,18 +1,71 @@
 package com.dhy.shipmanagebackend.utils;
 
+import com.dhy.shipmanagebackend.exception.ServiceBusyException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * BCrypt 密码工具类
+ * 加密 / 校验通过准入闸门执行：同时计算的数量受限，排队数量也受限，
+ * 登录高峰时超出部分直接快速失败（429），避免 BCrypt 占满 Tomcat 工作线程拖慢其他接口
+ */
+@Component
 public class BcryptUtil {
     // 实例化一个 encoder 对象
     private static final BCryptPasswordEncoder ENCODER = new BCryptPasswordEncoder();
 
+    // 静态实例用于支持静态方法调用
+    private static BcryptUtil instance;
+
+    @Value("${password-hash.concurrency:0}")
+    private int concurrency;
+
+    @Value("${password-hash.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${password-hash.max-wait-ms:2000}")
+    private long maxWaitMs;
+
+    @Value("${password-hash.retry-after-seconds:3}")
+    private int retryAfterSeconds;
+
+    private Semaphore permits;
+
+    // 已准入（正在计算 + 排队中）的请求数
+    private final AtomicInteger admitted = new AtomicInteger();
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalHashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if (concurrency <= 0) {
+            concurrency = Runtime.getRuntime().availableProcessors();
+        }
+        permits = new Semaphore(concurrency);
+        instance = this;
+    }
+
     /**
      * 加密密码
      * @param rawPassword 明文密码
      * @return 加密后的哈希字符串
      */
     public static String encode(String rawPassword) {
-        return ENCODER.encode(rawPassword);
+        return admit(() -> ENCODER.encode(rawPassword));
     }
 
     /**
@@ -22,6 +75,68 @@ public class BcryptUtil {
      * @return true=匹配, false=不匹配
      */
     public static boolean match(String rawPassword, String encodedPassword) {
-        return ENCODER.matches(rawPassword, encodedPassword);
+        return admit(() -> ENCODER.matches(rawPassword, encodedPassword));
+    }
+
+    private static <T> T admit(Supplier<T> task) {
+        // 非 Spring 环境（未初始化）直接执行
+        if (instance == null) {
+            return task.get();
+        }
+        return instance.execute(task);
+    }
+
+    private <T> T execute(Supplier<T> task) {
+        if (admitted.incrementAndGet() > concurrency + queueCapacity) {
+            admitted.decrementAndGet();
+            throw busy();
+        }
+        try {
+            if (!permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                throw busy();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted.decrementAndGet();
+            throw busy();
+        } catch (ServiceBusyException e) {
+            admitted.decrementAndGet();
+            throw e;
+        }
+
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            permits.release();
+            admitted.decrementAndGet();
+            completed.increment();
+            totalHashNanos.add(elapsed);
+            maxHashNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private ServiceBusyException busy() {
+        rejected.increment();
+        return new ServiceBusyException("登录人数过多，请稍后重试", retryAfterSeconds);
+    }
+
+    /**
+     * 闸门运行统计
+     */
+    public Map<String, Object> stats() {
+        int running = concurrency - permits.availablePermits();
+        long count = completed.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("concurrency", concurrency);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("running", running);
+        stats.put("queueDepth", Math.max(0, admitted.get() - running));
+        stats.put("completed", count);
+        stats.put("rejected", rejected.sum());
+        stats.put("avgHashMillis", count == 0 ? 0.0 : totalHashNanos.sum() / 1_000_000.0 / count);
+        stats.put("maxHashMillis", maxHashNanos.get() / 1_000_000.0);
+        return stats;
     }
-}
\ No newline at end of file
+}
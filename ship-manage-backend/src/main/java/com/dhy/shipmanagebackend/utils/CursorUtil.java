@@ -0,0 +1,49 @@
+package com.dhy.shipmanagebackend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 分页游标编解码
+ * 游标由排序键各字段拼接后 Base64(URL 安全) 编码，对前端不透明
+ */
+public class CursorUtil {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 编码游标
+     */
+    public static String encode(Object... parts) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     * @param size 期望的字段个数
+     * @return 各字段字符串；cursor 为空返回 null（表示第一页）
+     */
+    public static String[] decode(String cursor, int size) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != size) {
+                throw new IllegalArgumentException();
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("无效的分页游标");
+        }
+    }
+}
@@ -1,17 +1,22 @@
 package com.dhy.shipmanagebackend.utils;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.dhy.shipmanagebackend.entity.LoginUser;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * JWT 工具类
  * 使用 HMAC256 算法生成和验证 Token
+ * 算法与校验器在启动时构建一次，之后所有请求复用（二者均线程安全）
  */
 @Component
 public class JwtUtil {
@@ -25,33 +30,47 @@ public class JwtUtil {
     // 静态实例用于支持静态方法调用
     private static JwtUtil instance;
 
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+
     @PostConstruct
     public void init() {
+        algorithm = Algorithm.HMAC256(secretKey);
+        verifier = JWT.require(algorithm).build();
         instance = this;
     }
 
     /**
      * 生成 JWT Token
-     * @param claims 业务数据
+     * @param user 登录用户
      * @return Token 字符串
      */
-    public static String genToken(Map<String, Object> claims) {
+    public static String genToken(LoginUser user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("id", user.getId());
+        claims.put("username", user.getUsername());
+        claims.put("role", user.getRole());
+
         return JWT.create()
                 .withClaim("claims", claims)
-                .withExpiresAt(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * instance.expirationHours))
-                .sign(Algorithm.HMAC256(instance.secretKey));
+                .withExpiresAt(new Date(System.currentTimeMillis() + 1000L * 60 * 60 * instance.expirationHours))
+                .sign(instance.algorithm);
     }
 
     /**
      * 验证并解析 JWT Token
      * @param token Token 字符串
-     * @return 业务数据
+     * @return 登录用户
      */
-    public static Map<String, Object> parseToken(String token) {
-        return JWT.require(Algorithm.HMAC256(instance.secretKey))
-                .build()
-                .verify(token)
-                .getClaim("claims")
-                .asMap();
+    public static LoginUser parseToken(String token) {
+        DecodedJWT jwt = instance.verifier.verify(token);
+        Map<String, Object> claims = jwt.getClaim("claims").asMap();
+
+        LoginUser user = new LoginUser(
+                ((Number) claims.get("id")).longValue(),
+                (String) claims.get("username"),
+                (String) claims.get("role"));
+        user.setExpiresAt(jwt.getExpiresAt());
+        return user;
     }
 }
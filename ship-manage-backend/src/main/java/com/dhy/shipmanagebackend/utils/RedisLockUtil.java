@@ -0,0 +1,49 @@
+package com.dhy.shipmanagebackend.utils;
+
+import cn.hutool.core.lang.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * 基于 Redis SET NX PX 的跨节点互斥锁，用于同一时刻只能有一个节点执行的定时任务（如分区 DDL）
+ * 锁到期自动释放，持有时间不应超过 ttl；释放时校验令牌，不会删掉其他节点的锁
+ */
+@Component
+public class RedisLockUtil {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisLockUtil.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisScript<Long> releaseLockScript;
+
+    /**
+     * 尝试加锁
+     * @return 令牌，释放时传回；锁已被其他节点持有时返回 null
+     */
+    public String tryLock(String key, Duration ttl) {
+        String token = UUID.fastUUID().toString(true);
+        Boolean ok = stringRedisTemplate.opsForValue().setIfAbsent(key, token, ttl);
+        return Boolean.TRUE.equals(ok) ? token : null;
+    }
+
+    /**
+     * 释放锁，失败只记录日志（锁到期后自动释放）
+     */
+    public void unlock(String key, String token) {
+        try {
+            stringRedisTemplate.execute(releaseLockScript, Collections.singletonList(key), token);
+        } catch (Exception e) {
+            logger.warn("释放锁 {} 失败: {}", key, e.getMessage());
+        }
+    }
+}
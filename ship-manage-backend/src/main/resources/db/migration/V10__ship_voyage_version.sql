@@ -0,0 +1,9 @@
+-- 船舶/航次乐观锁版本号
+-- 开航、结束航次改为带状态条件的单条 UPDATE（WHERE status IN (...)），并发开航只有一个能成功；
+-- 每次状态变化同时递增 version，编辑船舶信息时按 version 校验，避免用旧数据覆盖“航行中”等状态。
+
+ALTER TABLE `ships`
+  ADD COLUMN `version` int NOT NULL DEFAULT 0 COMMENT '乐观锁版本号' AFTER `cover_img`;
+
+ALTER TABLE `voyages`
+  ADD COLUMN `version` int NOT NULL DEFAULT 0 COMMENT '乐观锁版本号' AFTER `end_time`;
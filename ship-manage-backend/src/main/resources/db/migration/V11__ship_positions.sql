@@ -0,0 +1,30 @@
+-- 船舶位置轨迹（AIS/GPS 定位点）
+-- 按天分区：轨迹查询按时间范围做分区裁剪，历史数据按分区整体删除。
+-- 主键 (ship_id, recorded_at) 即聚簇索引，查询某船一段时间的轨迹是一次主键范围扫描；
+-- 同一船同一秒重复上报的点由 INSERT IGNORE 去重。
+-- 经纬度以 10^-6 度整数存储（约 0.1 米），航速/航向以 0.1 为单位，列数据每行 25 字节；
+-- 加上 InnoDB 记录头 5 字节、事务 ID 与回滚指针 13 字节和 NULL 位图，每行约 45 字节，
+-- 按页填充率计算磁盘上约 50~60 字节。
+-- 后续日期的分区由 PositionServiceImpl.maintainPartitions 在启动时和每天定时从 p_future 中拆分生成。
+
+CREATE TABLE `ship_positions` (
+  `ship_id` bigint NOT NULL COMMENT '船舶ID',
+  `recorded_at` datetime NOT NULL COMMENT '定位时间',
+  `lat_e6` int NOT NULL COMMENT '纬度 × 10^6',
+  `lon_e6` int NOT NULL COMMENT '经度 × 10^6',
+  `speed_x10` smallint unsigned NULL DEFAULT NULL COMMENT '航速(节) × 10',
+  `course_x10` smallint unsigned NULL DEFAULT NULL COMMENT '航向(度) × 10',
+  PRIMARY KEY (`ship_id`, `recorded_at`) USING BTREE
+) ENGINE = InnoDB ROW_FORMAT = COMPACT COMMENT = '船舶位置轨迹'
+PARTITION BY RANGE COLUMNS(`recorded_at`) (
+  PARTITION p_history VALUES LESS THAN ('2026-10-18'),
+  PARTITION p20261018 VALUES LESS THAN ('2026-10-19'),
+  PARTITION p20261019 VALUES LESS THAN ('2026-10-20'),
+  PARTITION p20261020 VALUES LESS THAN ('2026-10-21'),
+  PARTITION p20261021 VALUES LESS THAN ('2026-10-22'),
+  PARTITION p20261022 VALUES LESS THAN ('2026-10-23'),
+  PARTITION p20261023 VALUES LESS THAN ('2026-10-24'),
+  PARTITION p20261024 VALUES LESS THAN ('2026-10-25'),
+  PARTITION p20261025 VALUES LESS THAN ('2026-10-26'),
+  PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
@@ -0,0 +1,20 @@
+-- 操作日志表按月分区
+-- 清理历史日志时直接 DROP PARTITION，避免大事务 DELETE；按时间范围查询可做分区裁剪。
+-- 后续月份的分区由 OperationLogServiceImpl.maintainPartitions 定时从 p_future 中拆分生成。
+-- 分区键必须包含在所有唯一索引中，因此主键调整为 (id, created_at)，created_at 改为非空。
+
+UPDATE `operation_logs` SET `created_at` = NOW() WHERE `created_at` IS NULL;
+
+ALTER TABLE `operation_logs`
+  MODIFY COLUMN `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  DROP PRIMARY KEY,
+  ADD PRIMARY KEY (`id`, `created_at`) USING BTREE;
+
+ALTER TABLE `operation_logs`
+PARTITION BY RANGE COLUMNS(`created_at`) (
+  PARTITION p_history VALUES LESS THAN ('2026-10-01'),
+  PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+  PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+  PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+  PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
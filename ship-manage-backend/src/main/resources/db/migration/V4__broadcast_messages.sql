@@ -0,0 +1,42 @@
+-- 广播消息：每条只存一份，读取时与个人消息合并（fan-out-on-read）
+-- 用户对广播的已读/删除状态在操作时才写入；「全部已读」只记录已读到的广播ID
+
+-- ----------------------------
+-- 广播消息表
+-- ----------------------------
+DROP TABLE IF EXISTS `broadcast_messages`;
+CREATE TABLE `broadcast_messages` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `sender_id` bigint(20) NULL DEFAULT 0 COMMENT '发送者ID (0表示系统消息)',
+  `title` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NULL DEFAULT NULL COMMENT '消息标题',
+  `content` text CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NULL COMMENT '消息内容',
+  `type` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NULL DEFAULT 'SYSTEM' COMMENT '消息类型',
+  `related_id` bigint(20) NULL DEFAULT NULL COMMENT '关联业务ID',
+  `related_type` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NULL DEFAULT NULL COMMENT '关联业务类型',
+  `created_at` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_created_at`(`created_at`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '广播消息表' ROW_FORMAT = DYNAMIC;
+
+-- ----------------------------
+-- 用户广播消息状态表（仅在用户已读/删除某条广播时写入）
+-- ----------------------------
+DROP TABLE IF EXISTS `broadcast_message_states`;
+CREATE TABLE `broadcast_message_states` (
+  `user_id` bigint(20) NOT NULL COMMENT '用户ID',
+  `broadcast_id` bigint(20) NOT NULL COMMENT '广播消息ID',
+  `read_at` datetime NULL DEFAULT NULL COMMENT '阅读时间',
+  `deleted` tinyint(1) NOT NULL DEFAULT 0 COMMENT '是否已删除',
+  PRIMARY KEY (`user_id`, `broadcast_id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '用户广播消息状态表' ROW_FORMAT = DYNAMIC;
+
+-- ----------------------------
+-- 用户广播已读游标（全部已读时记录已读到的最大广播ID）
+-- ----------------------------
+DROP TABLE IF EXISTS `broadcast_read_cursors`;
+CREATE TABLE `broadcast_read_cursors` (
+  `user_id` bigint(20) NOT NULL COMMENT '用户ID',
+  `read_up_to` bigint(20) NOT NULL DEFAULT 0 COMMENT '已读到的广播ID（含）',
+  `updated_at` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`user_id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '用户广播已读游标表' ROW_FORMAT = DYNAMIC;
@@ -0,0 +1,13 @@
+-- 收件箱游标分页索引
+-- 收件箱按 (created_at, id) 倒序，按状态筛选时走 (receiver_id, status, created_at, id)，
+-- 不筛选状态时走 (receiver_id, created_at, id)；两者都能从游标位置倒序扫描并在取满一页后停止，避免 filesort。
+-- receiver_id、status 单列索引被组合索引覆盖，一并删除以减少写入开销。
+
+UPDATE `messages` SET `created_at` = NOW() WHERE `created_at` IS NULL;
+
+ALTER TABLE `messages`
+  MODIFY COLUMN `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  ADD INDEX `idx_receiver_status_created`(`receiver_id`, `status`, `created_at`, `id`) USING BTREE,
+  ADD INDEX `idx_receiver_created`(`receiver_id`, `created_at`, `id`) USING BTREE,
+  DROP INDEX `idx_receiver_id`,
+  DROP INDEX `idx_status`;
@@ -0,0 +1,26 @@
+-- 燃油统计汇总表：按船舶、月份、燃油类型汇总消耗量、费用和记录数
+-- 燃油记录增删改时在同一事务内增量更新；统计接口只读汇总表，耗时与历史数据量无关。
+-- 汇总数据出现偏差时可调用 POST /fuel/stats/rebuild 从 fuel_records 重建。
+
+DROP TABLE IF EXISTS `fuel_monthly_stats`;
+CREATE TABLE `fuel_monthly_stats` (
+  `ship_id` bigint(20) NOT NULL COMMENT '船舶ID',
+  `stat_month` date NOT NULL COMMENT '统计月份（当月1日）',
+  `fuel_type` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT '' COMMENT '燃油类型，未填写为空字符串',
+  `total_quantity` decimal(16, 2) NOT NULL DEFAULT 0.00 COMMENT '消耗量合计(吨)',
+  `total_cost` decimal(18, 2) NOT NULL DEFAULT 0.00 COMMENT '费用合计',
+  `record_count` int(11) NOT NULL DEFAULT 0 COMMENT '记录数',
+  `updated_at` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`ship_id`, `stat_month`, `fuel_type`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '燃油月度统计汇总表' ROW_FORMAT = DYNAMIC;
+
+-- 回填历史数据
+INSERT INTO `fuel_monthly_stats` (`ship_id`, `stat_month`, `fuel_type`, `total_quantity`, `total_cost`, `record_count`)
+SELECT `ship_id`,
+       DATE_FORMAT(`record_date`, '%Y-%m-01'),
+       IFNULL(`fuel_type`, ''),
+       IFNULL(SUM(`quantity`), 0),
+       IFNULL(SUM(`total_cost`), 0),
+       COUNT(*)
+FROM `fuel_records`
+GROUP BY `ship_id`, DATE_FORMAT(`record_date`, '%Y-%m-01'), IFNULL(`fuel_type`, '');
@@ -0,0 +1,7 @@
+-- 燃油时间序列查询索引
+-- 时间序列按 ship_id IN (...) AND record_date 范围过滤，(ship_id, record_date) 可对每艘船做一次索引范围扫描。
+-- ship_id 单列索引是其前缀，一并删除。
+
+ALTER TABLE `fuel_records`
+  ADD INDEX `idx_ship_date`(`ship_id`, `record_date`) USING BTREE,
+  DROP INDEX `idx_ship_id`;
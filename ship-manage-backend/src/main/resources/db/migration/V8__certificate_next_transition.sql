@@ -0,0 +1,20 @@
+-- 证书状态下次变化日期
+-- 状态只随日期变化：VALID 在到期前 29 天变为 EXPIRING，EXPIRING 在到期次日变为 EXPIRED，EXPIRED 不再变化。
+-- 每行记录下次变化日期，每日任务只需按 next_transition_date <= 今天 做索引范围扫描，
+-- 成本与当天变化的行数相关，而与证书总数无关。到期日为空或已过期的证书为 NULL。
+
+ALTER TABLE `ship_certificates`
+  ADD COLUMN `next_transition_date` date NULL DEFAULT NULL COMMENT '状态下次变化日期' AFTER `status`,
+  ADD INDEX `idx_next_transition`(`next_transition_date`) USING BTREE;
+
+-- 回填：按当前日期重新计算状态（原状态只在增改时计算，可能已过时）
+UPDATE `ship_certificates`
+SET `status` = CASE
+      WHEN `expiry_date` IS NULL THEN 'VALID'
+      WHEN `expiry_date` < CURDATE() THEN 'EXPIRED'
+      WHEN `expiry_date` < DATE_ADD(CURDATE(), INTERVAL 30 DAY) THEN 'EXPIRING'
+      ELSE 'VALID' END,
+    `next_transition_date` = CASE
+      WHEN `expiry_date` IS NULL OR `expiry_date` < CURDATE() THEN NULL
+      WHEN `expiry_date` < DATE_ADD(CURDATE(), INTERVAL 30 DAY) THEN DATE_ADD(`expiry_date`, INTERVAL 1 DAY)
+      ELSE DATE_SUB(`expiry_date`, INTERVAL 29 DAY) END;
@@ -0,0 +1,26 @@
+-- 船舶证书合规汇总表：每艘船各状态证书数和最早到期日期
+-- 证书增删改时只重算涉及的船舶；每日状态任务只重算当天有证书状态变化的船舶。
+-- 合规概览与按船舶分页都只读这张表，不再扫描证书表。
+-- earliest_expiry 没有到期日期时存 9999-12-31，便于按该列排序和游标分页。
+
+DROP TABLE IF EXISTS `ship_compliance_stats`;
+CREATE TABLE `ship_compliance_stats` (
+  `ship_id` bigint(20) NOT NULL COMMENT '船舶ID',
+  `valid_count` int(11) NOT NULL DEFAULT 0 COMMENT '有效证书数',
+  `expiring_count` int(11) NOT NULL DEFAULT 0 COMMENT '即将到期证书数',
+  `expired_count` int(11) NOT NULL DEFAULT 0 COMMENT '已过期证书数',
+  `earliest_expiry` date NOT NULL DEFAULT '9999-12-31' COMMENT '最早到期日期',
+  `updated_at` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`ship_id`) USING BTREE,
+  INDEX `idx_earliest_expiry`(`earliest_expiry`, `ship_id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '船舶证书合规汇总表' ROW_FORMAT = DYNAMIC;
+
+-- 回填
+INSERT INTO `ship_compliance_stats` (`ship_id`, `valid_count`, `expiring_count`, `expired_count`, `earliest_expiry`)
+SELECT `ship_id`,
+       SUM(IFNULL(`status`, 'VALID') = 'VALID'),
+       SUM(`status` = 'EXPIRING'),
+       SUM(`status` = 'EXPIRED'),
+       IFNULL(MIN(`expiry_date`), '9999-12-31')
+FROM `ship_certificates`
+GROUP BY `ship_id`;
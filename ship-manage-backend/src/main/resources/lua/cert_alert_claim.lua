@@ -0,0 +1,12 @@
+-- 认领证书到期提醒并放入待发送列表（原子操作，认领成功的提醒一定已持久化）
+-- KEYS[1]: 认领键 cert:alert:{certificateId}:{kind}:{expiryDate}
+-- KEYS[2]: 待发送提醒 HASH cert:alert:pending
+-- ARGV[1]: 认领键过期时间(秒)
+-- ARGV[2]: 待发送字段 {shipId}:{certificateId}:{kind}:{expiryDate}
+-- ARGV[3]: 证书名称
+-- 返回: 1 认领成功；0 已被认领
+if not redis.call('SET', KEYS[1], '1', 'NX', 'EX', ARGV[1]) then
+    return 0
+end
+redis.call('HSET', KEYS[2], ARGV[2], ARGV[3])
+return 1
@@ -0,0 +1,25 @@
+-- 校验并消费邮箱验证码：比对成功即删除，保证一次性使用（不可重复使用）
+-- KEYS[1]: 验证码 register:code:{email}
+-- KEYS[2]: 错误次数计数 verify:fail:{email}
+-- ARGV[1]: 用户提交的验证码  ARGV[2]: 最大错误次数
+-- 返回: 1 校验通过; 0 验证码错误; -1 不存在或已过期; -2 错误次数过多（验证码作废）
+local stored = redis.call('GET', KEYS[1])
+if not stored then
+    return -1
+end
+
+if stored == ARGV[1] then
+    redis.call('DEL', KEYS[1], KEYS[2])
+    return 1
+end
+
+local fails = redis.call('INCR', KEYS[2])
+local ttl = redis.call('TTL', KEYS[1])
+if ttl > 0 then
+    redis.call('EXPIRE', KEYS[2], ttl)
+end
+if fails >= tonumber(ARGV[2]) then
+    redis.call('DEL', KEYS[1], KEYS[2])
+    return -2
+end
+return 0
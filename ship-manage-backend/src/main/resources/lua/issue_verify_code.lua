@@ -0,0 +1,38 @@
+-- 签发邮箱验证码：防刷锁检查、邮箱/IP 滑动窗口限流、写入验证码，单次往返原子执行
+-- KEYS[1]: 验证码 register:code:{email}
+-- KEYS[2]: 防刷锁 send:lock:{email}
+-- KEYS[3]: 邮箱滑动窗口 send:window:email:{email} (ZSET)
+-- KEYS[4]: IP 滑动窗口 send:window:ip:{ip} (ZSET)
+-- KEYS[5]: 错误次数计数 verify:fail:{email}
+-- ARGV[1]: 验证码  ARGV[2]: 验证码有效期(秒)  ARGV[3]: 防刷锁时长(秒)
+-- ARGV[4]: 窗口长度(毫秒)  ARGV[5]: 邮箱窗口上限  ARGV[6]: IP 窗口上限  ARGV[7]: 本次请求唯一标识
+-- 窗口时间取 Redis 服务器时间（TIME），不受各应用节点时钟偏差影响
+-- 返回: 1 成功; -1 发送过于频繁; -2 邮箱超出窗口上限; -3 IP 超出窗口上限
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    return -1
+end
+
+-- 写命令之前调用 TIME，Redis 5 以下需按效果复制（7.0 起恒为效果复制，此调用为空操作）
+redis.replicate_commands()
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local windowStart = now - tonumber(ARGV[4])
+
+redis.call('ZREMRANGEBYSCORE', KEYS[3], '-inf', windowStart)
+if redis.call('ZCARD', KEYS[3]) >= tonumber(ARGV[5]) then
+    return -2
+end
+redis.call('ZREMRANGEBYSCORE', KEYS[4], '-inf', windowStart)
+if redis.call('ZCARD', KEYS[4]) >= tonumber(ARGV[6]) then
+    return -3
+end
+
+redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2])
+redis.call('SET', KEYS[2], '1', 'EX', ARGV[3])
+redis.call('DEL', KEYS[5])
+
+redis.call('ZADD', KEYS[3], now, ARGV[7])
+redis.call('PEXPIRE', KEYS[3], ARGV[4])
+redis.call('ZADD', KEYS[4], now, ARGV[7])
+redis.call('PEXPIRE', KEYS[4], ARGV[4])
+return 1
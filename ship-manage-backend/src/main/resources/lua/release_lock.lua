@@ -0,0 +1,8 @@
+-- 释放分布式锁，只有持有者才能删除（锁已过期并被其他节点获取时不会误删）
+-- KEYS[1]: 锁
+-- ARGV[1]: 加锁时写入的令牌
+-- 返回: 1 已释放；0 锁不存在或已被其他节点持有
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,11 @@
+-- 推进广播总数，只增不减，并发发布广播时以最大值为准
+-- KEYS[1]: 广播总数 msg:broadcast:count
+-- ARGV[1]: 从数据库读到的广播总数
+-- 返回: 推进后的广播总数
+local current = tonumber(redis.call('GET', KEYS[1]) or '-1')
+local total = tonumber(ARGV[1])
+if total > current then
+    redis.call('SET', KEYS[1], ARGV[1])
+    return total
+end
+return current
@@ -0,0 +1,17 @@
+-- 读取用户未读消息数（个人消息计数 + 计数建立后新增的广播数）
+-- KEYS[1]: 用户未读计数 msg:unread:{userId}（HASH: count / bcount）
+-- KEYS[2]: 广播总数 msg:broadcast:count
+-- 返回: 未读数；计数或广播总数不存在时返回 -1，由调用方从数据库重建
+local values = redis.call('HMGET', KEYS[1], 'count', 'bcount')
+if not values[1] or not values[2] then
+    return -1
+end
+local total = redis.call('GET', KEYS[2])
+if not total then
+    return -1
+end
+local unread = tonumber(values[1]) + tonumber(total) - tonumber(values[2])
+if unread < 0 then
+    return 0
+end
+return unread
@@ -0,0 +1,10 @@
+-- 增减用户未读计数，仅在计数已存在时生效（不存在时等待下次读取重建）
+-- KEYS[1]: 用户未读计数 msg:unread:{userId}
+-- ARGV[1]: 增量（可为负数）
+-- 返回: 增减后的个人计数；计数不存在时返回 -1
+-- 每次增减同时递增 ver，校对任务据此判断查库期间计数是否被改动
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return -1
+end
+redis.call('HINCRBY', KEYS[1], 'ver', 1)
+return redis.call('HINCRBY', KEYS[1], 'count', ARGV[1])
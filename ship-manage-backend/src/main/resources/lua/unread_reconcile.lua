@@ -0,0 +1,15 @@
+-- 校对任务批量写回未读计数（比较并设置）
+-- KEYS[i]: 用户未读计数 msg:unread:{userId}
+-- ARGV[1]: 过期时间(秒)
+-- ARGV[3i-1], ARGV[3i], ARGV[3i+1]: KEYS[i] 查库前读到的 ver、数据库中的未读数、同一条语句读到的广播总数
+-- 返回: 写回的个数；计数已失效或查库期间被增减过的跳过（下轮再校对）
+local written = 0
+for i, key in ipairs(KEYS) do
+    local base = 3 * i - 1
+    if redis.call('EXISTS', key) == 1 and (redis.call('HGET', key, 'ver') or '0') == ARGV[base] then
+        redis.call('HSET', key, 'count', ARGV[base + 1], 'bcount', ARGV[base + 2])
+        redis.call('EXPIRE', key, ARGV[1])
+        written = written + 1
+    end
+end
+return written
@@ -0,0 +1,119 @@
+package com.dhy.shipmanagebackend.aspect;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 操作日志参数序列化：敏感字段后无论是什么类型的值都要打码，且只打码这一个值
+ */
+class ArgumentSerializerTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ArgumentSerializer serializer;
+    private Method method;
+
+    @SuppressWarnings("unused")
+    void handle(Object body) {
+    }
+
+    @SuppressWarnings("unused")
+    void login(String username, String password) {
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        serializer = new ArgumentSerializer();
+        ReflectionTestUtils.setField(serializer, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(serializer, "maxLength", 2000);
+        serializer.setMaskFields("password,token,secret,code");
+        method = getClass().getDeclaredMethod("handle", Object.class);
+    }
+
+    @Test
+    void masksEveryValueTypeAfterSensitiveKey() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("password", null);
+        body.put("username", "bob");
+        body.put("token", true);
+        body.put("age", 30);
+        body.put("secret", 12.5d);
+        body.put("ratio", 0.5f);
+        body.put("code", new BigDecimal("123456"));
+        body.put("count", 7L);
+        body.put("Token", BigInteger.TEN);
+        body.put("level", (short) 3);
+        body.put("password2", "visible");
+
+        String json = serializer.serialize(method, new String[]{"body"}, new Object[]{body});
+
+        assertEquals("[{\"password\":\"******\",\"username\":\"bob\",\"token\":\"******\",\"age\":30,"
+                + "\"secret\":\"******\",\"ratio\":0.5,\"code\":\"******\",\"count\":7,"
+                + "\"Token\":\"******\",\"level\":3,\"password2\":\"visible\"}]", json);
+    }
+
+    @Test
+    void masksWholeContainerOfSensitiveKey() {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("value", "abc");
+        nested.put("expires", 3600);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("token", nested);
+        body.put("secret", List.of("a", 1, false));
+        body.put("code", new int[]{1, 2});
+        body.put("name", "ship");
+
+        String json = serializer.serialize(method, new String[]{"body"}, new Object[]{body});
+
+        assertEquals("[{\"token\":{\"value\":\"******\",\"expires\":\"******\"},"
+                + "\"secret\":[\"******\",\"******\",\"******\"],\"code\":[\"******\",\"******\"],"
+                + "\"name\":\"ship\"}]", json);
+    }
+
+    @Test
+    void masksTreeAndRawValues() {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("password", 42);
+        node.putNull("token");
+        node.put("user", "bob");
+
+        String json = serializer.serialize(method, new String[]{"body"}, new Object[]{node});
+
+        assertEquals("[{\"password\":\"******\",\"token\":\"******\",\"user\":\"bob\"}]", json);
+    }
+
+    @Test
+    void masksSensitiveParameterByName() throws Exception {
+        Method login = getClass().getDeclaredMethod("login", String.class, String.class);
+
+        String json = serializer.serialize(login, new String[]{"username", "password"}, new Object[]{"bob", "s3cret"});
+
+        assertEquals("[\"bob\",\"******\"]", json);
+    }
+
+    @Test
+    void truncatesAtLimit() {
+        ReflectionTestUtils.setField(serializer, "maxLength", 50);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("remark", "x".repeat(500));
+
+        String json = serializer.serialize(method, new String[]{"body"}, new Object[]{body});
+
+        assertTrue(json.endsWith("..."));
+        assertEquals(53, json.length());
+        assertFalse(json.contains("******"));
+    }
+}
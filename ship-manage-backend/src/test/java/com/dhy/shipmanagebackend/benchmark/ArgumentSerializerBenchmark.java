@@ -0,0 +1,129 @@
+package com.dhy.shipmanagebackend.benchmark;
+
+import com.dhy.shipmanagebackend.aspect.ArgumentSerializer;
+import com.dhy.shipmanagebackend.dto.BatchDeleteRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 操作日志参数序列化基准，重点看 gc.alloc.rate.norm（每次调用分配字节数）
+ * legacy* 为改造前先完整 writeValueAsString 再截断到 2000 字符的写法，用作对照
+ *
+ * 运行：mvn test-compile exec:java -Dexec.mainClass=com.dhy.shipmanagebackend.benchmark.ArgumentSerializerBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArgumentSerializerBenchmark {
+
+    @Param({"10", "10000"})
+    private int batchSize;
+
+    private ObjectMapper objectMapper;
+    private ArgumentSerializer serializer;
+    private Method deleteBatch;
+    private Method upload;
+    private Method resetPassword;
+    private Object[] deleteArgs;
+    private Object[] uploadArgs;
+    private Object[] resetArgs;
+
+    /**
+     * 模拟被 @OperLog 标注的控制器方法签名
+     */
+    public static class SampleController {
+        public void deleteBatch(BatchDeleteRequest request) {
+        }
+
+        public void upload(MultipartFile file) {
+        }
+
+        public void resetPassword(Long userId, String newPassword) {
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = new ObjectMapper();
+        serializer = new ArgumentSerializer();
+        ReflectionTestUtils.setField(serializer, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(serializer, "maxLength", 2000);
+        serializer.setMaskFields("password,oldPassword,newPassword,rePassword,code,token");
+
+        deleteBatch = SampleController.class.getMethod("deleteBatch", BatchDeleteRequest.class);
+        upload = SampleController.class.getMethod("upload", MultipartFile.class);
+        resetPassword = SampleController.class.getMethod("resetPassword", Long.class, String.class);
+
+        List<Long> ids = new ArrayList<>(batchSize);
+        for (long i = 0; i < batchSize; i++) {
+            ids.add(1_000_000L + i);
+        }
+        BatchDeleteRequest request = new BatchDeleteRequest();
+        request.setIds(ids);
+        deleteArgs = new Object[]{request};
+        uploadArgs = new Object[]{new MockMultipartFile("file", "cert.pdf", "application/pdf", new byte[batchSize * 100])};
+        resetArgs = new Object[]{1L, "n3wPassw0rd"};
+    }
+
+    @Benchmark
+    public String deleteBatch() {
+        return serializer.serialize(deleteBatch, new String[]{"request"}, deleteArgs);
+    }
+
+    @Benchmark
+    public String upload() {
+        return serializer.serialize(upload, new String[]{"file"}, uploadArgs);
+    }
+
+    @Benchmark
+    public String resetPassword() {
+        return serializer.serialize(resetPassword, new String[]{"userId", "newPassword"}, resetArgs);
+    }
+
+    @Benchmark
+    public String legacyDeleteBatch() {
+        return legacy(deleteArgs);
+    }
+
+    @Benchmark
+    public String legacyUpload() {
+        return legacy(uploadArgs);
+    }
+
+    private String legacy(Object[] args) {
+        try {
+            String params = objectMapper.writeValueAsString(args);
+            if (params.length() > 2000) {
+                params = params.substring(0, 2000) + "...";
+            }
+            return params;
+        } catch (Exception e) {
+            // MultipartFile 会先把文件内容整体 Base64 编码，随后在 InputStream 上失败
+            return "参数序列化失败";
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ArgumentSerializerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
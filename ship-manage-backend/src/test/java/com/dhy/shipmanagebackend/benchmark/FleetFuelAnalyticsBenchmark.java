@@ -0,0 +1,131 @@
+package com.dhy.shipmanagebackend.benchmark;
+
+import com.dhy.shipmanagebackend.analytics.FleetFuelAccumulator;
+import com.dhy.shipmanagebackend.analytics.FleetFuelAggregator;
+import com.dhy.shipmanagebackend.dto.FuelAnalyticsRow;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 船队燃油分析聚合基准：5000 万条合成记录，堆上限 256MB
+ * 数据由 PartitionSource 按船生成（模拟游标逐行读取），不经过数据库，只衡量聚合本身。
+ * parallel 为 fork-join 分区 + long 累加器；legacyBigDecimal 为单线程逐行 BigDecimal 累加，用作对照。
+ * 能在 -Xmx256m 下跑完即说明内存与记录数无关。
+ *
+ * 运行：mvn test-compile exec:java -Dexec.mainClass=com.dhy.shipmanagebackend.benchmark.FleetFuelAnalyticsBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms256m", "-Xmx256m"})
+public class FleetFuelAnalyticsBenchmark {
+
+    private static final String[] FUEL_TYPES = {"HFO", "MGO", "LNG", "VLSFO"};
+
+    @Param({"50000000"})
+    private long rows;
+
+    @Param({"400"})
+    private int ships;
+
+    @Param({"4"})
+    private int parallelism;
+
+    private List<Long> shipIds;
+    private String[] ports;
+    private String[] suppliers;
+    private ForkJoinPool pool;
+    private FleetFuelAggregator aggregator;
+
+    @Setup
+    public void setup() {
+        shipIds = new ArrayList<>(ships);
+        for (long i = 1; i <= ships; i++) {
+            shipIds.add(i);
+        }
+        ports = new String[60];
+        for (int i = 0; i < ports.length; i++) {
+            ports[i] = "港口" + i;
+        }
+        suppliers = new String[120];
+        for (int i = 0; i < suppliers.length; i++) {
+            suppliers[i] = "供应商" + i;
+        }
+        pool = new ForkJoinPool(parallelism);
+        aggregator = new FleetFuelAggregator(pool, 8, 500);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * 按船生成记录，每艘船 rows / ships 条，每条都是新对象（与游标读取一致）
+     */
+    private void generate(List<Long> partition, Consumer<FuelAnalyticsRow> sink) {
+        long perShip = rows / ships;
+        for (Long shipId : partition) {
+            SplittableRandom random = new SplittableRandom(shipId);
+            for (long i = 0; i < perShip; i++) {
+                FuelAnalyticsRow row = new FuelAnalyticsRow();
+                row.setShipId(shipId);
+                row.setFuelType(FUEL_TYPES[random.nextInt(FUEL_TYPES.length)]);
+                row.setPort(ports[random.nextInt(ports.length)]);
+                row.setSupplier(suppliers[random.nextInt(suppliers.length)]);
+                row.setQuantityScaled(random.nextLong(100, 500_000));
+                row.setCostCents(random.nextLong(10_000, 500_000_000));
+                sink.accept(row);
+            }
+        }
+    }
+
+    @Benchmark
+    public long parallel() {
+        FleetFuelAccumulator result = aggregator.aggregate(shipIds, this::generate);
+        return result.getTotal()[2];
+    }
+
+    @Benchmark
+    public BigDecimal legacyBigDecimal() {
+        Map<Long, BigDecimal> quantityByShip = new HashMap<>();
+        Map<String, BigDecimal> costByPort = new HashMap<>();
+        Map<String, BigDecimal> costBySupplier = new HashMap<>();
+        Map<String, BigDecimal> quantityByFuelType = new HashMap<>();
+        BigDecimal[] total = {BigDecimal.ZERO};
+        generate(shipIds, row -> {
+            BigDecimal quantity = BigDecimal.valueOf(row.getQuantityScaled(), 2);
+            BigDecimal cost = BigDecimal.valueOf(row.getCostCents(), 2);
+            total[0] = total[0].add(cost);
+            quantityByShip.merge(row.getShipId(), quantity, BigDecimal::add);
+            costByPort.merge(row.getPort(), cost, BigDecimal::add);
+            costBySupplier.merge(row.getSupplier(), cost, BigDecimal::add);
+            quantityByFuelType.merge(row.getFuelType(), quantity, BigDecimal::add);
+        });
+        return total[0];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FleetFuelAnalyticsBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
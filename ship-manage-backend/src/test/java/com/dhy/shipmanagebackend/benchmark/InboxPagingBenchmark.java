@@ -0,0 +1,178 @@
+package com.dhy.shipmanagebackend.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 收件箱分页压测：对比 OFFSET 分页与游标分页在不同页深的耗时
+ * 直接连库执行与 MessageMapper 相同结构的个人消息分支 SQL，需先执行 db/migration/V5
+ * 首次运行会给 receiverId 写入 messages 条测试消息（已存在则跳过）
+ *
+ * 参数：jdbcUrl username password [receiverId] [messages]
+ * 例如：jdbc:mysql://localhost:3306/ship_management root 123456 900000001 100000
+ */
+public class InboxPagingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int[] PAGES = {1, 10, 100, 1000, 4000};
+    private static final int ROUNDS = 50;
+
+    private static final String OFFSET_SQL =
+            "SELECT id, title, status, created_at FROM messages WHERE receiver_id = ? AND status = 'UNREAD' " +
+            "ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?";
+
+    private static final String SEEK_SQL =
+            "SELECT id, title, status, created_at FROM messages WHERE receiver_id = ? AND status = 'UNREAD' " +
+            "AND (created_at < ? OR (created_at = ? AND id < ?)) " +
+            "ORDER BY created_at DESC, id DESC LIMIT ?";
+
+    public static void main(String[] args) throws Exception {
+        String url = args[0];
+        String username = args[1];
+        String password = args[2];
+        long receiverId = args.length > 3 ? Long.parseLong(args[3]) : 900000001L;
+        int messages = args.length > 4 ? Integer.parseInt(args[4]) : 100000;
+
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            seed(connection, receiverId, messages);
+            explain(connection, receiverId);
+
+            System.out.printf("%-8s %-28s %-28s%n", "页码", "OFFSET p50/p99 (ms)", "游标 p50/p99 (ms)");
+            for (int page : PAGES) {
+                // 游标分页要先走到目标页，记下该页之前最后一条作为游标
+                Object[] cursor = cursorBefore(connection, receiverId, page);
+                if (cursor == null) {
+                    continue;
+                }
+                List<Long> offsetLatencies = new ArrayList<>();
+                List<Long> seekLatencies = new ArrayList<>();
+                for (int i = 0; i < ROUNDS; i++) {
+                    offsetLatencies.add(time(() -> offsetPage(connection, receiverId, page)));
+                    seekLatencies.add(time(() -> seekPage(connection, receiverId, cursor)));
+                }
+                System.out.printf("%-8d %-28s %-28s%n", page, percentiles(offsetLatencies), percentiles(seekLatencies));
+            }
+        }
+    }
+
+    private static void seed(Connection connection, long receiverId, int messages) throws Exception {
+        try (PreparedStatement count = connection.prepareStatement("SELECT COUNT(*) FROM messages WHERE receiver_id = ?")) {
+            count.setLong(1, receiverId);
+            try (ResultSet rs = count.executeQuery()) {
+                rs.next();
+                if (rs.getInt(1) >= messages) {
+                    return;
+                }
+            }
+        }
+        System.out.println("写入 " + messages + " 条测试消息...");
+        connection.setAutoCommit(false);
+        LocalDateTime base = LocalDateTime.now().minusDays(365);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO messages (sender_id, receiver_id, title, content, type, status, created_at) VALUES (0, ?, ?, 'benchmark', 'SYSTEM', ?, ?)")) {
+            for (int i = 0; i < messages; i++) {
+                insert.setLong(1, receiverId);
+                insert.setString(2, "benchmark-" + i);
+                insert.setString(3, i % 3 == 0 ? "READ" : "UNREAD");
+                // 每秒约 3 条，制造 created_at 相同的情况
+                insert.setTimestamp(4, Timestamp.valueOf(base.plusSeconds(i / 3)));
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static void explain(Connection connection, long receiverId) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + SEEK_SQL)) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            statement.setLong(1, receiverId);
+            statement.setTimestamp(2, now);
+            statement.setTimestamp(3, now);
+            statement.setLong(4, Long.MAX_VALUE);
+            statement.setInt(5, PAGE_SIZE);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    System.out.printf("游标分页执行计划: key=%s rows=%s extra=%s%n",
+                            rs.getString("key"), rs.getString("rows"), rs.getString("Extra"));
+                }
+            }
+        }
+    }
+
+    private static Object[] cursorBefore(Connection connection, long receiverId, int page) throws Exception {
+        if (page == 1) {
+            Timestamp max = Timestamp.valueOf(LocalDateTime.now().plusYears(1));
+            return new Object[]{max, Long.MAX_VALUE};
+        }
+        try (PreparedStatement statement = connection.prepareStatement(OFFSET_SQL)) {
+            statement.setLong(1, receiverId);
+            statement.setInt(2, 1);
+            statement.setInt(3, (page - 1) * PAGE_SIZE - 1);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? new Object[]{rs.getTimestamp("created_at"), rs.getLong("id")} : null;
+            }
+        }
+    }
+
+    private static int offsetPage(Connection connection, long receiverId, int page) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(OFFSET_SQL)) {
+            statement.setLong(1, receiverId);
+            statement.setInt(2, PAGE_SIZE);
+            statement.setInt(3, (page - 1) * PAGE_SIZE);
+            return drain(statement);
+        }
+    }
+
+    private static int seekPage(Connection connection, long receiverId, Object[] cursor) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(SEEK_SQL)) {
+            statement.setLong(1, receiverId);
+            statement.setTimestamp(2, (Timestamp) cursor[0]);
+            statement.setTimestamp(3, (Timestamp) cursor[0]);
+            statement.setLong(4, (Long) cursor[1]);
+            statement.setInt(5, PAGE_SIZE);
+            return drain(statement);
+        }
+    }
+
+    private static int drain(PreparedStatement statement) throws Exception {
+        int rows = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private interface Query {
+        int run() throws Exception;
+    }
+
+    private static long time(Query query) throws Exception {
+        long begin = System.nanoTime();
+        query.run();
+        return (System.nanoTime() - begin) / 1000;
+    }
+
+    private static String percentiles(List<Long> latenciesMicros) {
+        Collections.sort(latenciesMicros);
+        int size = latenciesMicros.size();
+        return String.format("%.2f / %.2f",
+                latenciesMicros.get(size / 2) / 1000.0,
+                latenciesMicros.get((int) (size * 0.99)) / 1000.0);
+    }
+}
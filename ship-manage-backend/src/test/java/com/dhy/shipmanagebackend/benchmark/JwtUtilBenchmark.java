@@ -0,0 +1,88 @@
+package com.dhy.shipmanagebackend.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.dhy.shipmanagebackend.entity.LoginUser;
+import com.dhy.shipmanagebackend.utils.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil 签发 / 校验吞吐量基准
+ * legacy* 为改造前每次调用都新建 Algorithm 与 JWTVerifier 的写法，用作对照
+ *
+ * 运行：mvn test-compile exec:java -Dexec.mainClass=com.dhy.shipmanagebackend.benchmark.JwtUtilBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-must-be-at-least-32-characters";
+
+    private LoginUser user;
+    private Map<String, Object> claims;
+    private String token;
+
+    @Setup
+    public void setup() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expirationHours", 12);
+        jwtUtil.init();
+
+        user = new LoginUser(1L, "admin", "ADMIN");
+        claims = new HashMap<>();
+        claims.put("id", user.getId());
+        claims.put("username", user.getUsername());
+        claims.put("role", user.getRole());
+        token = JwtUtil.genToken(user);
+    }
+
+    @Benchmark
+    public String issue() {
+        return JwtUtil.genToken(user);
+    }
+
+    @Benchmark
+    public LoginUser verify() {
+        return JwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public String legacyIssue() {
+        return JWT.create()
+                .withClaim("claims", claims)
+                .withExpiresAt(new Date(System.currentTimeMillis() + 1000L * 60 * 60 * 12))
+                .sign(Algorithm.HMAC256(SECRET));
+    }
+
+    @Benchmark
+    public Map<String, Object> legacyVerify() {
+        return JWT.require(Algorithm.HMAC256(SECRET))
+                .build()
+                .verify(token)
+                .getClaim("claims")
+                .asMap();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtUtilBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
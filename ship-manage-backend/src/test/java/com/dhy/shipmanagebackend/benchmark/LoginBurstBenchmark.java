@@ -0,0 +1,102 @@
+package com.dhy.shipmanagebackend.benchmark;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 登录风暴压测：对比登录高峰前后普通接口 (/user/info) 的延迟
+ * 需先启动服务，并关闭人机验证 (turnstile.enabled=false)
+ *
+ * 参数：baseUrl token username password [burstClients] [probeRequests]
+ * 例如：http://localhost:8080 eyJ... admin 123456 500 2000
+ */
+public class LoginBurstBenchmark {
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newFixedThreadPool(64))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args[0];
+        String token = args[1];
+        String username = args[2];
+        String password = args[3];
+        int burstClients = args.length > 4 ? Integer.parseInt(args[4]) : 500;
+        int probeRequests = args.length > 5 ? Integer.parseInt(args[5]) : 2000;
+
+        System.out.println("== 基线：无登录压力 ==");
+        report(probe(baseUrl, token, probeRequests));
+
+        System.out.println("== 登录风暴：" + burstClients + " 个并发登录 ==");
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger throttled = new AtomicInteger();
+        ExecutorService burst = Executors.newFixedThreadPool(burstClients);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < burstClients; i++) {
+            burst.submit(() -> {
+                start.await();
+                for (int n = 0; n < 10; n++) {
+                    int status = login(baseUrl, username, password);
+                    if (status == 429) {
+                        throttled.incrementAndGet();
+                    } else {
+                        ok.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        report(probe(baseUrl, token, probeRequests));
+        burst.shutdown();
+        burst.awaitTermination(5, TimeUnit.MINUTES);
+        System.out.printf("登录完成 %d 次，被限流 (429) %d 次%n", ok.get(), throttled.get());
+        System.exit(0);
+    }
+
+    private static List<Long> probe(String baseUrl, String token, int requests) throws Exception {
+        List<Long> latencies = new ArrayList<>(requests);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/user/info"))
+                .header("Authorization", token)
+                .GET()
+                .build();
+        for (int i = 0; i < requests; i++) {
+            long begin = System.nanoTime();
+            CLIENT.send(request, HttpResponse.BodyHandlers.discarding());
+            latencies.add((System.nanoTime() - begin) / 1000);
+        }
+        return latencies;
+    }
+
+    private static int login(String baseUrl, String username, String password) throws Exception {
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8)
+                + "&turnstileToken=benchmark";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/user/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static void report(List<Long> latenciesMicros) {
+        Collections.sort(latenciesMicros);
+        int size = latenciesMicros.size();
+        System.out.printf("请求 %d 次  p50=%.2fms  p99=%.2fms  max=%.2fms%n",
+                size,
+                latenciesMicros.get(size / 2) / 1000.0,
+                latenciesMicros.get((int) (size * 0.99)) / 1000.0,
+                latenciesMicros.get(size - 1) / 1000.0);
+    }
+}
@@ -0,0 +1,145 @@
+package com.dhy.shipmanagebackend.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 船舶位置上报压测：多个网关并发按固定速率批量上报，统计持续写入速率与被丢弃的点数
+ * 目标：单节点持续 10k 点/秒，dropped 为 0；压测期间可对照 /admin/metrics/positions 的缓冲深度和刷盘耗时
+ * 需先启动服务并执行 db/migration/V11；上报的时间戳落在过去一年的 p_history 分区，测试后可整分区清理
+ *
+ * 上报的 shipId 为 firstShipId 起连续 ships 个，需先在 ships 表中存在，否则会全部计入 rejected
+ *
+ * 参数：baseUrl token [fixesPerSecond] [seconds] [clients] [batchSize] [ships] [firstShipId]
+ * 例如：http://localhost:8080 eyJ... 10000 60 8 500 2000 1
+ */
+public class PositionIngestBenchmark {
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private static final Pattern FIELD = Pattern.compile("\"(accepted|rejected|dropped)\":(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args[0];
+        String token = args[1];
+        int fixesPerSecond = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 60;
+        int clients = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+        int batchSize = args.length > 5 ? Integer.parseInt(args[5]) : 500;
+        int ships = args.length > 6 ? Integer.parseInt(args[6]) : 2000;
+        long firstShipId = args.length > 7 ? Long.parseLong(args[7]) : 1;
+
+        LongAdder accepted = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder dropped = new LongAdder();
+        LongAdder failedRequests = new LongAdder();
+        List<Long> latencies = new ArrayList<>();
+
+        // 每个客户端负责一部分船舶，按节拍发送批次
+        long batchesPerSecondPerClient = Math.max(1, fixesPerSecond / batchSize / clients);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / batchesPerSecondPerClient;
+        LocalDateTime base = LocalDateTime.now().minusYears(1);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            futures.add(executor.submit(() -> {
+                long next = System.nanoTime();
+                long sequence = 0;
+                while (next < end) {
+                    String body = batch(client, clients, ships, firstShipId, batchSize, sequence++, base);
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/positions"))
+                            .header("Authorization", token)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build();
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+                        synchronized (latencies) {
+                            latencies.add((System.nanoTime() - sent) / 1_000_000);
+                        }
+                        Matcher matcher = FIELD.matcher(response.body());
+                        boolean matched = false;
+                        while (matcher.find()) {
+                            matched = true;
+                            long value = Long.parseLong(matcher.group(2));
+                            switch (matcher.group(1)) {
+                                case "accepted" -> accepted.add(value);
+                                case "rejected" -> rejected.add(value);
+                                default -> dropped.add(value);
+                            }
+                        }
+                        if (!matched) {
+                            failedRequests.increment();
+                        }
+                    } catch (Exception e) {
+                        failedRequests.increment();
+                    }
+                    next += intervalNanos;
+                    long sleep = next - System.nanoTime();
+                    if (sleep > 0) {
+                        TimeUnit.NANOSECONDS.sleep(sleep);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        latencies.sort(Long::compare);
+        System.out.printf("目标 %d 点/秒，实际接收 %.0f 点/秒（%.1f 秒）%n", fixesPerSecond, accepted.sum() / elapsed, elapsed);
+        System.out.printf("accepted=%d rejected=%d dropped=%d failedRequests=%d%n",
+                accepted.sum(), rejected.sum(), dropped.sum(), failedRequests.sum());
+        if (!latencies.isEmpty()) {
+            System.out.printf("批次延迟 p50=%dms p99=%dms max=%dms%n",
+                    latencies.get(latencies.size() / 2),
+                    latencies.get((int) (latencies.size() * 0.99)),
+                    latencies.get(latencies.size() - 1));
+        }
+    }
+
+    /**
+     * 生成一批定位点：客户端 client 轮流为自己负责的船舶生成下一个点，时间按序号递增避免主键重复
+     */
+    private static String batch(int client, int clients, int ships, long firstShipId, int batchSize,
+                                long sequence, LocalDateTime base) {
+        StringBuilder body = new StringBuilder(batchSize * 120).append('[');
+        for (int i = 0; i < batchSize; i++) {
+            long n = sequence * batchSize + i;
+            long shipId = firstShipId + client + (n % Math.max(1, ships / clients)) * clients;
+            long step = n / Math.max(1, ships / clients);
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"shipId\":").append(shipId)
+                    .append(",\"recordedAt\":\"").append(base.plusSeconds(step)).append('"')
+                    .append(",\"latitude\":").append(20 + (shipId % 20) + step * 0.0001)
+                    .append(",\"longitude\":").append(110 + (shipId % 30) + step * 0.0001)
+                    .append(",\"speed\":12.5,\"course\":45.0}");
+        }
+        return body.append(']').toString();
+    }
+}
@@ -0,0 +1,157 @@
+package com.dhy.shipmanagebackend.benchmark;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 消息推送长连接压测：保持大量 SSE 连接，统计连接成功数、心跳、广播送达延迟，
+ * 同时探测普通接口 (/user/info) 的延迟是否受影响
+ * 需先启动服务；同一用户连接数受 push.max-connections-per-user 限制，压测时需调大
+ *
+ * 参数：baseUrl token [connections] [durationSeconds] [adminToken]
+ * 例如：http://localhost:8080 eyJ... 5000 300 eyJ...
+ * 传入 adminToken 时每 10 秒发送一条广播，统计从发送到全部连接收到的延迟
+ */
+public class SsePushSoakBenchmark {
+
+    private static final Pattern SOAK_TITLE = Pattern.compile("soak-(\\d+)");
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newFixedThreadPool(64))
+            .build();
+
+    private static final AtomicInteger opened = new AtomicInteger();
+    private static final AtomicInteger failed = new AtomicInteger();
+    private static final AtomicInteger closed = new AtomicInteger();
+    private static final LongAdder pings = new LongAdder();
+    private static final LongAdder events = new LongAdder();
+    private static final ConcurrentLinkedQueue<Long> deliveryMillis = new ConcurrentLinkedQueue<>();
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args[0];
+        String token = args[1];
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        int durationSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 300;
+        String adminToken = args.length > 4 ? args[4] : null;
+
+        System.out.println("== 基线：无推送连接 ==");
+        report("/user/info", probe(baseUrl, token, 1000));
+
+        System.out.println("== 建立 " + connections + " 个推送连接 ==");
+        HttpRequest stream = HttpRequest.newBuilder(URI.create(baseUrl + "/message/stream"))
+                .header("Authorization", token)
+                .header("Accept", "text/event-stream")
+                .GET()
+                .build();
+        for (int i = 0; i < connections; i++) {
+            CLIENT.sendAsync(stream, HttpResponse.BodyHandlers.ofLines())
+                    .thenAccept(SsePushSoakBenchmark::consume)
+                    .exceptionally(e -> {
+                        failed.incrementAndGet();
+                        return null;
+                    });
+        }
+
+        long deadline = System.currentTimeMillis() + durationSeconds * 1000L;
+        long nextBroadcast = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            Thread.sleep(1000);
+            if (adminToken != null && System.currentTimeMillis() >= nextBroadcast) {
+                broadcast(baseUrl, adminToken);
+                nextBroadcast += 10_000;
+            }
+            System.out.printf("在线 %d  失败 %d  断开 %d  事件 %d  心跳 %d%n",
+                    opened.get() - closed.get(), failed.get(), closed.get(), events.sum(), pings.sum());
+        }
+
+        System.out.println("== 保持 " + (opened.get() - closed.get()) + " 个推送连接时 ==");
+        report("/user/info", probe(baseUrl, token, 1000));
+        if (!deliveryMillis.isEmpty()) {
+            List<Long> latencies = new ArrayList<>(deliveryMillis);
+            for (int i = 0; i < latencies.size(); i++) {
+                latencies.set(i, latencies.get(i) * 1000);
+            }
+            report("广播送达", latencies);
+        }
+        System.exit(0);
+    }
+
+    private static void consume(HttpResponse<Stream<String>> response) {
+        if (response.statusCode() != 200) {
+            failed.incrementAndGet();
+            response.body().close();
+            return;
+        }
+        opened.incrementAndGet();
+        String[] event = {null};
+        try {
+            response.body().forEach(line -> {
+                if (line.startsWith(":")) {
+                    pings.increment();
+                } else if (line.startsWith("event:")) {
+                    event[0] = line.substring(6).trim();
+                } else if (line.startsWith("data:")) {
+                    events.increment();
+                    Matcher matcher = SOAK_TITLE.matcher(line);
+                    if ("message".equals(event[0]) && matcher.find()) {
+                        deliveryMillis.add(System.currentTimeMillis() - Long.parseLong(matcher.group(1)));
+                    }
+                }
+            });
+        } finally {
+            closed.incrementAndGet();
+        }
+    }
+
+    private static void broadcast(String baseUrl, String adminToken) throws Exception {
+        String form = "title=" + URLEncoder.encode("soak-" + System.currentTimeMillis(), StandardCharsets.UTF_8)
+                + "&content=soak&type=SYSTEM";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/message/broadcast"))
+                .header("Authorization", adminToken)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        CLIENT.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static List<Long> probe(String baseUrl, String token, int requests) throws Exception {
+        List<Long> latencies = new ArrayList<>(requests);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/user/info"))
+                .header("Authorization", token)
+                .GET()
+                .build();
+        for (int i = 0; i < requests; i++) {
+            long begin = System.nanoTime();
+            CLIENT.send(request, HttpResponse.BodyHandlers.discarding());
+            latencies.add((System.nanoTime() - begin) / 1000);
+        }
+        return latencies;
+    }
+
+    private static void report(String name, List<Long> latenciesMicros) {
+        Collections.sort(latenciesMicros);
+        int size = latenciesMicros.size();
+        System.out.printf("%s %d 次  p50=%.2fms  p99=%.2fms  max=%.2fms%n",
+                name,
+                size,
+                latenciesMicros.get(size / 2) / 1000.0,
+                latenciesMicros.get((int) (size * 0.99)) / 1000.0,
+                latenciesMicros.get(size - 1) / 1000.0);
+    }
+}
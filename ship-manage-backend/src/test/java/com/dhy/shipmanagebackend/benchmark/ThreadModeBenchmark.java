@@ -0,0 +1,73 @@
+package com.dhy.shipmanagebackend.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 线程模型压测：固定并发客户端数持续请求，输出吞吐量与延迟分位
+ * 分别以 VIRTUAL_THREADS_ENABLED=false / true 启动服务各跑一次进行对比
+ *
+ * 参数：baseUrl token [path] [concurrency] [durationSeconds]
+ * 例如：http://localhost:8080 eyJ... /user/info 2000 60
+ */
+public class ThreadModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args[0];
+        String token = args[1];
+        String path = args.length > 2 ? args[2] : "/user/info";
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        int durationSeconds = args.length > 4 ? Integer.parseInt(args[4]) : 60;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+
+        long deadline = System.nanoTime() + durationSeconds * 1_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            inFlight.acquire();
+            long begin = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        } else {
+                            latencies.add((System.nanoTime() - begin) / 1000);
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(concurrency);
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        int size = sorted.size();
+        System.out.printf("并发 %d  时长 %ds  成功 %d  失败 %d%n", concurrency, durationSeconds, size, errors.get());
+        if (size > 0) {
+            System.out.printf("吞吐量 %.1f req/s  p50=%.2fms  p99=%.2fms  max=%.2fms%n",
+                    size / (double) durationSeconds,
+                    sorted.get(size / 2) / 1000.0,
+                    sorted.get((int) (size * 0.99)) / 1000.0,
+                    sorted.get(size - 1) / 1000.0);
+        }
+        System.exit(0);
+    }
+}
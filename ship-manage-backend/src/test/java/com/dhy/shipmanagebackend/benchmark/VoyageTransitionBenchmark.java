@@ -0,0 +1,243 @@
+package com.dhy.shipmanagebackend.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 航次开航/结束压测：对比“先查船舶状态再 updateById”与条件 UPDATE 的吞吐量和重复开航次数
+ * 直接连库执行与 VoyageServiceImpl 相同结构的 SQL，需先执行 db/migration/V10
+ * 每个线程反复随机挑一艘船开航，成功后立即结束航次；测试船舶和航次结束后删除
+ *
+ * 重复开航：开航提交后该船有不止一个执行中的航次（旧写法在并发下会出现）；
+ * 两种写法都额外执行这一条检查查询，不计入 SQL/次
+ *
+ * 参数：jdbcUrl username password [threads] [ships] [seconds]
+ * 例如：jdbc:mysql://localhost:3306/ship_management root 123456 64 8 20
+ */
+public class VoyageTransitionBenchmark {
+
+    private static final String SHIP_PREFIX = "voyage-benchmark-";
+
+    public static void main(String[] args) throws Exception {
+        String url = args[0];
+        String username = args[1];
+        String password = args[2];
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+        int ships = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+        int seconds = args.length > 5 ? Integer.parseInt(args[5]) : 20;
+
+        System.out.printf("%-10s %-14s %-14s %-14s %-10s%n", "写法", "开航成功/秒", "开航被拒/秒", "重复开航", "SQL/次");
+        run("旧写法", new Legacy(), url, username, password, threads, ships, seconds);
+        run("条件更新", new Conditional(), url, username, password, threads, ships, seconds);
+    }
+
+    /**
+     * 一次开航 + 结束，返回新航次 id，船舶不可开航时返回 null
+     */
+    interface Transition {
+        Long start(Connection connection, long shipId) throws Exception;
+
+        void finish(Connection connection, long voyageId) throws Exception;
+
+        int statements();
+    }
+
+    /**
+     * 改造前：查船舶 → Java 判断状态 → 改船舶 → 插入航次；结束时查航次 → 改航次 → 查船舶 → 改船舶
+     */
+    static class Legacy implements Transition {
+        @Override
+        public Long start(Connection connection, long shipId) throws Exception {
+            String status;
+            try (PreparedStatement select = connection.prepareStatement("SELECT status FROM ships WHERE id = ?")) {
+                select.setLong(1, shipId);
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    status = rs.getString(1);
+                }
+            }
+            if (!"在役".equals(status) && !"停运".equals(status)) {
+                return null;
+            }
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE ships SET status = '航行中', updated_at = NOW() WHERE id = ?")) {
+                update.setLong(1, shipId);
+                update.executeUpdate();
+            }
+            return insertVoyage(connection, shipId);
+        }
+
+        @Override
+        public void finish(Connection connection, long voyageId) throws Exception {
+            long shipId;
+            try (PreparedStatement select = connection.prepareStatement("SELECT ship_id, status FROM voyages WHERE id = ?")) {
+                select.setLong(1, voyageId);
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    shipId = rs.getLong(1);
+                }
+            }
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE voyages SET status = '已完成', end_time = NOW(), updated_at = NOW() WHERE id = ?")) {
+                update.setLong(1, voyageId);
+                update.executeUpdate();
+            }
+            try (PreparedStatement select = connection.prepareStatement("SELECT status FROM ships WHERE id = ?")) {
+                select.setLong(1, shipId);
+                select.executeQuery().close();
+            }
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE ships SET status = '在役', updated_at = NOW() WHERE id = ?")) {
+                update.setLong(1, shipId);
+                update.executeUpdate();
+            }
+        }
+
+        @Override
+        public int statements() {
+            return 7;
+        }
+    }
+
+    /**
+     * 改造后：条件 UPDATE 船舶 + 插入航次；结束时一条多表 UPDATE
+     */
+    static class Conditional implements Transition {
+        @Override
+        public Long start(Connection connection, long shipId) throws Exception {
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE ships SET status = '航行中', version = version + 1, updated_at = NOW() " +
+                    "WHERE id = ? AND status IN ('在役', '停运')")) {
+                update.setLong(1, shipId);
+                if (update.executeUpdate() == 0) {
+                    return null;
+                }
+            }
+            return insertVoyage(connection, shipId);
+        }
+
+        @Override
+        public void finish(Connection connection, long voyageId) throws Exception {
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE voyages v LEFT JOIN ships s ON s.id = v.ship_id AND v.status = '执行中' AND s.status = '航行中' " +
+                    "SET v.status = '已完成', v.end_time = NOW(), v.updated_at = NOW(), v.version = v.version + 1, " +
+                    "s.status = '在役', s.version = s.version + 1, s.updated_at = NOW() " +
+                    "WHERE v.id = ? AND v.status <> '已完成'")) {
+                update.setLong(1, voyageId);
+                update.executeUpdate();
+            }
+        }
+
+        @Override
+        public int statements() {
+            return 3;
+        }
+    }
+
+    private static Long insertVoyage(Connection connection, long shipId) throws Exception {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO voyages (ship_id, status, start_time, created_at, updated_at) VALUES (?, '执行中', NOW(), NOW(), NOW())",
+                Statement.RETURN_GENERATED_KEYS)) {
+            insert.setLong(1, shipId);
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    private static void run(String name, Transition transition, String url, String username, String password,
+                            int threads, int ships, int seconds) throws Exception {
+        long[] shipIds = seed(url, username, password, ships);
+        LongAdder started = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        AtomicInteger duplicates = new AtomicInteger();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                        connection.setAutoCommit(false);
+                        while (System.nanoTime() < deadline) {
+                            int index = ThreadLocalRandom.current().nextInt(ships);
+                            Long voyageId = transition.start(connection, shipIds[index]);
+                            connection.commit();
+                            if (voyageId == null) {
+                                rejected.increment();
+                                continue;
+                            }
+                            started.increment();
+                            if (runningVoyages(connection, shipIds[index]) > 1) {
+                                duplicates.incrementAndGet();
+                            }
+                            transition.finish(connection, voyageId);
+                            connection.commit();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            cleanUp(url, username, password);
+        }
+        System.out.printf("%-10s %-14.1f %-14.1f %-14d %-10d%n", name,
+                started.sum() / (double) seconds, rejected.sum() / (double) seconds,
+                duplicates.get(), transition.statements());
+    }
+
+    private static int runningVoyages(Connection connection, long shipId) throws Exception {
+        try (PreparedStatement count = connection.prepareStatement(
+                "SELECT COUNT(*) FROM voyages WHERE ship_id = ? AND status = '执行中'")) {
+            count.setLong(1, shipId);
+            try (ResultSet rs = count.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static long[] seed(String url, String username, String password, int ships) throws Exception {
+        long[] ids = new long[ships];
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO ships (name, status) VALUES (?, '在役')", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ships; i++) {
+                insert.setString(1, SHIP_PREFIX + i);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    ids[i] = keys.getLong(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void cleanUp(String url, String username, String password) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE v FROM voyages v JOIN ships s ON s.id = v.ship_id WHERE s.name LIKE '" + SHIP_PREFIX + "%'");
+            statement.executeUpdate("DELETE FROM ships WHERE name LIKE '" + SHIP_PREFIX + "%'");
+        }
+    }
+}
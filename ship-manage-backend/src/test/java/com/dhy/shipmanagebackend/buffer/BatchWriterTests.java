@@ -0,0 +1,137 @@
+package com.dhy.shipmanagebackend.buffer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量写入器：攒批刷盘、溢写与回放、断点续放、关闭后拒收、BLOCK 整批限时
+ */
+class BatchWriterTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void flushesEverythingInBatchesAndOnClose() {
+        List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        BatchWriter<Integer> writer = new BatchWriter<Integer>("test-writer", 1000, 100, 50,
+                OverflowPolicy.DROP, 0, batch -> batches.add(new ArrayList<>(batch))).start();
+
+        assertEquals(250, writer.submitAll(range(0, 250)));
+        writer.close(5000);
+
+        assertEquals(range(0, 250), flatten(batches));
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 100));
+        assertEquals(250L, writer.stats().get("written"));
+    }
+
+    @Test
+    void rejectsSubmitsAfterClose() {
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        BatchWriter<Integer> writer = new BatchWriter<Integer>("test-writer", 10, 10, 50,
+                OverflowPolicy.DROP, 0, written::addAll).start();
+        writer.close(5000);
+
+        assertEquals(0, writer.submitAll(range(0, 5)));
+        assertFalse(writer.submit(99));
+        assertEquals(6L, writer.stats().get("dropped"));
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    void spillsWhenFullAndReplaysEachItemOnce() throws Exception {
+        Path spill = dir.resolve("spill.jsonl");
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        BatchWriter<Integer> writer = new BatchWriter<Integer>("test-writer", 20, 10, 10,
+                OverflowPolicy.SPILL, 0, batch -> {
+                    sleep(2);
+                    written.addAll(batch);
+                }).spillTo(spill, objectMapper, Integer.class).start();
+
+        int accepted = 0;
+        for (int i = 0; i < 50; i++) {
+            accepted += writer.submitAll(range(i * 100, i * 100 + 100));
+        }
+        writer.close(30_000);
+
+        assertEquals(5000, accepted);
+        assertTrue((Long) writer.stats().get("spilled") > 0);
+        List<Integer> sorted = new ArrayList<>(written);
+        Collections.sort(sorted);
+        assertEquals(range(0, 5000), sorted);
+        assertFalse(Files.exists(spill));
+        assertFalse(Files.exists(dir.resolve("spill.jsonl.replaying")));
+        assertFalse(Files.exists(dir.resolve("spill.jsonl.replaying.offset")));
+    }
+
+    @Test
+    void resumesInterruptedReplayFromSavedOffset() throws Exception {
+        // 上次回放到第 4 行时进程退出
+        Path spill = dir.resolve("spill.jsonl");
+        Files.write(dir.resolve("spill.jsonl.replaying"),
+                range(0, 10).stream().map(String::valueOf).collect(Collectors.toList()));
+        Files.writeString(dir.resolve("spill.jsonl.replaying.offset"), "4");
+        Files.write(spill, List.of("100", "101"));
+
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        BatchWriter<Integer> writer = new BatchWriter<Integer>("test-writer", 10, 3, 10,
+                OverflowPolicy.SPILL, 0, written::addAll).spillTo(spill, objectMapper, Integer.class).start();
+        waitUntil(() -> written.size() >= 8);
+        writer.close(5000);
+
+        assertEquals(List.of(4, 5, 6, 7, 8, 9, 100, 101), written);
+        assertFalse(Files.exists(dir.resolve("spill.jsonl.replaying.offset")));
+    }
+
+    @Test
+    void blockPolicyWaitsOnceForTheWholeBatch() {
+        BatchWriter<Integer> writer = new BatchWriter<Integer>("test-writer", 10, 10, 10,
+                OverflowPolicy.BLOCK, 50, batch -> sleep(1000)).start();
+
+        long start = System.nanoTime();
+        int accepted = writer.submitAll(range(0, 5000));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(accepted < 5000);
+        assertTrue(elapsedMillis < 1000, "整批等待时间过长: " + elapsedMillis + "ms");
+        assertEquals((long) (5000 - accepted), writer.stats().get("dropped"));
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().collect(Collectors.toList());
+    }
+
+    private static List<Integer> flatten(List<List<Integer>> batches) {
+        return batches.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
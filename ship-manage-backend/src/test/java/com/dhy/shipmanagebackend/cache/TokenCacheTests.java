@@ -0,0 +1,81 @@
+package com.dhy.shipmanagebackend.cache;
+
+import com.dhy.shipmanagebackend.entity.LoginUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Token 本地缓存：命中统计、按 JWT 剩余有效期过期、本节点吊销与收到失效广播时剔除
+ */
+class TokenCacheTests {
+
+    private StringRedisTemplate redis;
+    private TokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        cache = new TokenCache(100, 300);
+        ReflectionTestUtils.setField(cache, "stringRedisTemplate", redis);
+    }
+
+    @Test
+    void returnsCachedUserAndCountsHits() {
+        LoginUser user = user(System.currentTimeMillis() + 60_000);
+        cache.put("t1", user);
+
+        assertSame(user, cache.get("t1"));
+        assertNull(cache.get("t2"));
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void expiresWithTheJwtBeforeMaxTtl() throws InterruptedException {
+        cache.put("expired", user(System.currentTimeMillis() - 1));
+        cache.put("short", user(System.currentTimeMillis() + 50));
+
+        assertNull(cache.get("expired"));
+        Thread.sleep(120);
+        assertNull(cache.get("short"));
+    }
+
+    @Test
+    void invalidateEvictsLocallyAndBroadcasts() {
+        cache.put("t1", user(System.currentTimeMillis() + 60_000));
+
+        cache.invalidate("t1");
+
+        assertNull(cache.get("t1"));
+        verify(redis).convertAndSend(TokenCache.INVALIDATE_CHANNEL, "t1");
+    }
+
+    @Test
+    void invalidationMessageFromAnotherNodeEvicts() {
+        cache.put("t1", user(System.currentTimeMillis() + 60_000));
+
+        cache.onMessage(new DefaultMessage(TokenCache.INVALIDATE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "t1".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertNull(cache.get("t1"));
+        assertEquals(1L, cache.stats().get("invalidations"));
+    }
+
+    private static LoginUser user(long expiresAt) {
+        LoginUser user = new LoginUser(1L, "alice", "USER");
+        user.setExpiresAt(new Date(expiresAt));
+        return user;
+    }
+}
@@ -0,0 +1,110 @@
+package com.dhy.shipmanagebackend.cache;
+
+import com.dhy.shipmanagebackend.entity.User;
+import com.dhy.shipmanagebackend.entity.UserVO;
+import com.dhy.shipmanagebackend.mapper.UserMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 用户资料本地缓存：未命中的 ID 合并成一次查询、命中不查库、本节点修改与收到失效广播时剔除
+ */
+class UserProfileCacheTests {
+
+    private UserMapper userMapper;
+    private StringRedisTemplate redis;
+    private UserProfileCache cache;
+
+    @BeforeEach
+    void setUp() {
+        userMapper = mock(UserMapper.class);
+        redis = mock(StringRedisTemplate.class);
+        cache = new UserProfileCache(100, 600);
+        ReflectionTestUtils.setField(cache, "userMapper", userMapper);
+        ReflectionTestUtils.setField(cache, "stringRedisTemplate", redis);
+        // 按请求的 ID 返回用户，ID 为负数视为不存在
+        when(userMapper.selectBatchIds(anyCollection())).thenAnswer(invocation -> {
+            List<User> users = new ArrayList<>();
+            for (Object id : (Collection<?>) invocation.getArgument(0)) {
+                if ((Long) id > 0) {
+                    users.add(user((Long) id));
+                }
+            }
+            return users;
+        });
+    }
+
+    @Test
+    void loadsMissingIdsInOneQuery() {
+        Map<Long, UserVO> profiles = cache.getAll(List.of(1L, 2L, 2L, -3L));
+
+        assertEquals(2, profiles.size());
+        assertEquals("user1", profiles.get(1L).getUsername());
+        verify(userMapper, times(1)).selectBatchIds(List.of(1L, 2L, -3L));
+    }
+
+    @Test
+    void cachedProfilesDoNotHitDatabase() {
+        UserVO first = cache.get(1L);
+        UserVO second = cache.get(1L);
+
+        assertSame(first, second);
+        verify(userMapper, times(1)).selectBatchIds(anyCollection());
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("loads"));
+    }
+
+    @Test
+    void invalidateEvictsAndBroadcasts() {
+        cache.get(1L);
+
+        cache.invalidate(1L);
+        cache.get(1L);
+
+        verify(redis).convertAndSend(UserProfileCache.INVALIDATE_CHANNEL, "1");
+        verify(userMapper, times(2)).selectBatchIds(anyCollection());
+    }
+
+    @Test
+    void invalidationMessageEvictsOnThisNode() {
+        cache.get(1L);
+
+        cache.onMessage(message("1"), null);
+        cache.onMessage(message("not-a-number"), null);
+        cache.get(1L);
+
+        verify(userMapper, times(2)).selectBatchIds(anyCollection());
+        assertNull(cache.get(null));
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setPasswordHash("hash");
+        return user;
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(UserProfileCache.INVALIDATE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,101 @@
+package com.dhy.shipmanagebackend.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import com.dhy.shipmanagebackend.entity.BroadcastMessage;
+import com.dhy.shipmanagebackend.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 广播可见性：注册之前发出的广播不可见、不计入未读，单条/批量操作与收件箱使用同一可见条件
+ * 连接 application.yml 中的数据库（需已执行 db/migration/V4），测试数据在事务中写入并回滚
+ */
+@MybatisPlusTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BroadcastMessageMapperTests {
+
+    @Autowired
+    private BroadcastMessageMapper broadcastMessageMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    private Long userId;
+    private Long beforeRegistration;
+    private Long first;
+    private Long second;
+
+    @BeforeEach
+    void seed() {
+        // 注册时间晚于库中已有的广播，收件箱里只有本测试写入的广播
+        LocalDateTime registeredAt = LocalDateTime.now().plusDays(1).withNano(0);
+        User user = new User();
+        user.setUsername("broadcast-test-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setPasswordHash("x");
+        user.setRole("USER");
+        user.setCreatedAt(registeredAt);
+        userMapper.insert(user);
+        userId = user.getId();
+
+        beforeRegistration = insertBroadcast(registeredAt.minusMinutes(1));
+        first = insertBroadcast(registeredAt);
+        second = insertBroadcast(registeredAt.plusMinutes(1));
+    }
+
+    @Test
+    void broadcastsBeforeRegistrationAreNotVisible() {
+        List<Long> visible = broadcastMessageMapper.selectVisibleAmong(userId,
+                List.of(beforeRegistration, first, second, Long.MAX_VALUE));
+
+        assertEquals(List.of(first, second), visible.stream().sorted().toList());
+        List<Long> inbox = broadcastMessageMapper.selectVisibleIds(userId, null);
+        assertEquals(List.of(first, second), inbox.stream().sorted().toList());
+    }
+
+    @Test
+    void unreadCountsOnlyVisibleBroadcasts() {
+        assertUnread(2);
+
+        broadcastMessageMapper.markRead(userId, first);
+        assertUnread(1);
+        assertEquals(List.of(first), broadcastMessageMapper.selectVisibleIds(userId, "READ"));
+        assertEquals(List.of(second), broadcastMessageMapper.selectVisibleIds(userId, "UNREAD"));
+
+        broadcastMessageMapper.advanceReadCursor(userId, second);
+        assertUnread(0);
+        assertEquals(List.of(), broadcastMessageMapper.selectVisibleIds(userId, "UNREAD"));
+    }
+
+    @Test
+    void deletedBroadcastsLeaveInbox() {
+        broadcastMessageMapper.markDeletedBatch(userId, List.of(first));
+
+        assertUnread(1);
+        assertEquals(List.of(second), broadcastMessageMapper.selectVisibleIds(userId, null));
+    }
+
+    private void assertUnread(long expected) {
+        Map<String, Object> counts = broadcastMessageMapper.countUnreadWithTotal(userId);
+        assertEquals(expected, ((Number) counts.get("unread")).longValue());
+        assertEquals(broadcastMessageMapper.countAll(), ((Number) counts.get("total")).longValue());
+    }
+
+    private Long insertBroadcast(LocalDateTime createdAt) {
+        BroadcastMessage broadcast = new BroadcastMessage();
+        broadcast.setSenderId(0L);
+        broadcast.setTitle("broadcast-visibility-test");
+        broadcast.setType("SYSTEM");
+        broadcast.setCreatedAt(createdAt);
+        broadcastMessageMapper.insert(broadcast);
+        return broadcast.getId();
+    }
+}
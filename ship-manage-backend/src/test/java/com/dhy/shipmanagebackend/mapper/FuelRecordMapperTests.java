@@ -0,0 +1,124 @@
+package com.dhy.shipmanagebackend.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import com.dhy.shipmanagebackend.dto.FuelSeriesGranularity;
+import com.dhy.shipmanagebackend.entity.FuelRecord;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 燃油时间序列查询计划检查：EXPLAIN 实际生成的 SQL，必须走 (ship_id, record_date) 索引范围扫描
+ * 连接 application.yml 中的数据库（需已执行 db/migration/V7），测试数据在事务中写入并回滚
+ */
+@MybatisPlusTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FuelRecordMapperTests {
+
+    private static final String SERIES_STATEMENT = FuelRecordMapper.class.getName() + ".selectSeries";
+    private static final String SERIES_INDEX = "idx_ship_date";
+    private static final long FIRST_SHIP_ID = 9_000_001L;
+
+    @Autowired
+    private FuelRecordMapper fuelRecordMapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void seed() {
+        // 造足够多的数据，避免优化器因为表太小直接全表扫描
+        LocalDate base = LocalDate.of(2025, 1, 1);
+        for (long ship = 0; ship < 20; ship++) {
+            for (int day = 0; day < 100; day++) {
+                FuelRecord record = new FuelRecord();
+                record.setShipId(FIRST_SHIP_ID + ship);
+                record.setRecordDate(base.plusDays(day * 3L));
+                record.setFuelType(day % 2 == 0 ? "HFO" : "MGO");
+                record.setQuantity(BigDecimal.TEN);
+                record.setUnitPrice(BigDecimal.ONE);
+                record.setTotalCost(BigDecimal.TEN);
+                fuelRecordMapper.insert(record);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(FuelSeriesGranularity.class)
+    void seriesUsesShipDateIndex(FuelSeriesGranularity granularity) throws Exception {
+        Map<String, Object> plan = explainSeries(List.of(FIRST_SHIP_ID, FIRST_SHIP_ID + 1),
+                null, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 5, 1), granularity);
+        assertEquals(SERIES_INDEX, plan.get("key"), () -> "未使用 " + SERIES_INDEX + "，执行计划: " + plan);
+        assertEquals("range", plan.get("type"), () -> "不是索引范围扫描，执行计划: " + plan);
+    }
+
+    @ParameterizedTest
+    @EnumSource(FuelSeriesGranularity.class)
+    void seriesWithFuelTypeUsesShipDateIndex(FuelSeriesGranularity granularity) throws Exception {
+        Map<String, Object> plan = explainSeries(List.of(FIRST_SHIP_ID),
+                "HFO", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 1), granularity);
+        assertEquals(SERIES_INDEX, plan.get("key"), () -> "未使用 " + SERIES_INDEX + "，执行计划: " + plan);
+        assertTrue(String.valueOf(plan.get("possible_keys")).contains(SERIES_INDEX));
+    }
+
+    /**
+     * 取 Mapper 实际生成的 SQL 并绑定参数执行 EXPLAIN，返回 fuel_records 表对应的那一行
+     */
+    private Map<String, Object> explainSeries(List<Long> shipIds, String fuelType, LocalDate startDate,
+                                              LocalDate endDate, FuelSeriesGranularity granularity) throws Exception {
+        Map<String, Object> params = new HashMap<>();
+        params.put("shipIds", shipIds);
+        params.put("fuelType", fuelType);
+        params.put("startDate", startDate);
+        params.put("endDate", endDate);
+        params.put("bucketSql", granularity.getBucketSql());
+
+        MappedStatement statement = sqlSessionFactory.getConfiguration().getMappedStatement(SERIES_STATEMENT);
+        BoundSql boundSql = statement.getBoundSql(params);
+
+        // 使用测试事务中的连接，才能看到 seed 写入的数据
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+            new DefaultParameterHandler(statement, params, boundSql).setParameters(explain);
+            try (ResultSet rs = explain.executeQuery()) {
+                while (rs.next()) {
+                    if ("fuel_records".equals(rs.getString("table"))) {
+                        Map<String, Object> row = new HashMap<>();
+                        row.put("type", rs.getString("type"));
+                        row.put("possible_keys", rs.getString("possible_keys"));
+                        row.put("key", rs.getString("key"));
+                        row.put("rows", rs.getString("rows"));
+                        row.put("Extra", rs.getString("Extra"));
+                        return row;
+                    }
+                }
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        throw new AssertionError("执行计划中没有 fuel_records: " + boundSql.getSql());
+    }
+}
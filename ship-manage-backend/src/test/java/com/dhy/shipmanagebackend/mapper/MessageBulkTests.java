@@ -0,0 +1,106 @@
+package com.dhy.shipmanagebackend.mapper;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import com.dhy.shipmanagebackend.entity.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 消息分批批量操作：按索引顺序逐批取ID、只处理起始时的最大ID以内、按状态限定删除
+ * 连接 application.yml 中的数据库（需已执行 db/migration/V5），测试数据在事务中写入并回滚
+ */
+@MybatisPlusTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MessageBulkTests {
+
+    private static final int MESSAGES = 25;
+    private static final int CHUNK = 10;
+
+    @Autowired
+    private MessageMapper messageMapper;
+
+    private Long userId;
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        userId = 9_100_000_000L + (long) (Math.random() * 1_000_000);
+        LocalDateTime base = LocalDateTime.now().minusDays(1).withNano(0);
+        for (int i = 0; i < MESSAGES; i++) {
+            ids.add(insertMessage(base.plusSeconds(i)));
+        }
+    }
+
+    @Test
+    void markAllReadWalksChunksUpToStartingMaxId() {
+        Long maxId = messageMapper.selectMaxId();
+        // 开始之后新到的消息保持未读
+        Long late = insertMessage(LocalDateTime.now().withNano(0));
+
+        int chunks = 0;
+        int read = 0;
+        while (true) {
+            List<Long> chunk = messageMapper.selectIdChunk(userId, "UNREAD", maxId, CHUNK);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            // 每批都是剩余消息中最早的
+            assertEquals(ids.subList(read, read + chunk.size()), chunk);
+            read += messageMapper.markReadByIds(userId, chunk);
+            chunks++;
+        }
+
+        assertEquals(3, chunks);
+        assertEquals(MESSAGES, read);
+        assertEquals(List.of(late), unreadIds());
+    }
+
+    @Test
+    void markReadByIdsSkipsReadAndForeignMessages() {
+        assertEquals(2, messageMapper.markReadByIds(userId, ids.subList(0, 2)));
+
+        // 已读的不再计数，其他用户的消息不受影响
+        assertEquals(1, messageMapper.markReadByIds(userId, ids.subList(0, 3)));
+        assertEquals(0, messageMapper.markReadByIds(userId + 1, ids.subList(3, 5)));
+    }
+
+    @Test
+    void deleteByIdsHonoursStatus() {
+        messageMapper.markReadByIds(userId, ids.subList(0, 5));
+
+        assertEquals(5, messageMapper.deleteByIds(userId, ids.subList(0, 10), "UNREAD"));
+        assertEquals(5, messageMapper.deleteByIds(userId, ids.subList(0, 10), null));
+        assertTrue(messageMapper.selectBatchIds(ids.subList(0, 10)).isEmpty());
+        assertEquals(MESSAGES - 10, unreadIds().size());
+    }
+
+    private List<Long> unreadIds() {
+        return messageMapper.selectList(new LambdaQueryWrapper<Message>()
+                        .eq(Message::getReceiverId, userId)
+                        .eq(Message::getStatus, "UNREAD")
+                        .orderByAsc(Message::getId))
+                .stream().map(Message::getId).toList();
+    }
+
+    private Long insertMessage(LocalDateTime createdAt) {
+        Message message = new Message();
+        message.setSenderId(0L);
+        message.setReceiverId(userId);
+        message.setTitle("message-bulk-test");
+        message.setType("SYSTEM");
+        message.setStatus("UNREAD");
+        message.setCreatedAt(createdAt);
+        messageMapper.insert(message);
+        return message.getId();
+    }
+}
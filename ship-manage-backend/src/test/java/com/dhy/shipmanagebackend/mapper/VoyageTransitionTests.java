@@ -0,0 +1,171 @@
+package com.dhy.shipmanagebackend.mapper;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import com.dhy.shipmanagebackend.entity.Ship;
+import com.dhy.shipmanagebackend.entity.Voyage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 航次状态条件更新的并发测试：同一艘船/同一航次大量并发请求，只能有一个成功
+ * 连接 application.yml 中的数据库（需已执行 db/migration/V10）；
+ * 并发请求各自提交，不使用测试事务，测试数据在 @AfterEach 中删除
+ */
+@MybatisPlusTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VoyageTransitionTests {
+
+    private static final String SHIP_PREFIX = "voyage-transition-test-";
+    private static final int SHIPS = 5;
+    private static final int REQUESTS_PER_SHIP = 300;
+    private static final List<String> DEPARTABLE = List.of("在役", "停运");
+
+    @Autowired
+    private ShipMapper shipMapper;
+
+    @Autowired
+    private VoyageMapper voyageMapper;
+
+    private final List<Long> shipIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        if (!shipIds.isEmpty()) {
+            voyageMapper.delete(new LambdaQueryWrapper<Voyage>().in(Voyage::getShipId, shipIds));
+            shipMapper.deleteBatchIds(shipIds);
+        }
+    }
+
+    @Test
+    void concurrentStartsDepartEachShipOnce() throws Exception {
+        for (int i = 0; i < SHIPS; i++) {
+            shipIds.add(insertShip(i % 2 == 0 ? "在役" : "停运").getId());
+        }
+
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (Long shipId : shipIds) {
+            for (int i = 0; i < REQUESTS_PER_SHIP; i++) {
+                tasks.add(() -> shipMapper.transitionStatus(shipId, DEPARTABLE, "航行中"));
+            }
+        }
+        int[] results = runConcurrently(tasks);
+
+        for (int s = 0; s < SHIPS; s++) {
+            int succeeded = 0;
+            for (int i = 0; i < REQUESTS_PER_SHIP; i++) {
+                succeeded += results[s * REQUESTS_PER_SHIP + i];
+            }
+            Ship ship = shipMapper.selectById(shipIds.get(s));
+            assertEquals(1, succeeded, "同一艘船只能开航一次");
+            assertEquals("航行中", ship.getStatus());
+            assertEquals(1, ship.getVersion());
+        }
+    }
+
+    @Test
+    void concurrentFinishesReleaseShipOnce() throws Exception {
+        Ship ship = insertShip("航行中");
+        shipIds.add(ship.getId());
+        Voyage voyage = new Voyage();
+        voyage.setShipId(ship.getId());
+        voyage.setStatus("执行中");
+        voyageMapper.insert(voyage);
+
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < REQUESTS_PER_SHIP; i++) {
+            tasks.add(() -> voyageMapper.finish(voyage.getId()));
+        }
+        int[] results = runConcurrently(tasks);
+
+        int succeeded = 0;
+        for (int affected : results) {
+            if (affected > 0) {
+                // 航次和船舶两行
+                assertEquals(2, affected);
+                succeeded++;
+            }
+        }
+        assertEquals(1, succeeded, "同一航次只能结束一次");
+        assertEquals("已完成", voyageMapper.selectById(voyage.getId()).getStatus());
+        Ship released = shipMapper.selectById(ship.getId());
+        assertEquals("在役", released.getStatus());
+        assertEquals(1, released.getVersion());
+    }
+
+    @Test
+    void finishPlannedVoyageKeepsShipStatus() {
+        Ship ship = insertShip("维修中");
+        shipIds.add(ship.getId());
+        Voyage voyage = new Voyage();
+        voyage.setShipId(ship.getId());
+        voyage.setStatus("计划中");
+        voyageMapper.insert(voyage);
+
+        assertEquals(1, voyageMapper.finish(voyage.getId()));
+        assertEquals("维修中", shipMapper.selectById(ship.getId()).getStatus());
+        assertEquals(0, voyageMapper.finish(voyage.getId()));
+    }
+
+    @Test
+    void staleVersionCannotOverwriteStatus() {
+        Ship ship = insertShip("在役");
+        shipIds.add(ship.getId());
+        Ship edited = shipMapper.selectById(ship.getId());
+
+        // 编辑期间开航
+        assertEquals(1, shipMapper.transitionStatus(ship.getId(), DEPARTABLE, "航行中"));
+
+        edited.setName(edited.getName() + "-edited");
+        assertEquals(0, shipMapper.updateById(edited));
+        assertEquals("航行中", shipMapper.selectById(ship.getId()).getStatus());
+    }
+
+    private Ship insertShip(String status) {
+        Ship ship = new Ship();
+        ship.setName(SHIP_PREFIX + System.nanoTime());
+        ship.setStatus(status);
+        shipMapper.insert(ship);
+        return ship;
+    }
+
+    /**
+     * 所有任务就绪后同时放行，按提交顺序返回结果
+     */
+    private int[] runConcurrently(List<Callable<Integer>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (Callable<Integer> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            int[] results = new int[futures.size()];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = futures.get(i).get();
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.dhy.shipmanagebackend.push;
+
+import com.dhy.shipmanagebackend.exception.ServiceBusyException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 消息推送中心：总连接数上限、单用户连接数上限、按用户或全体投递
+ */
+class MessagePushHubTests {
+
+    private MessagePushHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = new MessagePushHub();
+        ReflectionTestUtils.setField(hub, "stringRedisTemplate", mock(StringRedisTemplate.class));
+        ReflectionTestUtils.setField(hub, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(hub, "executor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(hub, "maxConnections", 10);
+        ReflectionTestUtils.setField(hub, "maxConnectionsPerUser", 2);
+        ReflectionTestUtils.setField(hub, "queueCapacity", 8);
+        ReflectionTestUtils.setField(hub, "timeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(hub, "reconnectMillis", 5_000L);
+        ReflectionTestUtils.setField(hub, "retryAfterSeconds", 30);
+    }
+
+    @Test
+    void rejectsConnectionsOverNodeLimit() {
+        ReflectionTestUtils.setField(hub, "maxConnections", 1);
+        hub.connect(1L, "unread", Map.of("count", 0));
+
+        ServiceBusyException e = assertThrows(ServiceBusyException.class,
+                () -> hub.connect(2L, "unread", Map.of("count", 0)));
+
+        assertEquals(30, e.getRetryAfterSeconds());
+        assertEquals(1, hub.stats().get("connections"));
+        assertEquals(1L, hub.stats().get("rejected"));
+    }
+
+    @Test
+    void dropsOldestConnectionsOverUserLimit() {
+        for (int i = 0; i < 4; i++) {
+            hub.connect(1L, "unread", Map.of("count", 0));
+        }
+
+        assertEquals(2, hub.stats().get("connections"));
+        assertEquals(1, hub.stats().get("users"));
+    }
+
+    @Test
+    void deliversToTargetUserOrEveryone() {
+        hub.connect(1L, "unread", Map.of("count", 0));
+        hub.connect(2L, "unread", Map.of("count", 0));
+
+        hub.onMessage(message("{\"userId\":1,\"event\":\"unread\",\"data\":{\"delta\":1}}"), null);
+        assertEquals(1L, hub.stats().get("delivered"));
+
+        hub.onMessage(message("{\"event\":\"message\",\"data\":{\"id\":7,\"broadcast\":true}}"), null);
+        assertEquals(3L, hub.stats().get("delivered"));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(MessagePushHub.PUSH_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,102 @@
+package com.dhy.shipmanagebackend.push;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 单个 SSE 连接：积压事件由一个写出任务按序发送，队列写满、写出失败或线程池拒绝时断开
+ */
+class PushConnectionTests {
+
+    private SseEmitter emitter;
+
+    /**
+     * 提交到线程池的写出任务，由测试手动执行
+     */
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        emitter = mock(SseEmitter.class);
+        tasks.clear();
+    }
+
+    @Test
+    void drainsQueuedEventsInOrderWithOneTask() throws IOException {
+        PushConnection connection = new PushConnection(1L, emitter, 8, tasks::add);
+        SseEmitter.SseEventBuilder first = SseEmitter.event().name("first");
+        SseEmitter.SseEventBuilder second = SseEmitter.event().name("second");
+
+        assertTrue(connection.enqueue(first));
+        assertTrue(connection.enqueue(second));
+        assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+
+        InOrder order = inOrder(emitter);
+        order.verify(emitter).send(first);
+        order.verify(emitter).send(second);
+        assertTrue(tasks.isEmpty());
+        assertFalse(connection.isClosed());
+    }
+
+    @Test
+    void fullQueueClosesConnection() throws IOException {
+        PushConnection connection = new PushConnection(1L, emitter, 2, tasks::add);
+
+        assertTrue(connection.enqueue(SseEmitter.event().name("a")));
+        assertTrue(connection.enqueue(SseEmitter.event().name("b")));
+        assertFalse(connection.enqueue(SseEmitter.event().name("c")));
+
+        assertTrue(connection.isClosed());
+        verify(emitter).complete();
+        // 已关闭的连接不再写出积压事件
+        tasks.remove(0).run();
+        verify(emitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+        assertFalse(connection.enqueue(SseEmitter.event().name("d")));
+    }
+
+    @Test
+    void sendFailureClosesConnection() throws IOException {
+        doThrow(new IOException("broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        PushConnection connection = new PushConnection(1L, emitter, 8, tasks::add);
+
+        connection.enqueue(SseEmitter.event().name("a"));
+        connection.enqueue(SseEmitter.event().name("b"));
+        tasks.remove(0).run();
+
+        assertTrue(connection.isClosed());
+        verify(emitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter).complete();
+    }
+
+    @Test
+    void rejectedDrainClosesConnection() {
+        PushConnection connection = new PushConnection(1L, emitter, 8, task -> {
+            throw new RejectedExecutionException();
+        });
+
+        connection.enqueue(SseEmitter.event().name("a"));
+
+        assertTrue(connection.isClosed());
+        verify(emitter).complete();
+    }
+}
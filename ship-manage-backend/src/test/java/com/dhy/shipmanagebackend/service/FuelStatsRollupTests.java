@@ -0,0 +1,106 @@
+package com.dhy.shipmanagebackend.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import com.dhy.shipmanagebackend.entity.FuelMonthlyStat;
+import com.dhy.shipmanagebackend.entity.FuelRecord;
+import com.dhy.shipmanagebackend.mapper.FuelMonthlyStatMapper;
+import com.dhy.shipmanagebackend.mapper.FuelRecordMapper;
+import com.dhy.shipmanagebackend.service.impl.FuelRecordServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 燃油统计汇总：经过增删改后，增量维护的汇总与从 fuel_records 重建的结果一致
+ * 连接 application.yml 中的数据库（需已执行 db/migration/V6），测试数据在事务中写入并回滚
+ */
+@MybatisPlusTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FuelStatsRollupTests {
+
+    private static final long SHIP_ID = 9_200_001L;
+
+    @Autowired
+    private FuelRecordMapper fuelRecordMapper;
+
+    @Autowired
+    private FuelMonthlyStatMapper fuelMonthlyStatMapper;
+
+    private FuelRecordServiceImpl fuelRecordService;
+
+    @BeforeEach
+    void setUp() {
+        fuelRecordService = new FuelRecordServiceImpl();
+        ReflectionTestUtils.setField(fuelRecordService, "fuelRecordMapper", fuelRecordMapper);
+        ReflectionTestUtils.setField(fuelRecordService, "fuelMonthlyStatMapper", fuelMonthlyStatMapper);
+    }
+
+    @Test
+    void incrementalRollupMatchesRebuild() {
+        FuelRecord moved = record(LocalDate.of(2025, 1, 10), "HFO", "12.345", "3.333");
+        fuelRecordService.add(moved);
+        FuelRecord deleted = record(LocalDate.of(2025, 1, 20), null, "5", "2");
+        fuelRecordService.add(deleted);
+
+        List<FuelRecord> batch = new ArrayList<>();
+        for (int day = 1; day <= 6; day++) {
+            batch.add(record(LocalDate.of(2025, 2, day), day % 2 == 0 ? "HFO" : "MGO", "1.005", "7.125"));
+        }
+        fuelRecordService.addBatch(batch);
+
+        // 改到另一个月份和燃油类型，原汇总行只剩这一条时应被删除
+        FuelRecord change = new FuelRecord();
+        change.setId(moved.getId());
+        change.setRecordDate(LocalDate.of(2025, 3, 1));
+        change.setFuelType("LNG");
+        change.setQuantity(new BigDecimal("8.5"));
+        change.setUnitPrice(new BigDecimal("4"));
+        fuelRecordService.update(change);
+
+        fuelRecordService.delete(deleted.getId());
+        fuelRecordService.deleteBatch(List.of(batch.get(0).getId(), batch.get(1).getId()));
+
+        Map<String, String> incremental = snapshot();
+        assertFalse(incremental.containsKey("2025-01-01|HFO"));
+        assertFalse(incremental.containsKey("2025-01-01|"));
+
+        fuelRecordService.rebuildStatistics(SHIP_ID);
+        assertEquals(snapshot(), incremental);
+    }
+
+    /**
+     * 该船舶的汇总行：月份|燃油类型 → 消耗量/费用/记录数
+     */
+    private Map<String, String> snapshot() {
+        Map<String, String> rows = new TreeMap<>();
+        for (FuelMonthlyStat stat : fuelMonthlyStatMapper.selectList(
+                new LambdaQueryWrapper<FuelMonthlyStat>().eq(FuelMonthlyStat::getShipId, SHIP_ID))) {
+            rows.put(stat.getStatMonth() + "|" + stat.getFuelType(),
+                    stat.getTotalQuantity() + "/" + stat.getTotalCost() + "/" + stat.getRecordCount());
+        }
+        return rows;
+    }
+
+    private static FuelRecord record(LocalDate date, String fuelType, String quantity, String unitPrice) {
+        FuelRecord record = new FuelRecord();
+        record.setShipId(SHIP_ID);
+        record.setRecordDate(date);
+        record.setFuelType(fuelType);
+        record.setQuantity(new BigDecimal(quantity));
+        record.setUnitPrice(new BigDecimal(unitPrice));
+        return record;
+    }
+}
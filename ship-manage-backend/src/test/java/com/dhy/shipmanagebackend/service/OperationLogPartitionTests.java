@@ -0,0 +1,102 @@
+package com.dhy.shipmanagebackend.service;
+
+import com.dhy.shipmanagebackend.mapper.OperationLogMapper;
+import com.dhy.shipmanagebackend.service.impl.OperationLogServiceImpl;
+import com.dhy.shipmanagebackend.utils.RedisLockUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 操作日志分区维护：只有持锁节点执行 DDL，按月补建分区、整分区删除过期日志并分批删除剩余部分，失败时也释放锁
+ */
+class OperationLogPartitionTests {
+
+    private static final String LOCK_KEY = "lock:operation-log:partition";
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private OperationLogMapper operationLogMapper;
+    private RedisLockUtil redisLockUtil;
+    private OperationLogServiceImpl operationLogService;
+
+    @BeforeEach
+    void setUp() {
+        operationLogMapper = mock(OperationLogMapper.class);
+        redisLockUtil = mock(RedisLockUtil.class);
+        operationLogService = new OperationLogServiceImpl();
+        ReflectionTestUtils.setField(operationLogService, "operationLogMapper", operationLogMapper);
+        ReflectionTestUtils.setField(operationLogService, "redisLockUtil", redisLockUtil);
+        ReflectionTestUtils.setField(operationLogService, "monthsAhead", 2);
+        ReflectionTestUtils.setField(operationLogService, "retentionDays", 90);
+        ReflectionTestUtils.setField(operationLogService, "purgeChunkSize", 100);
+        ReflectionTestUtils.setField(operationLogService, "purgePauseMillis", 0L);
+        ReflectionTestUtils.setField(operationLogService, "lockTtlMillis", 60_000L);
+    }
+
+    @Test
+    void skipsWhenAnotherNodeHoldsLock() {
+        when(redisLockUtil.tryLock(eq(LOCK_KEY), any())).thenReturn(null);
+
+        operationLogService.maintainOnStartup();
+
+        verifyNoInteractions(operationLogMapper);
+        verify(redisLockUtil, never()).unlock(anyString(), anyString());
+    }
+
+    @Test
+    void createsMonthsAheadAndPurgesExpiredLogs() {
+        when(redisLockUtil.tryLock(eq(LOCK_KEY), any())).thenReturn("token");
+        YearMonth lastMonth = YearMonth.now().minusMonths(1);
+        when(operationLogMapper.listPartitions()).thenReturn(List.of(
+                partition("p202001", "'2020-02-01'"),
+                partition("p" + lastMonth.format(MONTH_FORMAT), "'" + lastMonth.plusMonths(1).atDay(1) + "'"),
+                partition("p_future", "MAXVALUE")));
+        when(operationLogMapper.selectMinIdBefore(any())).thenReturn(1L);
+        when(operationLogMapper.selectMaxIdBefore(any())).thenReturn(250L);
+
+        operationLogService.maintainPartitions();
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i <= 2; i++) {
+            YearMonth month = YearMonth.now().plusMonths(i);
+            expected.append("PARTITION p").append(month.format(MONTH_FORMAT))
+                    .append(" VALUES LESS THAN ('").append(month.plusMonths(1).atDay(1)).append("'), ");
+        }
+        expected.append("PARTITION p_future VALUES LESS THAN (MAXVALUE)");
+        verify(operationLogMapper).reorganizeFuturePartition(expected.toString());
+        verify(operationLogMapper).dropPartitions("p202001");
+        verify(operationLogMapper, times(3)).deleteRangeBefore(anyLong(), anyLong(), any(LocalDateTime.class));
+        verify(redisLockUtil).unlock(LOCK_KEY, "token");
+    }
+
+    @Test
+    void releasesLockWhenMaintenanceFails() {
+        when(redisLockUtil.tryLock(eq(LOCK_KEY), any())).thenReturn("token");
+        when(operationLogMapper.listPartitions()).thenThrow(new RuntimeException("lost connection"));
+
+        operationLogService.maintainPartitions();
+
+        verify(redisLockUtil).unlock(LOCK_KEY, "token");
+    }
+
+    private static Map<String, Object> partition(String name, String bound) {
+        return Map.of("name", name, "bound", bound);
+    }
+}
@@ -0,0 +1,120 @@
+package com.dhy.shipmanagebackend.service;
+
+import com.dhy.shipmanagebackend.cache.TokenCache;
+import com.dhy.shipmanagebackend.entity.LoginUser;
+import com.dhy.shipmanagebackend.service.impl.SessionServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.redis.DataRedisTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 登录会话索引：批量吊销、登录时清理过期 token、索引过期时间跟随最长的 token；推送连接票据只能兑换一次
+ * 连接 application.yml 中的 Redis，测试使用随机用户 ID 和 token，结束后删除
+ */
+@DataRedisTest
+@Import({SessionServiceImpl.class, TokenCache.class})
+class SessionServiceTests {
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private LoginUser user;
+    private String userKey;
+    private final List<String> tokens = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = new LoginUser();
+        user.setId(9_000_000_000L + (long) (Math.random() * 1_000_000));
+        userKey = "session:user:" + user.getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<String> keys = new ArrayList<>();
+        keys.add(userKey);
+        for (String token : tokens) {
+            keys.add(token);
+            keys.add("session:meta:" + token);
+        }
+        stringRedisTemplate.delete(keys);
+    }
+
+    @Test
+    void revokeAllDeletesEverySessionOfTheUser() {
+        String first = login();
+        String second = login();
+
+        assertEquals(2, sessionService.revokeAll(user.getId()));
+
+        for (String token : List.of(first, second)) {
+            assertFalse(stringRedisTemplate.hasKey(token));
+            assertFalse(stringRedisTemplate.hasKey("session:meta:" + token));
+        }
+        assertFalse(stringRedisTemplate.hasKey(userKey));
+        assertEquals(0, sessionService.revokeAll(user.getId()));
+    }
+
+    @Test
+    void loginDropsExpiredTokensFromIndex() {
+        String expired = login();
+        // 模拟 token 已过期
+        stringRedisTemplate.delete(expired);
+
+        String current = login();
+
+        assertEquals(Set.of(current), stringRedisTemplate.opsForSet().members(userKey));
+    }
+
+    @Test
+    void indexExpiresWithLongestLivedToken() {
+        login();
+        Object hours = ReflectionTestUtils.getField(sessionService, "expirationHours");
+        ReflectionTestUtils.setField(sessionService, "expirationHours", 1);
+        try {
+            // 有效期更短的新登录不能缩短索引的过期时间
+            login();
+        } finally {
+            ReflectionTestUtils.setField(sessionService, "expirationHours", hours);
+        }
+
+        Long ttl = stringRedisTemplate.getExpire(userKey, TimeUnit.SECONDS);
+        assertTrue(ttl > TimeUnit.HOURS.toSeconds(1), "索引剩余 " + ttl + " 秒");
+    }
+
+    @Test
+    void streamTicketCanBeRedeemedOnce() {
+        String token = login();
+        String ticket = sessionService.issueStreamTicket(token);
+
+        assertEquals(token, sessionService.redeemStreamTicket(ticket));
+        assertNull(sessionService.redeemStreamTicket(ticket));
+        assertNull(sessionService.redeemStreamTicket("unknown-ticket"));
+    }
+
+    private String login() {
+        String token = "test-session-" + UUID.randomUUID();
+        tokens.add(token);
+        sessionService.createSession(user, token);
+        return token;
+    }
+}
@@ -0,0 +1,140 @@
+package com.dhy.shipmanagebackend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.redis.DataRedisTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 未读计数脚本：读取时叠加新广播、仅在计数存在时增减、广播总数只增不减、校对按 ver 比较并设置
+ * 连接 application.yml 中的 Redis，使用随机键名（不触碰线上的 msg:broadcast:count），结束后删除
+ */
+@DataRedisTest
+class UnreadCountScriptsTests {
+
+    private static final RedisScript<Long> GET = script("lua/unread_get.lua");
+    private static final RedisScript<Long> INCR = script("lua/unread_incr.lua");
+    private static final RedisScript<Long> ADVANCE = script("lua/unread_broadcast_advance.lua");
+    private static final RedisScript<Long> RECONCILE = script("lua/unread_reconcile.lua");
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private String counterKey;
+    private String otherCounterKey;
+    private String totalKey;
+
+    @BeforeEach
+    void setUp() {
+        String prefix = "test:unread:" + UUID.randomUUID() + ":";
+        counterKey = prefix + "1";
+        otherCounterKey = prefix + "2";
+        totalKey = prefix + "broadcast";
+    }
+
+    @AfterEach
+    void tearDown() {
+        stringRedisTemplate.delete(List.of(counterKey, otherCounterKey, totalKey));
+    }
+
+    @Test
+    void getRequiresCounterAndBroadcastTotal() {
+        assertEquals(-1L, get());
+
+        stringRedisTemplate.opsForHash().putAll(counterKey, Map.of("count", "3", "bcount", "10"));
+        assertEquals(-1L, get());
+
+        stringRedisTemplate.opsForValue().set(totalKey, "10");
+        assertEquals(3L, get());
+    }
+
+    @Test
+    void getAddsBroadcastsPublishedSinceCounterWasBuilt() {
+        stringRedisTemplate.opsForHash().putAll(counterKey, Map.of("count", "3", "bcount", "10"));
+        stringRedisTemplate.opsForValue().set(totalKey, "12");
+
+        assertEquals(5L, get());
+    }
+
+    @Test
+    void getNeverGoesNegative() {
+        stringRedisTemplate.opsForHash().putAll(counterKey, Map.of("count", "0", "bcount", "10"));
+        stringRedisTemplate.opsForValue().set(totalKey, "8");
+
+        assertEquals(0L, get());
+    }
+
+    @Test
+    void incrOnlyTouchesExistingCounter() {
+        assertEquals(-1L, incr(counterKey, 1));
+        assertFalse(stringRedisTemplate.hasKey(counterKey));
+
+        stringRedisTemplate.opsForHash().putAll(counterKey, Map.of("count", "3", "bcount", "0"));
+        assertEquals(4L, incr(counterKey, 1));
+        assertEquals(2L, incr(counterKey, -2));
+        assertEquals("2", stringRedisTemplate.opsForHash().get(counterKey, "ver"));
+    }
+
+    @Test
+    void broadcastTotalOnlyMovesForward() {
+        assertEquals(5L, advance(5));
+        assertEquals(5L, advance(3));
+        assertEquals(7L, advance(7));
+        assertEquals("7", stringRedisTemplate.opsForValue().get(totalKey));
+    }
+
+    @Test
+    void reconcileSkipsCountersChangedDuringQuery() {
+        stringRedisTemplate.opsForHash().putAll(counterKey, Map.of("count", "9", "bcount", "1"));
+        stringRedisTemplate.opsForHash().putAll(otherCounterKey, Map.of("count", "9", "bcount", "1"));
+        // 查库期间 otherCounterKey 收到一条新消息
+        incr(otherCounterKey, 1);
+
+        Long written = stringRedisTemplate.execute(RECONCILE, List.of(counterKey, otherCounterKey),
+                "600", "0", "4", "2", "0", "4", "2");
+
+        assertEquals(1L, written);
+        assertEquals("4", stringRedisTemplate.opsForHash().get(counterKey, "count"));
+        assertEquals("2", stringRedisTemplate.opsForHash().get(counterKey, "bcount"));
+        assertEquals("10", stringRedisTemplate.opsForHash().get(otherCounterKey, "count"));
+    }
+
+    @Test
+    void reconcileDoesNotRecreateExpiredCounter() {
+        Long written = stringRedisTemplate.execute(RECONCILE, List.of(counterKey), "600", "0", "4", "2");
+
+        assertEquals(0L, written);
+        assertFalse(stringRedisTemplate.hasKey(counterKey));
+    }
+
+    private Long get() {
+        return stringRedisTemplate.execute(GET, List.of(counterKey, totalKey));
+    }
+
+    private Long incr(String key, int delta) {
+        return stringRedisTemplate.execute(INCR, List.of(key), String.valueOf(delta));
+    }
+
+    private Long advance(long total) {
+        return stringRedisTemplate.execute(ADVANCE, List.of(totalKey), String.valueOf(total));
+    }
+
+    private static RedisScript<Long> script(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(path));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
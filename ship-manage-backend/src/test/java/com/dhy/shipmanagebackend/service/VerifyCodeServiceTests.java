@@ -0,0 +1,146 @@
+package com.dhy.shipmanagebackend.service;
+
+import com.dhy.shipmanagebackend.service.impl.VerifyCodeServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.redis.DataRedisTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 邮箱验证码脚本：一次性消费、防刷锁、邮箱窗口限流、错误次数上限，窗口时间取 Redis 服务器时间
+ * 连接 application.yml 中的 Redis，测试使用随机邮箱和 IP，结束后删除
+ */
+@DataRedisTest
+@Import({VerifyCodeServiceImpl.class, VerifyCodeServiceTests.Scripts.class})
+class VerifyCodeServiceTests {
+
+    @Autowired
+    private VerifyCodeService verifyCodeService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private String email;
+    private String ip;
+
+    @BeforeEach
+    void setUp() {
+        email = "test-" + UUID.randomUUID() + "@example.com";
+        ip = "test-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stringRedisTemplate.delete(List.of(
+                "register:code:" + email,
+                "send:lock:" + email,
+                "send:window:email:" + email,
+                "send:window:ip:" + ip,
+                "verify:fail:" + email));
+    }
+
+    @Test
+    void codeCanBeConsumedOnce() {
+        String code = verifyCodeService.issue(email, ip);
+
+        verifyCodeService.consume(email, code);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> verifyCodeService.consume(email, code));
+        assertEquals("验证码已过期，请重新获取", e.getMessage());
+    }
+
+    @Test
+    void resendWithinIntervalIsRejected() {
+        verifyCodeService.issue(email, ip);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> verifyCodeService.issue(email, ip));
+        assertEquals("操作过于频繁，请稍后再试", e.getMessage());
+    }
+
+    @Test
+    void emailWindowLimitsIssues() {
+        Object limit = ReflectionTestUtils.getField(verifyCodeService, "emailLimit");
+        ReflectionTestUtils.setField(verifyCodeService, "emailLimit", 2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                verifyCodeService.issue(email, ip);
+                // 跳过防刷锁，只验证窗口限流
+                stringRedisTemplate.delete("send:lock:" + email);
+            }
+            RuntimeException e = assertThrows(RuntimeException.class, () -> verifyCodeService.issue(email, ip));
+            assertEquals("该邮箱获取验证码次数过多，请稍后再试", e.getMessage());
+        } finally {
+            ReflectionTestUtils.setField(verifyCodeService, "emailLimit", limit);
+        }
+    }
+
+    @Test
+    void tooManyWrongCodesVoidTheCode() {
+        String code = verifyCodeService.issue(email, ip);
+        String wrong = code.equals("000000") ? "111111" : "000000";
+        int maxAttempts = (Integer) ReflectionTestUtils.getField(verifyCodeService, "maxAttempts");
+
+        for (int i = 1; i < maxAttempts; i++) {
+            RuntimeException e = assertThrows(RuntimeException.class, () -> verifyCodeService.consume(email, wrong));
+            assertEquals("验证码错误", e.getMessage());
+        }
+        RuntimeException e = assertThrows(RuntimeException.class, () -> verifyCodeService.consume(email, wrong));
+        assertEquals("验证码错误次数过多，请重新获取", e.getMessage());
+        assertThrows(RuntimeException.class, () -> verifyCodeService.consume(email, code));
+    }
+
+    @Test
+    void windowUsesRedisServerTime() {
+        verifyCodeService.issue(email, ip);
+
+        Long serverMillis = stringRedisTemplate.execute((RedisCallback<Long>) c -> c.serverCommands().time());
+        Set<ZSetOperations.TypedTuple<String>> entries =
+                stringRedisTemplate.opsForZSet().rangeWithScores("send:window:email:" + email, 0, -1);
+        assertEquals(1, entries.size());
+        double score = entries.iterator().next().getScore();
+        assertTrue(Math.abs(serverMillis - score) < 5_000, "窗口时间 " + score + "，服务器时间 " + serverMillis);
+    }
+
+    /**
+     * 只加载验证码用到的两个脚本，不引入 RedisConfig 中的消息监听等依赖
+     */
+    @TestConfiguration
+    static class Scripts {
+
+        @Bean
+        RedisScript<Long> issueVerifyCodeScript() {
+            return script("lua/issue_verify_code.lua");
+        }
+
+        @Bean
+        RedisScript<Long> consumeVerifyCodeScript() {
+            return script("lua/consume_verify_code.lua");
+        }
+
+        private static RedisScript<Long> script(String path) {
+            DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+            script.setLocation(new ClassPathResource(path));
+            script.setResultType(Long.class);
+            return script;
+        }
+    }
+}
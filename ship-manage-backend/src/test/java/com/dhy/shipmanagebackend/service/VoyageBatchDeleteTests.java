@@ -0,0 +1,141 @@
+package com.dhy.shipmanagebackend.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import com.dhy.shipmanagebackend.entity.Ship;
+import com.dhy.shipmanagebackend.entity.Voyage;
+import com.dhy.shipmanagebackend.mapper.ShipMapper;
+import com.dhy.shipmanagebackend.mapper.VoyageMapper;
+import com.dhy.shipmanagebackend.service.impl.VoyageServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 航次批量删除：删除执行中的航次时批量恢复船舶状态
+ * 连接 application.yml 中的数据库（需已执行 db/migration/V10），测试数据在事务中写入并回滚
+ */
+@MybatisPlusTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class VoyageBatchDeleteTests {
+
+    private static final int VOYAGES = 10_000;
+    private static final int SAILING_SHIPS = 50;
+    private static final int OTHER_SHIPS = 50;
+
+    @Autowired
+    private ShipMapper shipMapper;
+
+    @Autowired
+    private VoyageMapper voyageMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private VoyageServiceImpl voyageService;
+
+    /**
+     * 航行中的船舶：每艘有一个执行中的航次
+     */
+    private final List<Long> sailingShips = new ArrayList<>();
+
+    /**
+     * 其他船舶：航行中但批次内只有已完成的航次，或维修中
+     */
+    private final List<Long> otherShips = new ArrayList<>();
+
+    private final List<Long> voyageIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() throws Exception {
+        voyageService = new VoyageServiceImpl();
+        ReflectionTestUtils.setField(voyageService, "voyageMapper", voyageMapper);
+        ReflectionTestUtils.setField(voyageService, "shipMapper", shipMapper);
+        ReflectionTestUtils.setField(voyageService, "deleteChunkSize", 1000);
+
+        for (int i = 0; i < SAILING_SHIPS; i++) {
+            sailingShips.add(insertShip("航行中"));
+        }
+        for (int i = 0; i < OTHER_SHIPS; i++) {
+            otherShips.add(insertShip(i % 2 == 0 ? "航行中" : "维修中"));
+        }
+
+        // 使用测试事务中的连接批量写入，回滚时一并撤销
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO voyages (ship_id, status, start_time) VALUES (?, ?, NOW())",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < VOYAGES; i++) {
+                boolean running = i < SAILING_SHIPS;
+                long shipId = running ? sailingShips.get(i)
+                        : (i % 2 == 0 ? sailingShips.get(i % SAILING_SHIPS) : otherShips.get((i / 2) % OTHER_SHIPS));
+                insert.setLong(1, shipId);
+                insert.setString(2, running ? "执行中" : (i % 3 == 0 ? "计划中" : "已完成"));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                while (keys.next()) {
+                    voyageIds.add(keys.getLong(1));
+                }
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        assertEquals(VOYAGES, voyageIds.size());
+    }
+
+    @Test
+    void deleteBatchRestoresShipsOfRunningVoyages() {
+        // 重复 ID 和空值不影响结果
+        List<Long> request = new ArrayList<>(voyageIds);
+        request.addAll(voyageIds.subList(0, 100));
+        request.add(null);
+
+        assertEquals(VOYAGES, voyageService.deleteBatch(request));
+
+        List<Long> allShips = new ArrayList<>(sailingShips);
+        allShips.addAll(otherShips);
+        assertEquals(0L, voyageMapper.selectCount(new LambdaQueryWrapper<Voyage>().in(Voyage::getShipId, allShips)));
+        for (Long shipId : sailingShips) {
+            Ship ship = shipMapper.selectById(shipId);
+            assertEquals("在役", ship.getStatus());
+            assertEquals(1, ship.getVersion());
+        }
+        for (int i = 0; i < OTHER_SHIPS; i++) {
+            // 没有执行中航次的船舶保持原状态
+            Ship ship = shipMapper.selectById(otherShips.get(i));
+            assertEquals(i % 2 == 0 ? "航行中" : "维修中", ship.getStatus());
+            assertEquals(0, ship.getVersion());
+        }
+    }
+
+    @Test
+    void deleteBatchOfFinishedVoyagesKeepsShipStatus() {
+        assertEquals(VOYAGES - SAILING_SHIPS, voyageService.deleteBatch(voyageIds.subList(SAILING_SHIPS, VOYAGES)));
+        for (Long shipId : sailingShips) {
+            assertEquals("航行中", shipMapper.selectById(shipId).getStatus());
+        }
+    }
+
+    private Long insertShip(String status) {
+        Ship ship = new Ship();
+        ship.setName("voyage-batch-delete-test");
+        ship.setStatus(status);
+        shipMapper.insert(ship);
+        return ship.getId();
+    }
+}
@@ -0,0 +1,72 @@
+package com.dhy.shipmanagebackend.track;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 轨迹抽稀：直线航段只留首尾，转向点必须保留，点数上限生效
+ */
+class TrackSimplifierTests {
+
+    @Test
+    void straightLegKeepsEndpointsOnly() {
+        int n = 1000;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = 30.0 + i * 0.0001;
+            lon[i] = 122.0 + i * 0.0001;
+        }
+        boolean[] keep = TrackSimplifier.simplifyToLimit(lat, lon, n, 10, Integer.MAX_VALUE).keep();
+        assertTrue(keep[0]);
+        assertTrue(keep[n - 1]);
+        for (int i = 1; i < n - 1; i++) {
+            assertFalse(keep[i], "直线上的中间点不应保留: " + i);
+        }
+    }
+
+    @Test
+    void turningPointIsKept() {
+        // 先向北再向东，拐点在 500
+        int n = 1001;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = 30.0 + Math.min(i, 500) * 0.0001;
+            lon[i] = 122.0 + Math.max(0, i - 500) * 0.0001;
+        }
+        boolean[] keep = TrackSimplifier.simplifyToLimit(lat, lon, n, 10, Integer.MAX_VALUE).keep();
+        assertTrue(keep[500]);
+        int kept = 0;
+        for (boolean k : keep) {
+            kept += k ? 1 : 0;
+        }
+        assertEquals(3, kept);
+    }
+
+    @Test
+    void longNoisyTrackFitsPointLimit() {
+        // 一个月、每 10 秒一个点的曲折航迹
+        int n = 30 * 24 * 360;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = 20.0 + i * 0.00005 + Math.sin(i / 500.0) * 0.05;
+            lon[i] = 110.0 + i * 0.00008 + Math.cos(i / 700.0) * 0.05;
+        }
+        TrackSimplifier.Result result = TrackSimplifier.simplifyToLimit(lat, lon, n, 50, 200);
+        assertTrue(result.kept() <= 200, "点数超限: " + result.kept());
+        assertTrue(result.keep()[0] && result.keep()[n - 1]);
+        assertTrue(result.tolerance() >= 50);
+    }
+
+    @Test
+    void crossingDateLineUsesShortSide() {
+        // 179.9 → -179.9 实际只相距 0.2 度经度
+        double distance = TrackSimplifier.distanceToSegment(0.0, 180.0, 0.0, 179.9, 0.0, -179.9);
+        assertTrue(distance < 1, "日界线两侧的点应视为在航段上: " + distance);
+    }
+}
@@ -0,0 +1,102 @@
+package com.dhy.shipmanagebackend.utils;
+
+import com.dhy.shipmanagebackend.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BCrypt 准入闸门：正常加密校验、排队已满时快速失败、排队超时后释放名额
+ */
+class BcryptUtilTests {
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(BcryptUtil.class, "instance", null);
+    }
+
+    @Test
+    void encodesAndMatchesThroughTheGate() {
+        BcryptUtil gate = gate(2, 10, 1000);
+
+        String hash = BcryptUtil.encode("secret");
+
+        assertTrue(BcryptUtil.match("secret", hash));
+        assertFalse(BcryptUtil.match("wrong", hash));
+        assertEquals(3L, gate.stats().get("completed"));
+    }
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFull() throws Exception {
+        BcryptUtil gate = gate(1, 0, 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = hold(gate, release);
+
+        long start = System.nanoTime();
+        assertThrows(ServiceBusyException.class, () -> execute(gate, () -> true));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(1L, gate.stats().get("rejected"));
+
+        release.countDown();
+        holder.join();
+        assertEquals(0, gate.stats().get("running"));
+    }
+
+    @Test
+    void queuedRequestGivesUpAfterMaxWait() throws Exception {
+        BcryptUtil gate = gate(1, 1, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = hold(gate, release);
+
+        assertThrows(ServiceBusyException.class, () -> execute(gate, () -> true));
+        assertEquals(0, gate.stats().get("queueDepth"));
+
+        release.countDown();
+        holder.join();
+        // 名额已归还，之后的请求正常执行
+        assertTrue(execute(gate, () -> true));
+    }
+
+    private static BcryptUtil gate(int concurrency, int queueCapacity, long maxWaitMs) {
+        BcryptUtil gate = new BcryptUtil();
+        ReflectionTestUtils.setField(gate, "concurrency", concurrency);
+        ReflectionTestUtils.setField(gate, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(gate, "maxWaitMs", maxWaitMs);
+        ReflectionTestUtils.setField(gate, "retryAfterSeconds", 3);
+        gate.init();
+        return gate;
+    }
+
+    /**
+     * 在另一个线程中占住一个计算名额，直到 release 打开
+     */
+    private static Thread hold(BcryptUtil gate, CountDownLatch release) throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        Thread thread = new Thread(() -> execute(gate, () -> {
+            running.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        thread.start();
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        return thread;
+    }
+
+    private static boolean execute(BcryptUtil gate, Supplier<Boolean> task) {
+        Boolean result = ReflectionTestUtils.invokeMethod(gate, "execute", task);
+        return Boolean.TRUE.equals(result);
+    }
+}
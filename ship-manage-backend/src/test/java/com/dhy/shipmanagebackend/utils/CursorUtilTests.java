@@ -0,0 +1,49 @@
+package com.dhy.shipmanagebackend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 分页游标：编解码往返、空游标表示第一页、篡改或字段数不符的游标被拒绝
+ */
+class CursorUtilTests {
+
+    @Test
+    void roundTripsSortKeys() {
+        String cursor = CursorUtil.encode("2024-05-01T08:00:00", 42L);
+
+        assertArrayEquals(new String[]{"2024-05-01T08:00:00", "42"}, CursorUtil.decode(cursor, 2));
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = CursorUtil.encode("??>>", 1);
+
+        assertEquals(-1, cursor.indexOf('+'));
+        assertEquals(-1, cursor.indexOf('/'));
+        assertEquals(-1, cursor.indexOf('='));
+    }
+
+    @Test
+    void emptyCursorMeansFirstPage() {
+        assertNull(CursorUtil.decode(null, 2));
+        assertNull(CursorUtil.decode("", 2));
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> CursorUtil.decode("not base64!", 2));
+        assertEquals("无效的分页游标", e.getMessage());
+
+        String threeParts = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("a|b|c".getBytes(StandardCharsets.UTF_8));
+        assertThrows(RuntimeException.class, () -> CursorUtil.decode(threeParts, 2));
+    }
+}
@@ -0,0 +1,62 @@
+package com.dhy.shipmanagebackend.utils;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.dhy.shipmanagebackend.entity.LoginUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JWT 工具类：签发与解析往返、过期时间、篡改和换密钥后的令牌被拒绝
+ */
+class JwtUtilTests {
+
+    private static final String SECRET = "test-secret-key-with-at-least-32-characters";
+
+    @Test
+    void parsesWhatItSigned() {
+        init(SECRET, 12);
+        long before = System.currentTimeMillis();
+
+        LoginUser parsed = JwtUtil.parseToken(JwtUtil.genToken(new LoginUser(42L, "alice", "ADMIN")));
+
+        assertEquals(42L, parsed.getId());
+        assertEquals("alice", parsed.getUsername());
+        assertEquals("ADMIN", parsed.getRole());
+        long lifetime = parsed.getExpiresAt().getTime() - before;
+        assertTrue(Math.abs(lifetime - TimeUnit.HOURS.toMillis(12)) < 5_000, "lifetime " + lifetime);
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        init(SECRET, 12);
+        String token = JwtUtil.genToken(new LoginUser(42L, "alice", "USER"));
+        String[] parts = token.split("\\.");
+        String forged = JwtUtil.genToken(new LoginUser(1L, "root", "ADMIN")).split("\\.")[1];
+
+        assertThrows(JWTVerificationException.class,
+                () -> JwtUtil.parseToken(parts[0] + "." + forged + "." + parts[2]));
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherSecret() {
+        init("another-secret-key-with-at-least-32-characters", 12);
+        String token = JwtUtil.genToken(new LoginUser(42L, "alice", "USER"));
+
+        init(SECRET, 12);
+
+        assertThrows(JWTVerificationException.class, () -> JwtUtil.parseToken(token));
+    }
+
+    private static void init(String secret, int expirationHours) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretKey", secret);
+        ReflectionTestUtils.setField(jwtUtil, "expirationHours", expirationHours);
+        jwtUtil.init();
+    }
+}
@@ -70,3 +70,34 @@ export const getExpiringCertificatesService = () => {
 export const getExpiredCertificatesService = () => {
     return request.get('/certificate/expired')
 }
+
+/**
+ * 游标分页获取即将到期的证书
+ * @param {Object} params - { cursor, size }，首次不传 cursor
+ */
+export const getExpiringCertificatesByCursorService = (params) => {
+    return request.get('/certificate/expiring/cursor', { params })
+}
+
+/**
+ * 游标分页获取已过期的证书
+ * @param {Object} params - { cursor, size }
+ */
+export const getExpiredCertificatesByCursorService = (params) => {
+    return request.get('/certificate/expired/cursor', { params })
+}
+
+/**
+ * 获取船队证书合规概览
+ */
+export const getComplianceSummaryService = () => {
+    return request.get('/certificate/compliance')
+}
+
+/**
+ * 游标分页获取各船舶证书合规情况
+ * @param {Object} params - { cursor, size, status }
+ */
+export const getShipComplianceService = (params) => {
+    return request.get('/certificate/compliance/ships', { params })
+}
@@ -5,6 +5,20 @@
 
 import request from '@/utils/request'
 
+/**
+ * 批量导入燃油记录(CSV/XLSX)
+ * 返回 { importId, total, imported, failed, errors: [{ row, message }], errorsTruncated }
+ * 导入进度通过推送事件 import 发送
+ * @param {File} file - 导入文件
+ */
+export const importFuelRecordsService = (file) => {
+    const fd = new FormData()
+    fd.append('file', file)
+    return request.post('/fuel/import', fd, {
+        headers: { 'Content-Type': 'multipart/form-data' }
+    })
+}
+
 /**
  * 获取燃油记录列表(分页)
  * @param {Object} params - 查询参数
@@ -74,6 +88,25 @@ export const getMonthlyFuelStatsService = (shipId) => {
     return request.get(`/fuel/stats/monthly/${shipId}`)
 }
 
+/**
+ * 燃油时间序列
+ * 返回 { granularity, columns, rows }，rows 每行为 [shipId, bucket, fuelType, quantity, cost, recordCount]
+ * @param {Object} params - { shipIds: number[], fuelType, startDate, endDate, granularity: day/week/month/quarter }
+ */
+export const getFuelSeriesService = ({ shipIds, ...params }) => {
+    return request.get('/fuel/stats/series', {
+        params: { ...params, shipIds: shipIds && shipIds.length ? shipIds.join(',') : undefined }
+    })
+}
+
+/**
+ * 全船队燃油分析（管理员）
+ * @param {Object} params - { startDate, endDate, top }
+ */
+export const getFleetFuelAnalyticsService = (params) => {
+    return request.get('/fuel/analytics/fleet', { params })
+}
+
 /**
  * 获取燃油消耗统计概览
  */
@@ -13,6 +13,8 @@ import request from '@/utils/request'
  * @param {string} params.username - 用户名(可选)
  * @param {string} params.module - 模块(可选)
  * @param {string} params.operation - 操作类型(可选)
+ * @param {string} params.startTime - 起始时间 yyyy-MM-dd HH:mm:ss(可选)
+ * @param {string} params.endTime - 结束时间 yyyy-MM-dd HH:mm:ss(可选)
  */
 export const getLogsService = (params) => {
     return request.get('/log', { params })
@@ -17,6 +17,14 @@ export const getMessagesService = (params) => {
     return request.get('/message', { params })
 }
 
+/**
+ * 获取消息列表（游标分页，不返回总数）
+ * @param {Object} params - { cursor, size, type, status }，cursor 传上一页返回的 nextCursor
+ */
+export const getMessagesByCursorService = (params) => {
+    return request.get('/message/cursor', { params })
+}
+
 /**
  * 获取未读消息数量
  */
@@ -24,12 +32,37 @@ export const getUnreadCountService = () => {
     return request.get('/message/unread-count')
 }
 
+/**
+ * 获取推送连接的一次性票据（短期有效，建立一次连接后失效）
+ */
+export const getStreamTicketService = () => {
+    return request.post('/message/stream/ticket')
+}
+
 /**
  * 标记消息为已读
  * @param {number} messageId - 消息ID
+ * @param {boolean} broadcast - 是否为广播消息
  */
-export const markAsReadService = (messageId) => {
-    return request.put(`/message/read/${messageId}`)
+export const markAsReadService = (messageId, broadcast = false) => {
+    return request.put(`/message/read/${messageId}`, null, { params: { broadcast } })
+}
+
+/**
+ * 按个人消息/广播消息拆分 ID
+ * @param {Array} messages - 消息列表
+ */
+const splitIds = (messages) => ({
+    ids: messages.filter(m => !m.broadcast).map(m => m.id),
+    broadcastIds: messages.filter(m => m.broadcast).map(m => m.id)
+})
+
+/**
+ * 批量标记消息为已读（一次请求）
+ * @param {Array} messages - 选中的消息
+ */
+export const markAsReadBatchService = (messages) => {
+    return request.put('/message/read/batch', splitIds(messages))
 }
 
 /**
@@ -42,9 +75,26 @@ export const markAllAsReadService = () => {
 /**
  * 删除消息
  * @param {number} messageId - 消息ID
+ * @param {boolean} broadcast - 是否为广播消息
+ */
+export const deleteMessageService = (messageId, broadcast = false) => {
+    return request.delete(`/message/${messageId}`, { params: { broadcast } })
+}
+
+/**
+ * 批量删除消息（一次请求）
+ * @param {Array} messages - 选中的消息
+ */
+export const deleteMessagesBatchService = (messages) => {
+    return request.delete('/message/batch', { data: splitIds(messages) })
+}
+
+/**
+ * 清空消息
+ * @param {string} status - 只清空该状态(READ/UNREAD)的消息，不传表示全部
  */
-export const deleteMessageService = (messageId) => {
-    return request.delete(`/message/${messageId}`)
+export const clearMessagesService = (status) => {
+    return request.delete('/message/all', { params: { status } })
 }
 
 /**
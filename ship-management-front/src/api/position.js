@@ -0,0 +1,26 @@
+/**
+ * @file 船舶位置轨迹 API 接口
+ * @description 封装定位点上报与航次轨迹查询接口
+ */
+
+import request from '@/utils/request'
+
+/**
+ * 批量上报定位点
+ * 返回 { received, accepted, rejected, dropped }
+ * @param {Array} fixes - [{ shipId, recordedAt, latitude, longitude, speed, course }]
+ */
+export const ingestPositionsService = (fixes) => {
+    return request.post('/positions', fixes)
+}
+
+/**
+ * 获取航次轨迹(服务端抽稀)
+ * 返回 { startTime, endTime, rawPoints, points, toleranceMeters, columns: ['t','lat','lon','speed','course'], rows }
+ * t 为距 startTime 的秒数
+ * @param {number} id - 航次ID
+ * @param {Object} params - { tolerance: 抽稀容差(米), maxPoints: 最多点数 }
+ */
+export const getVoyageTrackService = (id, params = {}) => {
+    return request.get('/voyages/track', { params: { id, ...params } })
+}
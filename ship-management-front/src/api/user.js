@@ -92,6 +92,15 @@ export const userInfoService = () => {
     return request.get('/user/info')
 }
 
+/**
+ * 退出登录
+ * @description 通知后端吊销当前 Token
+ * @returns {Promise<AxiosResponse>} 返回退出结果
+ */
+export const userLogoutService = () => {
+    return request.post('/user/logout')
+}
+
 /**
  * 邮箱验证码重置密码
  * @description 通过邮箱和验证码重置用户密码，无需登录
@@ -0,0 +1,138 @@
+/**
+ * @file 消息推送
+ * @description 基于 SSE（EventSource）接收新消息与未读数变化，页面内多个组件共享同一条连接
+ *
+ * 事件：
+ * message  新消息 { id, title, type, broadcast }
+ * unread   未读数变化 { delta } 或 { count }
+ * import   批量导入进度 { importId, processed, imported, failed, done }
+ * status   连接状态 true / false，断开期间调用方可回退到定时轮询
+ */
+
+import { getStreamTicketService } from '@/api/message'
+
+const listeners = {
+  message: new Set(),
+  unread: new Set(),
+  import: new Set(),
+  status: new Set()
+}
+const pushEvents = ['message', 'unread', 'import']
+
+let source = null
+let retryTimer = null
+let connected = null
+/** 每次建立连接递增，用于丢弃 close 之后才返回的票据 */
+let generation = 0
+let opening = false
+
+/** 连接被拒绝（未登录、连接数已满）后重新建立连接的间隔 */
+const RETRY_INTERVAL = 30000
+/** 已建立的连接断开后重新建立连接的间隔 */
+const RECONNECT_INTERVAL = 5000
+
+const emit = (event, data) => {
+  if (event === 'status') connected = data
+  listeners[event].forEach(handler => handler(data))
+}
+
+const open = async () => {
+  retryTimer = null
+  const token = localStorage.getItem('token')
+  if (!token || typeof EventSource === 'undefined') {
+    emit('status', false)
+    return
+  }
+  // EventSource 无法设置请求头，先用请求头中的令牌换取一次性票据，URL 中不出现令牌
+  const current = ++generation
+  opening = true
+  let ticket
+  try {
+    ticket = (await getStreamTicketService()).data
+  } catch (error) {
+    if (current === generation) {
+      opening = false
+      emit('status', false)
+      retryTimer = setTimeout(open, RETRY_INTERVAL)
+    }
+    return
+  }
+  if (current !== generation) {
+    return
+  }
+  opening = false
+  let opened = false
+  source = new EventSource('/api/message/stream?ticket=' + encodeURIComponent(ticket))
+  source.onopen = () => {
+    opened = true
+    emit('status', true)
+  }
+  pushEvents.forEach(name => {
+    source.addEventListener(name, e => {
+      try {
+        emit(name, JSON.parse(e.data))
+      } catch (error) {
+        console.error('推送消息解析失败', error)
+      }
+    })
+  })
+  source.onerror = () => {
+    emit('status', false)
+    // 票据只能使用一次，不依赖浏览器自动重连，关闭后换取新票据重新连接；
+    // 连接从未建立（被拒绝、连接数已满）时间隔更长
+    if (source) {
+      source.close()
+      source = null
+    }
+    retryTimer = setTimeout(open, opened ? RECONNECT_INTERVAL : RETRY_INTERVAL)
+  }
+}
+
+const close = () => {
+  generation++
+  opening = false
+  if (retryTimer) {
+    clearTimeout(retryTimer)
+    retryTimer = null
+  }
+  if (source) {
+    source.close()
+    source = null
+  }
+  connected = null
+}
+
+/**
+ * 订阅推送事件，首个订阅时建立连接，最后一个订阅取消时断开
+ * @param {'message'|'unread'|'import'|'status'} event - 事件名
+ * @param {Function} handler - 回调
+ * @returns {Function} 取消订阅
+ */
+export const subscribePush = (event, handler) => {
+  listeners[event].add(handler)
+  if (!source && !retryTimer && !opening) {
+    open()
+  } else if (event === 'status' && connected !== null) {
+    // 连接已由其他组件建立，补发当前状态
+    handler(connected)
+  }
+  return () => {
+    listeners[event].delete(handler)
+    if (Object.values(listeners).every(set => set.size === 0)) {
+      close()
+    }
+  }
+}
+
+/**
+ * 按推送的未读数事件计算新的未读数
+ * @param {number} current - 当前未读数
+ * @param {{ delta?: number, count?: number }} data - 推送数据
+ * @returns {number}
+ */
+export const applyUnreadEvent = (current, data) => {
+  if (data.count !== undefined) {
+    return data.count
+  }
+  return Math.max(0, current + (data.delta || 0))
+}
@@ -63,6 +63,11 @@ service.interceptors.response.use(
       ElMessage.error('登录已过期，请重新登录')
       localStorage.removeItem('token')
       location.reload()
+    } else if (error.response && error.response.status === 429) {
+      // HTTP 状态码 429：服务繁忙（如登录高峰），按 Retry-After 提示稍后重试
+      const retryAfter = error.response.headers['retry-after']
+      const message = error.response.data?.message || '服务繁忙'
+      ElMessage.warning(retryAfter ? `${message}（约 ${retryAfter} 秒后重试）` : message)
     } else {
       // 其他错误
       ElMessage.error(error.message || '网络错误')